@@ -0,0 +1,116 @@
+package in.dragonbra.javasteam.benchmark;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Locale;
+import java.util.concurrent.Callable;
+
+/**
+ * Times an operation and counts the bytes it allocates on the calling thread. Every measurement starts with warm-up
+ * rounds, so the JIT has compiled the code before it is timed. The numbers are only comparable between runs on the
+ * same machine and JVM.
+ */
+public final class Benchmark {
+
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+    // results are folded into this field, so the JIT cannot drop the measured code as dead
+    private static volatile int sink;
+
+    private Benchmark() {
+    }
+
+    /**
+     * Runs the operation for the given number of warm-up and measured rounds and prints the averages.
+     *
+     * @param name      the name to print.
+     * @param warmup    the number of rounds that are not measured.
+     * @param rounds    the number of measured rounds.
+     * @param operation the operation, its result is consumed so the work is not optimized away.
+     * @return the average time of an operation in nanoseconds.
+     * @throws Exception if the operation throws.
+     */
+    public static double run(String name, int warmup, int rounds, Callable<?> operation) throws Exception {
+        for (int i = 0; i < warmup; i++) {
+            consume(operation.call());
+        }
+
+        long allocatedBefore = allocatedBytes();
+        long start = System.nanoTime();
+
+        for (int i = 0; i < rounds; i++) {
+            consume(operation.call());
+        }
+
+        long elapsed = System.nanoTime() - start;
+        long allocatedAfter = allocatedBytes();
+
+        double nanosPerOp = (double) elapsed / rounds;
+        String allocated = allocatedBefore < 0 ? "n/a" : String.format(Locale.ROOT, "%,d",
+                (allocatedAfter - allocatedBefore) / rounds);
+
+        System.out.println(String.format(Locale.ROOT, "%-48s %,14.0f ns/op %,12.1f ops/s %14s B/op",
+                name, nanosPerOp, 1e9 / nanosPerOp, allocated));
+
+        return nanosPerOp;
+    }
+
+    /**
+     * Prints a line of the report.
+     *
+     * @param format the format string.
+     * @param args   the arguments.
+     */
+    public static void report(String format, Object... args) {
+        System.out.println(String.format(Locale.ROOT, format, args));
+    }
+
+    /**
+     * @return the heap in use after a full collection, in bytes.
+     */
+    public static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        long used = Long.MAX_VALUE;
+
+        // a single call to gc is only a hint, take the lowest of a few
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+
+            try {
+                Thread.sleep(50L);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+
+            used = Math.min(used, runtime.totalMemory() - runtime.freeMemory());
+        }
+
+        return used;
+    }
+
+    /**
+     * Keeps a value alive, so the computation that produced it is not optimized away.
+     *
+     * @param value the value.
+     */
+    public static void consume(Object value) {
+        if (value != null) {
+            sink += System.identityHashCode(value);
+        }
+    }
+
+    private static long allocatedBytes() {
+        if (!(THREADS instanceof com.sun.management.ThreadMXBean)) {
+            return -1L;
+        }
+
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) THREADS;
+
+        if (!threads.isThreadAllocatedMemorySupported() || !threads.isThreadAllocatedMemoryEnabled()) {
+            return -1L;
+        }
+
+        return threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+}
@@ -0,0 +1,60 @@
+package in.dragonbra.javasteam.benchmark;
+
+import java.util.Arrays;
+
+/**
+ * Runs the benchmarks. Without arguments all of them run, otherwise the first argument names the benchmark and the
+ * rest are passed on to it.
+ * <pre>
+ * gradle benchmark
+ * gradle benchmark -Pbenchmark=kvtext -PbenchmarkArgs="appinfo.vdf items_game.txt"
+ * </pre>
+ */
+public final class Benchmarks {
+
+    private static final String[] NAMES = {"kvtext", "kvmemory", "batching", "bufferpool", "startup", "events"};
+
+    private Benchmarks() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length == 0) {
+            for (String name : NAMES) {
+                run(name, new String[0]);
+            }
+            return;
+        }
+
+        run(args[0], Arrays.copyOfRange(args, 1, args.length));
+    }
+
+    private static void run(String name, String[] args) throws Exception {
+        Benchmark.report("# %s", name);
+
+        switch (name) {
+            case "kvtext":
+                KVTextReaderBenchmark.main(args);
+                break;
+            case "kvmemory":
+                KeyValueMemoryBenchmark.main(args);
+                break;
+            case "batching":
+                MessageBatchingBenchmark.main(args);
+                break;
+            case "bufferpool":
+                BufferPoolBenchmark.main(args);
+                break;
+            case "startup":
+                StartupBenchmark.main(args);
+                break;
+            case "events":
+                EventDispatchBenchmark.main(args);
+                break;
+            default:
+                throw new IllegalArgumentException("unknown benchmark " + name + ", expected one of "
+                        + Arrays.toString(NAMES));
+        }
+
+        Benchmark.report("");
+    }
+}
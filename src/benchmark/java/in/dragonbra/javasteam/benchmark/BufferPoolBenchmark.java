@@ -0,0 +1,105 @@
+package in.dragonbra.javasteam.benchmark;
+
+import in.dragonbra.javasteam.util.BufferPool;
+import in.dragonbra.javasteam.util.stream.PooledOutputStream;
+
+import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Measures the garbage created by framing batches of packets and compressing multi envelopes, the two transient
+ * buffers of the send path, once with a pool that keeps its buffers and once with a pool that keeps none, which
+ * allocates like the code before pooling did.
+ */
+public final class BufferPoolBenchmark {
+
+    private static final int ROUNDS = 20000;
+
+    private BufferPoolBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Random random = new Random(1L);
+        final byte[][] packets = new byte[8][];
+
+        for (int i = 0; i < packets.length; i++) {
+            packets[i] = new byte[512 + random.nextInt(16 * 1024)];
+            random.nextBytes(packets[i]);
+        }
+
+        run("unpooled", new BufferPool(256, 1024 * 1024, 0), packets);
+        run("pooled", new BufferPool(256, 1024 * 1024, 32), packets);
+    }
+
+    private static void run(String name, final BufferPool pool, final byte[][] packets) throws Exception {
+        long collections = collections();
+        long collectionTime = collectionTime();
+
+        Benchmark.run(name + " send path", ROUNDS / 10, ROUNDS, new Callable<Integer>() {
+            @Override
+            public Integer call() throws IOException {
+                return frame(pool, packets) + compress(pool, packets[0]);
+            }
+        });
+
+        Benchmark.report("%-48s %,14d GCs %,10d ms", name + " collections",
+                collections() - collections, collectionTime() - collectionTime);
+        Benchmark.report("%-48s %,14d", name + " buffers allocated by the pool", pool.getAllocations());
+    }
+
+    // the framing of TcpConnection.send
+    private static int frame(BufferPool pool, byte[][] packets) {
+        int length = 0;
+        for (byte[] packet : packets) {
+            length += 8 + packet.length;
+        }
+
+        byte[] buffer = pool.acquire(length);
+
+        try {
+            ByteBuffer frames = ByteBuffer.wrap(buffer).order(ByteOrder.LITTLE_ENDIAN);
+            for (byte[] packet : packets) {
+                frames.putInt(packet.length);
+                frames.putInt(0x31305456);
+                frames.put(packet);
+            }
+
+            return frames.position();
+        } finally {
+            pool.release(buffer);
+        }
+    }
+
+    // the compression of MultiMessageBatcher
+    private static int compress(BufferPool pool, byte[] payload) throws IOException {
+        PooledOutputStream compressed = new PooledOutputStream(pool, payload.length / 2);
+
+        try (GZIPOutputStream gzout = new GZIPOutputStream(compressed)) {
+            gzout.write(payload);
+            gzout.finish();
+            return compressed.size();
+        }
+    }
+
+    private static long collections() {
+        long count = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            count += Math.max(0, gc.getCollectionCount());
+        }
+        return count;
+    }
+
+    private static long collectionTime() {
+        long time = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            time += Math.max(0, gc.getCollectionTime());
+        }
+        return time;
+    }
+}
@@ -0,0 +1,145 @@
+package in.dragonbra.javasteam.benchmark;
+
+import in.dragonbra.javasteam.util.event.Event;
+import in.dragonbra.javasteam.util.event.EventArgs;
+import in.dragonbra.javasteam.util.event.EventHandler;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Measures how many events per second threads can raise on one {@link Event} while another thread keeps adding and
+ * removing a handler, for the copy-on-write {@link Event} and for the locked {@link HashSet} it replaced.
+ */
+public final class EventDispatchBenchmark {
+
+    private static final long WARMUP = 500L;
+
+    private static final long DURATION = 2000L;
+
+    private EventDispatchBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int[] threadCounts = {1, Math.max(2, Runtime.getRuntime().availableProcessors())};
+
+        for (int threads : threadCounts) {
+            for (boolean churn : new boolean[]{false, true}) {
+                String suffix = threads + " threads" + (churn ? ", handler churn" : "");
+
+                run("locked, " + suffix, new LockedEvent<EventArgs>(), threads, churn);
+                run("copy-on-write, " + suffix, new Event<EventArgs>(), threads, churn);
+            }
+        }
+    }
+
+    private static void run(String name, final Event<EventArgs> event, int threads, final boolean churn)
+            throws InterruptedException {
+        final AtomicLong handled = new AtomicLong();
+
+        for (int i = 0; i < 4; i++) {
+            event.addEventHandler(new EventHandler<EventArgs>() {
+                @Override
+                public void handleEvent(Object sender, EventArgs e) {
+                    Benchmark.consume(e);
+                }
+            });
+        }
+
+        final AtomicBoolean measuring = new AtomicBoolean();
+        final AtomicBoolean running = new AtomicBoolean(true);
+        final CountDownLatch done = new CountDownLatch(threads);
+        List<Thread> workers = new ArrayList<>();
+
+        for (int i = 0; i < threads; i++) {
+            workers.add(new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    long count = 0;
+
+                    while (running.get()) {
+                        event.handleEvent(this, EventArgs.EMPTY);
+
+                        if (measuring.get()) {
+                            count++;
+                        }
+                    }
+
+                    handled.addAndGet(count);
+                    done.countDown();
+                }
+            }, "dispatch"));
+        }
+
+        if (churn) {
+            workers.add(new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    EventHandler<EventArgs> handler = new EventHandler<EventArgs>() {
+                        @Override
+                        public void handleEvent(Object sender, EventArgs e) {
+                        }
+                    };
+
+                    while (running.get()) {
+                        event.addEventHandler(handler);
+                        event.removeEventHandler(handler);
+                    }
+                }
+            }, "churn"));
+        }
+
+        for (Thread worker : workers) {
+            worker.start();
+        }
+
+        Thread.sleep(WARMUP);
+        measuring.set(true);
+        Thread.sleep(DURATION);
+        measuring.set(false);
+        running.set(false);
+
+        done.await();
+
+        for (Thread worker : workers) {
+            worker.join();
+        }
+
+        Benchmark.report("%-48s %,14.0f events/s", name, handled.get() * 1000.0 / DURATION);
+    }
+
+    /**
+     * The event dispatch before the copy-on-write array: a hash set that is locked while the event is raised.
+     */
+    private static final class LockedEvent<T extends EventArgs> extends Event<T> {
+
+        private final HashSet<EventHandler<T>> handlers = new HashSet<>();
+
+        @Override
+        public void addEventHandler(EventHandler<T> handler) {
+            synchronized (handlers) {
+                handlers.add(handler);
+            }
+        }
+
+        @Override
+        public void removeEventHandler(EventHandler<T> handler) {
+            synchronized (handlers) {
+                handlers.remove(handler);
+            }
+        }
+
+        @Override
+        public void handleEvent(Object sender, T e) {
+            synchronized (handlers) {
+                for (EventHandler<T> handler : handlers) {
+                    handler.handleEvent(sender, e);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package in.dragonbra.javasteam.benchmark;
+
+import in.dragonbra.javasteam.types.IKeyValueVisitor;
+import in.dragonbra.javasteam.types.KeyValue;
+
+import java.io.ByteArrayInputStream;
+import java.util.concurrent.Callable;
+
+/**
+ * Measures the text KeyValue tokenizer on app info and items_game.txt sized documents: reporting the tokens to a
+ * visitor, which is the cost of the tokenizer alone, and building trees from bytes and from strings. Pass paths of
+ * real documents to measure those instead of the generated ones.
+ */
+public final class KVTextReaderBenchmark {
+
+    private KVTextReaderBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length == 0) {
+            run("appinfo", SampleData.appInfo(2000));
+            run("items_game", SampleData.itemsGame(20000));
+            return;
+        }
+
+        for (String path : args) {
+            run(path, SampleData.read(path));
+        }
+    }
+
+    private static void run(String name, final String text) throws Exception {
+        final byte[] bytes = text.getBytes(SampleData.UTF8);
+
+        Benchmark.report("%s: %,d bytes", name, bytes.length);
+
+        double nanos = Benchmark.run(name + " visitText", 5, 20, new Callable<Integer>() {
+            @Override
+            public Integer call() throws Exception {
+                CountingVisitor visitor = new CountingVisitor();
+                KeyValue.visitText(new ByteArrayInputStream(bytes), visitor);
+                return visitor.values;
+            }
+        });
+
+        Benchmark.report("%-48s %,14.1f MB/s", name + " tokenizer", bytes.length / nanos * 1e3);
+
+        Benchmark.run(name + " readAsText", 5, 20, new Callable<KeyValue>() {
+            @Override
+            public KeyValue call() throws Exception {
+                KeyValue kv = new KeyValue();
+                kv.readAsText(new ByteArrayInputStream(bytes));
+                return kv;
+            }
+        });
+
+        Benchmark.run(name + " loadFromString", 5, 20, new Callable<KeyValue>() {
+            @Override
+            public KeyValue call() {
+                return KeyValue.loadFromString(text);
+            }
+        });
+    }
+
+    private static final class CountingVisitor implements IKeyValueVisitor {
+
+        int values;
+
+        @Override
+        public boolean startObject(String name) {
+            return true;
+        }
+
+        @Override
+        public boolean value(String name, String value) {
+            values++;
+            return true;
+        }
+
+        @Override
+        public boolean endObject() {
+            return true;
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package in.dragonbra.javasteam.benchmark;
+
+import in.dragonbra.javasteam.types.KeyValue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Measures the heap retained by the app info of many apps, each parsed into its own tree like PICS hands them out,
+ * before and after {@link KeyValue#freeze()} shares the keys and compacts the trees. The first argument sets the
+ * number of apps.
+ */
+public final class KeyValueMemoryBenchmark {
+
+    private KeyValueMemoryBenchmark() {
+    }
+
+    public static void main(String[] args) {
+        int apps = args.length > 0 ? Integer.parseInt(args[0]) : 20000;
+
+        List<String> texts = new ArrayList<>(apps);
+        for (int i = 0; i < apps; i++) {
+            texts.add(SampleData.app(10 + i * 10));
+        }
+
+        long empty = Benchmark.usedHeap();
+
+        List<KeyValue> trees = new ArrayList<>(apps);
+        for (String text : texts) {
+            trees.add(KeyValue.loadFromString(text));
+        }
+
+        long parsed = Benchmark.usedHeap() - empty;
+
+        for (KeyValue tree : trees) {
+            tree.freeze();
+        }
+
+        long frozen = Benchmark.usedHeap() - empty;
+
+        Benchmark.report("%,d apps", apps);
+        Benchmark.report("%-48s %,14d B %,10d B/app", "parsed", parsed, parsed / apps);
+        Benchmark.report("%-48s %,14d B %,10d B/app", "frozen", frozen, frozen / apps);
+        Benchmark.report("%-48s %14.2f x", "reduction", (double) parsed / frozen);
+
+        Benchmark.consume(trees);
+    }
+}
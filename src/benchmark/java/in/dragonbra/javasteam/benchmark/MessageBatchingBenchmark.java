@@ -0,0 +1,86 @@
+package in.dragonbra.javasteam.benchmark;
+
+import in.dragonbra.javasteam.base.ClientMsgProtobuf;
+import in.dragonbra.javasteam.enums.EMsg;
+import in.dragonbra.javasteam.networking.steam3.MessageBatching;
+import in.dragonbra.javasteam.networking.steam3.MultiMessageBatcher;
+import in.dragonbra.javasteam.networking.steam3.NetFilterEncryptionWithHMAC;
+import in.dragonbra.javasteam.protobufs.steamclient.SteammessagesClientserverFriends.CMsgClientRequestFriendData;
+import in.dragonbra.javasteam.steam.steamclient.SteamClient;
+import in.dragonbra.javasteam.types.SteamID;
+import in.dragonbra.javasteam.util.crypto.CryptoHelper;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+/**
+ * Measures the send path of a burst of small friend data requests: encrypting every message as its own frame, and
+ * packing the burst into multi envelopes first, with and without compression. The first argument sets the number of
+ * messages in a burst.
+ */
+public final class MessageBatchingBenchmark {
+
+    private MessageBatchingBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int burst = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+
+        final List<byte[]> messages = new ArrayList<>(burst);
+        for (int i = 0; i < burst; i++) {
+            ClientMsgProtobuf<CMsgClientRequestFriendData.Builder> request =
+                    new ClientMsgProtobuf<>(CMsgClientRequestFriendData.class, EMsg.ClientRequestFriendData);
+            request.getBody().addFriends(new SteamID(76561197960265728L + i).convertToUInt64());
+            request.getBody().setPersonaStateRequested(1106);
+            messages.add(request.serialize());
+        }
+
+        final NetFilterEncryptionWithHMAC filter = new NetFilterEncryptionWithHMAC(CryptoHelper.generateRandomBlock(32));
+        SteamClient client = new SteamClient();
+
+        Benchmark.report("%,d messages per burst", burst);
+
+        double single = Benchmark.run("one frame per message", 20, 200, new Callable<Integer>() {
+            @Override
+            public Integer call() {
+                return encrypt(filter, messages);
+            }
+        });
+
+        final MultiMessageBatcher batcher = new MultiMessageBatcher(client,
+                new MessageBatching(0L, 64 * 1024, Integer.MAX_VALUE));
+        final MultiMessageBatcher compressing = new MultiMessageBatcher(client,
+                new MessageBatching(0L, 64 * 1024, 1024));
+
+        Benchmark.report("%-48s %,14d frames", "batched", batcher.pack(messages).size());
+
+        double batched = Benchmark.run("batched", 20, 200, new Callable<Integer>() {
+            @Override
+            public Integer call() {
+                return encrypt(filter, batcher.pack(messages));
+            }
+        });
+
+        double compressed = Benchmark.run("batched and compressed", 20, 200, new Callable<Integer>() {
+            @Override
+            public Integer call() {
+                return encrypt(filter, compressing.pack(messages));
+            }
+        });
+
+        Benchmark.report("%-48s %14.2f x", "batched speedup", single / batched);
+        Benchmark.report("%-48s %14.2f x", "batched and compressed speedup", single / compressed);
+    }
+
+    // returns the bytes that would go on the wire
+    private static int encrypt(NetFilterEncryptionWithHMAC filter, List<byte[]> packets) {
+        int bytes = 0;
+
+        for (byte[] packet : packets) {
+            bytes += filter.processOutgoing(packet).length;
+        }
+
+        return bytes;
+    }
+}
@@ -0,0 +1,148 @@
+package in.dragonbra.javasteam.benchmark;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.util.Random;
+
+/**
+ * Generates text KeyValues shaped like the documents the library parses: PICS app info and the items_game.txt schema
+ * of the game coordinator. The generators are seeded, so every run parses the same input.
+ */
+final class SampleData {
+
+    static final Charset UTF8 = Charset.forName("UTF-8");
+
+    private SampleData() {
+    }
+
+    /**
+     * @param apps the number of apps.
+     * @return a document with the app info of the given number of apps.
+     */
+    static String appInfo(int apps) {
+        Random random = new Random(42L);
+        StringBuilder sb = new StringBuilder(apps * 1024);
+
+        sb.append("\"apps\"\n{\n");
+
+        for (int i = 0; i < apps; i++) {
+            sb.append(app(random, 10 + i * 10));
+        }
+
+        return sb.append("}\n").toString();
+    }
+
+    /**
+     * @param appID the ID of the app.
+     * @return the app info of a single app, as PICS hands it out.
+     */
+    static String app(int appID) {
+        return app(new Random(appID), appID);
+    }
+
+    private static String app(Random random, int appID) {
+        StringBuilder sb = new StringBuilder(1024);
+
+        sb.append("\"").append(appID).append("\"\n{\n")
+                .append("\t\"appid\"\t\"").append(appID).append("\"\n")
+                .append("\t\"common\"\n\t{\n")
+                .append("\t\t\"name\"\t\"Game ").append(appID).append(" – Ünïcödé 游戏\"\n")
+                .append("\t\t\"type\"\t\"Game\"\n")
+                .append("\t\t\"oslist\"\t\"windows,macos,linux\"\n")
+                .append("\t\t\"gameid\"\t\"").append(appID).append("\"\n")
+                .append("\t\t\"metacritic_score\"\t\"").append(50 + random.nextInt(50)).append("\"\n")
+                .append("\t\t\"associations\"\n\t\t{\n")
+                .append("\t\t\t\"0\"\n\t\t\t{\n")
+                .append("\t\t\t\t\"type\"\t\"developer\"\n")
+                .append("\t\t\t\t\"name\"\t\"Studio \\\"").append(random.nextInt(1000)).append("\\\"\"\n")
+                .append("\t\t\t}\n\t\t}\n\t}\n")
+                .append("\t\"config\"\n\t{\n")
+                .append("\t\t\"installdir\"\t\"Game ").append(appID).append("\"\n")
+                .append("\t\t\"launch\"\n\t\t{\n")
+                .append("\t\t\t\"0\"\n\t\t\t{\n")
+                .append("\t\t\t\t\"executable\"\t\"bin\\\\game.exe\"\n")
+                .append("\t\t\t\t\"arguments\"\t\"-novid -console\"\n")
+                .append("\t\t\t\t\"config\"\n\t\t\t\t{\n")
+                .append("\t\t\t\t\t\"oslist\"\t\"windows\"\n")
+                .append("\t\t\t\t}\n\t\t\t}\n\t\t}\n\t}\n")
+                .append("\t\"depots\"\n\t{\n");
+
+        int depots = 1 + random.nextInt(4);
+
+        for (int i = 1; i <= depots; i++) {
+            sb.append("\t\t\"").append(appID + i).append("\"\n\t\t{\n")
+                    .append("\t\t\t\"config\"\n\t\t\t{\n")
+                    .append("\t\t\t\t\"oslist\"\t\"windows\"\n")
+                    .append("\t\t\t}\n")
+                    .append("\t\t\t\"manifests\"\n\t\t\t{\n")
+                    .append("\t\t\t\t\"public\"\t\"").append(random.nextLong() & Long.MAX_VALUE).append("\"\n")
+                    .append("\t\t\t}\n")
+                    .append("\t\t\t\"maxsize\"\t\"").append(random.nextInt(Integer.MAX_VALUE)).append("\"\n")
+                    .append("\t\t}\n");
+        }
+
+        sb.append("\t\t\"branches\"\n\t\t{\n")
+                .append("\t\t\t\"public\"\n\t\t\t{\n")
+                .append("\t\t\t\t\"buildid\"\t\"").append(random.nextInt(10000000)).append("\"\n")
+                .append("\t\t\t\t\"timeupdated\"\t\"").append(1500000000 + random.nextInt(100000000)).append("\"\n")
+                .append("\t\t\t}\n\t\t}\n\t}\n");
+
+        return sb.append("}\n").toString();
+    }
+
+    /**
+     * @param items the number of items.
+     * @return an items_game.txt like schema with the given number of items.
+     */
+    static String itemsGame(int items) {
+        Random random = new Random(7L);
+        StringBuilder sb = new StringBuilder(items * 512);
+
+        sb.append("\"items_game\"\n{\n\t\"items\"\n\t{\n");
+
+        for (int i = 0; i < items; i++) {
+            sb.append("\t\t\"").append(i).append("\"\n\t\t{\n")
+                    .append("\t\t\t\"name\"\t\"item_").append(i).append("\"\n")
+                    .append("\t\t\t\"prefab\"\t\"weapon_base\"\n")
+                    .append("\t\t\t\"item_class\"\t\"tf_weapon_").append(random.nextInt(40)).append("\"\n")
+                    .append("\t\t\t\"item_quality\"\t\"unique\"\n")
+                    .append("\t\t\t\"min_ilevel\"\t\"1\"\n")
+                    .append("\t\t\t\"max_ilevel\"\t\"").append(1 + random.nextInt(100)).append("\"\n")
+                    .append("\t\t\t\"image_inventory\"\t\"backpack/weapons/w_models/item_").append(i).append("\"\n")
+                    .append("\t\t\t\"attributes\"\n\t\t\t{\n")
+                    .append("\t\t\t\t\"damage bonus\"\n\t\t\t\t{\n")
+                    .append("\t\t\t\t\t\"attribute_class\"\t\"mult_dmg\"\n")
+                    .append("\t\t\t\t\t\"value\"\t\"1.").append(random.nextInt(100)).append("\"\n")
+                    .append("\t\t\t\t}\n")
+                    .append("\t\t\t}\n")
+                    .append("\t\t\t\"used_by_classes\"\n\t\t\t{\n")
+                    .append("\t\t\t\t\"soldier\"\t\"1\"\n")
+                    .append("\t\t\t}\n")
+                    .append("\t\t}\n");
+        }
+
+        return sb.append("\t}\n}\n").toString();
+    }
+
+    /**
+     * @param path the path of a UTF-8 text file.
+     * @return the contents of the file.
+     * @throws IOException if the file can't be read.
+     */
+    static String read(String path) throws IOException {
+        try (InputStream is = new FileInputStream(path)) {
+            ByteArrayOutputStream bos = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            int read;
+
+            while ((read = is.read(buffer)) != -1) {
+                bos.write(buffer, 0, read);
+            }
+
+            return new String(bos.toByteArray(), UTF8);
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package in.dragonbra.javasteam.benchmark;
+
+import com.google.protobuf.ByteString;
+import in.dragonbra.javasteam.base.ClientMsgProtobuf;
+import in.dragonbra.javasteam.enums.EMsg;
+import in.dragonbra.javasteam.enums.EUniverse;
+import in.dragonbra.javasteam.protobufs.steamclient.SteammessagesClientserverLogin.CMsgClientLogon;
+import in.dragonbra.javasteam.steam.steamclient.SteamClient;
+import in.dragonbra.javasteam.util.crypto.CryptoHelper;
+import in.dragonbra.javasteam.util.crypto.RSACrypto;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.InputStreamReader;
+
+/**
+ * Measures the time from the start of the application until the first connection could send its logon: creating
+ * the client, the channel encryption handshake and building the logon message. No connection is made, the network
+ * round trips are the same with and without a warm-up. Every mode runs in a new JVM, so classes are loaded from
+ * scratch:
+ * <ul>
+ * <li>cold: the first connection pays for everything,</li>
+ * <li>warm: {@link SteamClient#warmUp()} runs while the application spends some time on its own start up.</li>
+ * </ul>
+ */
+public final class StartupBenchmark {
+
+    // what the application does before it connects, for example reading its configuration
+    private static final long APPLICATION_STARTUP = 1000L;
+
+    private StartupBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length > 0) {
+            measure("warm".equals(args[0]));
+            return;
+        }
+
+        fork("cold");
+        fork("warm");
+    }
+
+    private static void fork(String mode) throws Exception {
+        String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+
+        Process process = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+                StartupBenchmark.class.getName(), mode)
+                .redirectErrorStream(true)
+                .start();
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream(),
+                SampleData.UTF8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.startsWith(mode)) {
+                    System.out.println(line);
+                }
+            }
+        }
+
+        process.waitFor();
+    }
+
+    private static void measure(boolean warm) throws Exception {
+        if (warm) {
+            SteamClient.warmUp();
+        }
+
+        Thread.sleep(APPLICATION_STARTUP);
+
+        long start = System.nanoTime();
+
+        new SteamClient();
+
+        // the channel encryption handshake
+        byte[] sessionKey = CryptoHelper.generateRandomBlock(32);
+        RSACrypto.getInstance(EUniverse.Public).encrypt(sessionKey);
+        long handshake = System.nanoTime();
+
+        // the logon message, with the machine ID of the default configuration
+        ClientMsgProtobuf<CMsgClientLogon.Builder> logon = new ClientMsgProtobuf<>(CMsgClientLogon.class, EMsg.ClientLogon);
+        logon.getBody().setMachineId(ByteString.copyFrom(
+                new SteamClient().getConfiguration().getMachineIDProvider().getMachineID("username")));
+        CryptoHelper.symmetricEncryptWithHMACIV(logon.serialize(), sessionKey, new byte[16]);
+        long end = System.nanoTime();
+
+        Benchmark.report("%-48s %,14.1f ms (handshake %,.1f ms)", (warm ? "warm" : "cold") + " time to logon",
+                (end - start) / 1e6, (handshake - start) / 1e6);
+    }
+}
@@ -13,6 +13,11 @@ import java.nio.charset.Charset;
  */
 public abstract class AbstractMsgBase {
 
+    /**
+     * Room reserved for the header and small bodies when a message is serialized.
+     */
+    protected static final int SERIALIZE_RESERVE = 64;
+
     protected MemoryStream payload;
 
     private final BinaryReader reader;
@@ -2,15 +2,16 @@ package in.dragonbra.javasteam.base;
 
 import com.google.protobuf.AbstractMessage;
 import com.google.protobuf.GeneratedMessageV3;
+import com.google.protobuf.Message;
 import in.dragonbra.javasteam.enums.EMsg;
 import in.dragonbra.javasteam.generated.MsgHdrProtoBuf;
 import in.dragonbra.javasteam.util.log.LogManager;
 import in.dragonbra.javasteam.util.log.Logger;
 import in.dragonbra.javasteam.util.stream.BinaryReader;
+import in.dragonbra.javasteam.util.stream.PooledOutputStream;
 import in.dragonbra.javasteam.util.stream.SeekOrigin;
 
 import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
@@ -124,16 +125,20 @@ public class ClientMsgProtobuf<BodyType extends GeneratedMessageV3.Builder<BodyT
 
     @Override
     public byte[] serialize() {
-        ByteArrayOutputStream baos = new ByteArrayOutputStream(0);
+        Message builtBody = body.build();
+        PooledOutputStream out = new PooledOutputStream(SERIALIZE_RESERVE + builtBody.getSerializedSize() + (int) payload.getLength());
 
         try {
-            getHeader().serialize(baos);
-            baos.write(body.build().toByteArray());
-            baos.write(payload.toByteArray());
+            getHeader().serialize(out);
+            builtBody.writeTo(out);
+            payload.writeTo(out);
         } catch (IOException e) {
             logger.debug(e);
         }
-        return baos.toByteArray();
+
+        byte[] data = out.toByteArray();
+        out.close();
+        return data;
     }
 
     @Override
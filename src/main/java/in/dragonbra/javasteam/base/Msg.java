@@ -7,9 +7,9 @@ import in.dragonbra.javasteam.types.SteamID;
 import in.dragonbra.javasteam.util.log.LogManager;
 import in.dragonbra.javasteam.util.log.Logger;
 import in.dragonbra.javasteam.util.stream.MemoryStream;
+import in.dragonbra.javasteam.util.stream.PooledOutputStream;
 import in.dragonbra.javasteam.util.stream.SeekOrigin;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 
 /**
@@ -151,15 +151,19 @@ public class Msg<BodyType extends ISteamSerializableMessage> extends MsgBase<Msg
 
     @Override
     public byte[] serialize() {
-        ByteArrayOutputStream baos = new ByteArrayOutputStream(0);
+        PooledOutputStream out = new PooledOutputStream(SERIALIZE_RESERVE + (int) payload.getLength());
+
         try {
-            getHeader().serialize(baos);
-            body.serialize(baos);
-            baos.write(payload.toByteArray());
+            getHeader().serialize(out);
+            body.serialize(out);
+            payload.writeTo(out);
         } catch (IOException e) {
             logger.debug(e);
         }
-        return baos.toByteArray();
+
+        byte[] data = out.toByteArray();
+        out.close();
+        return data;
     }
 
     @Override
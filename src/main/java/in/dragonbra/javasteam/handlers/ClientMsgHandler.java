@@ -3,6 +3,9 @@ package in.dragonbra.javasteam.handlers;
 import in.dragonbra.javasteam.base.IPacketMsg;
 import in.dragonbra.javasteam.steam.steamclient.SteamClient;
 import in.dragonbra.javasteam.steam.steamclient.callbacks.DisconnectedCallback;
+import in.dragonbra.javasteam.steam.steamclient.configuration.SteamConfiguration;
+import in.dragonbra.javasteam.steam.steamclient.machineid.IMachineIDProvider;
+import in.dragonbra.javasteam.steam.steamclient.machineid.LocalMachineIDProvider;
 
 /**
  * This class implements the base requirements every message handler should inherit from.
@@ -37,6 +40,24 @@ public abstract class ClientMsgHandler {
         client.setExpectDisconnection(expectDisconnection);
     }
 
+    /**
+     * Gets the machine ID to send with a logon request from the configured {@link IMachineIDProvider}.
+     *
+     * @param accountName the name of the account that logs on, or null for anonymous and game server logons.
+     * @return the machine ID.
+     */
+    protected byte[] getMachineID(String accountName) {
+        SteamConfiguration configuration = client.getConfiguration();
+        IMachineIDProvider provider = configuration != null ? configuration.getMachineIDProvider() : null;
+
+        if (provider == null) {
+            provider = LocalMachineIDProvider.getDefault();
+        }
+
+        byte[] machineID = provider.getMachineID(accountName);
+        return machineID != null ? machineID : new byte[0];
+    }
+
     /**
      * @return the underlying {@link SteamClient} for use in sending replies.
      */
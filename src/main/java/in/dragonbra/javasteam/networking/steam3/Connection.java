@@ -5,6 +5,7 @@ import in.dragonbra.javasteam.util.event.EventArgs;
 
 import java.net.InetAddress;
 import java.net.InetSocketAddress;
+import java.util.List;
 
 /**
  * @author lngtr
@@ -74,6 +75,18 @@ public abstract class Connection {
      */
     public abstract void send(byte[] data);
 
+    /**
+     * Sends the specified data packets in order. Connections that can write several packets at once override this to
+     * do so, by default the packets are sent one by one.
+     *
+     * @param data The data packets to send.
+     */
+    public void send(List<byte[]> data) {
+        for (byte[] packet : data) {
+            send(packet);
+        }
+    }
+
     /**
      * Gets the local IP.
      *
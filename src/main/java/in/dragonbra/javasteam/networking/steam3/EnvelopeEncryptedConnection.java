@@ -9,7 +9,7 @@ import in.dragonbra.javasteam.generated.MsgChannelEncryptRequest;
 import in.dragonbra.javasteam.generated.MsgChannelEncryptResponse;
 import in.dragonbra.javasteam.generated.MsgChannelEncryptResult;
 import in.dragonbra.javasteam.steam.CMClient;
-import in.dragonbra.javasteam.util.KeyDictionary;
+import in.dragonbra.javasteam.util.SerialExecutor;
 import in.dragonbra.javasteam.util.crypto.CryptoHelper;
 import in.dragonbra.javasteam.util.crypto.RSACrypto;
 import in.dragonbra.javasteam.util.event.EventArgs;
@@ -20,6 +20,8 @@ import in.dragonbra.javasteam.util.log.Logger;
 import java.io.IOException;
 import java.net.InetAddress;
 import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * @author lngtr
@@ -31,8 +33,12 @@ public class EnvelopeEncryptedConnection extends Connection {
 
     private final Connection inner;
     private final EUniverse universe;
-    private EncryptionState state;
-    private INetFilterEncryption encryption;
+    // written by the handshake on the transport thread, read by the senders
+    private volatile EncryptionState state;
+    private volatile INetFilterEncryption encryption;
+
+    // runs decryption off the transport thread when a receive pipeline is configured
+    private final SerialExecutor decryptStage;
 
     private final EventHandler<EventArgs> onConnected = new EventHandler<EventArgs>() {
         @Override
@@ -43,20 +49,41 @@ public class EnvelopeEncryptedConnection extends Connection {
 
     private final EventHandler<DisconnectedEventArgs> onDisconnected = new EventHandler<DisconnectedEventArgs>() {
         @Override
-        public void handleEvent(Object sender, DisconnectedEventArgs e) {
+        public void handleEvent(Object sender, final DisconnectedEventArgs e) {
             state = EncryptionState.DISCONNECTED;
             encryption = null;
 
-            disconnected.handleEvent(EnvelopeEncryptedConnection.this, e);
+            if (decryptStage == null) {
+                disconnected.handleEvent(EnvelopeEncryptedConnection.this, e);
+                return;
+            }
+
+            // deliver the disconnect after the messages that are still being decrypted
+            decryptStage.execute(new Runnable() {
+                @Override
+                public void run() {
+                    disconnected.handleEvent(EnvelopeEncryptedConnection.this, e);
+                }
+            });
         }
     };
 
     private final EventHandler<NetMsgEventArgs> onNetMsgReceived = new EventHandler<NetMsgEventArgs>() {
         @Override
-        public void handleEvent(Object sender, NetMsgEventArgs e) {
+        public void handleEvent(Object sender, final NetMsgEventArgs e) {
             if (state == EncryptionState.ENCRYPTED) {
-                byte[] plaintextData = encryption.processIncoming(e.getData());
-                netMsgReceived.handleEvent(EnvelopeEncryptedConnection.this, e.withData(plaintextData));
+                if (decryptStage == null) {
+                    decrypt(encryption, e);
+                    return;
+                }
+
+                final INetFilterEncryption filter = encryption;
+                decryptStage.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        decrypt(filter, e);
+                    }
+                });
                 return;
             }
 
@@ -79,17 +106,34 @@ public class EnvelopeEncryptedConnection extends Connection {
     };
 
     public EnvelopeEncryptedConnection(Connection inner, EUniverse universe) {
+        this(inner, universe, null);
+    }
+
+    /**
+     * Initializes a new instance of the {@link EnvelopeEncryptedConnection} class.
+     *
+     * @param inner    the connection that carries the encrypted data.
+     * @param universe the universe the connection is made to.
+     * @param pipeline the pipeline whose decrypt stage incoming messages are decrypted on, or null to decrypt them on the transport thread.
+     */
+    public EnvelopeEncryptedConnection(Connection inner, EUniverse universe, ReceivePipeline pipeline) {
         if (inner == null) {
             throw new IllegalArgumentException("inner connection is null");
         }
         this.inner = inner;
         this.universe = universe;
+        this.decryptStage = pipeline != null ? pipeline.createDecryptStage() : null;
 
         inner.getNetMsgReceived().addEventHandler(onNetMsgReceived);
         inner.getConnected().addEventHandler(onConnected);
         inner.getDisconnected().addEventHandler(onDisconnected);
     }
 
+    private void decrypt(INetFilterEncryption filter, NetMsgEventArgs e) {
+        byte[] plaintextData = filter.processIncoming(e.getData());
+        netMsgReceived.handleEvent(this, e.withData(plaintextData));
+    }
+
     private void handleEncryptRequest(IPacketMsg packetMsg) {
         Msg<MsgChannelEncryptRequest> request = new Msg<>(MsgChannelEncryptRequest.class, packetMsg);
 
@@ -111,11 +155,12 @@ public class EnvelopeEncryptedConnection extends Connection {
             randomChallenge = request.getPayload().toByteArray();
         }
 
-        byte[] publicKey = KeyDictionary.getPublicKey(connectedUniverse);
+        RSACrypto rsa = RSACrypto.getInstance(connectedUniverse);
 
-        if (publicKey == null) {
+        if (rsa == null) {
             logger.debug("HandleEncryptRequest got request for invalid universe! Universe: " + connectedUniverse + " Protocol ver: " + protoVersion);
             disconnect();
+            return;
         }
 
         Msg<MsgChannelEncryptResponse> response = new Msg<>(MsgChannelEncryptResponse.class);
@@ -123,8 +168,6 @@ public class EnvelopeEncryptedConnection extends Connection {
         byte[] tempSessionKey = CryptoHelper.generateRandomBlock(32);
         byte[] encryptedHandshakeBlob = null;
 
-        RSACrypto rsa = new RSACrypto(publicKey);
-
         if (randomChallenge != null) {
             byte[] blobToEncrypt = new byte[tempSessionKey.length + randomChallenge.length];
 
@@ -200,13 +243,39 @@ public class EnvelopeEncryptedConnection extends Connection {
 
     @Override
     public void send(byte[] data) {
-        if (state == EncryptionState.ENCRYPTED) {
-            data = encryption.processOutgoing(data);
+        INetFilterEncryption filter = getOutgoingFilter();
+
+        if (filter != null) {
+            data = filter.processOutgoing(data);
+        }
+
+        inner.send(data);
+    }
+
+    @Override
+    public void send(List<byte[]> data) {
+        INetFilterEncryption filter = getOutgoingFilter();
+
+        if (filter != null) {
+            List<byte[]> encrypted = new ArrayList<>(data.size());
+            for (byte[] packet : data) {
+                encrypted.add(filter.processOutgoing(packet));
+            }
+            data = encrypted;
         }
 
         inner.send(data);
     }
 
+    // the filter is set before the state becomes encrypted and cleared on disconnect, so it is read once
+    private INetFilterEncryption getOutgoingFilter() {
+        if (state != EncryptionState.ENCRYPTED) {
+            return null;
+        }
+
+        return encryption;
+    }
+
     @Override
     public InetAddress getLocalIP() {
         return inner.getLocalIP();
@@ -0,0 +1,58 @@
+package in.dragonbra.javasteam.networking.steam3;
+
+import in.dragonbra.javasteam.enums.EMsg;
+
+/**
+ * Priority lanes of incoming messages when a {@link ReceivePipeline} is used. Messages waiting in a higher lane are
+ * dispatched first, messages of the same lane are always dispatched in the order they were received.
+ */
+public enum InboundLane {
+    /**
+     * Session control messages like logon responses and the channel setup.
+     */
+    CONTROL,
+
+    /**
+     * Everything that is neither control nor bulk. This is the default lane.
+     */
+    INTERACTIVE,
+
+    /**
+     * Large responses whose handling can wait, like product info and license lists.
+     */
+    BULK;
+
+    /**
+     * Gets the lane a message is dispatched on.
+     *
+     * @param eMsg the message type.
+     * @return the lane of the message.
+     */
+    public static InboundLane classify(EMsg eMsg) {
+        if (eMsg == null) {
+            return INTERACTIVE;
+        }
+
+        switch (eMsg) {
+            case ChannelEncryptRequest:
+            case ChannelEncryptResult:
+            case ClientLogOnResponse:
+            case ClientLoggedOff:
+            case ClientNewLoginKey:
+            case ClientUpdateMachineAuth:
+            case ClientSessionToken:
+            case ClientServerList:
+            case ClientCMList:
+            case ClientServerUnavailable:
+                return CONTROL;
+            case ClientPICSProductInfoResponse:
+            case ClientPICSChangesSinceResponse:
+            case ClientPICSAccessTokenResponse:
+            case ClientLicenseList:
+            case ClientUFSGetFileListForAppResponse:
+                return BULK;
+            default:
+                return INTERACTIVE;
+        }
+    }
+}
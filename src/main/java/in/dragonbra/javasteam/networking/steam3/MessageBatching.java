@@ -0,0 +1,50 @@
+package in.dragonbra.javasteam.networking.steam3;
+
+/**
+ * Describes how outbound messages are batched into {@link in.dragonbra.javasteam.enums.EMsg#Multi} envelopes.
+ */
+public class MessageBatching {
+
+    private final long lingerMillis;
+
+    private final int maxBatchBytes;
+
+    private final int compressionThreshold;
+
+    /**
+     * Initializes a new instance of the {@link MessageBatching} class.
+     *
+     * @param lingerMillis         how long the writer waits for more messages before sending a batch that is not full.
+     * @param maxBatchBytes        the maximum size of the messages packed into one envelope.
+     * @param compressionThreshold envelopes with more bytes than this are gzip compressed.
+     */
+    public MessageBatching(long lingerMillis, int maxBatchBytes, int compressionThreshold) {
+        if (lingerMillis < 0) {
+            throw new IllegalArgumentException("lingerMillis is negative");
+        }
+
+        if (maxBatchBytes < 1) {
+            throw new IllegalArgumentException("maxBatchBytes must be positive");
+        }
+
+        if (compressionThreshold < 0) {
+            throw new IllegalArgumentException("compressionThreshold is negative");
+        }
+
+        this.lingerMillis = lingerMillis;
+        this.maxBatchBytes = maxBatchBytes;
+        this.compressionThreshold = compressionThreshold;
+    }
+
+    public long getLingerMillis() {
+        return lingerMillis;
+    }
+
+    public int getMaxBatchBytes() {
+        return maxBatchBytes;
+    }
+
+    public int getCompressionThreshold() {
+        return compressionThreshold;
+    }
+}
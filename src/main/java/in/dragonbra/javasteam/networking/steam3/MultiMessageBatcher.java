@@ -0,0 +1,159 @@
+package in.dragonbra.javasteam.networking.steam3;
+
+import com.google.protobuf.ByteString;
+import in.dragonbra.javasteam.base.ClientMsgProtobuf;
+import in.dragonbra.javasteam.enums.EMsg;
+import in.dragonbra.javasteam.protobufs.steamclient.SteammessagesBase.CMsgMulti;
+import in.dragonbra.javasteam.steam.CMClient;
+import in.dragonbra.javasteam.types.SteamID;
+import in.dragonbra.javasteam.util.BufferPool;
+import in.dragonbra.javasteam.util.log.LogManager;
+import in.dragonbra.javasteam.util.log.Logger;
+import in.dragonbra.javasteam.util.stream.PooledOutputStream;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Packs serialized client messages into {@link EMsg#Multi} envelopes, the same format
+ * {@link CMClient} unpacks on the receiving side: every message is prefixed with its length as a little endian int32,
+ * and the whole payload is gzip compressed if it exceeds the compression threshold.
+ */
+public class MultiMessageBatcher {
+
+    private static final Logger logger = LogManager.getLogger(MultiMessageBatcher.class);
+
+    private final CMClient client;
+
+    private final MessageBatching options;
+
+    /**
+     * Initializes a new instance of the {@link MultiMessageBatcher} class.
+     *
+     * @param client  the client whose session the envelopes belong to.
+     * @param options the batching options.
+     */
+    public MultiMessageBatcher(CMClient client, MessageBatching options) {
+        if (client == null) {
+            throw new IllegalArgumentException("client is null");
+        }
+
+        if (options == null) {
+            throw new IllegalArgumentException("options is null");
+        }
+
+        this.client = client;
+        this.options = options;
+    }
+
+    /**
+     * Envelopes are only sent within a logged on session, before that messages go out one by one.
+     *
+     * @return whether messages may be batched right now.
+     */
+    public boolean isActive() {
+        return client.getSessionID() != null;
+    }
+
+    public MessageBatching getOptions() {
+        return options;
+    }
+
+    /**
+     * Packs the messages into as few envelopes as {@link MessageBatching#getMaxBatchBytes()} allows. Messages that
+     * are too large to share an envelope, and envelopes that would only hold a single message, are passed through
+     * unchanged.
+     *
+     * @param messages the serialized messages, in send order.
+     * @return the packets to send, in send order.
+     */
+    public List<byte[]> pack(List<byte[]> messages) {
+        if (messages.size() < 2) {
+            return messages;
+        }
+
+        List<byte[]> packets = new ArrayList<>();
+        List<byte[]> group = new ArrayList<>();
+        int groupBytes = 0;
+
+        for (byte[] message : messages) {
+            int size = 4 + message.length;
+
+            if (!group.isEmpty() && groupBytes + size > options.getMaxBatchBytes()) {
+                packets.add(packGroup(group, groupBytes));
+                group.clear();
+                groupBytes = 0;
+            }
+
+            group.add(message);
+            groupBytes += size;
+        }
+
+        if (!group.isEmpty()) {
+            packets.add(packGroup(group, groupBytes));
+        }
+
+        return packets;
+    }
+
+    private byte[] packGroup(List<byte[]> group, int groupBytes) {
+        if (group.size() == 1) {
+            return group.get(0);
+        }
+
+        byte[] buffer = BufferPool.getDefault().acquire(groupBytes);
+
+        try {
+            return encodeGroup(group, buffer, groupBytes);
+        } finally {
+            BufferPool.getDefault().release(buffer);
+        }
+    }
+
+    private byte[] encodeGroup(List<byte[]> group, byte[] buffer, int groupBytes) {
+        ByteBuffer payload = ByteBuffer.wrap(buffer).order(ByteOrder.LITTLE_ENDIAN);
+        for (byte[] message : group) {
+            payload.putInt(message.length);
+            payload.put(message);
+        }
+
+        ClientMsgProtobuf<CMsgMulti.Builder> multi = new ClientMsgProtobuf<>(CMsgMulti.class, EMsg.Multi);
+
+        Integer sessionID = client.getSessionID();
+        SteamID steamID = client.getSteamID();
+
+        if (sessionID != null) {
+            multi.setSessionID(sessionID);
+        }
+
+        if (steamID != null) {
+            multi.setSteamID(steamID);
+        }
+
+        if (groupBytes > options.getCompressionThreshold()) {
+            try {
+                // closing the gzip stream hands the pooled buffer back, so the body is copied out before that
+                PooledOutputStream compressed = new PooledOutputStream(groupBytes / 2);
+                try (GZIPOutputStream gzout = new GZIPOutputStream(compressed)) {
+                    gzout.write(buffer, 0, groupBytes);
+                    gzout.finish();
+
+                    multi.getBody().setSizeUnzipped(groupBytes);
+                    multi.getBody().setMessageBody(ByteString.copyFrom(compressed.getBuffer(), 0, compressed.size()));
+                }
+
+                return multi.serialize();
+            } catch (IOException e) {
+                logger.debug("Failed to compress multi message, sending it uncompressed", e);
+            }
+        }
+
+        multi.getBody().setMessageBody(ByteString.copyFrom(buffer, 0, groupBytes));
+
+        return multi.serialize();
+    }
+}
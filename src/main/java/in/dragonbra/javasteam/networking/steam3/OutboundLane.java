@@ -0,0 +1,58 @@
+package in.dragonbra.javasteam.networking.steam3;
+
+import in.dragonbra.javasteam.enums.EMsg;
+
+/**
+ * Priority lanes of the {@link OutboundQueue}. Lanes are drained in declaration order.
+ */
+public enum OutboundLane {
+    /**
+     * Session control messages like heartbeats and logons. These are never rejected for capacity reasons.
+     */
+    CONTROL,
+
+    /**
+     * Messages a user is waiting on, like chat and game coordinator messages. This is the default lane.
+     */
+    INTERACTIVE,
+
+    /**
+     * Large or numerous requests that can wait, like product info and cloud requests.
+     */
+    BULK;
+
+    /**
+     * Gets the lane a message is sent on.
+     *
+     * @param eMsg the message type.
+     * @return the lane of the message.
+     */
+    public static OutboundLane classify(EMsg eMsg) {
+        if (eMsg == null) {
+            return INTERACTIVE;
+        }
+
+        switch (eMsg) {
+            case ChannelEncryptResponse:
+            case ClientHeartBeat:
+            case ClientLogon:
+            case ClientLogOff:
+            case ClientNewLoginKeyAccepted:
+            case ClientUpdateMachineAuthResponse:
+                return CONTROL;
+            case ClientPICSChangesSinceRequest:
+            case ClientPICSProductInfoRequest:
+            case ClientPICSAccessTokenRequest:
+            case ClientRequestFriendData:
+            case ClientUFSUploadFileRequest:
+            case ClientUFSDownloadRequest:
+            case ClientUFSDeleteFileRequest:
+            case ClientGetDepotDecryptionKey:
+            case ClientGetCDNAuthToken:
+            case ClientGetAppOwnershipTicket:
+                return BULK;
+            default:
+                return INTERACTIVE;
+        }
+    }
+}
@@ -0,0 +1,419 @@
+package in.dragonbra.javasteam.networking.steam3;
+
+import in.dragonbra.javasteam.enums.EMsg;
+import in.dragonbra.javasteam.util.NamedThreadFactory;
+import in.dragonbra.javasteam.util.ThreadPerTaskExecutor;
+import in.dragonbra.javasteam.util.TokenBucket;
+import in.dragonbra.javasteam.util.log.LogManager;
+import in.dragonbra.javasteam.util.log.Logger;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Outbound message queue of a single {@link Connection}. Messages are put into one of the {@link OutboundLane lanes}
+ * and a single writer thread drains the lanes in priority order, handing everything that is ready to the connection in
+ * one gathering {@link Connection#send(List)} call.
+ * <p>
+ * The queue is bounded: once {@link #getCapacity()} messages are waiting, {@link #offer(EMsg, byte[])} rejects new
+ * messages and {@link #put(EMsg, byte[])} blocks until the writer made room. Messages on the
+ * {@link OutboundLane#CONTROL control lane} don't count against the capacity so heartbeats are never held back by a
+ * burst of other messages. Message types with a {@link RateLimit} are held in their lane until their token bucket
+ * admits them, other message types in the same lane pass them. Messages of the same type are always sent in order.
+ * <p>
+ * With a {@link MultiMessageBatcher}, the writer lingers briefly to let more messages join a write and packs them into
+ * {@link EMsg#Multi} envelopes, so many small messages are framed and encrypted once.
+ */
+public class OutboundQueue {
+
+    private static final Logger logger = LogManager.getLogger(OutboundQueue.class);
+
+    /**
+     * Upper bound of the bytes handed to the connection in one write, so a long bulk backlog can't delay control
+     * messages queued while it is being written.
+     */
+    private static final int MAX_WRITE_BYTES = 64 * 1024;
+
+    private final Connection connection;
+
+    private final int capacity;
+
+    private final Map<EMsg, TokenBucket> rateLimits = new EnumMap<>(EMsg.class);
+
+    private final Map<OutboundLane, ArrayDeque<Entry>> lanes = new EnumMap<>(OutboundLane.class);
+
+    private final Object lock = new Object();
+
+    private int size;
+
+    private boolean closed;
+
+    private boolean writing;
+
+    private boolean started;
+
+    private final Executor writerExecutor;
+
+    private final MultiMessageBatcher batcher;
+
+    // state of the batch being collected, only touched by the writer
+    private int batchBytes;
+
+    private boolean batchUrgent;
+
+    /**
+     * Initializes a new instance of the {@link OutboundQueue} class.
+     *
+     * @param connection the connection to write to.
+     * @param capacity   the number of non control messages that may wait in the queue.
+     * @param rateLimits the rate limits per message type, may be null.
+     */
+    public OutboundQueue(Connection connection, int capacity, Map<EMsg, RateLimit> rateLimits) {
+        this(connection, capacity, rateLimits, null);
+    }
+
+    /**
+     * Initializes a new instance of the {@link OutboundQueue} class.
+     *
+     * @param connection the connection to write to.
+     * @param capacity   the number of non control messages that may wait in the queue.
+     * @param rateLimits the rate limits per message type, may be null.
+     * @param batcher    packs the messages of a write into multi envelopes, may be null to send them one by one.
+     */
+    public OutboundQueue(Connection connection, int capacity, Map<EMsg, RateLimit> rateLimits, MultiMessageBatcher batcher) {
+        this(connection, capacity, rateLimits, batcher, null);
+    }
+
+    /**
+     * Initializes a new instance of the {@link OutboundQueue} class.
+     *
+     * @param connection     the connection to write to.
+     * @param capacity       the number of non control messages that may wait in the queue.
+     * @param rateLimits     the rate limits per message type, may be null.
+     * @param batcher        packs the messages of a write into multi envelopes, may be null to send them one by one.
+     * @param writerExecutor the executor the writer runs on, may be null to run it on its own thread. The writer keeps
+     *                       its thread until the queue is closed, so a bounded pool needs a thread per open queue.
+     */
+    public OutboundQueue(Connection connection, int capacity, Map<EMsg, RateLimit> rateLimits, MultiMessageBatcher batcher,
+                         Executor writerExecutor) {
+        if (connection == null) {
+            throw new IllegalArgumentException("connection is null");
+        }
+
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be at least 1");
+        }
+
+        this.connection = connection;
+        this.capacity = capacity;
+        this.batcher = batcher;
+        this.writerExecutor = writerExecutor != null ? writerExecutor
+                : new ThreadPerTaskExecutor(new NamedThreadFactory("OutboundQueue Thread", true));
+
+        if (rateLimits != null) {
+            for (Map.Entry<EMsg, RateLimit> entry : rateLimits.entrySet()) {
+                this.rateLimits.put(entry.getKey(), entry.getValue().createBucket());
+            }
+        }
+
+        for (OutboundLane lane : OutboundLane.values()) {
+            lanes.put(lane, new ArrayDeque<Entry>());
+        }
+    }
+
+    /**
+     * Starts the writer.
+     */
+    public void start() {
+        synchronized (lock) {
+            if (started || closed) {
+                return;
+            }
+
+            started = true;
+        }
+
+        try {
+            writerExecutor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    writeLoop();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            logger.debug("Couldn't start the writer", e);
+            close();
+        }
+    }
+
+    /**
+     * Stops the writer and drops all pending messages. Producers blocked in {@link #put(EMsg, byte[])} are released.
+     */
+    public void close() {
+        synchronized (lock) {
+            if (closed) {
+                return;
+            }
+
+            closed = true;
+
+            int dropped = size;
+            for (ArrayDeque<Entry> lane : lanes.values()) {
+                lane.clear();
+            }
+            size = 0;
+
+            if (dropped > 0) {
+                logger.debug("Dropped " + dropped + " queued messages");
+            }
+
+            lock.notifyAll();
+        }
+    }
+
+    /**
+     * Queues a message if there is room for it.
+     *
+     * @param eMsg the message type.
+     * @param data the serialized message.
+     * @return <b>true</b> if the message was queued; <b>false</b> if the queue is full or closed.
+     */
+    public boolean offer(EMsg eMsg, byte[] data) {
+        OutboundLane lane = OutboundLane.classify(eMsg);
+
+        synchronized (lock) {
+            if (closed || (lane != OutboundLane.CONTROL && size >= capacity)) {
+                return false;
+            }
+
+            enqueue(lane, eMsg, data);
+            return true;
+        }
+    }
+
+    /**
+     * Queues a message, waiting for room if the queue is full.
+     *
+     * @param eMsg the message type.
+     * @param data the serialized message.
+     * @return <b>true</b> if the message was queued; <b>false</b> if the queue was closed or the thread interrupted.
+     */
+    public boolean put(EMsg eMsg, byte[] data) {
+        OutboundLane lane = OutboundLane.classify(eMsg);
+
+        synchronized (lock) {
+            while (!closed && lane != OutboundLane.CONTROL && size >= capacity) {
+                try {
+                    lock.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            }
+
+            if (closed) {
+                return false;
+            }
+
+            enqueue(lane, eMsg, data);
+            return true;
+        }
+    }
+
+    private void enqueue(OutboundLane lane, EMsg eMsg, byte[] data) {
+        lanes.get(lane).addLast(new Entry(eMsg, data));
+
+        if (lane != OutboundLane.CONTROL) {
+            size++;
+        }
+
+        lock.notifyAll();
+    }
+
+    /**
+     * Waits until everything queued so far has been handed to the connection, or the timeout elapsed. Rate limited
+     * messages that are not admitted within the timeout stay queued.
+     *
+     * @param timeout the maximum time to wait in milliseconds.
+     * @return <b>true</b> if the queue is empty; otherwise, <b>false</b>.
+     */
+    public boolean flush(long timeout) {
+        long deadline = System.currentTimeMillis() + timeout;
+
+        synchronized (lock) {
+            while (!closed && (writing || !isEmpty())) {
+                long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0) {
+                    return false;
+                }
+
+                try {
+                    lock.wait(remaining);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            }
+
+            return !writing && isEmpty();
+        }
+    }
+
+    private boolean isEmpty() {
+        for (ArrayDeque<Entry> lane : lanes.values()) {
+            if (!lane.isEmpty()) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * @return the number of non control messages waiting in the queue.
+     */
+    public int size() {
+        synchronized (lock) {
+            return size;
+        }
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    private void writeLoop() {
+        List<byte[]> batch = new ArrayList<>();
+
+        while (true) {
+            boolean pack;
+
+            synchronized (lock) {
+                long lingerDeadline = 0L;
+
+                while (!closed) {
+                    long waitTime = collect(batch);
+
+                    if (!batch.isEmpty()) {
+                        if (lingerDeadline == 0L) {
+                            if (!shouldLinger()) {
+                                break;
+                            }
+                            lingerDeadline = System.currentTimeMillis() + batcher.getOptions().getLingerMillis();
+                        }
+
+                        // give more messages the chance to join the batch, unless it is full or holds control messages
+                        long remaining = lingerDeadline - System.currentTimeMillis();
+                        if (remaining <= 0 || batchUrgent || batchBytes >= batcher.getOptions().getMaxBatchBytes()) {
+                            break;
+                        }
+
+                        waitTime = waitTime == 0L ? remaining : Math.min(waitTime, remaining);
+                    }
+
+                    try {
+                        lock.wait(waitTime);
+                    } catch (InterruptedException e) {
+                        logger.debug("Writer interrupted", e);
+                        return;
+                    }
+                }
+
+                if (closed) {
+                    return;
+                }
+
+                writing = true;
+                pack = batcher != null && batcher.isActive();
+
+                batchBytes = 0;
+                batchUrgent = false;
+
+                // let blocked producers refill the queue while we write
+                lock.notifyAll();
+            }
+
+            try {
+                connection.send(pack ? batcher.pack(batch) : batch);
+            } catch (Exception e) {
+                logger.debug("Exception while writing queued messages", e);
+            }
+
+            batch.clear();
+
+            synchronized (lock) {
+                writing = false;
+                lock.notifyAll();
+            }
+        }
+    }
+
+    private boolean shouldLinger() {
+        return batcher != null && batcher.getOptions().getLingerMillis() > 0 && batcher.isActive();
+    }
+
+    /**
+     * Moves all messages that are ready to be sent into the batch, highest priority lane first.
+     *
+     * @return the time in milliseconds until a rate limited message becomes ready, or 0 to wait for new messages.
+     */
+    private long collect(List<byte[]> batch) {
+        long waitTime = 0L;
+        Set<EMsg> limited = null;
+
+        for (Map.Entry<OutboundLane, ArrayDeque<Entry>> laneEntry : lanes.entrySet()) {
+            Iterator<Entry> it = laneEntry.getValue().iterator();
+
+            while (it.hasNext() && batchBytes < MAX_WRITE_BYTES) {
+                Entry entry = it.next();
+
+                if (limited != null && limited.contains(entry.eMsg)) {
+                    continue;
+                }
+
+                TokenBucket bucket = rateLimits.get(entry.eMsg);
+
+                if (bucket != null && !bucket.tryAcquire()) {
+                    // hold back this message type, but keep its order and let other types pass
+                    if (limited == null) {
+                        limited = EnumSet.noneOf(EMsg.class);
+                    }
+                    limited.add(entry.eMsg);
+
+                    long wait = Math.max(1L, bucket.getWaitTime());
+                    waitTime = waitTime == 0L ? wait : Math.min(waitTime, wait);
+                    continue;
+                }
+
+                it.remove();
+                if (laneEntry.getKey() != OutboundLane.CONTROL) {
+                    size--;
+                }
+
+                batch.add(entry.data);
+                batchBytes += entry.data.length;
+                batchUrgent |= laneEntry.getKey() == OutboundLane.CONTROL;
+            }
+        }
+
+        return waitTime;
+    }
+
+    private static class Entry {
+        private final EMsg eMsg;
+        private final byte[] data;
+
+        Entry(EMsg eMsg, byte[] data) {
+            this.eMsg = eMsg;
+            this.data = data;
+        }
+    }
+}
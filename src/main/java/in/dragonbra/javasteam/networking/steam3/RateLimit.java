@@ -0,0 +1,45 @@
+package in.dragonbra.javasteam.networking.steam3;
+
+import in.dragonbra.javasteam.util.TokenBucket;
+
+/**
+ * Describes an outbound rate limit for a message type. Every connection gets its own {@link TokenBucket} created from
+ * this description.
+ */
+public class RateLimit {
+
+    private final double messagesPerSecond;
+
+    private final int burst;
+
+    /**
+     * Initializes a new instance of the {@link RateLimit} class.
+     *
+     * @param messagesPerSecond the sustained number of messages allowed per second.
+     * @param burst             the number of messages that may be sent at once.
+     */
+    public RateLimit(double messagesPerSecond, int burst) {
+        if (messagesPerSecond <= 0) {
+            throw new IllegalArgumentException("messagesPerSecond must be positive");
+        }
+
+        if (burst < 1) {
+            throw new IllegalArgumentException("burst must be at least 1");
+        }
+
+        this.messagesPerSecond = messagesPerSecond;
+        this.burst = burst;
+    }
+
+    public double getMessagesPerSecond() {
+        return messagesPerSecond;
+    }
+
+    public int getBurst() {
+        return burst;
+    }
+
+    TokenBucket createBucket() {
+        return new TokenBucket(messagesPerSecond, burst);
+    }
+}
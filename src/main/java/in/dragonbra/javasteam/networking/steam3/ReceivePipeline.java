@@ -0,0 +1,102 @@
+package in.dragonbra.javasteam.networking.steam3;
+
+import in.dragonbra.javasteam.util.SerialExecutor;
+
+import java.util.concurrent.Executor;
+
+/**
+ * Describes the executors incoming messages are processed on. Without a pipeline the transport thread decrypts,
+ * decodes and dispatches every message before it reads the next one. With a pipeline the transport thread only reads,
+ * and each of the following stages runs on its executor:
+ * <ol>
+ * <li>decrypt: removes the channel encryption of the message.</li>
+ * <li>decode: parses the message and unpacks multi messages.</li>
+ * <li>dispatch: hands the messages to the client and its handlers.</li>
+ * </ol>
+ * Every stage runs in order per client through a {@link SerialExecutor}, so the executors may be shared by many
+ * clients and stages. Once the first stage has {@link #getQueueCapacity()} messages waiting, the transport thread
+ * waits before it reads more. Stages hand messages to the next one without waiting, so stages sharing a bounded pool
+ * cannot starve each other.
+ * <p>
+ * The dispatch stage takes waiting messages by their {@link InboundLane}, so session control messages are not held up
+ * by a backlog of bulk responses. Messages of the same lane keep the order they were received in.
+ */
+public class ReceivePipeline {
+
+    private final Executor decryptExecutor;
+
+    private final Executor decodeExecutor;
+
+    private final Executor dispatchExecutor;
+
+    private final int queueCapacity;
+
+    /**
+     * Initializes a new instance of the {@link ReceivePipeline} class that runs all stages on the same executor.
+     *
+     * @param executor      the executor of all stages.
+     * @param queueCapacity the number of messages the first stage may queue before the transport thread waits.
+     */
+    public ReceivePipeline(Executor executor, int queueCapacity) {
+        this(executor, executor, executor, queueCapacity);
+    }
+
+    /**
+     * Initializes a new instance of the {@link ReceivePipeline} class.
+     *
+     * @param decryptExecutor  the executor of the decrypt stage.
+     * @param decodeExecutor   the executor of the decode stage.
+     * @param dispatchExecutor the executor of the dispatch stage.
+     * @param queueCapacity    the number of messages the first stage may queue before the transport thread waits.
+     */
+    public ReceivePipeline(Executor decryptExecutor, Executor decodeExecutor, Executor dispatchExecutor, int queueCapacity) {
+        if (decryptExecutor == null) {
+            throw new IllegalArgumentException("decryptExecutor is null");
+        }
+
+        if (decodeExecutor == null) {
+            throw new IllegalArgumentException("decodeExecutor is null");
+        }
+
+        if (dispatchExecutor == null) {
+            throw new IllegalArgumentException("dispatchExecutor is null");
+        }
+
+        if (queueCapacity < 1) {
+            throw new IllegalArgumentException("queueCapacity must be at least 1");
+        }
+
+        this.decryptExecutor = decryptExecutor;
+        this.decodeExecutor = decodeExecutor;
+        this.dispatchExecutor = dispatchExecutor;
+        this.queueCapacity = queueCapacity;
+    }
+
+    public Executor getDecryptExecutor() {
+        return decryptExecutor;
+    }
+
+    public Executor getDecodeExecutor() {
+        return decodeExecutor;
+    }
+
+    public Executor getDispatchExecutor() {
+        return dispatchExecutor;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public SerialExecutor createDecryptStage() {
+        return new SerialExecutor(decryptExecutor, queueCapacity);
+    }
+
+    public SerialExecutor createDecodeStage() {
+        return new SerialExecutor(decodeExecutor, queueCapacity);
+    }
+
+    public SerialExecutor createDispatchStage() {
+        return new SerialExecutor(dispatchExecutor, queueCapacity, InboundLane.values().length);
+    }
+}
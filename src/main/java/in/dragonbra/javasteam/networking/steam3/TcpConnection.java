@@ -1,5 +1,8 @@
 package in.dragonbra.javasteam.networking.steam3;
 
+import in.dragonbra.javasteam.util.BufferPool;
+import in.dragonbra.javasteam.util.NamedThreadFactory;
+import in.dragonbra.javasteam.util.ThreadPerTaskExecutor;
 import in.dragonbra.javasteam.util.log.LogManager;
 import in.dragonbra.javasteam.util.log.Logger;
 import in.dragonbra.javasteam.util.stream.BinaryReader;
@@ -9,6 +12,12 @@ import java.io.IOException;
 import java.net.InetAddress;
 import java.net.InetSocketAddress;
 import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 
 /**
  * @author lngtr
@@ -28,12 +37,29 @@ public class TcpConnection extends Connection {
 
     private BinaryReader netReader;
 
-    private Thread netThread;
+    private final Executor ioExecutor;
 
     private NetLoop netLoop;
 
     private final Object netLock = new Object();
 
+    /**
+     * Initializes a new instance of the {@link TcpConnection} class that runs its receive loop on its own thread.
+     */
+    public TcpConnection() {
+        this(null);
+    }
+
+    /**
+     * Initializes a new instance of the {@link TcpConnection} class.
+     *
+     * @param ioExecutor the executor the receive loop runs on, may be null to run it on its own thread.
+     */
+    public TcpConnection(Executor ioExecutor) {
+        this.ioExecutor = ioExecutor != null ? ioExecutor
+                : new ThreadPerTaskExecutor(new NamedThreadFactory("TcpConnection Thread", false));
+    }
+
     private void shutdown() {
         try {
             if (socket.isConnected()) {
@@ -55,20 +81,21 @@ public class TcpConnection extends Connection {
         logger.debug("Connected to " + currentEndPoint);
 
         try {
+            NetLoop loop;
+
             synchronized (netLock) {
                 netReader = new BinaryReader(socket.getInputStream());
                 netWriter = new BinaryWriter(socket.getOutputStream());
 
-                netLoop = new NetLoop();
-                netThread = new Thread(netLoop, "TcpConnection Thread");
+                loop = netLoop = new NetLoop();
 
                 currentEndPoint = new InetSocketAddress(socket.getInetAddress(), socket.getPort());
             }
 
-            netThread.start();
+            ioExecutor.execute(loop);
 
             onConnected();
-        } catch (IOException e) {
+        } catch (IOException | RejectedExecutionException e) {
             logger.debug("Exception while setting up connection to " + currentEndPoint, e);
             release(false);
         }
@@ -143,16 +170,34 @@ public class TcpConnection extends Connection {
 
     @Override
     public void send(byte[] data) {
+        send(Collections.singletonList(data));
+    }
+
+    @Override
+    public void send(List<byte[]> data) {
+        int length = 0;
+        for (byte[] packet : data) {
+            length += 8 + packet.length;
+        }
+
+        // frame everything into one buffer so the whole batch goes out in a single write
+        byte[] buffer = BufferPool.getDefault().acquire(length);
+        ByteBuffer frames = ByteBuffer.wrap(buffer).order(ByteOrder.LITTLE_ENDIAN);
+        for (byte[] packet : data) {
+            frames.putInt(packet.length);
+            frames.putInt(MAGIC);
+            frames.put(packet);
+        }
+
         synchronized (netLock) {
             if (socket == null) {
                 logger.debug("Attempting to send client data when not connected.");
+                BufferPool.getDefault().release(buffer);
                 return;
             }
 
             try {
-                netWriter.writeInt(data.length);
-                netWriter.writeInt(MAGIC);
-                netWriter.write(data);
+                netWriter.write(buffer, 0, length);
             } catch (IOException e) {
                 logger.debug("Socket exception while writing data.", e);
 
@@ -161,6 +206,8 @@ public class TcpConnection extends Connection {
                 if (netLoop != null) {
                     netLoop.stop(false);
                 }
+            } finally {
+                BufferPool.getDefault().release(buffer);
             }
         }
     }
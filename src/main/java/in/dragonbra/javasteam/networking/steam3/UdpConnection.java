@@ -3,15 +3,18 @@ package in.dragonbra.javasteam.networking.steam3;
 import in.dragonbra.javasteam.enums.EUdpPacketType;
 import in.dragonbra.javasteam.generated.ChallengeData;
 import in.dragonbra.javasteam.generated.ConnectData;
+import in.dragonbra.javasteam.util.NamedThreadFactory;
+import in.dragonbra.javasteam.util.ThreadPerTaskExecutor;
 import in.dragonbra.javasteam.util.log.LogManager;
 import in.dragonbra.javasteam.util.log.Logger;
 import in.dragonbra.javasteam.util.stream.MemoryStream;
 import in.dragonbra.javasteam.util.stream.SeekOrigin;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.net.*;
 import java.util.*;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.atomic.AtomicReference;
 
 /**
@@ -49,7 +52,7 @@ public class UdpConnection extends Connection {
     private volatile AtomicReference<State> state;
 
 
-    private Thread netThread;
+    private final Executor ioExecutor;
     private NetLoop netLoop;
     private DatagramSocket sock;
 
@@ -91,7 +94,22 @@ public class UdpConnection extends Connection {
 
     private InetSocketAddress currentEndPoint;
 
+    /**
+     * Initializes a new instance of the {@link UdpConnection} class that runs its network loop on its own thread.
+     */
     public UdpConnection() {
+        this(null);
+    }
+
+    /**
+     * Initializes a new instance of the {@link UdpConnection} class.
+     *
+     * @param ioExecutor the executor the network loop runs on, may be null to run it on its own thread.
+     */
+    public UdpConnection(Executor ioExecutor) {
+        this.ioExecutor = ioExecutor != null ? ioExecutor
+                : new ThreadPerTaskExecutor(new NamedThreadFactory("UdpConnection Thread", false));
+
         try {
             sock = new DatagramSocket();
         } catch (SocketException e) {
@@ -119,13 +137,19 @@ public class UdpConnection extends Connection {
 
         logger.debug("connecting to " + endPoint);
         netLoop = new NetLoop(endPoint);
-        netThread = new Thread(netLoop, "UdpConnection Thread");
-        netThread.start();
+
+        try {
+            ioExecutor.execute(netLoop);
+        } catch (RejectedExecutionException e) {
+            logger.debug("Couldn't start the network loop", e);
+            netLoop = null;
+            onDisconnected(false);
+        }
     }
 
     @Override
     public void disconnect() {
-        if (netThread == null) {
+        if (netLoop == null) {
             return;
         }
 
@@ -335,20 +359,31 @@ public class UdpConnection extends Connection {
             return false;
         }
 
-        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        List<UdpPacket> parts = new ArrayList<>(numPackets);
+        int length = 0;
         for (int i = 0; i < numPackets; i++) {
             UdpPacket packet;
 
             packet = inPackets.get(++inSeqHandled);
             inPackets.remove(inSeqHandled);
 
-            try {
-                baos.write(packet.getPayload().toByteArray());
-            } catch (IOException ignored) {
-            }
+            parts.add(packet);
+            length += (int) packet.getPayload().getLength();
         }
 
-        byte[] data = baos.toByteArray();
+        // reassemble straight into a buffer of the final size
+        byte[] data = new byte[length];
+        int offset = 0;
+        for (UdpPacket packet : parts) {
+            MemoryStream payload = packet.getPayload();
+            int size = (int) payload.getLength();
+
+            if (size > 0) {
+                payload.seek(0, SeekOrigin.BEGIN);
+                payload.read(data, offset, size);
+                offset += size;
+            }
+        }
 
         logger.debug("Dispatchin message: " + data.length + " bytes");
 
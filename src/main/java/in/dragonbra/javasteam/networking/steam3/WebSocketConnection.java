@@ -1,32 +1,175 @@
 package in.dragonbra.javasteam.networking.steam3;
 
+import in.dragonbra.javasteam.util.DnsCache;
+import in.dragonbra.javasteam.util.NamedThreadFactory;
+import in.dragonbra.javasteam.util.ThreadPerTaskExecutor;
 import in.dragonbra.javasteam.util.log.LogManager;
 import in.dragonbra.javasteam.util.log.Logger;
 
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLSessionContext;
+import javax.net.ssl.SSLSocketFactory;
+import java.io.IOException;
 import java.net.InetAddress;
 import java.net.InetSocketAddress;
+import java.net.Socket;
 import java.net.URI;
+import java.security.GeneralSecurityException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.atomic.AtomicReference;
 
 public class WebSocketConnection extends Connection implements WebSocketCMClient.WSListener {
 
     private static final Logger logger = LogManager.getLogger(WebSocketConnection.class);
 
+    /**
+     * How long resolved CM host names are reused, in milliseconds.
+     */
+    private static final long DNS_TTL = 5 * 60 * 1000L;
+
+    /**
+     * How long TLS sessions are kept for resumption, in seconds.
+     */
+    private static final int SESSION_TIMEOUT = 60 * 60;
+
+    private static final int SESSION_CACHE_SIZE = 256;
+
+    private static final DnsCache dnsCache = new DnsCache(DNS_TTL);
+
+    private static volatile SSLSocketFactory socketFactory;
+
     private AtomicReference<WebSocketCMClient> client = new AtomicReference<>(null);
 
+    private volatile InetSocketAddress currentEndPoint;
+
+    private final Executor ioExecutor;
+
     private volatile boolean userInitiated = false;
 
+    /**
+     * Initializes a new instance of the {@link WebSocketConnection} class that connects and reads on its own thread.
+     */
+    public WebSocketConnection() {
+        this(null);
+    }
+
+    /**
+     * Initializes a new instance of the {@link WebSocketConnection} class. The WebSocket library still starts its own
+     * thread for writing.
+     *
+     * @param ioExecutor the executor the socket is opened and read on, may be null to run it on its own thread.
+     */
+    public WebSocketConnection(Executor ioExecutor) {
+        this.ioExecutor = ioExecutor != null ? ioExecutor
+                : new ThreadPerTaskExecutor(new NamedThreadFactory("WebSocketConnection Thread", false));
+    }
+
     @Override
-    public void connect(InetSocketAddress endPoint, int timeout) {
+    public void connect(final InetSocketAddress endPoint, final int timeout) {
         logger.debug("Connecting to " + endPoint + "...");
-        WebSocketCMClient newClient = new WebSocketCMClient(getUri(endPoint), timeout, this);
+        final WebSocketCMClient newClient = new WebSocketCMClient(getUri(endPoint), timeout, this);
         WebSocketCMClient oldClient = client.getAndSet(newClient);
         if (oldClient != null) {
             logger.debug("Attempted to connect while already connected. Closing old connection...");
             oldClient.close();
         }
 
-        newClient.connect();
+        currentEndPoint = endPoint;
+
+        try {
+            // the lookup and the TCP and TLS handshakes block, so they run on the read loop's thread as well
+            ioExecutor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    Socket socket;
+
+                    try {
+                        socket = openSocket(endPoint, timeout);
+                    } catch (IOException | GeneralSecurityException e) {
+                        logger.debug("Exception while connecting to " + endPoint, e);
+                        connectFailed(newClient);
+                        return;
+                    }
+
+                    currentEndPoint = (InetSocketAddress) socket.getRemoteSocketAddress();
+
+                    // the client is its own read loop, connect() would only start another thread for it
+                    newClient.setSocket(socket);
+                    newClient.run();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            logger.debug("Couldn't start the read loop for " + endPoint, e);
+            connectFailed(newClient);
+        }
+    }
+
+    private void connectFailed(WebSocketCMClient failedClient) {
+        // a disconnect() while the socket was being opened already took the client out
+        boolean current = client.compareAndSet(failedClient, null);
+        onDisconnected(!current && userInitiated);
+    }
+
+    /**
+     * Opens the TLS socket for the websocket ourselves, so host names are resolved through the {@link DnsCache} and all
+     * connections share one {@link SSLContext} whose session cache lets reconnects resume the previous TLS session
+     * instead of doing a full handshake.
+     */
+    private static Socket openSocket(InetSocketAddress endPoint, int timeout) throws IOException, GeneralSecurityException {
+        String host = endPoint.getHostString();
+        int port = endPoint.getPort();
+
+        InetAddress[] addresses = endPoint.isUnresolved()
+                ? dnsCache.resolve(host)
+                : new InetAddress[]{endPoint.getAddress()};
+
+        IOException lastException = null;
+
+        for (InetAddress address : addresses) {
+            Socket socket = new Socket();
+            try {
+                socket.setTcpNoDelay(true);
+                socket.connect(new InetSocketAddress(address, port), timeout);
+
+                // the host and port given here are what the session cache is keyed on, and what goes into SNI
+                return getSocketFactory().createSocket(socket, host, port, true);
+            } catch (IOException e) {
+                lastException = e;
+                try {
+                    socket.close();
+                } catch (IOException ignored) {
+                }
+            }
+        }
+
+        // the cached addresses could be stale, look the host up again next time
+        dnsCache.invalidate(host);
+
+        throw lastException != null ? lastException : new IOException("No addresses for " + host);
+    }
+
+    private static SSLSocketFactory getSocketFactory() throws GeneralSecurityException {
+        SSLSocketFactory factory = socketFactory;
+
+        if (factory == null) {
+            synchronized (WebSocketConnection.class) {
+                factory = socketFactory;
+                if (factory == null) {
+                    SSLContext context = SSLContext.getInstance("TLS");
+                    context.init(null, null, null);
+
+                    SSLSessionContext sessionContext = context.getClientSessionContext();
+                    sessionContext.setSessionCacheSize(SESSION_CACHE_SIZE);
+                    sessionContext.setSessionTimeout(SESSION_TIMEOUT);
+
+                    factory = context.getSocketFactory();
+                    socketFactory = factory;
+                }
+            }
+        }
+
+        return factory;
     }
 
     @Override
@@ -46,12 +189,18 @@ public class WebSocketConnection extends Connection implements WebSocketCMClient
 
     @Override
     public InetAddress getLocalIP() {
-        return client.get().getLocalSocketAddress().getAddress();
+        WebSocketCMClient current = client.get();
+
+        if (current == null || current.getLocalSocketAddress() == null) {
+            return null;
+        }
+
+        return current.getLocalSocketAddress().getAddress();
     }
 
     @Override
     public InetSocketAddress getCurrentEndPoint() {
-        return client.get().getRemoteSocketAddress();
+        return currentEndPoint;
     }
 
     @Override
@@ -18,10 +18,13 @@ import in.dragonbra.javasteam.steam.discovery.ServerRecord;
 import in.dragonbra.javasteam.steam.discovery.SmartCMServerList;
 import in.dragonbra.javasteam.steam.steamclient.configuration.SteamConfiguration;
 import in.dragonbra.javasteam.types.SteamID;
+import in.dragonbra.javasteam.util.BufferPool;
 import in.dragonbra.javasteam.util.IDebugNetworkListener;
 import in.dragonbra.javasteam.util.MsgUtil;
 import in.dragonbra.javasteam.util.NetHelpers;
 import in.dragonbra.javasteam.util.NetHookNetworkListener;
+import in.dragonbra.javasteam.util.SerialExecutor;
+import in.dragonbra.javasteam.util.ThreadPerTaskExecutor;
 import in.dragonbra.javasteam.util.event.EventArgs;
 import in.dragonbra.javasteam.util.event.EventHandler;
 import in.dragonbra.javasteam.util.event.ScheduledFunction;
@@ -35,6 +38,8 @@ import java.io.IOException;
 import java.net.InetAddress;
 import java.net.InetSocketAddress;
 import java.util.*;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.zip.GZIPInputStream;
 
 /**
@@ -45,35 +50,54 @@ public abstract class CMClient {
 
     private static final Logger logger = LogManager.getLogger(CMClient.class);
 
-    private SteamConfiguration configuration;
-
-    private boolean isConnected;
-
-    private long sessionToken;
+    private static final long FLUSH_TIMEOUT = 1000L;
 
-    private Integer cellID;
-
-    private Integer sessionID;
+    private SteamConfiguration configuration;
 
-    private SteamID steamID;
+    // written from the transport, dispatch and caller threads, so every change goes through updateState
+    private final AtomicReference<SessionState> state = new AtomicReference<>(SessionState.DISCONNECTED);
 
     private IDebugNetworkListener debugNetworkListener;
 
-    private boolean expectDisconnection;
+    // set by handlers on application threads, read when the transport reports the disconnect
+    private volatile boolean expectDisconnection;
 
     // connection lock around the setup and tear down of the connection task
     private final Object connectionLock = new Object();
 
-    private Connection connection;
+    private volatile Connection connection;
+
+    private volatile OutboundQueue outboundQueue;
+
+    // an idle, already handshaked connection to a different CM that can take over when the primary one drops
+    private Connection standbyConnection;
+
+    private boolean standbyReady;
 
     private ScheduledFunction heartBeatFunc;
 
-    private Map<EServerType, Set<InetSocketAddress>> serverMap;
+    // never changed once published, a server list replaces it with a new map, so getServers(EServerType) reads it
+    // without locking
+    private volatile Map<EServerType, Set<InetSocketAddress>> serverMap;
+
+    private final Object serverMapLock = new Object();
+
+    // stages of the receive pipeline, null when messages are handled on the transport thread
+    private final SerialExecutor decodeStage;
+
+    private final SerialExecutor dispatchStage;
+
+    // runs the network loops of the connections, null when every loop starts its own named thread
+    private final Executor ioExecutor;
+
+    // runs the writers of the outbound queues, which hold their thread for the lifetime of the connection and so
+    // never share the io executor, null when every writer starts its own named thread
+    private final Executor writerExecutor;
 
     private final EventHandler<NetMsgEventArgs> netMsgReceived = new EventHandler<NetMsgEventArgs>() {
         @Override
         public void handleEvent(Object sender, NetMsgEventArgs e) {
-            onClientMsgReceived(getPacketMsg(e.getData()));
+            onNetMsgReceived(e.getData());
         }
     };
 
@@ -82,31 +106,79 @@ public abstract class CMClient {
         public void handleEvent(Object sender, EventArgs e) {
             getServers().tryMark(connection.getCurrentEndPoint(), connection.getProtocolTypes(), ServerQuality.GOOD);
 
-            isConnected = true;
+            updateState(new StateUpdate() {
+                @Override
+                SessionState apply(SessionState current) {
+                    return current.withConnected(true);
+                }
+            });
             onClientConnected();
         }
     };
 
     private final EventHandler<DisconnectedEventArgs> disconnected = new EventHandler<DisconnectedEventArgs>() {
         @Override
-        public void handleEvent(Object sender, DisconnectedEventArgs e) {
-            isConnected = false;
+        public void handleEvent(final Object sender, final DisconnectedEventArgs e) {
+            if (decodeStage == null) {
+                handleDisconnected((Connection) sender, e);
+                return;
+            }
 
-            if (!e.isUserInitiated() && !expectDisconnection) {
-                getServers().tryMark(connection.getCurrentEndPoint(), connection.getProtocolTypes(), ServerQuality.BAD);
+            // pass the disconnect through the pipeline so it is handled after the messages received before it
+            decodeStage.execute(new Runnable() {
+                @Override
+                public void run() {
+                    // lowest priority, so every message that is still waiting gets dispatched first
+                    dispatchStage.execute(new Runnable() {
+                        @Override
+                        public void run() {
+                            handleDisconnected((Connection) sender, e);
+                        }
+                    }, InboundLane.BULK.ordinal());
+                }
+            });
+        }
+    };
+
+    private final EventHandler<NetMsgEventArgs> standbyNetMsgReceived = new EventHandler<NetMsgEventArgs>() {
+        @Override
+        public void handleEvent(Object sender, NetMsgEventArgs e) {
+            // nothing is expected on an idle connection before logon
+            logger.debug("Dropping message received on standby connection");
+        }
+    };
+
+    private final EventHandler<EventArgs> standbyConnected = new EventHandler<EventArgs>() {
+        @Override
+        public void handleEvent(Object sender, EventArgs e) {
+            synchronized (connectionLock) {
+                if (sender == standbyConnection) {
+                    logger.debug("Standby connection established to " + standbyConnection.getCurrentEndPoint());
+                    standbyReady = true;
+                }
             }
+        }
+    };
 
-            sessionID = null;
-            steamID = null;
+    private final EventHandler<DisconnectedEventArgs> standbyDisconnected = new EventHandler<DisconnectedEventArgs>() {
+        @Override
+        public void handleEvent(Object sender, DisconnectedEventArgs e) {
+            boolean lost = false;
 
-            connection.getNetMsgReceived().removeEventHandler(netMsgReceived);
-            connection.getConnected().removeEventHandler(connected);
-            connection.getDisconnected().removeEventHandler(this);
-            connection = null;
+            synchronized (connectionLock) {
+                Connection conn = (Connection) sender;
+                detachStandbyHandlers(conn);
 
-            heartBeatFunc.stop();
+                if (conn == standbyConnection) {
+                    standbyConnection = null;
+                    standbyReady = false;
+                    lost = !e.isUserInitiated();
+                }
+            }
 
-            onClientDisconnected(e.isUserInitiated() || expectDisconnection);
+            if (lost) {
+                onStandbyConnectionLost();
+            }
         }
     };
 
@@ -116,14 +188,37 @@ public abstract class CMClient {
         }
 
         this.configuration = configuration;
-        this.serverMap = new HashMap<>();
+        this.serverMap = Collections.emptyMap();
+
+        ReceivePipeline pipeline = configuration.getReceivePipeline();
+        if (pipeline != null) {
+            decodeStage = pipeline.createDecodeStage();
+            dispatchStage = pipeline.createDispatchStage();
+        } else {
+            decodeStage = null;
+            dispatchStage = null;
+        }
+
+        if (configuration.getIOExecutor() != null) {
+            ioExecutor = configuration.getIOExecutor();
+        } else if (configuration.getThreadFactory() != null) {
+            ioExecutor = new ThreadPerTaskExecutor(configuration.getThreadFactory());
+        } else {
+            ioExecutor = null;
+        }
+
+        if (configuration.getThreadFactory() != null) {
+            writerExecutor = new ThreadPerTaskExecutor(configuration.getThreadFactory());
+        } else {
+            writerExecutor = null;
+        }
 
         heartBeatFunc = new ScheduledFunction(new Runnable() {
             @Override
             public void run() {
                 send(new ClientMsgProtobuf<CMsgClientHeartBeat.Builder>(CMsgClientHeartBeat.class, EMsg.ClientHeartBeat));
             }
-        }, 5000);
+        }, 5000, configuration.getScheduler(), configuration.getThreadFactory());
     }
 
     /**
@@ -147,22 +242,38 @@ public abstract class CMClient {
      * @param cmServer The {@link ServerRecord} of the CM server to connect to.
      */
     public void connect(ServerRecord cmServer) {
+        flushOutboundQueue();
+
         synchronized (connectionLock) {
             try {
-                disconnect();
+                Connection replaced = connection;
+
+                if (replaced != null) {
+                    // the disconnect of the replaced connection arrives after the new one is assigned and would be
+                    // ignored, so its session ends here
+                    clearConnection(replaced);
+                    replaced.disconnect();
+                    onClientDisconnected(true);
+                }
 
-                assert connection != null;
+                closeConnection();
 
                 expectDisconnection = false;
 
                 if (cmServer == null) {
-                    cmServer = getServers().getNextServerCandidate(configuration.getProtocolTypes());
+                    if (configuration.getLogonScheduler() != null) {
+                        // spread the clients sharing this configuration over the healthy servers
+                        cmServer = configuration.getLogonScheduler().nextServer(getServers(), configuration.getProtocolTypes());
+                    } else {
+                        cmServer = getServers().getNextServerCandidate(configuration.getProtocolTypes());
+                    }
                 }
 
                 connection = createConnection(configuration.getProtocolTypes());
                 connection.getNetMsgReceived().addEventHandler(netMsgReceived);
                 connection.getConnected().addEventHandler(connected);
                 connection.getDisconnected().addEventHandler(disconnected);
+                outboundQueue = createOutboundQueue(connection);
                 connection.connect(cmServer.getEndpoint());
             } catch (Exception e) {
                 logger.debug("Failed to connect to Steam network", e);
@@ -175,39 +286,217 @@ public abstract class CMClient {
      * Disconnects this client.
      */
     public void disconnect() {
+        flushOutboundQueue();
+
         synchronized (connectionLock) {
-            heartBeatFunc.stop();
+            closeConnection();
+        }
+    }
+
+    // gives messages sent right before disconnecting, like a log off, a chance to go out. This runs without the
+    // connection lock, so connect and disconnect calls on other threads are not held up for the flush timeout
+    private void flushOutboundQueue() {
+        OutboundQueue queue = outboundQueue;
+
+        if (queue != null) {
+            queue.flush(FLUSH_TIMEOUT);
+        }
+    }
+
+    private void closeConnection() {
+        heartBeatFunc.stop();
+
+        if (connection != null) {
+            connection.disconnect();
+        }
+    }
+
+    /**
+     * Opens a second connection to a different CM server and keeps it idle, so that it can take over with
+     * {@link #promoteStandbyConnection()} when the primary connection drops, without waiting for a new TCP and
+     * encryption handshake. This call blocks for as long as establishing the connection takes, without holding up
+     * other calls on this client.
+     *
+     * @return <b>true</b> if a standby connection was started or already exists; otherwise, <b>false</b>.
+     */
+    public boolean prepareStandbyConnection() {
+        Connection conn;
+        ServerRecord cmServer;
+
+        synchronized (connectionLock) {
+            if (standbyConnection != null) {
+                return true;
+            }
+
+            InetSocketAddress current = connection != null ? connection.getCurrentEndPoint() : null;
+            cmServer = getServers().getNextServerCandidate(configuration.getProtocolTypes(), current);
+
+            if (cmServer == null) {
+                logger.debug("No server available for a standby connection");
+                return false;
+            }
 
-            if (connection != null) {
-                connection.disconnect();
+            try {
+                conn = createConnection(configuration.getProtocolTypes());
+            } catch (Exception e) {
+                logger.debug("Failed to open standby connection", e);
+                return false;
+            }
+
+            // published before connecting, so concurrent calls don't open a second one
+            standbyReady = false;
+            standbyConnection = conn;
+            conn.getNetMsgReceived().addEventHandler(standbyNetMsgReceived);
+            conn.getConnected().addEventHandler(standbyConnected);
+            conn.getDisconnected().addEventHandler(standbyDisconnected);
+        }
+
+        boolean failed = false;
+
+        try {
+            // connecting can block for the whole timeout, so it runs outside the lock
+            conn.connect(cmServer.getEndpoint());
+        } catch (Exception e) {
+            logger.debug("Failed to open standby connection", e);
+            failed = true;
+        }
+
+        boolean closed;
+
+        synchronized (connectionLock) {
+            closed = standbyConnection != conn;
+
+            if (failed || closed) {
+                detachStandbyHandlers(conn);
+            }
+
+            if (failed && !closed) {
+                standbyConnection = null;
+                standbyReady = false;
+            }
+        }
+
+        if (closed && !failed) {
+            // closed or replaced while connecting
+            conn.disconnect();
+        }
+
+        return !failed && !closed;
+    }
+
+    /**
+     * Replaces the current connection with the standby connection prepared by {@link #prepareStandbyConnection()}.
+     * This only succeeds when the client is not connected and the standby connection has finished its handshake. On
+     * success the client behaves exactly as if {@link #connect()} had just completed.
+     *
+     * @return <b>true</b> if the standby connection was promoted; otherwise, <b>false</b>.
+     */
+    public boolean promoteStandbyConnection() {
+        Connection promoted;
+
+        synchronized (connectionLock) {
+            if (standbyConnection == null || !standbyReady || connection != null) {
+                return false;
             }
+
+            promoted = standbyConnection;
+            detachStandbyHandlers(promoted);
+            standbyConnection = null;
+            standbyReady = false;
+
+            expectDisconnection = false;
+
+            connection = promoted;
+            connection.getNetMsgReceived().addEventHandler(netMsgReceived);
+            connection.getConnected().addEventHandler(connected);
+            connection.getDisconnected().addEventHandler(disconnected);
+            outboundQueue = createOutboundQueue(connection);
         }
+
+        logger.debug("Promoted standby connection to " + promoted.getCurrentEndPoint());
+
+        // the handshake already happened, replay the connected event for the promoted connection. This runs outside
+        // the lock, the handlers log on and send messages, which must not hold up connect and disconnect calls
+        connected.handleEvent(promoted, EventArgs.EMPTY);
+        return true;
+    }
+
+    /**
+     * Closes the standby connection, if there is one.
+     */
+    public void closeStandbyConnection() {
+        Connection conn;
+
+        synchronized (connectionLock) {
+            conn = standbyConnection;
+            standbyConnection = null;
+            standbyReady = false;
+        }
+
+        if (conn != null) {
+            conn.disconnect();
+        }
+    }
+
+    /**
+     * @return <b>true</b> if a standby connection is established and ready to be promoted.
+     */
+    public boolean isStandbyConnectionReady() {
+        synchronized (connectionLock) {
+            return standbyConnection != null && standbyReady;
+        }
+    }
+
+    private void detachStandbyHandlers(Connection conn) {
+        conn.getNetMsgReceived().removeEventHandler(standbyNetMsgReceived);
+        conn.getConnected().removeEventHandler(standbyConnected);
+        conn.getDisconnected().removeEventHandler(standbyDisconnected);
     }
 
     /**
      * Sends the specified client message to the server. This method automatically assigns the correct SessionID and
-     * SteamID of the message.
+     * SteamID of the message. If the outbound queue of the connection is full, this call waits until there is room.
      *
      * @param msg The client message to send.
      */
     public void send(IClientMsg msg) {
+        send(msg, true);
+    }
+
+    /**
+     * Sends the specified client message to the server unless the outbound queue of the connection is full. This
+     * method automatically assigns the correct SessionID and SteamID of the message.
+     *
+     * @param msg The client message to send.
+     * @return <b>true</b> if the message was queued or sent; <b>false</b> if the queue is full or there is no connection.
+     */
+    public boolean trySend(IClientMsg msg) {
+        return send(msg, false);
+    }
+
+    private boolean send(IClientMsg msg, boolean block) {
         if (msg == null) {
             throw new IllegalArgumentException("A value for 'msg' must be supplied");
         }
 
-        if (sessionID != null) {
-            msg.setSessionID(sessionID);
+        // one read, so the session ID and SteamID always belong to the same session
+        SessionState current = state.get();
+
+        if (current.sessionID != null) {
+            msg.setSessionID(current.sessionID);
         }
 
-        if (steamID != null) {
-            msg.setSteamID(steamID);
+        if (current.steamID != null) {
+            msg.setSteamID(current.steamID);
         }
 
         logger.debug(String.format("Sent -> EMsg: %s (Proto: %s)", msg.getMsgType(), msg.isProto()));
 
+        byte[] data = msg.serialize();
+
         try {
             if (debugNetworkListener != null) {
-                debugNetworkListener.onOutgoingNetworkMessage(msg.getMsgType(), msg.serialize());
+                debugNetworkListener.onOutgoingNetworkMessage(msg.getMsgType(), data);
             }
         } catch (Exception e) {
             logger.debug("DebugNetworkListener threw an exception", e);
@@ -217,9 +506,41 @@ public abstract class CMClient {
         // on the network thread, and that will lead to a disconnect callback
         // down the line
 
-        if (connection != null) {
-            connection.send(msg.serialize());
+        OutboundQueue queue = outboundQueue;
+        if (queue != null) {
+            return block ? queue.put(msg.getMsgType(), data) : queue.offer(msg.getMsgType(), data);
         }
+
+        Connection conn = connection;
+        if (conn != null) {
+            conn.send(data);
+            return true;
+        }
+
+        return false;
+    }
+
+    // hands a message read by the connection to the receive pipeline, or handles it right away without one
+    void onNetMsgReceived(final byte[] data) {
+        if (decodeStage == null) {
+            onClientMsgReceived(getPacketMsg(data));
+            return;
+        }
+
+        decodeStage.execute(new Runnable() {
+            @Override
+            public void run() {
+                for (final IPacketMsg packetMsg : decodePacketMsgs(data)) {
+                    InboundLane lane = InboundLane.classify(packetMsg != null ? packetMsg.getMsgType() : null);
+                    dispatchStage.execute(new Runnable() {
+                        @Override
+                        public void run() {
+                            onClientMsgReceived(packetMsg);
+                        }
+                    }, lane.ordinal());
+                }
+            }
+        });
     }
 
     /**
@@ -294,18 +615,87 @@ public abstract class CMClient {
      * @param userInitiated whether the disconnect was initialized by the client
      */
     protected void onClientDisconnected(boolean userInitiated) {
-        for (Set<InetSocketAddress> set : serverMap.values()) {
-            set.clear();
+        synchronized (serverMapLock) {
+            serverMap = Collections.emptyMap();
+        }
+    }
+
+    /**
+     * Called when the standby connection was dropped by the remote end.
+     */
+    protected void onStandbyConnectionLost() {
+
+    }
+
+    private void handleDisconnected(Connection conn, DisconnectedEventArgs e) {
+        synchronized (connectionLock) {
+            if (conn != connection) {
+                // connect() replaced this connection and already ended its session
+                logger.debug("Ignoring disconnect of a replaced connection");
+                detachHandlers(conn);
+                return;
+            }
+
+            if (!e.isUserInitiated() && !expectDisconnection) {
+                getServers().tryMark(conn.getCurrentEndPoint(), conn.getProtocolTypes(), ServerQuality.BAD);
+            }
+
+            clearConnection(conn);
         }
+
+        onClientDisconnected(e.isUserInitiated() || expectDisconnection);
+    }
+
+    // drops the connection along with its outbound queue and session, the caller holds the connection lock
+    private void clearConnection(Connection conn) {
+        detachHandlers(conn);
+
+        connection = null;
+
+        if (outboundQueue != null) {
+            outboundQueue.close();
+            outboundQueue = null;
+        }
+
+        heartBeatFunc.stop();
+
+        updateState(new StateUpdate() {
+            @Override
+            SessionState apply(SessionState current) {
+                return current.withConnected(false).withSession(null, null);
+            }
+        });
+    }
+
+    private void detachHandlers(Connection conn) {
+        conn.getNetMsgReceived().removeEventHandler(netMsgReceived);
+        conn.getConnected().removeEventHandler(connected);
+        conn.getDisconnected().removeEventHandler(disconnected);
+    }
+
+    private OutboundQueue createOutboundQueue(Connection connection) {
+        if (configuration.getOutboundQueueCapacity() <= 0) {
+            return null;
+        }
+
+        MultiMessageBatcher batcher = null;
+        if (configuration.getMessageBatching() != null) {
+            batcher = new MultiMessageBatcher(this, configuration.getMessageBatching());
+        }
+
+        OutboundQueue queue = new OutboundQueue(connection, configuration.getOutboundQueueCapacity(),
+                configuration.getOutboundRateLimits(), batcher, writerExecutor);
+        queue.start();
+        return queue;
     }
 
     private Connection createConnection(EnumSet<ProtocolTypes> protocol) {
         if (protocol.contains(ProtocolTypes.WEB_SOCKET)) {
-            return new WebSocketConnection();
+            return new WebSocketConnection(ioExecutor);
         } else if (protocol.contains(ProtocolTypes.TCP)) {
-            return new EnvelopeEncryptedConnection(new TcpConnection(), getUniverse());
+            return new EnvelopeEncryptedConnection(new TcpConnection(ioExecutor), getUniverse(), configuration.getReceivePipeline());
         } else if (protocol.contains(ProtocolTypes.UDP)) {
-            return new EnvelopeEncryptedConnection(new UdpConnection(), getUniverse());
+            return new EnvelopeEncryptedConnection(new UdpConnection(ioExecutor), getUniverse(), configuration.getReceivePipeline());
         }
 
         throw new IllegalArgumentException("Protocol bitmask has no supported protocols set.");
@@ -350,34 +740,58 @@ public abstract class CMClient {
         }
     }
 
+    /**
+     * Parses a message and, if it is a multi message, unpacks it into the messages it contains.
+     *
+     * @param data the raw message.
+     * @return the messages in the order they are to be handled, a null entry marks a message that failed to parse.
+     */
+    private static List<IPacketMsg> decodePacketMsgs(byte[] data) {
+        List<IPacketMsg> packetMsgs = new ArrayList<>();
+        decodePacketMsgs(data, packetMsgs);
+        return packetMsgs;
+    }
+
+    private static boolean decodePacketMsgs(byte[] data, List<IPacketMsg> packetMsgs) {
+        IPacketMsg packetMsg = getPacketMsg(data);
+
+        if (packetMsg == null || packetMsg.getMsgType() != EMsg.Multi || !packetMsg.isProto()) {
+            packetMsgs.add(packetMsg);
+            return packetMsg != null;
+        }
+
+        byte[] payload = unpackMulti(packetMsg);
+
+        if (payload == null) {
+            return true;
+        }
+
+        try (BinaryReader br = new BinaryReader(new ByteArrayInputStream(payload))) {
+            while (br.available() > 0) {
+                int subSize = br.readInt();
+                byte[] subData = br.readBytes(subSize);
+
+                if (!decodePacketMsgs(subData, packetMsgs)) {
+                    return false;
+                }
+            }
+        } catch (IOException e) {
+            logger.debug("HandleMulti encountered an exception when reading the messages.", e);
+        }
+
+        return true;
+    }
+
     private void handleMulti(IPacketMsg packetMsg) {
         if (!packetMsg.isProto()) {
             logger.debug("HandleMulti got non-proto MsgMulti!!");
             return;
         }
 
-        ClientMsgProtobuf<CMsgMulti.Builder> msgMulti = new ClientMsgProtobuf<>(CMsgMulti.class, packetMsg);
+        byte[] payload = unpackMulti(packetMsg);
 
-        byte[] payload = msgMulti.getBody().getMessageBody().toByteArray();
-
-        if (msgMulti.getBody().getSizeUnzipped() > 0) {
-            try {
-                GZIPInputStream gzin = new GZIPInputStream(new ByteArrayInputStream(payload));
-                ByteArrayOutputStream baos = new ByteArrayOutputStream();
-
-                int res = 0;
-                byte buf[] = new byte[1024];
-                while (res >= 0) {
-                    res = gzin.read(buf, 0, buf.length);
-                    if (res > 0) {
-                        baos.write(buf, 0, res);
-                    }
-                }
-                payload = baos.toByteArray();
-            } catch (IOException e) {
-                logger.debug("HandleMulti encountered an exception when decompressing.", e);
-                return;
-            }
+        if (payload == null) {
+            return;
         }
 
         try (BinaryReader br = new BinaryReader(new ByteArrayInputStream(payload))) {
@@ -394,6 +808,72 @@ public abstract class CMClient {
         }
     }
 
+    /**
+     * @return the payload of a multi message, decompressed if needed, or null if it could not be decompressed.
+     */
+    private static byte[] unpackMulti(IPacketMsg packetMsg) {
+        ClientMsgProtobuf<CMsgMulti.Builder> msgMulti = new ClientMsgProtobuf<>(CMsgMulti.class, packetMsg);
+
+        int sizeUnzipped = msgMulti.getBody().getSizeUnzipped();
+
+        if (sizeUnzipped <= 0) {
+            return msgMulti.getBody().getMessageBody().toByteArray();
+        }
+
+        try (GZIPInputStream gzin = new GZIPInputStream(msgMulti.getBody().getMessageBody().newInput())) {
+            if (sizeUnzipped <= BufferPool.getDefault().getMaxSize()) {
+                return inflateExact(gzin, sizeUnzipped);
+            }
+
+            byte[] payload = inflate(gzin);
+
+            if (payload.length != sizeUnzipped) {
+                throw new IOException("Unzipped multi message does not match its announced size " + sizeUnzipped);
+            }
+
+            return payload;
+        } catch (IOException e) {
+            logger.debug("HandleMulti encountered an exception when decompressing.", e);
+            return null;
+        }
+    }
+
+    // the unzipped size is known, inflate straight into an array of that size instead of growing a stream
+    private static byte[] inflateExact(GZIPInputStream gzin, int size) throws IOException {
+        byte[] payload = new byte[size];
+
+        int offset = 0;
+        int res = 0;
+        while (res >= 0 && offset < payload.length) {
+            res = gzin.read(payload, offset, payload.length - offset);
+            if (res > 0) {
+                offset += res;
+            }
+        }
+
+        if (offset < payload.length || gzin.read() >= 0) {
+            throw new IOException("Unzipped multi message does not match its announced size " + size);
+        }
+
+        return payload;
+    }
+
+    // a large announced size is not trusted for a single allocation, the buffer only grows with the data
+    private static byte[] inflate(GZIPInputStream gzin) throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+
+        int res = 0;
+        byte[] buf = new byte[4096];
+        while (res >= 0) {
+            res = gzin.read(buf, 0, buf.length);
+            if (res > 0) {
+                baos.write(buf, 0, res);
+            }
+        }
+
+        return baos.toByteArray();
+    }
+
     private void handleLogOnResponse(IPacketMsg packetMsg) {
         if (!packetMsg.isProto()) {
             // a non proto ClientLogonResponse can come in as a result of connecting but never sending a ClientLogon
@@ -407,10 +887,16 @@ public abstract class CMClient {
         EResult logonResponse = EResult.from(logonResp.getBody().getEresult());
 
         if (logonResponse == EResult.OK) {
-            sessionID = logonResp.getProtoHeader().getClientSessionid();
-            steamID = new SteamID(logonResp.getProtoHeader().getSteamid());
-
-            cellID = logonResp.getBody().getCellId();
+            final int sessionID = logonResp.getProtoHeader().getClientSessionid();
+            final SteamID steamID = new SteamID(logonResp.getProtoHeader().getSteamid());
+            final int cellID = logonResp.getBody().getCellId();
+
+            updateState(new StateUpdate() {
+                @Override
+                SessionState apply(SessionState current) {
+                    return current.withSession(sessionID, steamID).withCellID(cellID);
+                }
+            });
 
             // restart heartbeat
             heartBeatFunc.stop();
@@ -422,10 +908,12 @@ public abstract class CMClient {
     }
 
     private void handleLoggedOff(IPacketMsg packetMsg) {
-        sessionID = null;
-        steamID = null;
-
-        cellID = null;
+        updateState(new StateUpdate() {
+            @Override
+            SessionState apply(SessionState current) {
+                return current.withSession(null, null).withCellID(null);
+            }
+        });
 
         heartBeatFunc.stop();
 
@@ -442,18 +930,28 @@ public abstract class CMClient {
     private void handleServerList(IPacketMsg packetMsg) {
         ClientMsgProtobuf<CMsgClientServerList.Builder> listMsg = new ClientMsgProtobuf<>(CMsgClientServerList.class, packetMsg);
 
-        for (CMsgClientServerList.Server server : listMsg.getBody().getServersList()) {
-            EServerType type = EServerType.from(server.getServerType());
+        synchronized (serverMapLock) {
+            Map<EServerType, Set<InetSocketAddress>> newMap = new HashMap<>();
 
-            Set<InetSocketAddress> endPointSet;
-            endPointSet = serverMap.get(type);
+            for (Map.Entry<EServerType, Set<InetSocketAddress>> entry : serverMap.entrySet()) {
+                newMap.put(entry.getKey(), new HashSet<>(entry.getValue()));
+            }
+
+            for (CMsgClientServerList.Server server : listMsg.getBody().getServersList()) {
+                EServerType type = EServerType.from(server.getServerType());
+
+                Set<InetSocketAddress> endPointSet;
+                endPointSet = newMap.get(type);
+
+                if (endPointSet == null) {
+                    endPointSet = new HashSet<>();
+                    newMap.put(type, endPointSet);
+                }
 
-            if (endPointSet == null) {
-                endPointSet = new HashSet<>();
-                serverMap.put(type, endPointSet);
+                endPointSet.add(new InetSocketAddress(NetHelpers.getIPAddress(server.getServerIp()), server.getServerPort()));
             }
 
-            endPointSet.add(new InetSocketAddress(NetHelpers.getIPAddress(server.getServerIp()), server.getServerPort()));
+            serverMap = newMap;
         }
     }
 
@@ -482,7 +980,22 @@ public abstract class CMClient {
     private void handleSessionToken(IPacketMsg packetMsg) {
         ClientMsgProtobuf<CMsgClientSessionToken.Builder> sessToken = new ClientMsgProtobuf<>(CMsgClientSessionToken.class, packetMsg);
 
-        sessionToken = sessToken.getBody().getToken();
+        final long token = sessToken.getBody().getToken();
+
+        updateState(new StateUpdate() {
+            @Override
+            SessionState apply(SessionState current) {
+                return current.withSessionToken(token);
+            }
+        });
+    }
+
+    private void updateState(StateUpdate update) {
+        SessionState current;
+
+        do {
+            current = state.get();
+        } while (!state.compareAndSet(current, update.apply(current)));
     }
 
     public SteamConfiguration getConfiguration() {
@@ -520,14 +1033,14 @@ public abstract class CMClient {
      * @return <b>true</b> if this instance is isConnected; otherwise, <b>false</b>.
      */
     public boolean isConnected() {
-        return isConnected;
+        return state.get().connected;
     }
 
     /**
      * @return the session token assigned to this client from the AM.
      */
     public long getSessionToken() {
-        return sessionToken;
+        return state.get().sessionToken;
     }
 
     /**
@@ -535,7 +1048,7 @@ public abstract class CMClient {
      * This value will be <b>null</b> if the client is logged off of Steam.
      */
     public Integer getCellID() {
-        return cellID;
+        return state.get().cellID;
     }
 
     /**
@@ -545,7 +1058,7 @@ public abstract class CMClient {
      * @return The session ID.
      */
     public Integer getSessionID() {
-        return sessionID;
+        return state.get().sessionID;
     }
 
     /**
@@ -555,7 +1068,7 @@ public abstract class CMClient {
      * @return The SteamID.
      */
     public SteamID getSteamID() {
-        return steamID;
+        return state.get().steamID;
     }
 
     /**
@@ -592,4 +1105,55 @@ public abstract class CMClient {
     public void setExpectDisconnection(boolean expectDisconnection) {
         this.expectDisconnection = expectDisconnection;
     }
+
+    /**
+     * Immutable snapshot of the session of a client. Every change creates a new snapshot, so readers on other threads
+     * always see a consistent set of values without locking.
+     */
+    private static final class SessionState {
+
+        static final SessionState DISCONNECTED = new SessionState(false, 0L, null, null, null);
+
+        final boolean connected;
+
+        final long sessionToken;
+
+        final Integer cellID;
+
+        final Integer sessionID;
+
+        final SteamID steamID;
+
+        SessionState(boolean connected, long sessionToken, Integer cellID, Integer sessionID, SteamID steamID) {
+            this.connected = connected;
+            this.sessionToken = sessionToken;
+            this.cellID = cellID;
+            this.sessionID = sessionID;
+            this.steamID = steamID;
+        }
+
+        SessionState withConnected(boolean connected) {
+            return new SessionState(connected, sessionToken, cellID, sessionID, steamID);
+        }
+
+        SessionState withSessionToken(long sessionToken) {
+            return new SessionState(connected, sessionToken, cellID, sessionID, steamID);
+        }
+
+        SessionState withCellID(Integer cellID) {
+            return new SessionState(connected, sessionToken, cellID, sessionID, steamID);
+        }
+
+        SessionState withSession(Integer sessionID, SteamID steamID) {
+            return new SessionState(connected, sessionToken, cellID, sessionID, steamID);
+        }
+    }
+
+    /**
+     * A change to the {@link SessionState}, which may be applied more than once if another thread changed the state
+     * at the same time.
+     */
+    private abstract static class StateUpdate {
+        abstract SessionState apply(SessionState current);
+    }
 }
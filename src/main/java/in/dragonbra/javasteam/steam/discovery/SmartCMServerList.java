@@ -142,15 +142,19 @@ public class SmartCMServerList {
      * Perform the actual score lookup of the server list and return the candidate.
      *
      * @param supportedProtocolTypes The minimum supported {@link ProtocolTypes} of the server to return.
+     * @param excludedEndPoint       An endpoint that must not be returned, may be null.
      * @return An {@link ServerRecord}, or null if the list is empty.
      */
-    private ServerRecord getNextServerCandidateInternal(EnumSet<ProtocolTypes> supportedProtocolTypes) {
+    private ServerRecord getNextServerCandidateInternal(EnumSet<ProtocolTypes> supportedProtocolTypes, InetSocketAddress excludedEndPoint) {
         resetOldScores();
 
         List<ServerInfo> serverInfos = new ArrayList<>();
-        for (ServerInfo serverInfo : servers) {
-            if (supportedProtocolTypes.contains(serverInfo.getProtocol())) {
-                serverInfos.add(serverInfo);
+        synchronized (servers) {
+            for (ServerInfo serverInfo : servers) {
+                if (supportedProtocolTypes.contains(serverInfo.getProtocol())
+                        && !serverInfo.getRecord().getEndpoint().equals(excludedEndPoint)) {
+                    serverInfos.add(serverInfo);
+                }
             }
         }
 
@@ -195,7 +199,25 @@ public class SmartCMServerList {
             return null;
         }
 
-        return getNextServerCandidateInternal(supportedProtocolTypes);
+        return getNextServerCandidateInternal(supportedProtocolTypes, null);
+    }
+
+    /**
+     * Get the next server in the list that is not the given endpoint. Useful to pick a server for a secondary connection
+     * that should not share the fate of the current one.
+     *
+     * @param supportedProtocolTypes The minimum supported {@link ProtocolTypes} of the server to return.
+     * @param excludedEndPoint       The endpoint to skip.
+     * @return An {@link ServerRecord}, or null if the list has no other servers.
+     */
+    public ServerRecord getNextServerCandidate(EnumSet<ProtocolTypes> supportedProtocolTypes, InetSocketAddress excludedEndPoint) {
+        try {
+            startFetchingServers();
+        } catch (IOException e) {
+            return null;
+        }
+
+        return getNextServerCandidateInternal(supportedProtocolTypes, excludedEndPoint);
     }
 
     /**
@@ -208,6 +230,34 @@ public class SmartCMServerList {
         return getNextServerCandidate(EnumSet.of(supportedProtocolTypes));
     }
 
+    /**
+     * Gets all servers that support one of the given protocols and are not currently marked as bad, in list order.
+     * Callers spreading many connections over the available servers can rotate through this list.
+     *
+     * @param supportedProtocolTypes The minimum supported {@link ProtocolTypes} of the servers to return.
+     * @return The healthy {@link ServerRecord ServerRecords}, may be empty.
+     */
+    public List<ServerRecord> getHealthyServerCandidates(EnumSet<ProtocolTypes> supportedProtocolTypes) {
+        try {
+            startFetchingServers();
+        } catch (IOException e) {
+            return new ArrayList<>();
+        }
+
+        resetOldScores();
+
+        List<ServerRecord> serverRecords = new ArrayList<>();
+        synchronized (servers) {
+            for (ServerInfo serverInfo : servers) {
+                if (supportedProtocolTypes.contains(serverInfo.getProtocol()) && serverInfo.getLastBadConnection() == null) {
+                    serverRecords.add(new ServerRecord(serverInfo.getRecord().getEndpoint(), serverInfo.getProtocol()));
+                }
+            }
+        }
+
+        return serverRecords;
+    }
+
     /**
      * Gets the {@link ServerRecord ServerRecords} of all servers in the server list.
      *
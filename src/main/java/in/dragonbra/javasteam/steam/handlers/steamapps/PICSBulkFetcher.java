@@ -0,0 +1,372 @@
+package in.dragonbra.javasteam.steam.handlers.steamapps;
+
+import in.dragonbra.javasteam.steam.handlers.steamapps.callback.PICSProductInfoCallback;
+import in.dragonbra.javasteam.steam.handlers.steamapps.callback.PICSTokensCallback;
+import in.dragonbra.javasteam.steam.steamclient.callbackmgr.CallbackMsg;
+import in.dragonbra.javasteam.types.AsyncJobMultiple;
+import in.dragonbra.javasteam.util.compat.Consumer;
+import in.dragonbra.javasteam.util.log.LogManager;
+import in.dragonbra.javasteam.util.log.Logger;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Fetches product info for large numbers of apps and packages. The IDs are split into chunks, the access tokens of a
+ * chunk are requested before its product info, and several chunks are kept in flight at once so that the throughput
+ * is not bound by the round trip time. Everything happens on the calling thread, which waits for the oldest chunk
+ * while the others are on the wire.
+ * <p>
+ * Access tokens are cached by the fetcher and reused by later fetches. Apps and packages reported as unknown, and
+ * chunks that timed out or failed, are requested again up to the given number of retries.
+ * <pre>
+ * PICSBulkFetcher fetcher = new PICSBulkFetcher(steamApps, 1000, 8, 1, 60000L);
+ * PICSBulkFetcher.Result result = fetcher.fetch(appIds, packageIds, consumer);
+ * </pre>
+ * This class is thread safe.
+ */
+public class PICSBulkFetcher {
+
+    private static final Logger logger = LogManager.getLogger(PICSBulkFetcher.class);
+
+    public static final int DEFAULT_CHUNK_SIZE = 500;
+
+    public static final int DEFAULT_MAX_IN_FLIGHT = 4;
+
+    public static final int DEFAULT_RETRIES = 1;
+
+    public static final long DEFAULT_TIMEOUT = 30000L;
+
+    private final SteamApps steamApps;
+
+    private final int chunkSize;
+
+    private final int maxInFlight;
+
+    private final int retries;
+
+    private final long timeout;
+
+    // resolved access tokens, 0 for apps and packages that need none or were denied one
+    private final Map<Integer, Long> appTokens = new ConcurrentHashMap<>();
+
+    private final Map<Integer, Long> packageTokens = new ConcurrentHashMap<>();
+
+    /**
+     * Initializes a new instance of the {@link PICSBulkFetcher} class with the default settings.
+     *
+     * @param steamApps the handler to make the requests with.
+     */
+    public PICSBulkFetcher(SteamApps steamApps) {
+        this(steamApps, DEFAULT_CHUNK_SIZE, DEFAULT_MAX_IN_FLIGHT, DEFAULT_RETRIES, DEFAULT_TIMEOUT);
+    }
+
+    /**
+     * Initializes a new instance of the {@link PICSBulkFetcher} class.
+     *
+     * @param steamApps   the handler to make the requests with.
+     * @param chunkSize   the amount of apps or packages requested at once.
+     * @param maxInFlight the amount of requests in flight at once.
+     * @param retries     how often apps and packages that could not be fetched are requested again.
+     * @param timeout     the time in milliseconds to wait for each response.
+     */
+    public PICSBulkFetcher(SteamApps steamApps, int chunkSize, int maxInFlight, int retries, long timeout) {
+        if (steamApps == null) {
+            throw new IllegalArgumentException("steamApps is null");
+        }
+
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("chunkSize must be positive");
+        }
+
+        if (maxInFlight <= 0) {
+            throw new IllegalArgumentException("maxInFlight must be positive");
+        }
+
+        if (retries < 0) {
+            throw new IllegalArgumentException("retries must not be negative");
+        }
+
+        if (timeout <= 0) {
+            throw new IllegalArgumentException("timeout must be positive");
+        }
+
+        this.steamApps = steamApps;
+        this.chunkSize = chunkSize;
+        this.maxInFlight = maxInFlight;
+        this.retries = retries;
+        this.timeout = timeout;
+    }
+
+    /**
+     * Fetches the product info of the given apps and packages, and blocks until all of it arrived or could not be
+     * fetched. The {@link PICSProductInfoCallback} callbacks are handed to the consumer on the calling thread as the
+     * chunks complete.
+     *
+     * @param apps     the IDs of the apps.
+     * @param packages the IDs of the packages.
+     * @param consumer receives the product info.
+     * @return the apps and packages that could not be fetched.
+     * @throws InterruptedException if the calling thread was interrupted.
+     */
+    public Result fetch(Iterable<Integer> apps, Iterable<Integer> packages, Consumer<PICSProductInfoCallback> consumer)
+            throws InterruptedException {
+        if (apps == null) {
+            throw new IllegalArgumentException("apps is null");
+        }
+
+        if (packages == null) {
+            throw new IllegalArgumentException("packages is null");
+        }
+
+        if (consumer == null) {
+            throw new IllegalArgumentException("consumer is null");
+        }
+
+        Deque<Chunk> pending = new ArrayDeque<>();
+        split(apps, false, pending);
+        split(packages, true, pending);
+
+        Deque<Chunk> inFlight = new ArrayDeque<>();
+        Result result = new Result();
+
+        try {
+            while (!pending.isEmpty() || !inFlight.isEmpty()) {
+                while (inFlight.size() < maxInFlight && !pending.isEmpty()) {
+                    Chunk chunk = pending.poll();
+                    chunk.start();
+                    inFlight.add(chunk);
+                }
+
+                Chunk chunk = inFlight.poll();
+
+                if (chunk.advance(consumer, pending, result)) {
+                    // it needs another round trip
+                    inFlight.add(chunk);
+                }
+            }
+        } finally {
+            for (Chunk chunk : inFlight) {
+                chunk.stop();
+            }
+        }
+
+        return result;
+    }
+
+    private void split(Iterable<Integer> ids, boolean packages, Deque<Chunk> pending) {
+        List<Integer> chunk = new ArrayList<>();
+
+        for (Integer id : ids) {
+            chunk.add(id);
+
+            if (chunk.size() == chunkSize) {
+                pending.add(new Chunk(packages, chunk, 0));
+                chunk = new ArrayList<>();
+            }
+        }
+
+        if (!chunk.isEmpty()) {
+            pending.add(new Chunk(packages, chunk, 0));
+        }
+    }
+
+    /**
+     * A chunk of apps or packages, which goes through an access token request and a product info request.
+     */
+    private final class Chunk {
+
+        private final boolean packages;
+
+        private final List<Integer> ids;
+
+        private final int attempt;
+
+        private AsyncJobMultiple<PICSTokensCallback> tokensJob;
+
+        private AsyncJobMultiple<PICSProductInfoCallback> productInfoJob;
+
+        Chunk(boolean packages, List<Integer> ids, int attempt) {
+            this.packages = packages;
+            this.ids = ids;
+            this.attempt = attempt;
+        }
+
+        void start() {
+            Map<Integer, Long> tokens = packages ? packageTokens : appTokens;
+            List<Integer> unresolved = new ArrayList<>();
+
+            for (Integer id : ids) {
+                if (!tokens.containsKey(id)) {
+                    unresolved.add(id);
+                }
+            }
+
+            if (unresolved.isEmpty()) {
+                requestProductInfo();
+                return;
+            }
+
+            List<Integer> none = Collections.emptyList();
+            tokensJob = packages
+                    ? steamApps.picsSendAccessTokens(none, unresolved, timeout)
+                    : steamApps.picsSendAccessTokens(unresolved, none, timeout);
+        }
+
+        // waits for the pending request, returns true if the chunk needs another one
+        boolean advance(Consumer<PICSProductInfoCallback> consumer, Deque<Chunk> pending, Result result)
+                throws InterruptedException {
+            if (tokensJob != null) {
+                AsyncJobMultiple.ResultSet<PICSTokensCallback> results = await(tokensJob);
+                tokensJob = null;
+
+                for (PICSTokensCallback callback : results.getResults()) {
+                    cacheTokens(callback);
+                }
+
+                // ids without a token are requested without one
+                requestProductInfo();
+                return true;
+            }
+
+            AsyncJobMultiple.ResultSet<PICSProductInfoCallback> results = await(productInfoJob);
+            productInfoJob = null;
+
+            Set<Integer> missing = new TreeSet<>(ids);
+            List<Integer> unknown = new ArrayList<>();
+
+            for (PICSProductInfoCallback callback : results.getResults()) {
+                missing.removeAll(packages ? callback.getPackages().keySet() : callback.getApps().keySet());
+
+                List<Integer> unknownIds = packages ? callback.getUnknownPackages() : callback.getUnknownApps();
+                missing.removeAll(unknownIds);
+                unknown.addAll(unknownIds);
+
+                consumer.accept(callback);
+            }
+
+            if (results.isComplete()) {
+                missing.clear();
+            }
+
+            retry(unknown, pending, packages ? result.unknownPackages : result.unknownApps);
+            retry(new ArrayList<>(missing), pending, packages ? result.failedPackages : result.failedApps);
+
+            return false;
+        }
+
+        void stop() {
+            if (tokensJob != null) {
+                steamApps.stopJob(tokensJob.getJobID());
+            }
+
+            if (productInfoJob != null) {
+                steamApps.stopJob(productInfoJob.getJobID());
+            }
+        }
+
+        private void requestProductInfo() {
+            Map<Integer, Long> tokens = packages ? packageTokens : appTokens;
+            List<PICSRequest> requests = new ArrayList<>();
+
+            for (Integer id : ids) {
+                Long token = tokens.get(id);
+
+                if (token == null || token == 0L) {
+                    requests.add(new PICSRequest(id));
+                } else {
+                    requests.add(new PICSRequest(id, token, false));
+                }
+            }
+
+            List<PICSRequest> none = Collections.emptyList();
+            productInfoJob = packages
+                    ? steamApps.picsSendProductInfo(none, requests, timeout)
+                    : steamApps.picsSendProductInfo(requests, none, timeout);
+        }
+
+        private void cacheTokens(PICSTokensCallback callback) {
+            appTokens.putAll(callback.getAppTokens());
+            packageTokens.putAll(callback.getPackageTokens());
+
+            for (Integer id : callback.getAppTokensDenied()) {
+                appTokens.put(id, 0L);
+            }
+
+            for (Integer id : callback.getPackageTokensDenied()) {
+                packageTokens.put(id, 0L);
+            }
+        }
+
+        private void retry(List<Integer> retryIds, Deque<Chunk> pending, List<Integer> given) {
+            if (retryIds.isEmpty()) {
+                return;
+            }
+
+            if (attempt < retries) {
+                pending.add(new Chunk(packages, retryIds, attempt + 1));
+            } else {
+                logger.debug("Giving up on " + retryIds.size() + (packages ? " packages" : " apps"));
+                given.addAll(retryIds);
+            }
+        }
+
+        private <T extends CallbackMsg> AsyncJobMultiple.ResultSet<T> await(AsyncJobMultiple<T> job)
+                throws InterruptedException {
+            try {
+                return job.await();
+            } finally {
+                steamApps.stopJob(job.getJobID());
+            }
+        }
+    }
+
+    /**
+     * The apps and packages a {@link PICSBulkFetcher} could not fetch.
+     */
+    public static class Result {
+
+        private final List<Integer> unknownApps = new ArrayList<>();
+
+        private final List<Integer> unknownPackages = new ArrayList<>();
+
+        private final List<Integer> failedApps = new ArrayList<>();
+
+        private final List<Integer> failedPackages = new ArrayList<>();
+
+        /**
+         * @return the apps Steam reported as unknown.
+         */
+        public List<Integer> getUnknownApps() {
+            return Collections.unmodifiableList(unknownApps);
+        }
+
+        /**
+         * @return the packages Steam reported as unknown.
+         */
+        public List<Integer> getUnknownPackages() {
+            return Collections.unmodifiableList(unknownPackages);
+        }
+
+        /**
+         * @return the apps whose requests timed out or failed.
+         */
+        public List<Integer> getFailedApps() {
+            return Collections.unmodifiableList(failedApps);
+        }
+
+        /**
+         * @return the packages whose requests timed out or failed.
+         */
+        public List<Integer> getFailedPackages() {
+            return Collections.unmodifiableList(failedPackages);
+        }
+
+        /**
+         * @return <b>true</b> if no request timed out or failed.
+         */
+        public boolean isComplete() {
+            return failedApps.isEmpty() && failedPackages.isEmpty();
+        }
+    }
+}
@@ -1,15 +1,16 @@
 package in.dragonbra.javasteam.steam.handlers.steamapps;
 
+import com.google.protobuf.ByteString;
 import in.dragonbra.javasteam.protobufs.steamclient.SteammessagesClientserver.CMsgClientPICSProductInfoResponse;
 import in.dragonbra.javasteam.steam.steamclient.callbackmgr.CallbackMsg;
 import in.dragonbra.javasteam.types.KeyValue;
 import in.dragonbra.javasteam.util.Strings;
-import in.dragonbra.javasteam.util.stream.BinaryReader;
-import in.dragonbra.javasteam.util.stream.MemoryStream;
 
-import java.io.ByteArrayInputStream;
+import java.io.EOFException;
 import java.io.IOException;
 import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 
 /**
  * Represents the information for a single app or package
@@ -24,7 +25,14 @@ public class PICSProductInfo extends CallbackMsg {
 
     private byte[] shaHash;
 
-    private KeyValue keyValues;
+    // the raw KeyValues, parsed on the first call to getKeyValues
+    private final ByteString buffer;
+
+    private final boolean binary;
+
+    private final Object keyValuesLock = new Object();
+
+    private volatile KeyValue keyValues;
 
     private boolean onlyPublic;
 
@@ -38,15 +46,13 @@ public class PICSProductInfo extends CallbackMsg {
         missingToken = appInfo.getMissingToken();
         shaHash = appInfo.getSha().toByteArray();
 
-        keyValues = new KeyValue();
         if (appInfo.hasBuffer() && !appInfo.getBuffer().isEmpty()) {
             // we don't want to read the trailing null byte
-            try (MemoryStream ms = new MemoryStream(appInfo.getBuffer().toByteArray(), 0, appInfo.getBuffer().size() - 1)) {
-                keyValues.readAsText(ms);
-            } catch (IOException e) {
-                throw new IllegalArgumentException("failed to read buffer", e);
-            }
+            buffer = appInfo.getBuffer().substring(0, appInfo.getBuffer().size() - 1);
+        } else {
+            buffer = null;
         }
+        binary = false;
 
         onlyPublic = appInfo.getOnlyPublic();
 
@@ -66,22 +72,65 @@ public class PICSProductInfo extends CallbackMsg {
         missingToken = packageInfo.getMissingToken();
         shaHash = packageInfo.getSha().toByteArray();
 
-        keyValues = new KeyValue();
-        if (packageInfo.hasBuffer()) {
-            // we don't want to read the trailing null byte
-            try (BinaryReader br = new BinaryReader(new ByteArrayInputStream(packageInfo.getBuffer().toByteArray()))) {
-                // steamclient checks this value == 1 before it attempts to read the KV from the buffer
-                // see: CPackageInfo::UpdateFromBuffer(CSHA const&,uint,CUtlBuffer &)
-                // todo: we've apparently ignored this with zero ill effects, but perhaps we want to respect it?
-                br.readInt();
-
-                keyValues.tryReadAsBinary(br);
-            } catch (IOException e) {
-                throw new IllegalArgumentException("failed to read buffer", e);
+        buffer = packageInfo.hasBuffer() ? packageInfo.getBuffer() : null;
+        binary = true;
+    }
+
+    // restores product info kept by a PICSStore
+    PICSProductInfo(int id, int changeNumber, byte[] shaHash, ByteString buffer, boolean binary) {
+        this.id = id;
+        this.changeNumber = changeNumber;
+        this.shaHash = shaHash;
+        this.buffer = buffer;
+        this.binary = binary;
+    }
+
+    private KeyValue parseKeyValues() {
+        KeyValue kv = new KeyValue();
+
+        if (buffer == null) {
+            return kv;
+        }
+
+        try {
+            if (!binary) {
+                kv.readAsText(buffer.newInput());
+                return kv;
+            }
+
+            ByteBuffer data = buffer.asReadOnlyByteBuffer().order(ByteOrder.LITTLE_ENDIAN);
+
+            if (data.remaining() < 4) {
+                throw new EOFException();
             }
+
+            // steamclient checks this value == 1 before it attempts to read the KV from the buffer
+            // see: CPackageInfo::UpdateFromBuffer(CSHA const&,uint,CUtlBuffer &)
+            // todo: we've apparently ignored this with zero ill effects, but perhaps we want to respect it?
+            data.getInt();
+
+            kv.tryReadAsBinary(data);
+            return kv;
+        } catch (IOException e) {
+            throw new IllegalArgumentException("failed to read buffer", e);
         }
     }
 
+    // size of the raw KeyValues, used to split up parsing work
+    int getBufferSize() {
+        return buffer == null ? 0 : buffer.size();
+    }
+
+    // the raw KeyValues, null if the response had none
+    ByteString getBuffer() {
+        return buffer;
+    }
+
+    // whether this is a package, whose KeyValues are binary
+    boolean isBinary() {
+        return binary;
+    }
+
     public int getId() {
         return id;
     }
@@ -98,8 +147,29 @@ public class PICSProductInfo extends CallbackMsg {
         return shaHash;
     }
 
+    /**
+     * Gets the KeyValues of the app or package. They are parsed on the first call, so that callbacks can be handled
+     * quickly when only the change numbers or hashes are of interest. This method is thread safe, and later calls
+     * return the same instance.
+     *
+     * @return the KeyValues, empty if the response had none.
+     * @throws IllegalArgumentException if the KeyValues could not be parsed.
+     */
     public KeyValue getKeyValues() {
-        return keyValues;
+        KeyValue kv = keyValues;
+
+        if (kv == null) {
+            synchronized (keyValuesLock) {
+                kv = keyValues;
+
+                if (kv == null) {
+                    kv = parseKeyValues();
+                    keyValues = kv;
+                }
+            }
+        }
+
+        return kv;
     }
 
     public boolean isOnlyPublic() {
@@ -0,0 +1,620 @@
+package in.dragonbra.javasteam.steam.handlers.steamapps;
+
+import com.google.protobuf.ByteString;
+import in.dragonbra.javasteam.steam.handlers.steamapps.callback.PICSChangesCallback;
+import in.dragonbra.javasteam.steam.handlers.steamapps.callback.PICSProductInfoCallback;
+import in.dragonbra.javasteam.types.AsyncJobFailedException;
+import in.dragonbra.javasteam.util.compat.Consumer;
+import in.dragonbra.javasteam.util.log.LogManager;
+import in.dragonbra.javasteam.util.log.Logger;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.concurrent.TimeoutException;
+import java.util.zip.CRC32;
+
+/**
+ * Keeps PICS product info in a file, so that it survives restarts and only the apps and packages that changed since
+ * the last run have to be requested again. Call {@link #sync(SteamApps, long)} after logging on to bring the store up
+ * to date.
+ * <p>
+ * The file is append-only: every update adds a record, and the index of the latest record of every app and package
+ * is rebuilt when the file is opened. Only the index is held in memory, the KeyValues are read from the file when
+ * {@link #getApp(int)} or {@link #getPackage(int)} is called. Records carry a checksum, so a record that was cut off
+ * by a crash is dropped along with everything after it. Outdated records stay in the file until it is compacted,
+ * see {@link #compact()}.
+ * <p>
+ * This class is thread safe.
+ */
+public class PICSStore implements Closeable {
+
+    private static final Logger logger = LogManager.getLogger(PICSStore.class);
+
+    private static final int MAGIC = 0x53434950;
+
+    private static final int VERSION = 1;
+
+    private static final int HEADER_SIZE = 8;
+
+    private static final byte RECORD_APP = 1;
+
+    private static final byte RECORD_PACKAGE = 2;
+
+    private static final byte RECORD_CHANGE_NUMBER = 3;
+
+    // a record is its length, the record type, the body and the checksum of type and body
+    private static final int RECORD_OVERHEAD = 8;
+
+    // amount of apps or packages requested at once when syncing
+    private static final int REQUEST_CHUNK_SIZE = 500;
+
+    private final File file;
+
+    private FileChannel channel;
+
+    // end of the last valid record
+    private long size;
+
+    // bytes taken up by outdated records
+    private long garbage;
+
+    private int lastChangeNumber;
+
+    private int lastChangeNumberRecordSize;
+
+    private final Map<Integer, Entry> apps = new HashMap<>();
+
+    private final Map<Integer, Entry> packages = new HashMap<>();
+
+    /**
+     * Opens the store in the given file, it is created if it does not exist.
+     *
+     * @param file the file that stores the product info.
+     * @throws IOException if the file could not be opened or is not a store.
+     */
+    public PICSStore(File file) throws IOException {
+        if (file == null) {
+            throw new IllegalArgumentException("file is null");
+        }
+
+        this.file = file;
+
+        File parent = file.getAbsoluteFile().getParentFile();
+        if (parent != null) {
+            parent.mkdirs();
+        }
+
+        open();
+    }
+
+    /**
+     * Gets the change number the store was last synced to.
+     *
+     * @return the change number, 0 if the store was never synced.
+     */
+    public synchronized int getLastChangeNumber() {
+        return lastChangeNumber;
+    }
+
+    /**
+     * Sets the change number the store is synced to. {@link #sync(SteamApps, long)} does this on its own.
+     *
+     * @param changeNumber the change number.
+     * @throws IOException if the file could not be written.
+     */
+    public synchronized void setLastChangeNumber(int changeNumber) throws IOException {
+        ByteBuffer record = allocateRecord(RECORD_CHANGE_NUMBER, 4);
+        record.putInt(changeNumber);
+        append(record);
+
+        garbage += lastChangeNumberRecordSize;
+        lastChangeNumber = changeNumber;
+        lastChangeNumberRecordSize = record.capacity();
+    }
+
+    /**
+     * Stores the given app or package, replacing the stored version. Product info that is missing its access token
+     * holds no data and is not stored, the stored version is kept.
+     *
+     * @param info the product info.
+     * @return <b>true</b> if the product info was stored; <b>false</b> if it is missing its access token.
+     * @throws IOException if the file could not be written.
+     */
+    public synchronized boolean put(PICSProductInfo info) throws IOException {
+        if (info == null) {
+            throw new IllegalArgumentException("info is null");
+        }
+
+        if (info.isMissingToken()) {
+            return false;
+        }
+
+        byte[] sha = info.getShaHash() == null ? new byte[0] : info.getShaHash().clone();
+        ByteString buffer = info.getBuffer();
+        int bufferLength = buffer == null ? 0 : buffer.size();
+
+        ByteBuffer record = allocateRecord(info.isBinary() ? RECORD_PACKAGE : RECORD_APP,
+                14 + sha.length + bufferLength);
+        record.putInt(info.getId());
+        record.putInt(info.getChangeNumber());
+        record.putShort((short) sha.length);
+        record.put(sha);
+        record.putInt(buffer == null ? -1 : bufferLength);
+
+        int bufferStart = record.position();
+
+        if (buffer != null) {
+            buffer.copyTo(record);
+        }
+
+        long start = append(record);
+
+        index(info.isBinary() ? packages : apps, new Entry(info.getId(), info.getChangeNumber(), sha,
+                start + bufferStart, buffer == null ? -1 : bufferLength, record.capacity()));
+        return true;
+    }
+
+    /**
+     * Stores every app and package of the given callback.
+     *
+     * @param callback the callback.
+     * @return <b>true</b> if everything was stored; <b>false</b> if some product info is missing its access token.
+     * @throws IOException if the file could not be written.
+     */
+    public synchronized boolean putAll(PICSProductInfoCallback callback) throws IOException {
+        if (callback == null) {
+            throw new IllegalArgumentException("callback is null");
+        }
+
+        boolean stored = true;
+
+        for (PICSProductInfo info : callback.getApps().values()) {
+            stored &= put(info);
+        }
+
+        for (PICSProductInfo info : callback.getPackages().values()) {
+            stored &= put(info);
+        }
+
+        return stored;
+    }
+
+    /**
+     * Gets a stored app.
+     *
+     * @param id the app ID.
+     * @return the product info, or null if the app is not stored.
+     * @throws IOException if the file could not be read.
+     */
+    public synchronized PICSProductInfo getApp(int id) throws IOException {
+        return load(apps.get(id), false);
+    }
+
+    /**
+     * Gets a stored package.
+     *
+     * @param id the package ID.
+     * @return the product info, or null if the package is not stored.
+     * @throws IOException if the file could not be read.
+     */
+    public synchronized PICSProductInfo getPackage(int id) throws IOException {
+        return load(packages.get(id), true);
+    }
+
+    /**
+     * @return the IDs of the stored apps.
+     */
+    public synchronized Set<Integer> getAppIds() {
+        return new TreeSet<>(apps.keySet());
+    }
+
+    /**
+     * @return the IDs of the stored packages.
+     */
+    public synchronized Set<Integer> getPackageIds() {
+        return new TreeSet<>(packages.keySet());
+    }
+
+    /**
+     * Brings the store up to date. The changes since the last sync are requested, and the apps and packages that
+     * changed are requested again, in chunks. When Steam asks for a full update, every stored app and package is
+     * requested again. The change number is only moved forward once everything arrived, so a failed sync is picked
+     * up by the next one. The file is compacted once outdated records take up more than half of it.
+     * <p>
+     * Apps and packages are requested with their access tokens through a {@link PICSBulkFetcher}. If Steam denies the
+     * token of a changed app or package, its product info can't be stored. The sync then returns <b>false</b> and
+     * keeps the change number, so the stored version is not mistaken for an up to date one.
+     *
+     * @param steamApps the handler to make the requests with.
+     * @param timeout   the time in milliseconds to wait for each response.
+     * @return <b>true</b> if the store is up to date, <b>false</b> if a product info response was incomplete or some
+     * product info came back without data because its access token was denied.
+     * @throws IOException             if the file could not be written.
+     * @throws InterruptedException    if the calling thread was interrupted.
+     * @throws TimeoutException        if the changes did not arrive in time.
+     * @throws AsyncJobFailedException if Steam reported the changes request as failed or the client got disconnected.
+     */
+    public boolean sync(SteamApps steamApps, long timeout)
+            throws IOException, InterruptedException, TimeoutException, AsyncJobFailedException {
+        if (steamApps == null) {
+            throw new IllegalArgumentException("steamApps is null");
+        }
+
+        int since = getLastChangeNumber();
+        PICSChangesCallback changes = steamApps.picsGetChangesSinceBlocking(since, true, true, timeout);
+
+        if (since != 0 && changes.getCurrentChangeNumber() == since) {
+            return true;
+        }
+
+        Set<Integer> appIds = changedIds(changes.getAppChanges(), apps);
+        Set<Integer> packageIds = changedIds(changes.getPackageChanges(), packages);
+
+        if (changes.isRequiresFullUpdate()) {
+            logger.debug("Full update required, refreshing every stored app and package");
+            appIds.addAll(getAppIds());
+            packageIds.addAll(getPackageIds());
+        }
+
+        if (!fetch(steamApps, appIds, packageIds, timeout)) {
+            return false;
+        }
+
+        setLastChangeNumber(changes.getCurrentChangeNumber());
+
+        if (isMostlyGarbage()) {
+            compact();
+        } else {
+            flush();
+        }
+
+        return true;
+    }
+
+    /**
+     * Rewrites the file with only the latest record of every app and package.
+     *
+     * @throws IOException if the file could not be rewritten.
+     */
+    public synchronized void compact() throws IOException {
+        File temp = new File(file.getPath() + ".tmp");
+
+        try (FileChannel target = new RandomAccessFile(temp, "rw").getChannel()) {
+            target.truncate(0);
+            writeFully(target, header(), 0);
+
+            long position = HEADER_SIZE;
+            position += copy(target, position, apps, RECORD_APP);
+            position += copy(target, position, packages, RECORD_PACKAGE);
+
+            ByteBuffer record = allocateRecord(RECORD_CHANGE_NUMBER, 4);
+            record.putInt(lastChangeNumber);
+            writeFully(target, seal(record), position);
+
+            target.force(false);
+        }
+
+        channel.close();
+
+        try {
+            Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            open();
+        }
+    }
+
+    /**
+     * Forces the written records to the disk.
+     *
+     * @throws IOException if the file could not be written.
+     */
+    public synchronized void flush() throws IOException {
+        channel.force(false);
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        channel.close();
+    }
+
+    private void open() throws IOException {
+        channel = new RandomAccessFile(file, "rw").getChannel();
+
+        try {
+            load();
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    private void load() throws IOException {
+        apps.clear();
+        packages.clear();
+        garbage = 0L;
+        lastChangeNumber = 0;
+        lastChangeNumberRecordSize = 0;
+
+        long end = channel.size();
+
+        if (end < HEADER_SIZE) {
+            channel.truncate(0);
+            writeFully(channel, header(), 0);
+            size = HEADER_SIZE;
+            return;
+        }
+
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        readFully(channel, header, 0);
+        header.flip();
+
+        if (header.getInt() != MAGIC || header.getInt() != VERSION) {
+            throw new IOException("not a PICS store: " + file);
+        }
+
+        long position = HEADER_SIZE;
+        ByteBuffer length = ByteBuffer.allocate(4);
+        ByteBuffer record = ByteBuffer.allocate(64 * 1024);
+        CRC32 crc = new CRC32();
+
+        while (position + RECORD_OVERHEAD < end) {
+            length.clear();
+            readFully(channel, length, position);
+            int recordLength = length.getInt(0);
+
+            if (recordLength < 1 || position + RECORD_OVERHEAD + recordLength > end) {
+                break;
+            }
+
+            if (record.capacity() < recordLength + 4) {
+                record = ByteBuffer.allocate(recordLength + 4);
+            }
+
+            record.clear();
+            record.limit(recordLength + 4);
+            readFully(channel, record, position + 4);
+
+            crc.reset();
+            crc.update(record.array(), 0, recordLength);
+
+            if ((int) crc.getValue() != record.getInt(recordLength)) {
+                break;
+            }
+
+            record.flip();
+            record.limit(recordLength);
+            apply(record, position, recordLength + RECORD_OVERHEAD);
+
+            position += recordLength + RECORD_OVERHEAD;
+        }
+
+        if (position < end) {
+            logger.debug("Dropping " + (end - position) + " bytes of incomplete records from " + file);
+            channel.truncate(position);
+        }
+
+        size = position;
+    }
+
+    private void apply(ByteBuffer record, long start, int recordSize) {
+        byte type = record.get();
+
+        if (type == RECORD_CHANGE_NUMBER) {
+            garbage += lastChangeNumberRecordSize;
+            lastChangeNumber = record.getInt();
+            lastChangeNumberRecordSize = recordSize;
+            return;
+        }
+
+        int id = record.getInt();
+        int changeNumber = record.getInt();
+        byte[] sha = new byte[record.getShort()];
+        record.get(sha);
+        int bufferLength = record.getInt();
+
+        Entry entry = new Entry(id, changeNumber, sha, start + 4 + record.position(), bufferLength, recordSize);
+
+        if (type == RECORD_APP) {
+            index(apps, entry);
+        } else if (type == RECORD_PACKAGE) {
+            index(packages, entry);
+        } else {
+            // written by a newer version, skip it
+            garbage += recordSize;
+        }
+    }
+
+    private void index(Map<Integer, Entry> entries, Entry entry) {
+        Entry previous = entries.put(entry.id, entry);
+
+        if (previous != null) {
+            garbage += previous.recordSize;
+        }
+    }
+
+    private PICSProductInfo load(Entry entry, boolean binary) throws IOException {
+        if (entry == null) {
+            return null;
+        }
+
+        return new PICSProductInfo(entry.id, entry.changeNumber, entry.sha.clone(), readBuffer(entry), binary);
+    }
+
+    private ByteString readBuffer(Entry entry) throws IOException {
+        if (entry.bufferLength < 0) {
+            return null;
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(entry.bufferLength);
+        readFully(channel, buffer, entry.bufferOffset);
+
+        return ByteString.copyFrom(buffer.array());
+    }
+
+    // copies the latest records of the given entries to the target, returns the amount of bytes written
+    private long copy(FileChannel target, long position, Map<Integer, Entry> entries, byte type) throws IOException {
+        long written = 0L;
+
+        for (Entry entry : entries.values()) {
+            ByteString buffer = readBuffer(entry);
+            int bufferLength = buffer == null ? 0 : buffer.size();
+
+            ByteBuffer record = allocateRecord(type, 14 + entry.sha.length + bufferLength);
+            record.putInt(entry.id);
+            record.putInt(entry.changeNumber);
+            record.putShort((short) entry.sha.length);
+            record.put(entry.sha);
+            record.putInt(entry.bufferLength);
+
+            if (buffer != null) {
+                buffer.copyTo(record);
+            }
+
+            written += writeFully(target, seal(record), position + written);
+        }
+
+        return written;
+    }
+
+    private synchronized Set<Integer> changedIds(Map<Integer, PICSChangeData> changes, Map<Integer, Entry> stored) {
+        Set<Integer> ids = new TreeSet<>();
+
+        for (PICSChangeData change : changes.values()) {
+            Entry entry = stored.get(change.getId());
+
+            // a previous sync that failed half way might have stored it already
+            if (entry == null || entry.changeNumber < change.getChangeNumber()) {
+                ids.add(change.getId());
+            }
+        }
+
+        return ids;
+    }
+
+    private synchronized boolean isMostlyGarbage() {
+        return garbage > size / 2;
+    }
+
+    // fetches and stores the given apps and packages, returns whether all of them were stored
+    private boolean fetch(SteamApps steamApps, Set<Integer> appIds, Set<Integer> packageIds, long timeout)
+            throws IOException, InterruptedException {
+        if (appIds.isEmpty() && packageIds.isEmpty()) {
+            return true;
+        }
+
+        final boolean[] stored = {true};
+        final IOException[] error = {null};
+
+        PICSBulkFetcher fetcher = new PICSBulkFetcher(steamApps, REQUEST_CHUNK_SIZE,
+                PICSBulkFetcher.DEFAULT_MAX_IN_FLIGHT, PICSBulkFetcher.DEFAULT_RETRIES, timeout);
+
+        PICSBulkFetcher.Result result = fetcher.fetch(appIds, packageIds, new Consumer<PICSProductInfoCallback>() {
+            @Override
+            public void accept(PICSProductInfoCallback callback) {
+                if (error[0] != null) {
+                    return;
+                }
+
+                try {
+                    stored[0] &= putAll(callback);
+                } catch (IOException e) {
+                    error[0] = e;
+                }
+            }
+        });
+
+        if (error[0] != null) {
+            throw error[0];
+        }
+
+        if (!stored[0]) {
+            logger.debug("Some changed product info came back without an access token, keeping the change number");
+        }
+
+        return stored[0] && result.isComplete();
+    }
+
+    private static ByteBuffer header() {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(MAGIC);
+        header.putInt(VERSION);
+        header.flip();
+        return header;
+    }
+
+    // allocates a record with room for a body of the given length, positioned at the start of the body
+    private static ByteBuffer allocateRecord(byte type, int bodyLength) {
+        ByteBuffer record = ByteBuffer.allocate(bodyLength + 1 + RECORD_OVERHEAD);
+        record.putInt(bodyLength + 1);
+        record.put(type);
+        return record;
+    }
+
+    // writes the checksum of a filled in record and prepares it for writing
+    private static ByteBuffer seal(ByteBuffer record) {
+        CRC32 crc = new CRC32();
+        crc.update(record.array(), 4, record.position() - 4);
+        record.putInt((int) crc.getValue());
+        record.flip();
+        return record;
+    }
+
+    private long append(ByteBuffer record) throws IOException {
+        long start = size;
+        size += writeFully(channel, seal(record), start);
+        return start;
+    }
+
+    private static int writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        int written = 0;
+
+        while (buffer.hasRemaining()) {
+            written += channel.write(buffer, position + written);
+        }
+
+        return written;
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        int start = buffer.position();
+
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position() - start) < 0) {
+                throw new EOFException();
+            }
+        }
+    }
+
+    private static final class Entry {
+
+        final int id;
+
+        final int changeNumber;
+
+        final byte[] sha;
+
+        final long bufferOffset;
+
+        // -1 if there is no buffer
+        final int bufferLength;
+
+        final int recordSize;
+
+        Entry(int id, int changeNumber, byte[] sha, long bufferOffset, int bufferLength, int recordSize) {
+            this.id = id;
+            this.changeNumber = changeNumber;
+            this.sha = sha;
+            this.bufferOffset = bufferOffset;
+            this.bufferLength = bufferLength;
+            this.recordSize = recordSize;
+        }
+    }
+}
@@ -12,18 +12,44 @@ import in.dragonbra.javasteam.protobufs.steamclient.SteammessagesClientserver.CM
 import in.dragonbra.javasteam.protobufs.steamclient.SteammessagesClientserver.CMsgClientPICSProductInfoRequest.PackageInfo;
 import in.dragonbra.javasteam.protobufs.steamclient.SteammessagesClientserver2.*;
 import in.dragonbra.javasteam.steam.handlers.steamapps.callback.*;
+import in.dragonbra.javasteam.steam.steamclient.configuration.SteamConfiguration;
+import in.dragonbra.javasteam.types.AsyncJobFailedException;
+import in.dragonbra.javasteam.types.AsyncJobMultiple;
 import in.dragonbra.javasteam.types.JobID;
 import in.dragonbra.javasteam.util.compat.Consumer;
+import in.dragonbra.javasteam.util.compat.Predicate;
 
 import java.util.*;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeoutException;
 
 /**
  * This handler is used for interacting with apps and packages on the Steam network.
  */
 public class SteamApps extends ClientMsgHandler {
 
+    // amount of KeyValues data parsed by a single task when parsing product info in parallel
+    private static final int PARSE_BATCH_SIZE = 32 * 1024;
+
+    private static final Predicate<PICSProductInfoCallback> PRODUCT_INFO_FINISHED = new Predicate<PICSProductInfoCallback>() {
+        @Override
+        public boolean test(PICSProductInfoCallback callback) {
+            return !callback.isResponsePending();
+        }
+    };
+
+    private static final Predicate<PICSTokensCallback> TOKENS_FINISHED = new Predicate<PICSTokensCallback>() {
+        @Override
+        public boolean test(PICSTokensCallback callback) {
+            return true;
+        }
+    };
+
     private Map<EMsg, Consumer<IPacketMsg>> dispatchMap;
 
+    private final PICSBulkFetcher bulkFetcher = new PICSBulkFetcher(this);
+
     public SteamApps() {
         dispatchMap = new HashMap<>();
 
@@ -189,18 +215,26 @@ public class SteamApps extends ClientMsgHandler {
      */
     public JobID picsGetAccessTokens(Iterable<Integer> appIds, Iterable<Integer> packageIds) {
         ClientMsgProtobuf<CMsgClientPICSAccessTokenRequest.Builder> request =
-                new ClientMsgProtobuf<>(CMsgClientPICSAccessTokenRequest.class, EMsg.ClientPICSAccessTokenRequest);
+                createAccessTokensRequest(appIds, packageIds);
         JobID jobID = client.getNextJobID();
         request.setSourceJobID(jobID);
 
-        request.getBody().addAllAppids(appIds);
-        request.getBody().addAllPackageids(packageIds);
-
         client.send(request);
 
         return jobID;
     }
 
+    private ClientMsgProtobuf<CMsgClientPICSAccessTokenRequest.Builder> createAccessTokensRequest(
+            Iterable<Integer> appIds, Iterable<Integer> packageIds) {
+        ClientMsgProtobuf<CMsgClientPICSAccessTokenRequest.Builder> request =
+                new ClientMsgProtobuf<>(CMsgClientPICSAccessTokenRequest.class, EMsg.ClientPICSAccessTokenRequest);
+
+        request.getBody().addAllAppids(appIds);
+        request.getBody().addAllPackageids(packageIds);
+
+        return request;
+    }
+
     /**
      * Request changes for apps and packages since a given change number
      * Results are returned in a {@link PICSChangesCallback} callback.
@@ -245,17 +279,45 @@ public class SteamApps extends ClientMsgHandler {
      */
     public JobID picsGetChangesSince(int lastChangeNumber, boolean sendAppChangeList, boolean sendPackageChangelist) {
         ClientMsgProtobuf<CMsgClientPICSChangesSinceRequest.Builder> request =
-                new ClientMsgProtobuf<>(CMsgClientPICSChangesSinceRequest.class, EMsg.ClientPICSChangesSinceRequest);
+                createChangesSinceRequest(lastChangeNumber, sendAppChangeList, sendPackageChangelist);
         JobID jobID = client.getNextJobID();
         request.setSourceJobID(jobID);
 
+        client.send(request);
+
+        return jobID;
+    }
+
+    /**
+     * Request a list of app/package changes since the given change number and block until the response arrived.
+     * The {@link PICSChangesCallback} callback is also posted as usual.
+     *
+     * @param lastChangeNumber      Last change number seen.
+     * @param sendAppChangeList     Whether to send app changes.
+     * @param sendPackageChangelist Whether to send package changes.
+     * @param timeout               The time in milliseconds to wait for the response.
+     * @return The {@link PICSChangesCallback} callback.
+     * @throws InterruptedException    if the calling thread was interrupted.
+     * @throws TimeoutException        if no response arrived in time.
+     * @throws AsyncJobFailedException if Steam reported the job as failed or the client got disconnected.
+     */
+    public PICSChangesCallback picsGetChangesSinceBlocking(int lastChangeNumber, boolean sendAppChangeList,
+                                                           boolean sendPackageChangelist, long timeout)
+            throws InterruptedException, TimeoutException, AsyncJobFailedException {
+        return client.call(createChangesSinceRequest(lastChangeNumber, sendAppChangeList, sendPackageChangelist),
+                PICSChangesCallback.class, timeout);
+    }
+
+    private ClientMsgProtobuf<CMsgClientPICSChangesSinceRequest.Builder> createChangesSinceRequest(
+            int lastChangeNumber, boolean sendAppChangeList, boolean sendPackageChangelist) {
+        ClientMsgProtobuf<CMsgClientPICSChangesSinceRequest.Builder> request =
+                new ClientMsgProtobuf<>(CMsgClientPICSChangesSinceRequest.class, EMsg.ClientPICSChangesSinceRequest);
+
         request.getBody().setSinceChangeNumber(lastChangeNumber);
         request.getBody().setSendAppInfoChanges(sendAppChangeList);
         request.getBody().setSendPackageInfoChanges(sendPackageChangelist);
 
-        client.send(request);
-
-        return jobID;
+        return request;
     }
 
     /**
@@ -357,6 +419,72 @@ public class SteamApps extends ClientMsgHandler {
      * @return The Job ID of the request. This can be used to find the appropriate {@link PICSProductInfoCallback}.
      */
     public JobID picsGetProductInfo(Iterable<PICSRequest> apps, Iterable<PICSRequest> packages, boolean metaDataOnly) {
+        ClientMsgProtobuf<CMsgClientPICSProductInfoRequest.Builder> request =
+                createProductInfoRequest(apps, packages, metaDataOnly);
+        JobID jobID = client.getNextJobID();
+        request.setSourceJobID(jobID);
+
+        client.send(request);
+
+        return jobID;
+    }
+
+    /**
+     * Request product information for a list of apps or packages and block until all parts of the response arrived.
+     * The {@link PICSProductInfoCallback} callbacks are also posted as usual.
+     *
+     * @param apps         List of {@link PICSRequest} requests for apps.
+     * @param packages     List of {@link PICSRequest} requests for packages.
+     * @param metaDataOnly Whether to send only meta data.
+     * @param timeout      The time in milliseconds to wait for the next part of the response.
+     * @return The received {@link PICSProductInfoCallback} callbacks, incomplete if the request timed out or failed.
+     * @throws InterruptedException if the calling thread was interrupted.
+     */
+    public AsyncJobMultiple.ResultSet<PICSProductInfoCallback> picsGetProductInfoBlocking(Iterable<PICSRequest> apps,
+                                                                                          Iterable<PICSRequest> packages,
+                                                                                          boolean metaDataOnly,
+                                                                                          long timeout)
+            throws InterruptedException {
+        return client.callMultiple(createProductInfoRequest(apps, packages, metaDataOnly), PICSProductInfoCallback.class,
+                PRODUCT_INFO_FINISHED, timeout);
+    }
+
+    /**
+     * Request product information for any number of apps and packages, with the defaults of {@link PICSBulkFetcher}.
+     * The IDs are requested in chunks with their access tokens, and several chunks are kept in flight at once. The
+     * access tokens are cached for later calls. The {@link PICSProductInfoCallback} callbacks are handed to the
+     * consumer on the calling thread as the chunks complete, and are also posted as usual.
+     *
+     * @param apps     List of app ids requested.
+     * @param packages List of package ids requested.
+     * @param consumer Receives the product information.
+     * @return The apps and packages that could not be fetched.
+     * @throws InterruptedException if the calling thread was interrupted.
+     */
+    public PICSBulkFetcher.Result picsGetProductInfoBulk(Iterable<Integer> apps, Iterable<Integer> packages,
+                                                         Consumer<PICSProductInfoCallback> consumer)
+            throws InterruptedException {
+        return bulkFetcher.fetch(apps, packages, consumer);
+    }
+
+    AsyncJobMultiple<PICSProductInfoCallback> picsSendProductInfo(Iterable<PICSRequest> apps,
+                                                                  Iterable<PICSRequest> packages, long timeout) {
+        return client.sendMultiple(createProductInfoRequest(apps, packages, false), PICSProductInfoCallback.class,
+                PRODUCT_INFO_FINISHED, timeout);
+    }
+
+    AsyncJobMultiple<PICSTokensCallback> picsSendAccessTokens(Iterable<Integer> appIds, Iterable<Integer> packageIds,
+                                                              long timeout) {
+        return client.sendMultiple(createAccessTokensRequest(appIds, packageIds), PICSTokensCallback.class,
+                TOKENS_FINISHED, timeout);
+    }
+
+    void stopJob(JobID jobID) {
+        client.stopJob(jobID);
+    }
+
+    private ClientMsgProtobuf<CMsgClientPICSProductInfoRequest.Builder> createProductInfoRequest(
+            Iterable<PICSRequest> apps, Iterable<PICSRequest> packages, boolean metaDataOnly) {
         if (apps == null) {
             throw new IllegalArgumentException("apps is null");
         }
@@ -367,8 +495,6 @@ public class SteamApps extends ClientMsgHandler {
 
         ClientMsgProtobuf<CMsgClientPICSProductInfoRequest.Builder> request =
                 new ClientMsgProtobuf<>(CMsgClientPICSProductInfoRequest.class, EMsg.ClientPICSProductInfoRequest);
-        JobID jobID = client.getNextJobID();
-        request.setSourceJobID(jobID);
 
         for (PICSRequest appRequest : apps) {
             AppInfo.Builder appInfo = AppInfo.newBuilder();
@@ -391,9 +517,7 @@ public class SteamApps extends ClientMsgHandler {
 
         request.getBody().setMetaDataOnly(metaDataOnly);
 
-        client.send(request);
-
-        return jobID;
+        return request;
     }
 
     /**
@@ -552,7 +676,61 @@ public class SteamApps extends ClientMsgHandler {
         ClientMsgProtobuf<CMsgClientPICSProductInfoResponse.Builder> productResponse =
                 new ClientMsgProtobuf<>(CMsgClientPICSProductInfoResponse.class, packetMsg);
 
-        client.postCallback(new PICSProductInfoCallback(productResponse.getTargetJobID(), productResponse.getBody()));
+        PICSProductInfoCallback callback = new PICSProductInfoCallback(productResponse.getTargetJobID(), productResponse.getBody());
+
+        Executor executor = getPICSParseExecutor();
+        if (executor != null) {
+            parseProductInfo(executor, callback.getPackages().values());
+            parseProductInfo(executor, callback.getApps().values());
+        }
+
+        client.postCallback(callback);
+    }
+
+    private Executor getPICSParseExecutor() {
+        SteamConfiguration configuration = client.getConfiguration();
+        return configuration != null ? configuration.getPICSParseExecutor() : null;
+    }
+
+    // starts parsing the KeyValues in batches of roughly equal size, the callback is posted without waiting for them,
+    // getKeyValues blocks until the batch holding the product info is done
+    private static void parseProductInfo(Executor executor, Collection<PICSProductInfo> infos) {
+        List<PICSProductInfo> batch = new ArrayList<>();
+        int batchSize = 0;
+
+        for (PICSProductInfo info : infos) {
+            batch.add(info);
+            batchSize += info.getBufferSize();
+
+            if (batchSize >= PARSE_BATCH_SIZE) {
+                submitParse(executor, batch);
+                batch = new ArrayList<>();
+                batchSize = 0;
+            }
+        }
+
+        if (!batch.isEmpty()) {
+            submitParse(executor, batch);
+        }
+    }
+
+    private static void submitParse(Executor executor, final List<PICSProductInfo> batch) {
+        try {
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    for (PICSProductInfo info : batch) {
+                        try {
+                            info.getKeyValues();
+                        } catch (IllegalArgumentException ignored) {
+                            // reported again to whoever calls getKeyValues
+                        }
+                    }
+                }
+            });
+        } catch (RejectedExecutionException ignored) {
+            // the product info is parsed on demand instead
+        }
     }
 
     private void handleGuestPassList(IPacketMsg packetMsg) {
@@ -19,7 +19,6 @@ import in.dragonbra.javasteam.steam.handlers.steamgameserver.callback.TicketAuth
 import in.dragonbra.javasteam.steam.handlers.steamuser.callback.LoggedOnCallback;
 import in.dragonbra.javasteam.steam.steamclient.callbacks.DisconnectedCallback;
 import in.dragonbra.javasteam.types.SteamID;
-import in.dragonbra.javasteam.util.HardwareUtils;
 import in.dragonbra.javasteam.util.NetHelpers;
 import in.dragonbra.javasteam.util.Strings;
 import in.dragonbra.javasteam.util.Utils;
@@ -93,7 +92,7 @@ public class SteamGameServer extends ClientMsgHandler {
 
         logon.getBody().setClientOsType(Utils.getOSType().code());
         logon.getBody().setGameServerAppId(details.getAppID());
-        logon.getBody().setMachineId(ByteString.copyFrom(HardwareUtils.getMachineID()));
+        logon.getBody().setMachineId(ByteString.copyFrom(getMachineID(null)));
 
         logon.getBody().setGameServerToken(details.getToken());
 
@@ -138,7 +137,7 @@ public class SteamGameServer extends ClientMsgHandler {
 
         logon.getBody().setClientOsType(Utils.getOSType().code());
         logon.getBody().setGameServerAppId(appId);
-        logon.getBody().setMachineId(ByteString.copyFrom(HardwareUtils.getMachineID()));
+        logon.getBody().setMachineId(ByteString.copyFrom(getMachineID(null)));
 
         client.send(logon);
     }
@@ -18,9 +18,10 @@ import in.dragonbra.javasteam.protobufs.steamclient.SteammessagesClientserver2.C
 import in.dragonbra.javasteam.protobufs.steamclient.SteammessagesClientserver2.CMsgClientUpdateMachineAuthResponse;
 import in.dragonbra.javasteam.protobufs.steamclient.SteammessagesClientserverLogin.*;
 import in.dragonbra.javasteam.steam.handlers.steamuser.callback.*;
+import in.dragonbra.javasteam.steam.steamclient.configuration.SteamConfiguration;
+import in.dragonbra.javasteam.steam.steamclient.logon.LogonScheduler;
 import in.dragonbra.javasteam.types.JobID;
 import in.dragonbra.javasteam.types.SteamID;
-import in.dragonbra.javasteam.util.HardwareUtils;
 import in.dragonbra.javasteam.util.NetHelpers;
 import in.dragonbra.javasteam.util.Strings;
 import in.dragonbra.javasteam.util.compat.Consumer;
@@ -105,7 +106,7 @@ public class SteamUser extends ClientMsgHandler {
      *
      * @param details The details to use for logging on.
      */
-    public void logOn(LogOnDetails details) {
+    public void logOn(final LogOnDetails details) {
         if (details == null) {
             throw new IllegalArgumentException("details is null");
         }
@@ -126,6 +127,26 @@ public class SteamUser extends ClientMsgHandler {
             return;
         }
 
+        LogonScheduler scheduler = getLogonScheduler();
+        if (scheduler != null) {
+            scheduler.enqueue(new Runnable() {
+                @Override
+                public void run() {
+                    sendLogOn(details);
+                }
+            });
+        } else {
+            sendLogOn(details);
+        }
+    }
+
+    private void sendLogOn(LogOnDetails details) {
+        // the logon may have been queued, the connection could be gone by now
+        if (!client.isConnected()) {
+            client.postCallback(new LoggedOnCallback(EResult.NoConnection));
+            return;
+        }
+
         ClientMsgProtobuf<CMsgClientLogon.Builder> logon = new ClientMsgProtobuf<>(CMsgClientLogon.class, EMsg.ClientLogon);
 
         SteamID steamID = new SteamID(details.getAccountID(), details.getAccountInstance(), client.getUniverse(), EAccountType.Individual);
@@ -156,7 +177,7 @@ public class SteamUser extends ClientMsgHandler {
         // we're now using the latest steamclient package version, this is required to get a proper sentry file for steam guard
         logon.getBody().setClientPackageVersion(1771); // todo: determine if this is still required
         logon.getBody().setSupportsRateLimitResponse(true);
-        logon.getBody().setMachineId(ByteString.copyFrom(HardwareUtils.getMachineID()));
+        logon.getBody().setMachineId(ByteString.copyFrom(getMachineID(details.getUsername())));
 
         // steam guard
         if (!Strings.isNullOrEmpty(details.getAuthCode())) {
@@ -195,7 +216,7 @@ public class SteamUser extends ClientMsgHandler {
      *
      * @param details The details to use for logging on.
      */
-    public void logOnAnonymous(AnonymousLogOnDetails details) {
+    public void logOnAnonymous(final AnonymousLogOnDetails details) {
         if (details == null) {
             throw new IllegalArgumentException("details is null");
         }
@@ -205,6 +226,25 @@ public class SteamUser extends ClientMsgHandler {
             return;
         }
 
+        LogonScheduler scheduler = getLogonScheduler();
+        if (scheduler != null) {
+            scheduler.enqueue(new Runnable() {
+                @Override
+                public void run() {
+                    sendLogOnAnonymous(details);
+                }
+            });
+        } else {
+            sendLogOnAnonymous(details);
+        }
+    }
+
+    private void sendLogOnAnonymous(AnonymousLogOnDetails details) {
+        if (!client.isConnected()) {
+            client.postCallback(new LoggedOnCallback(EResult.NoConnection));
+            return;
+        }
+
         ClientMsgProtobuf<CMsgClientLogon.Builder> logon = new ClientMsgProtobuf<>(CMsgClientLogon.class, EMsg.ClientLogon);
 
         SteamID auId = new SteamID(0, 0, client.getUniverse(), EAccountType.AnonUser);
@@ -217,7 +257,7 @@ public class SteamUser extends ClientMsgHandler {
         logon.getBody().setClientLanguage(details.getClientLanguage());
         logon.getBody().setCellId(details.getCellID());
 
-        logon.getBody().setMachineId(ByteString.copyFrom(HardwareUtils.getMachineID()));
+        logon.getBody().setMachineId(ByteString.copyFrom(getMachineID(null)));
 
         client.send(logon);
     }
@@ -321,15 +361,29 @@ public class SteamUser extends ClientMsgHandler {
     }
 
     private void handleLogOnResponse(IPacketMsg packetMsg) {
+        LoggedOnCallback callback;
+
         if (packetMsg.isProto()) {
             ClientMsgProtobuf<CMsgClientLogonResponse.Builder> logonResp = new ClientMsgProtobuf<>(CMsgClientLogonResponse.class, packetMsg);
 
-            client.postCallback(new LoggedOnCallback(logonResp.getBody()));
+            callback = new LoggedOnCallback(logonResp.getBody());
         } else {
             ClientMsg<MsgClientLogOnResponse> logonResp = new ClientMsg<>(MsgClientLogOnResponse.class, packetMsg);
 
-            client.postCallback(new LoggedOnCallback(logonResp.getBody()));
+            callback = new LoggedOnCallback(logonResp.getBody());
+        }
+
+        LogonScheduler scheduler = getLogonScheduler();
+        if (scheduler != null) {
+            scheduler.onLogOnResult(callback.getResult());
         }
+
+        client.postCallback(callback);
+    }
+
+    private LogonScheduler getLogonScheduler() {
+        SteamConfiguration configuration = client.getConfiguration();
+        return configuration != null ? configuration.getLogonScheduler() : null;
     }
 
     private void handleLoggedOff(IPacketMsg packetMsg) {
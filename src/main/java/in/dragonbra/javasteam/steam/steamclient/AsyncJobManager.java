@@ -0,0 +1,112 @@
+package in.dragonbra.javasteam.steam.steamclient;
+
+import in.dragonbra.javasteam.steam.steamclient.callbackmgr.CallbackMsg;
+import in.dragonbra.javasteam.types.AsyncJob;
+import in.dragonbra.javasteam.types.JobID;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The completion table of the {@link AsyncJob AsyncJobs} of a client, keyed by their {@link JobID}.
+ */
+public class AsyncJobManager {
+
+    private final Map<JobID, AsyncJob> jobs = new ConcurrentHashMap<>();
+
+    /**
+     * Tracks a job. This has to happen before the request is sent, or the response may arrive first.
+     *
+     * @param job the job.
+     */
+    public void startJob(AsyncJob job) {
+        if (job == null) {
+            throw new IllegalArgumentException("job is null");
+        }
+
+        jobs.put(job.getJobID(), job);
+    }
+
+    /**
+     * Stops tracking a job, for example after it timed out.
+     *
+     * @param jobID the job ID.
+     */
+    public void removeJob(JobID jobID) {
+        if (jobID != null) {
+            jobs.remove(jobID);
+        }
+    }
+
+    /**
+     * Hands a callback to the job with its job ID, if there is one.
+     *
+     * @param jobID    the job ID of the callback.
+     * @param callback the callback.
+     */
+    public void tryCompleteJob(JobID jobID, CallbackMsg callback) {
+        AsyncJob job = getJob(jobID);
+
+        if (job != null && job.addResult(callback)) {
+            jobs.remove(jobID);
+        }
+    }
+
+    /**
+     * Extends the timeout of a job.
+     *
+     * @param jobID the job ID.
+     */
+    public void heartbeatJob(JobID jobID) {
+        AsyncJob job = getJob(jobID);
+
+        if (job != null) {
+            job.heartbeat();
+        }
+    }
+
+    /**
+     * Fails a job because Steam reported it as failed.
+     *
+     * @param jobID the job ID.
+     */
+    public void failJob(JobID jobID) {
+        AsyncJob job = getJob(jobID);
+
+        if (job != null) {
+            jobs.remove(jobID);
+            job.setFailed(true);
+        }
+    }
+
+    /**
+     * Fails all pending jobs, for example because the client got disconnected.
+     *
+     * @param dueToRemoteFailure whether the jobs failed on the remote end.
+     */
+    public void setJobsFailed(boolean dueToRemoteFailure) {
+        Iterator<AsyncJob> iterator = jobs.values().iterator();
+
+        while (iterator.hasNext()) {
+            AsyncJob job = iterator.next();
+            iterator.remove();
+            job.setFailed(dueToRemoteFailure);
+        }
+    }
+
+    /**
+     * @return the number of pending jobs.
+     */
+    public int getPendingJobs() {
+        return jobs.size();
+    }
+
+    private AsyncJob getJob(JobID jobID) {
+        if (jobID == null || JobID.INVALID.equals(jobID)) {
+            return null;
+        }
+
+        return jobs.get(jobID);
+    }
+}
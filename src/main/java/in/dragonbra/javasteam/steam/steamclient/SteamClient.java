@@ -1,11 +1,18 @@
 package in.dragonbra.javasteam.steam.steamclient;
 
 import in.dragonbra.javasteam.base.ClientMsgProtobuf;
+import in.dragonbra.javasteam.base.IClientMsg;
 import in.dragonbra.javasteam.base.IPacketMsg;
 import in.dragonbra.javasteam.enums.EMsg;
+import in.dragonbra.javasteam.enums.EUniverse;
 import in.dragonbra.javasteam.handlers.ClientMsgHandler;
+import in.dragonbra.javasteam.protobufs.steamclient.SteammessagesBase;
+import in.dragonbra.javasteam.protobufs.steamclient.SteammessagesClientserver;
 import in.dragonbra.javasteam.protobufs.steamclient.SteammessagesClientserver.CMsgClientCMList;
 import in.dragonbra.javasteam.protobufs.steamclient.SteammessagesClientserver.CMsgClientServerList;
+import in.dragonbra.javasteam.protobufs.steamclient.SteammessagesClientserver2;
+import in.dragonbra.javasteam.protobufs.steamclient.SteammessagesClientserverFriends;
+import in.dragonbra.javasteam.protobufs.steamclient.SteammessagesClientserverLogin;
 import in.dragonbra.javasteam.steam.CMClient;
 import in.dragonbra.javasteam.steam.handlers.steamapps.SteamApps;
 import in.dragonbra.javasteam.steam.handlers.steamcloud.SteamCloud;
@@ -26,12 +33,26 @@ import in.dragonbra.javasteam.steam.steamclient.callbacks.ConnectedCallback;
 import in.dragonbra.javasteam.steam.steamclient.callbacks.DisconnectedCallback;
 import in.dragonbra.javasteam.steam.steamclient.callbacks.ServerListCallback;
 import in.dragonbra.javasteam.steam.steamclient.configuration.SteamConfiguration;
+import in.dragonbra.javasteam.steam.steamclient.machineid.LocalMachineIDProvider;
+import in.dragonbra.javasteam.steam.steamclient.reconnect.ReconnectManager;
+import in.dragonbra.javasteam.types.AsyncJobFailedException;
+import in.dragonbra.javasteam.types.AsyncJobMultiple;
+import in.dragonbra.javasteam.types.AsyncJobSingle;
 import in.dragonbra.javasteam.types.JobID;
+import in.dragonbra.javasteam.util.MsgUtil;
+import in.dragonbra.javasteam.util.NamedThreadFactory;
+import in.dragonbra.javasteam.util.ThreadPerTaskExecutor;
+import in.dragonbra.javasteam.util.Utils;
 import in.dragonbra.javasteam.util.compat.Consumer;
+import in.dragonbra.javasteam.util.compat.Predicate;
+import in.dragonbra.javasteam.util.crypto.CryptoHelper;
+import in.dragonbra.javasteam.util.crypto.RSACrypto;
 import in.dragonbra.javasteam.util.log.LogManager;
 import in.dragonbra.javasteam.util.log.Logger;
 
 import java.util.*;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicLong;
 
 /**
@@ -42,7 +63,10 @@ public class SteamClient extends CMClient {
 
     private static final Logger logger = LogManager.getLogger(SteamClient.class);
 
-    private Map<Class<? extends ClientMsgHandler>, ClientMsgHandler> handlers = new HashMap<>();
+    // copied on every change, so messages are dispatched to a snapshot of the handlers without locking
+    private volatile Map<Class<? extends ClientMsgHandler>, ClientMsgHandler> handlers = Collections.emptyMap();
+
+    private final Object handlersLock = new Object();
 
     private AtomicLong currentJobId = new AtomicLong(0L);
 
@@ -54,6 +78,10 @@ public class SteamClient extends CMClient {
 
     private Map<EMsg, Consumer<IPacketMsg>> dispatchMap = new HashMap<>();
 
+    private final ReconnectManager reconnectManager = new ReconnectManager(this);
+
+    private final AsyncJobManager jobManager = new AsyncJobManager();
+
     /**
      * Initializes a new instance of the {@link SteamClient} class with the default configuration.
      */
@@ -112,18 +140,88 @@ public class SteamClient extends CMClient {
         });
     }
 
+    /**
+     * Loads the expensive parts of the library on a background daemon thread: the security provider, the message
+     * enums, the protobuf descriptors and the machine ID. Call this early, for example while the application is still
+     * reading its configuration, so the first connection does not have to wait for them.
+     */
+    public static void warmUp() {
+        warmUp(new ThreadPerTaskExecutor(new NamedThreadFactory("SteamClient warm-up", true)));
+    }
+
+    /**
+     * Loads the expensive parts of the library on the given executor, see {@link #warmUp()}.
+     *
+     * @param executor the executor to run the warm-up on.
+     */
+    public static void warmUp(final Executor executor) {
+        if (executor == null) {
+            throw new IllegalArgumentException("executor is null");
+        }
+
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                runWarmUp(executor);
+            }
+        });
+    }
+
+    // every step stands on its own, a failing step only means it is loaded on first use instead
+    private static void runWarmUp(Executor executor) {
+        long start = System.currentTimeMillis();
+
+        try {
+            CryptoHelper.getProvider();
+            CryptoHelper.generateRandomBlock(16);
+            RSACrypto.getInstance(EUniverse.Public);
+        } catch (Exception e) {
+            logger.debug("Warm-up of the crypto provider failed", e);
+        }
+
+        try {
+            Utils.getOSType();
+            MsgUtil.getMsg(EMsg.ClientLogon.code());
+        } catch (Exception e) {
+            logger.debug("Warm-up of the message types failed", e);
+        }
+
+        try {
+            SteammessagesBase.getDescriptor();
+            SteammessagesClientserver.getDescriptor();
+            SteammessagesClientserver2.getDescriptor();
+            SteammessagesClientserverFriends.getDescriptor();
+            SteammessagesClientserverLogin.getDescriptor();
+        } catch (Exception e) {
+            logger.debug("Warm-up of the protobuf descriptors failed", e);
+        }
+
+        try {
+            LocalMachineIDProvider.getDefault().prefetch(executor);
+        } catch (Exception e) {
+            logger.debug("Warm-up of the machine ID failed", e);
+        }
+
+        logger.debug("Warm-up finished in " + (System.currentTimeMillis() - start) + " ms");
+    }
+
     /**
      * Adds a new handler to the internal list of message handlers.
      *
      * @param handler The handler to add.
      */
     public void addHandler(ClientMsgHandler handler) {
-        if (handlers.containsKey(handler.getClass())) {
-            throw new IllegalArgumentException("A handler of type " + handler.getClass() + " is already registered.");
-        }
+        synchronized (handlersLock) {
+            if (handlers.containsKey(handler.getClass())) {
+                throw new IllegalArgumentException("A handler of type " + handler.getClass() + " is already registered.");
+            }
 
-        handler.setup(this);
-        handlers.put(handler.getClass(), handler);
+            handler.setup(this);
+
+            Map<Class<? extends ClientMsgHandler>, ClientMsgHandler> copy = new LinkedHashMap<>(handlers);
+            copy.put(handler.getClass(), handler);
+            handlers = copy;
+        }
     }
 
     /**
@@ -132,7 +230,15 @@ public class SteamClient extends CMClient {
      * @param handler The handler name to remove.
      */
     public void removeHandler(Class<? extends ClientMsgHandler> handler) {
-        handlers.remove(handler);
+        synchronized (handlersLock) {
+            if (!handlers.containsKey(handler)) {
+                return;
+            }
+
+            Map<Class<? extends ClientMsgHandler>, ClientMsgHandler> copy = new LinkedHashMap<>(handlers);
+            copy.remove(handler);
+            handlers = copy;
+        }
     }
 
     /**
@@ -156,6 +262,16 @@ public class SteamClient extends CMClient {
         return (T) handlers.get(type);
     }
 
+    /**
+     * Gets the reconnect manager of this client. It is disabled by default, enable it with the details to log on
+     * with to have the client reconnect and log on automatically after it gets disconnected.
+     *
+     * @return The reconnect manager.
+     */
+    public ReconnectManager getReconnectManager() {
+        return reconnectManager;
+    }
+
     /**
      * Gets the next callback object in the queue.
      * This function does not dequeue the callback, you must call FreeLastCallback after processing it.
@@ -322,6 +438,110 @@ public class SteamClient extends CMClient {
             callbackQueue.offer(msg);
             callbackLock.notify();
         }
+
+        jobManager.tryCompleteJob(msg.getJobID(), msg);
+    }
+
+    /**
+     * Sends a request and blocks the calling thread until the response with the matching job ID arrives. The response
+     * is also posted to the callback queue as usual.
+     *
+     * @param request      the request, its source job ID is set by this method.
+     * @param responseType the type of the response callback.
+     * @param timeout      the time in milliseconds to wait for the response, heartbeats from Steam extend it.
+     * @param <T>          the type of the response callback.
+     * @return the response callback.
+     * @throws InterruptedException    if the calling thread was interrupted.
+     * @throws TimeoutException        if no response arrived in time.
+     * @throws AsyncJobFailedException if Steam reported the job as failed or the client got disconnected.
+     */
+    public <T extends CallbackMsg> T call(IClientMsg request, Class<T> responseType, long timeout)
+            throws InterruptedException, TimeoutException, AsyncJobFailedException {
+        if (request == null) {
+            throw new IllegalArgumentException("request is null");
+        }
+
+        JobID jobID = getNextJobID();
+        request.setSourceJobID(jobID);
+
+        AsyncJobSingle<T> job = new AsyncJobSingle<>(jobID, responseType, timeout);
+        jobManager.startJob(job);
+
+        try {
+            send(request);
+            return job.await();
+        } finally {
+            jobManager.removeJob(jobID);
+        }
+    }
+
+    /**
+     * Sends a request that is answered by several callbacks and blocks the calling thread until the last of them
+     * arrived. The callbacks are also posted to the callback queue as usual.
+     *
+     * @param request         the request, its source job ID is set by this method.
+     * @param responseType    the type of the response callbacks.
+     * @param finishCondition returns <b>true</b> for the last callback of the response.
+     * @param timeout         the time in milliseconds to wait for the next callback, heartbeats from Steam extend it.
+     * @param <T>             the type of the response callbacks.
+     * @return the received callbacks, check {@link AsyncJobMultiple.ResultSet#isComplete()} to see whether all of them
+     * arrived.
+     * @throws InterruptedException if the calling thread was interrupted.
+     */
+    public <T extends CallbackMsg> AsyncJobMultiple.ResultSet<T> callMultiple(IClientMsg request, Class<T> responseType,
+                                                                              Predicate<T> finishCondition, long timeout)
+            throws InterruptedException {
+        AsyncJobMultiple<T> job = sendMultiple(request, responseType, finishCondition, timeout);
+
+        try {
+            return job.await();
+        } finally {
+            stopJob(job.getJobID());
+        }
+    }
+
+    /**
+     * Sends a request that is answered by several callbacks without waiting for them, so that several requests can
+     * be in flight at once. Call {@link AsyncJobMultiple#await()} on the returned job to get the callbacks, and
+     * {@link #stopJob(JobID)} once done with it. The callbacks are also posted to the callback queue as usual.
+     *
+     * @param request         the request, its source job ID is set by this method.
+     * @param responseType    the type of the response callbacks.
+     * @param finishCondition returns <b>true</b> for the last callback of the response.
+     * @param timeout         the time in milliseconds to wait for the next callback, heartbeats from Steam extend it.
+     * @param <T>             the type of the response callbacks.
+     * @return the job collecting the callbacks.
+     */
+    public <T extends CallbackMsg> AsyncJobMultiple<T> sendMultiple(IClientMsg request, Class<T> responseType,
+                                                                     Predicate<T> finishCondition, long timeout) {
+        if (request == null) {
+            throw new IllegalArgumentException("request is null");
+        }
+
+        JobID jobID = getNextJobID();
+        request.setSourceJobID(jobID);
+
+        AsyncJobMultiple<T> job = new AsyncJobMultiple<>(jobID, responseType, finishCondition, timeout);
+        jobManager.startJob(job);
+
+        try {
+            send(request);
+        } catch (RuntimeException e) {
+            jobManager.removeJob(jobID);
+            throw e;
+        }
+
+        return job;
+    }
+
+    /**
+     * Stops tracking a job started with {@link #sendMultiple(IClientMsg, Class, Predicate, long)}. Jobs that completed
+     * or failed are no longer tracked anyway, this is needed for jobs that timed out.
+     *
+     * @param jobID the job ID.
+     */
+    public void stopJob(JobID jobID) {
+        jobManager.removeJob(jobID);
     }
 
     /**
@@ -341,6 +561,23 @@ public class SteamClient extends CMClient {
         return jobID;
     }
 
+    @Override
+    public void send(IClientMsg msg) {
+        super.send(msg);
+
+        reconnectManager.onMessageSent(msg);
+    }
+
+    @Override
+    public boolean trySend(IClientMsg msg) {
+        if (!super.trySend(msg)) {
+            return false;
+        }
+
+        reconnectManager.onMessageSent(msg);
+        return true;
+    }
+
     @Override
     protected boolean onClientMsgReceived(IPacketMsg packetMsg) {
         if (!super.onClientMsgReceived(packetMsg)) {
@@ -363,6 +600,8 @@ public class SteamClient extends CMClient {
             }
         }
 
+        reconnectManager.onMessageReceived(packetMsg);
+
         return true;
     }
 
@@ -371,6 +610,8 @@ public class SteamClient extends CMClient {
         super.onClientConnected();
 
         postCallback(new ConnectedCallback());
+
+        reconnectManager.onConnected();
     }
 
     @Override
@@ -378,6 +619,18 @@ public class SteamClient extends CMClient {
         super.onClientDisconnected(userInitiated);
 
         postCallback(new DisconnectedCallback(userInitiated));
+
+        // no responses will arrive for the requests sent over the lost connection
+        jobManager.setJobsFailed(false);
+
+        reconnectManager.onDisconnected(userInitiated);
+    }
+
+    @Override
+    protected void onStandbyConnectionLost() {
+        super.onStandbyConnectionLost();
+
+        reconnectManager.onStandbyConnectionLost();
     }
 
     private void handleCMList(IPacketMsg packetMsg) {
@@ -393,10 +646,10 @@ public class SteamClient extends CMClient {
     }
 
     private void handleJobHeartbeat(IPacketMsg packetMsg) {
-        // TODO: 2018-02-23  
+        jobManager.heartbeatJob(new JobID(packetMsg.getTargetJobID()));
     }
 
     private void handleJobFailed(IPacketMsg packetMsg) {
-        // TODO: 2018-02-23
+        jobManager.failJob(new JobID(packetMsg.getTargetJobID()));
     }
 }
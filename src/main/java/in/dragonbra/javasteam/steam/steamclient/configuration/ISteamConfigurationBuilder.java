@@ -1,12 +1,21 @@
 package in.dragonbra.javasteam.steam.steamclient.configuration;
 
 import in.dragonbra.javasteam.enums.EClientPersonaStateFlag;
+import in.dragonbra.javasteam.enums.EMsg;
 import in.dragonbra.javasteam.enums.EUniverse;
+import in.dragonbra.javasteam.networking.steam3.MessageBatching;
 import in.dragonbra.javasteam.networking.steam3.ProtocolTypes;
+import in.dragonbra.javasteam.networking.steam3.RateLimit;
+import in.dragonbra.javasteam.networking.steam3.ReceivePipeline;
 import in.dragonbra.javasteam.steam.discovery.IServerListProvider;
+import in.dragonbra.javasteam.steam.steamclient.logon.LogonScheduler;
+import in.dragonbra.javasteam.steam.steamclient.machineid.IMachineIDProvider;
 import okhttp3.OkHttpClient;
 
 import java.util.EnumSet;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
 
 /**
  * Interface to configure a {@link SteamConfiguration} before it is created.
@@ -14,6 +23,15 @@ import java.util.EnumSet;
  */
 public interface ISteamConfigurationBuilder {
 
+    /**
+     * Sets the executor asynchronous Web API requests and their callbacks run on.
+     * By default they run on the dispatcher of the HTTP client.
+     *
+     * @param callbackExecutor The executor to run Web API callbacks on.
+     * @return A builder with modified configuration.
+     */
+    ISteamConfigurationBuilder withCallbackExecutor(Executor callbackExecutor);
+
     /**
      * Configures this {@link SteamConfiguration} for a particular Steam cell.
      *
@@ -62,6 +80,72 @@ public interface ISteamConfigurationBuilder {
      */
     ISteamConfigurationBuilder withDirectoryFetch(boolean allowDirectoryFetch);
 
+    /**
+     * Sets the executor the blocking network tasks run on: the receive loop of the connection and the connects of the
+     * reconnect manager. Each connected client keeps one task running on it, so a bounded executor needs enough
+     * threads for all clients. The writers of the outbound queues always get threads of their own, from the
+     * {@link #withThreadFactory(ThreadFactory) thread factory} if one is set. By default every loop gets its own thread.
+     *
+     * @param ioExecutor The executor to run the network loops on.
+     * @return A builder with modified configuration.
+     */
+    ISteamConfigurationBuilder withIOExecutor(Executor ioExecutor);
+
+    /**
+     * Configures this {@link SteamConfiguration} with a logon scheduler shared by all clients using this configuration.
+     *
+     * @param logonScheduler The scheduler that admits logons and spreads connections over the CM servers, or null to log on immediately.
+     * @return A builder with modified configuration.
+     */
+    ISteamConfigurationBuilder withLogonScheduler(LogonScheduler logonScheduler);
+
+    /**
+     * Sets the provider of the machine ID sent with logon requests.
+     * By default the ID is derived once from the local machine, on a background thread.
+     *
+     * @param machineIDProvider The machine ID provider to use.
+     * @return A builder with modified configuration.
+     */
+    ISteamConfigurationBuilder withMachineIDProvider(IMachineIDProvider machineIDProvider);
+
+    /**
+     * Configures this {@link SteamConfiguration} to pack outgoing messages into multi message envelopes.
+     * Batching requires the outbound queue to be enabled and only applies while logged on.
+     *
+     * @param messageBatching The batching options, or null to send every message in its own packet.
+     * @return A builder with modified configuration.
+     */
+    ISteamConfigurationBuilder withMessageBatching(MessageBatching messageBatching);
+
+    /**
+     * Configures the size of the outbound message queue of every connection made with this {@link SteamConfiguration}.
+     *
+     * @param capacity The number of messages that may wait to be written before senders are held back, or 0 to write messages on the sending thread without a queue.
+     * @return A builder with modified configuration.
+     */
+    ISteamConfigurationBuilder withOutboundQueueCapacity(int capacity);
+
+    /**
+     * Configures an outbound rate limit for a message type, applied to every connection made with this {@link SteamConfiguration}.
+     * Rate limits are only enforced when the outbound queue is enabled.
+     *
+     * @param eMsg      The message type to limit.
+     * @param rateLimit The rate limit, or null to remove the limit.
+     * @return A builder with modified configuration.
+     */
+    ISteamConfigurationBuilder withOutboundRateLimit(EMsg eMsg, RateLimit rateLimit);
+
+    /**
+     * Sets the executor PICS product info is parsed on. When set, the KeyValues of every app and package in a
+     * product info response are parsed in batches on this executor, for example a
+     * {@link java.util.concurrent.ForkJoinPool}, while the callback is being handled. By default they are parsed on the
+     * first call to getKeyValues.
+     *
+     * @param picsParseExecutor The executor to parse on, or null to parse on demand.
+     * @return A builder with modified configuration.
+     */
+    ISteamConfigurationBuilder withPICSParseExecutor(Executor picsParseExecutor);
+
     /**
      * Configures how this {@link SteamConfiguration} will be used to connect to Steam.
      *
@@ -78,6 +162,24 @@ public interface ISteamConfigurationBuilder {
      */
     ISteamConfigurationBuilder withProtocolTypes(ProtocolTypes protocolTypes);
 
+    /**
+     * Configures this {@link SteamConfiguration} to process incoming messages in stages off the transport thread,
+     * so large messages are decrypted, parsed and handled while the connection keeps reading.
+     *
+     * @param receivePipeline The executors of the receive stages, or null to handle every message on the transport thread.
+     * @return A builder with modified configuration.
+     */
+    ISteamConfigurationBuilder withReceivePipeline(ReceivePipeline receivePipeline);
+
+    /**
+     * Sets the scheduler used for heartbeats and reconnect delays. The tasks are short, so one scheduler can serve
+     * many clients. By default every client schedules on its own threads.
+     *
+     * @param scheduler The scheduler to use.
+     * @return A builder with modified configuration.
+     */
+    ISteamConfigurationBuilder withScheduler(ScheduledExecutorService scheduler);
+
     /**
      * Configures the server list provider for this {@link SteamConfiguration}.
      *
@@ -86,6 +188,15 @@ public interface ISteamConfigurationBuilder {
      */
     ISteamConfigurationBuilder withServerListProvider(IServerListProvider provider);
 
+    /**
+     * Sets the factory of the threads the library starts when no executor or scheduler is configured for a task.
+     * By default plain named threads are used.
+     *
+     * @param threadFactory The thread factory to use.
+     * @return A builder with modified configuration.
+     */
+    ISteamConfigurationBuilder withThreadFactory(ThreadFactory threadFactory);
+
     /**
      * Configures the Universe that this {@link SteamConfiguration} belongs to.
      *
@@ -1,16 +1,28 @@
 package in.dragonbra.javasteam.steam.steamclient.configuration;
 
 import in.dragonbra.javasteam.enums.EClientPersonaStateFlag;
+import in.dragonbra.javasteam.enums.EMsg;
 import in.dragonbra.javasteam.enums.EUniverse;
+import in.dragonbra.javasteam.networking.steam3.MessageBatching;
 import in.dragonbra.javasteam.networking.steam3.ProtocolTypes;
+import in.dragonbra.javasteam.networking.steam3.RateLimit;
+import in.dragonbra.javasteam.networking.steam3.ReceivePipeline;
 import in.dragonbra.javasteam.steam.discovery.IServerListProvider;
 import in.dragonbra.javasteam.steam.discovery.SmartCMServerList;
 import in.dragonbra.javasteam.steam.steamclient.SteamClient;
+import in.dragonbra.javasteam.steam.steamclient.logon.LogonScheduler;
+import in.dragonbra.javasteam.steam.steamclient.machineid.IMachineIDProvider;
 import in.dragonbra.javasteam.steam.webapi.WebAPI;
 import in.dragonbra.javasteam.util.compat.Consumer;
 import okhttp3.OkHttpClient;
 
+import java.util.Collections;
+import java.util.EnumMap;
 import java.util.EnumSet;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
 
 /**
  * Configuration object to use.
@@ -20,10 +32,17 @@ public class SteamConfiguration {
 
     private final SteamConfigurationState state;
 
+    // copied, so reusing the builder does not change configurations that were already built
+    private final Map<EMsg, RateLimit> outboundRateLimits;
+
     private SmartCMServerList serverList;
 
     SteamConfiguration(SteamConfigurationState state) {
+        Map<EMsg, RateLimit> rateLimits = new EnumMap<>(EMsg.class);
+        rateLimits.putAll(state.getOutboundRateLimits());
+
         this.state = state;
+        this.outboundRateLimits = Collections.unmodifiableMap(rateLimits);
         this.serverList = new SmartCMServerList(this);
     }
 
@@ -56,6 +75,13 @@ public class SteamConfiguration {
         return state.isAllowDirectoryFetch();
     }
 
+    /**
+     * @return The executor asynchronous Web API requests and their callbacks run on, or null to use the dispatcher of the HTTP client.
+     */
+    public Executor getCallbackExecutor() {
+        return state.getCallbackExecutor();
+    }
+
     /**
      * @return The Steam Cell ID to prioritize when connecting.
      */
@@ -84,6 +110,55 @@ public class SteamConfiguration {
         return state.getDefaultPersonaStateFlags();
     }
 
+    /**
+     * @return The executor the blocking network loops run on, or null to give every loop its own thread.
+     */
+    public Executor getIOExecutor() {
+        return state.getIOExecutor();
+    }
+
+    /**
+     * @return The scheduler that admits logons and spreads connections over the CM servers, or null if logons are sent immediately.
+     */
+    public LogonScheduler getLogonScheduler() {
+        return state.getLogonScheduler();
+    }
+
+    /**
+     * @return The provider of the machine ID sent with logon requests.
+     */
+    public IMachineIDProvider getMachineIDProvider() {
+        return state.getMachineIDProvider();
+    }
+
+    /**
+     * @return The options used to pack outgoing messages into multi message envelopes, or null if every message is sent in its own packet.
+     */
+    public MessageBatching getMessageBatching() {
+        return state.getMessageBatching();
+    }
+
+    /**
+     * @return The number of messages that may wait to be written before senders are held back, 0 if messages are written on the sending thread.
+     */
+    public int getOutboundQueueCapacity() {
+        return state.getOutboundQueueCapacity();
+    }
+
+    /**
+     * @return The outbound rate limits per message type.
+     */
+    public Map<EMsg, RateLimit> getOutboundRateLimits() {
+        return outboundRateLimits;
+    }
+
+    /**
+     * @return The executor PICS product info is parsed on, or null if it is parsed on demand.
+     */
+    public Executor getPICSParseExecutor() {
+        return state.getPICSParseExecutor();
+    }
+
     /**
      * @return The supported protocol types to use when attempting to connect to Steam.
      */
@@ -91,6 +166,20 @@ public class SteamConfiguration {
         return state.getProtocolTypes();
     }
 
+    /**
+     * @return The executors incoming messages are decrypted, decoded and dispatched on, or null if messages are handled on the transport thread.
+     */
+    public ReceivePipeline getReceivePipeline() {
+        return state.getReceivePipeline();
+    }
+
+    /**
+     * @return The scheduler used for heartbeats and reconnect delays, or null to let every client schedule on its own threads.
+     */
+    public ScheduledExecutorService getScheduler() {
+        return state.getScheduler();
+    }
+
     /**
      * @return The server list provider to use.
      */
@@ -98,6 +187,13 @@ public class SteamConfiguration {
         return state.getServerListProvider();
     }
 
+    /**
+     * @return The factory of the threads the library starts, or null to use plain named threads.
+     */
+    public ThreadFactory getThreadFactory() {
+        return state.getThreadFactory();
+    }
+
     /**
      * @return The Universe to connect to. This should always be {@link EUniverse#Public} unless you work at Valve and are using this internally. If this is you, hello there.
      */
@@ -133,6 +229,6 @@ public class SteamConfiguration {
      * @return A {@link WebAPI} object to interact with the Web API.
      */
     public WebAPI getWebAPI(String _interface) {
-        return new WebAPI(getHttpClient(), getWebAPIBaseAddress(), _interface, getWebAPIKey());
+        return new WebAPI(getHttpClient(), getWebAPIBaseAddress(), _interface, getWebAPIKey(), getCallbackExecutor());
     }
 }
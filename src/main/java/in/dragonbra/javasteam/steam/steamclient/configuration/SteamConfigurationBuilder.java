@@ -1,14 +1,25 @@
 package in.dragonbra.javasteam.steam.steamclient.configuration;
 
 import in.dragonbra.javasteam.enums.EClientPersonaStateFlag;
+import in.dragonbra.javasteam.enums.EMsg;
 import in.dragonbra.javasteam.enums.EUniverse;
+import in.dragonbra.javasteam.networking.steam3.MessageBatching;
 import in.dragonbra.javasteam.networking.steam3.ProtocolTypes;
+import in.dragonbra.javasteam.networking.steam3.RateLimit;
+import in.dragonbra.javasteam.networking.steam3.ReceivePipeline;
 import in.dragonbra.javasteam.steam.discovery.IServerListProvider;
 import in.dragonbra.javasteam.steam.discovery.NullServerListProvider;
+import in.dragonbra.javasteam.steam.steamclient.logon.LogonScheduler;
+import in.dragonbra.javasteam.steam.steamclient.machineid.IMachineIDProvider;
+import in.dragonbra.javasteam.steam.steamclient.machineid.LocalMachineIDProvider;
 import in.dragonbra.javasteam.steam.webapi.WebAPI;
 import okhttp3.OkHttpClient;
 
+import java.util.EnumMap;
 import java.util.EnumSet;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
 
 /**
  * @author lngtr
@@ -34,6 +45,9 @@ public class SteamConfigurationBuilder implements ISteamConfigurationBuilder {
         state.setUniverse(EUniverse.Public);
         state.setWebAPIBaseAddress(WebAPI.DEFAULT_BASE_ADDRESS);
         state.setHttpClient(new OkHttpClient());
+        state.setMachineIDProvider(LocalMachineIDProvider.getDefault());
+        state.setOutboundQueueCapacity(1024);
+        state.setOutboundRateLimits(new EnumMap<EMsg, RateLimit>(EMsg.class));
 
         return state;
     }
@@ -42,6 +56,12 @@ public class SteamConfigurationBuilder implements ISteamConfigurationBuilder {
         return new SteamConfiguration(state);
     }
 
+    @Override
+    public ISteamConfigurationBuilder withCallbackExecutor(Executor callbackExecutor) {
+        state.setCallbackExecutor(callbackExecutor);
+        return this;
+    }
+
     @Override
     public ISteamConfigurationBuilder withCellID(int cellID) {
         state.setCellID(cellID);
@@ -78,6 +98,58 @@ public class SteamConfigurationBuilder implements ISteamConfigurationBuilder {
         return this;
     }
 
+    @Override
+    public ISteamConfigurationBuilder withIOExecutor(Executor ioExecutor) {
+        state.setIOExecutor(ioExecutor);
+        return this;
+    }
+
+    @Override
+    public ISteamConfigurationBuilder withLogonScheduler(LogonScheduler logonScheduler) {
+        state.setLogonScheduler(logonScheduler);
+        return this;
+    }
+
+    @Override
+    public ISteamConfigurationBuilder withMachineIDProvider(IMachineIDProvider machineIDProvider) {
+        state.setMachineIDProvider(machineIDProvider);
+        return this;
+    }
+
+    @Override
+    public ISteamConfigurationBuilder withMessageBatching(MessageBatching messageBatching) {
+        state.setMessageBatching(messageBatching);
+        return this;
+    }
+
+    @Override
+    public ISteamConfigurationBuilder withOutboundQueueCapacity(int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("capacity is negative");
+        }
+        state.setOutboundQueueCapacity(capacity);
+        return this;
+    }
+
+    @Override
+    public ISteamConfigurationBuilder withOutboundRateLimit(EMsg eMsg, RateLimit rateLimit) {
+        if (eMsg == null) {
+            throw new IllegalArgumentException("eMsg is null");
+        }
+        if (rateLimit == null) {
+            state.getOutboundRateLimits().remove(eMsg);
+        } else {
+            state.getOutboundRateLimits().put(eMsg, rateLimit);
+        }
+        return this;
+    }
+
+    @Override
+    public ISteamConfigurationBuilder withPICSParseExecutor(Executor picsParseExecutor) {
+        state.setPICSParseExecutor(picsParseExecutor);
+        return this;
+    }
+
     @Override
     public ISteamConfigurationBuilder withProtocolTypes(EnumSet<ProtocolTypes> protocolTypes) {
         state.setProtocolTypes(protocolTypes);
@@ -90,6 +162,18 @@ public class SteamConfigurationBuilder implements ISteamConfigurationBuilder {
         return this;
     }
 
+    @Override
+    public ISteamConfigurationBuilder withReceivePipeline(ReceivePipeline receivePipeline) {
+        state.setReceivePipeline(receivePipeline);
+        return this;
+    }
+
+    @Override
+    public ISteamConfigurationBuilder withScheduler(ScheduledExecutorService scheduler) {
+        state.setScheduler(scheduler);
+        return this;
+    }
+
     @Override
     public ISteamConfigurationBuilder withServerListProvider(IServerListProvider provider) {
         if (provider == null) {
@@ -99,6 +183,12 @@ public class SteamConfigurationBuilder implements ISteamConfigurationBuilder {
         return this;
     }
 
+    @Override
+    public ISteamConfigurationBuilder withThreadFactory(ThreadFactory threadFactory) {
+        state.setThreadFactory(threadFactory);
+        return this;
+    }
+
     @Override
     public ISteamConfigurationBuilder withUniverse(EUniverse universe) {
         state.setUniverse(universe);
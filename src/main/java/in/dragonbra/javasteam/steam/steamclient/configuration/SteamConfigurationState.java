@@ -1,12 +1,22 @@
 package in.dragonbra.javasteam.steam.steamclient.configuration;
 
 import in.dragonbra.javasteam.enums.EClientPersonaStateFlag;
+import in.dragonbra.javasteam.enums.EMsg;
 import in.dragonbra.javasteam.enums.EUniverse;
+import in.dragonbra.javasteam.networking.steam3.MessageBatching;
 import in.dragonbra.javasteam.networking.steam3.ProtocolTypes;
+import in.dragonbra.javasteam.networking.steam3.RateLimit;
+import in.dragonbra.javasteam.networking.steam3.ReceivePipeline;
 import in.dragonbra.javasteam.steam.discovery.IServerListProvider;
+import in.dragonbra.javasteam.steam.steamclient.logon.LogonScheduler;
+import in.dragonbra.javasteam.steam.steamclient.machineid.IMachineIDProvider;
 import okhttp3.OkHttpClient;
 
 import java.util.EnumSet;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
 
 /**
  * @author lngtr
@@ -15,12 +25,23 @@ import java.util.EnumSet;
 public class SteamConfigurationState {
 
     private boolean allowDirectoryFetch;
+    private Executor callbackExecutor;
     private int cellID;
     private long connectionTimeout;
     private OkHttpClient httpClient;
     private EnumSet<EClientPersonaStateFlag> defaultPersonaStateFlags;
+    private Executor ioExecutor;
+    private LogonScheduler logonScheduler;
+    private IMachineIDProvider machineIDProvider;
+    private MessageBatching messageBatching;
+    private int outboundQueueCapacity;
+    private Map<EMsg, RateLimit> outboundRateLimits;
+    private Executor picsParseExecutor;
     private EnumSet<ProtocolTypes> protocolTypes;
+    private ReceivePipeline receivePipeline;
+    private ScheduledExecutorService scheduler;
     private IServerListProvider serverListProvider;
+    private ThreadFactory threadFactory;
     private EUniverse universe;
     private String webAPIBaseAddress;
     private String webAPIKey;
@@ -33,6 +54,14 @@ public class SteamConfigurationState {
         this.allowDirectoryFetch = allowDirectoryFetch;
     }
 
+    public Executor getCallbackExecutor() {
+        return callbackExecutor;
+    }
+
+    public void setCallbackExecutor(Executor callbackExecutor) {
+        this.callbackExecutor = callbackExecutor;
+    }
+
     public int getCellID() {
         return cellID;
     }
@@ -69,6 +98,62 @@ public class SteamConfigurationState {
         setDefaultPersonaStateFlags(EnumSet.of(defaultPersonaStateFlags));
     }
 
+    public Executor getIOExecutor() {
+        return ioExecutor;
+    }
+
+    public void setIOExecutor(Executor ioExecutor) {
+        this.ioExecutor = ioExecutor;
+    }
+
+    public LogonScheduler getLogonScheduler() {
+        return logonScheduler;
+    }
+
+    public void setLogonScheduler(LogonScheduler logonScheduler) {
+        this.logonScheduler = logonScheduler;
+    }
+
+    public IMachineIDProvider getMachineIDProvider() {
+        return machineIDProvider;
+    }
+
+    public void setMachineIDProvider(IMachineIDProvider machineIDProvider) {
+        this.machineIDProvider = machineIDProvider;
+    }
+
+    public MessageBatching getMessageBatching() {
+        return messageBatching;
+    }
+
+    public void setMessageBatching(MessageBatching messageBatching) {
+        this.messageBatching = messageBatching;
+    }
+
+    public int getOutboundQueueCapacity() {
+        return outboundQueueCapacity;
+    }
+
+    public void setOutboundQueueCapacity(int outboundQueueCapacity) {
+        this.outboundQueueCapacity = outboundQueueCapacity;
+    }
+
+    public Map<EMsg, RateLimit> getOutboundRateLimits() {
+        return outboundRateLimits;
+    }
+
+    public void setOutboundRateLimits(Map<EMsg, RateLimit> outboundRateLimits) {
+        this.outboundRateLimits = outboundRateLimits;
+    }
+
+    public Executor getPICSParseExecutor() {
+        return picsParseExecutor;
+    }
+
+    public void setPICSParseExecutor(Executor picsParseExecutor) {
+        this.picsParseExecutor = picsParseExecutor;
+    }
+
     public EnumSet<ProtocolTypes> getProtocolTypes() {
         return protocolTypes;
     }
@@ -81,6 +166,22 @@ public class SteamConfigurationState {
         this.protocolTypes = protocolTypes;
     }
 
+    public ReceivePipeline getReceivePipeline() {
+        return receivePipeline;
+    }
+
+    public void setReceivePipeline(ReceivePipeline receivePipeline) {
+        this.receivePipeline = receivePipeline;
+    }
+
+    public ScheduledExecutorService getScheduler() {
+        return scheduler;
+    }
+
+    public void setScheduler(ScheduledExecutorService scheduler) {
+        this.scheduler = scheduler;
+    }
+
     public IServerListProvider getServerListProvider() {
         return serverListProvider;
     }
@@ -89,6 +190,14 @@ public class SteamConfigurationState {
         this.serverListProvider = serverListProvider;
     }
 
+    public ThreadFactory getThreadFactory() {
+        return threadFactory;
+    }
+
+    public void setThreadFactory(ThreadFactory threadFactory) {
+        this.threadFactory = threadFactory;
+    }
+
     public EUniverse getUniverse() {
         return universe;
     }
@@ -0,0 +1,246 @@
+package in.dragonbra.javasteam.steam.steamclient.logon;
+
+import in.dragonbra.javasteam.enums.EResult;
+import in.dragonbra.javasteam.networking.steam3.ProtocolTypes;
+import in.dragonbra.javasteam.steam.discovery.ServerRecord;
+import in.dragonbra.javasteam.steam.discovery.SmartCMServerList;
+import in.dragonbra.javasteam.util.NamedThreadFactory;
+import in.dragonbra.javasteam.util.TokenBucket;
+import in.dragonbra.javasteam.util.log.LogManager;
+import in.dragonbra.javasteam.util.log.Logger;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Admission control for logons of many {@link in.dragonbra.javasteam.steam.steamclient.SteamClient SteamClients}
+ * sharing one {@link in.dragonbra.javasteam.steam.steamclient.configuration.SteamConfiguration SteamConfiguration}.
+ * <p>
+ * Logons are queued and released by a token bucket. The rate adapts to the logon results reported back by
+ * {@link in.dragonbra.javasteam.steam.handlers.steamuser.SteamUser SteamUser}: it grows slowly while logons succeed
+ * and is halved whenever Steam answers with {@link EResult#RateLimitExceeded}, {@link EResult#TryAnotherCM} or
+ * {@link EResult#ServiceUnavailable}. Rejections of logons released before the last decrease were caused by the old
+ * rate, so they don't lower it again. The scheduler also hands out CM servers round robin, so the clients are spread
+ * over all healthy servers instead of piling onto the best one.
+ * <p>
+ * Call {@link #shutdown()} once the scheduler is no longer used to stop its dispatcher thread.
+ */
+public class LogonScheduler {
+
+    private static final Logger logger = LogManager.getLogger(LogonScheduler.class);
+
+    private final TokenBucket bucket;
+
+    private final double minRate;
+
+    private final double maxRate;
+
+    private final double increaseStep;
+
+    private final BlockingQueue<Runnable> queue = new LinkedBlockingQueue<>();
+
+    private final AtomicInteger serverIndex = new AtomicInteger();
+
+    private final ThreadFactory threadFactory;
+
+    private Thread dispatcher;
+
+    private boolean shutdown;
+
+    // logons released and results reported so far, and the number of released logons at the last decrease. Results
+    // arrive roughly in the order the logons were released, so result number n belongs to the n-th released logon
+    private long released;
+
+    private long reported;
+
+    private long releasedAtDecrease;
+
+    /**
+     * Initializes a new instance of the {@link LogonScheduler} class.
+     *
+     * @param logonsPerSecond the initial number of logons released per second.
+     * @param burst           the number of logons that may be released at once.
+     */
+    public LogonScheduler(double logonsPerSecond, int burst) {
+        this(logonsPerSecond, burst, logonsPerSecond / 16, logonsPerSecond * 4);
+    }
+
+    /**
+     * Initializes a new instance of the {@link LogonScheduler} class.
+     *
+     * @param logonsPerSecond the initial number of logons released per second.
+     * @param burst           the number of logons that may be released at once.
+     * @param minRate         the lowest rate the scheduler backs off to.
+     * @param maxRate         the highest rate the scheduler grows to.
+     */
+    public LogonScheduler(double logonsPerSecond, int burst, double minRate, double maxRate) {
+        this(logonsPerSecond, burst, minRate, maxRate, null);
+    }
+
+    /**
+     * Initializes a new instance of the {@link LogonScheduler} class.
+     *
+     * @param logonsPerSecond the initial number of logons released per second.
+     * @param burst           the number of logons that may be released at once.
+     * @param minRate         the lowest rate the scheduler backs off to.
+     * @param maxRate         the highest rate the scheduler grows to.
+     * @param threadFactory   the factory of the dispatcher thread, may be null to use a daemon thread.
+     */
+    public LogonScheduler(double logonsPerSecond, int burst, double minRate, double maxRate, ThreadFactory threadFactory) {
+        if (minRate <= 0 || minRate > logonsPerSecond || maxRate < logonsPerSecond) {
+            throw new IllegalArgumentException("logonsPerSecond must be between minRate and maxRate");
+        }
+
+        this.bucket = new TokenBucket(logonsPerSecond, burst);
+        this.minRate = minRate;
+        this.maxRate = maxRate;
+        this.increaseStep = Math.max(minRate, logonsPerSecond / 20);
+        this.threadFactory = threadFactory != null ? threadFactory : new NamedThreadFactory("LogonScheduler", true);
+    }
+
+    /**
+     * Queues a logon. The logon runs on the scheduler thread once the token bucket admits it.
+     *
+     * @param logon the action that sends the logon message.
+     * @throws IllegalStateException if the scheduler was shut down.
+     */
+    public void enqueue(Runnable logon) {
+        if (logon == null) {
+            throw new IllegalArgumentException("logon is null");
+        }
+
+        queue.offer(logon);
+        ensureDispatcher();
+    }
+
+    private synchronized void ensureDispatcher() {
+        if (shutdown) {
+            queue.clear();
+            throw new IllegalStateException("LogonScheduler is shut down");
+        }
+
+        if (dispatcher != null && dispatcher.isAlive()) {
+            return;
+        }
+
+        dispatcher = threadFactory.newThread(new Runnable() {
+            @Override
+            public void run() {
+                dispatchLoop();
+            }
+        });
+        dispatcher.start();
+    }
+
+    private void dispatchLoop() {
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                Runnable logon = queue.take();
+                bucket.acquire();
+
+                synchronized (bucket) {
+                    released++;
+                }
+
+                try {
+                    logon.run();
+                } catch (Exception e) {
+                    logger.debug("Queued logon threw an exception", e);
+                }
+            }
+        } catch (InterruptedException e) {
+            logger.debug("LogonScheduler dispatcher interrupted");
+        }
+    }
+
+    /**
+     * Stops the dispatcher thread and drops the logons that are still queued. Logons can't be queued afterwards.
+     */
+    public void shutdown() {
+        Thread thread;
+
+        synchronized (this) {
+            shutdown = true;
+            thread = dispatcher;
+            dispatcher = null;
+        }
+
+        queue.clear();
+
+        if (thread != null) {
+            thread.interrupt();
+        }
+    }
+
+    /**
+     * Reports the result of a logon, this should be called for every logon response.
+     *
+     * @param result the logon result.
+     */
+    public void onLogOnResult(EResult result) {
+        if (result == null) {
+            return;
+        }
+
+        synchronized (bucket) {
+            reported++;
+
+            switch (result) {
+                case OK:
+                    bucket.setRate(Math.min(maxRate, bucket.getRate() + increaseStep));
+                    break;
+                case RateLimitExceeded:
+                case TryAnotherCM:
+                case ServiceUnavailable:
+                    if (reported <= releasedAtDecrease) {
+                        // the logon was released before the last decrease, the rate was already lowered for it
+                        break;
+                    }
+
+                    double rate = Math.max(minRate, bucket.getRate() / 2);
+                    logger.debug("Logon rejected with " + result + ", lowering logon rate to " + rate + "/s");
+                    bucket.setRate(rate);
+                    bucket.drain();
+                    releasedAtDecrease = released;
+                    break;
+            }
+        }
+    }
+
+    /**
+     * Picks the next CM server to connect to. Healthy servers are handed out round robin, when no server is healthy
+     * this falls back to the best candidate of the list.
+     *
+     * @param serverList             the server list to pick from.
+     * @param supportedProtocolTypes the protocols the server has to support.
+     * @return A {@link ServerRecord}, or null if the list is empty.
+     */
+    public ServerRecord nextServer(SmartCMServerList serverList, EnumSet<ProtocolTypes> supportedProtocolTypes) {
+        List<ServerRecord> candidates = serverList.getHealthyServerCandidates(supportedProtocolTypes);
+
+        if (candidates.isEmpty()) {
+            return serverList.getNextServerCandidate(supportedProtocolTypes);
+        }
+
+        int index = (serverIndex.getAndIncrement() & Integer.MAX_VALUE) % candidates.size();
+        return candidates.get(index);
+    }
+
+    /**
+     * @return the current number of logons released per second.
+     */
+    public double getRate() {
+        return bucket.getRate();
+    }
+
+    /**
+     * @return the number of logons waiting to be released.
+     */
+    public int getQueueSize() {
+        return queue.size();
+    }
+}
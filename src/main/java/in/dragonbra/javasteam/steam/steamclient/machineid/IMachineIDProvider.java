@@ -0,0 +1,18 @@
+package in.dragonbra.javasteam.steam.steamclient.machineid;
+
+/**
+ * Provides the machine ID that is sent with logon requests.
+ * <p>
+ * Implementations are called from the thread that logs on, so they must not do any expensive work there, like
+ * spawning processes or going over the network.
+ */
+public interface IMachineIDProvider {
+
+    /**
+     * Gets the machine ID for a logon.
+     *
+     * @param accountName the name of the account that logs on, or null for anonymous and game server logons.
+     * @return the machine ID, an empty array if there is none.
+     */
+    byte[] getMachineID(String accountName);
+}
@@ -0,0 +1,236 @@
+package in.dragonbra.javasteam.steam.steamclient.machineid;
+
+import in.dragonbra.javasteam.util.NamedThreadFactory;
+import in.dragonbra.javasteam.util.Strings;
+import in.dragonbra.javasteam.util.ThreadPerTaskExecutor;
+import in.dragonbra.javasteam.util.crypto.CryptoHelper;
+import in.dragonbra.javasteam.util.log.LogManager;
+import in.dragonbra.javasteam.util.log.Logger;
+
+import java.io.*;
+import java.net.NetworkInterface;
+import java.net.SocketException;
+import java.nio.charset.Charset;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Machine ID provider that derives the ID from stable identifiers of the local machine. It only reads files and asks
+ * the JRE for the hardware addresses of the network interfaces, no processes are spawned.
+ * <p>
+ * The ID is computed once per provider on a background thread, starting with the first request or with
+ * {@link #prefetch()}, or on an executor given to {@link #prefetch(Executor)}. When a file is given, the ID is stored there and read back on the next start, so it stays the
+ * same even if the sources change. The sources are hashed, so the ID does not reveal them.
+ */
+public class LocalMachineIDProvider implements IMachineIDProvider {
+
+    private static final Logger logger = LogManager.getLogger(LocalMachineIDProvider.class);
+
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    private static final LocalMachineIDProvider DEFAULT = new LocalMachineIDProvider(
+            new File(System.getProperty("user.home"), ".javasteam" + File.separator + "machineid"));
+
+    /**
+     * Files that hold a stable identifier of the machine, in order of preference.
+     */
+    private static final String[] ID_FILES = {
+            "/etc/machine-id",
+            "/var/lib/dbus/machine-id",
+            "/sys/class/dmi/id/product_uuid",
+            "/sys/class/dmi/id/board_serial"
+    };
+
+    private static final long WAIT_TIMEOUT = 5000L;
+
+    private final File file;
+
+    private final AtomicBoolean started = new AtomicBoolean();
+
+    private final FutureTask<byte[]> task = new FutureTask<>(new Callable<byte[]>() {
+        @Override
+        public byte[] call() {
+            return compute();
+        }
+    });
+
+    /**
+     * Initializes a new instance of the {@link LocalMachineIDProvider} class that does not store the ID.
+     */
+    public LocalMachineIDProvider() {
+        this(null);
+    }
+
+    /**
+     * Initializes a new instance of the {@link LocalMachineIDProvider} class.
+     *
+     * @param file the file the ID is stored in, may be null.
+     */
+    public LocalMachineIDProvider(File file) {
+        this.file = file;
+    }
+
+    /**
+     * @return the provider used by default, it stores the ID in the .javasteam folder of the user's home directory.
+     */
+    public static LocalMachineIDProvider getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * Starts computing the ID on a background daemon thread, if that has not happened yet.
+     */
+    public void prefetch() {
+        if (!started.get()) {
+            prefetch(new ThreadPerTaskExecutor(new NamedThreadFactory("Machine ID", true)));
+        }
+    }
+
+    /**
+     * Starts computing the ID on the given executor, if that has not happened yet.
+     *
+     * @param executor the executor to compute the ID on.
+     */
+    public void prefetch(Executor executor) {
+        if (executor == null) {
+            throw new IllegalArgumentException("executor is null");
+        }
+
+        if (started.compareAndSet(false, true)) {
+            try {
+                executor.execute(task);
+            } catch (RuntimeException e) {
+                // the next request starts it again
+                started.set(false);
+                throw e;
+            }
+        }
+    }
+
+    @Override
+    public byte[] getMachineID(String accountName) {
+        prefetch();
+
+        try {
+            return task.get(WAIT_TIMEOUT, TimeUnit.MILLISECONDS).clone();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException e) {
+            logger.debug("Couldn't get the machine ID", e);
+        }
+
+        return new byte[0];
+    }
+
+    private byte[] compute() {
+        String id = readFile();
+
+        if (id == null) {
+            String source = readSources();
+
+            if (source == null) {
+                logger.debug("No stable machine identifier found, using a random one");
+                source = UUID.randomUUID().toString();
+            }
+
+            id = Strings.toHex(CryptoHelper.shaHash(source.getBytes(UTF8)));
+            writeFile(id);
+        }
+
+        return id.getBytes(UTF8);
+    }
+
+    /**
+     * Reads the identifiers the ID is derived from.
+     *
+     * @return the identifiers, or null if none were found.
+     */
+    protected String readSources() {
+        for (String path : ID_FILES) {
+            String value = readFirstLine(new File(path));
+            if (!Strings.isNullOrEmpty(value)) {
+                return value;
+            }
+        }
+
+        return readHardwareAddresses();
+    }
+
+    private static String readHardwareAddresses() {
+        List<String> addresses = new ArrayList<>();
+
+        try {
+            Enumeration<NetworkInterface> interfaces = NetworkInterface.getNetworkInterfaces();
+
+            while (interfaces != null && interfaces.hasMoreElements()) {
+                NetworkInterface networkInterface = interfaces.nextElement();
+
+                if (networkInterface.isLoopback() || networkInterface.isVirtual()) {
+                    continue;
+                }
+
+                byte[] address = networkInterface.getHardwareAddress();
+                if (address != null && address.length > 0) {
+                    addresses.add(Strings.toHex(address));
+                }
+            }
+        } catch (SocketException e) {
+            logger.debug("Couldn't read the network interfaces", e);
+        }
+
+        if (addresses.isEmpty()) {
+            return null;
+        }
+
+        // the order the interfaces are listed in is not stable
+        Collections.sort(addresses);
+
+        StringBuilder sb = new StringBuilder();
+        for (String address : addresses) {
+            sb.append(address);
+        }
+        return sb.toString();
+    }
+
+    private String readFile() {
+        if (file == null) {
+            return null;
+        }
+
+        String id = readFirstLine(file);
+        return Strings.isNullOrEmpty(id) ? null : id;
+    }
+
+    private void writeFile(String id) {
+        if (file == null) {
+            return;
+        }
+
+        try {
+            File parent = file.getAbsoluteFile().getParentFile();
+            if (parent != null) {
+                parent.mkdirs();
+            }
+
+            try (Writer writer = new OutputStreamWriter(new FileOutputStream(file, false), UTF8)) {
+                writer.write(id);
+            }
+        } catch (IOException e) {
+            logger.debug("Failed to write the machine ID to " + file.getAbsolutePath(), e);
+        }
+    }
+
+    private static String readFirstLine(File file) {
+        if (!file.isFile() || !file.canRead()) {
+            return null;
+        }
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(file), UTF8))) {
+            String line = reader.readLine();
+            return line == null ? null : line.trim();
+        } catch (IOException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package in.dragonbra.javasteam.steam.steamclient.machineid;
+
+import in.dragonbra.javasteam.util.Strings;
+import in.dragonbra.javasteam.util.crypto.CryptoHelper;
+
+import java.nio.charset.Charset;
+import java.util.Locale;
+
+/**
+ * Machine ID provider that gives every account its own ID, derived from a secret and the account name. This is meant
+ * for fleets of bots running on the same machine: each account keeps the same ID across restarts and hosts, without
+ * anything being stored.
+ */
+public class SyntheticMachineIDProvider implements IMachineIDProvider {
+
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    private final String secret;
+
+    /**
+     * Initializes a new instance of the {@link SyntheticMachineIDProvider} class.
+     *
+     * @param secret the secret the IDs are derived from, keep it the same to keep the IDs.
+     */
+    public SyntheticMachineIDProvider(String secret) {
+        if (secret == null) {
+            throw new IllegalArgumentException("secret is null");
+        }
+
+        this.secret = secret;
+    }
+
+    @Override
+    public byte[] getMachineID(String accountName) {
+        String source = secret + ':' + (accountName == null ? "" : accountName.toLowerCase(Locale.ROOT));
+
+        return Strings.toHex(CryptoHelper.shaHash(source.getBytes(UTF8))).getBytes(UTF8);
+    }
+}
@@ -0,0 +1,584 @@
+package in.dragonbra.javasteam.steam.steamclient.reconnect;
+
+import in.dragonbra.javasteam.base.ClientMsgProtobuf;
+import in.dragonbra.javasteam.base.IClientMsg;
+import in.dragonbra.javasteam.base.IPacketMsg;
+import in.dragonbra.javasteam.enums.EMsg;
+import in.dragonbra.javasteam.enums.EResult;
+import in.dragonbra.javasteam.protobufs.steamclient.SteammessagesClientserver2.CMsgClientUpdateMachineAuthResponse;
+import in.dragonbra.javasteam.protobufs.steamclient.SteammessagesClientserverFriends.CMsgClientChangeStatus;
+import in.dragonbra.javasteam.protobufs.steamclient.SteammessagesClientserverLogin.CMsgClientLoggedOff;
+import in.dragonbra.javasteam.protobufs.steamclient.SteammessagesClientserverLogin.CMsgClientLogonResponse;
+import in.dragonbra.javasteam.protobufs.steamclient.SteammessagesClientserverLogin.CMsgClientNewLoginKey;
+import in.dragonbra.javasteam.protobufs.steamclient.SteammessagesClientserverLogin.CMsgClientNewLoginKeyAccepted;
+import in.dragonbra.javasteam.steam.handlers.steamuser.AnonymousLogOnDetails;
+import in.dragonbra.javasteam.steam.handlers.steamuser.LogOnDetails;
+import in.dragonbra.javasteam.steam.handlers.steamuser.SteamUser;
+import in.dragonbra.javasteam.steam.steamclient.SteamClient;
+import in.dragonbra.javasteam.steam.steamclient.configuration.SteamConfiguration;
+import in.dragonbra.javasteam.util.ExponentialBackoff;
+import in.dragonbra.javasteam.util.NamedThreadFactory;
+import in.dragonbra.javasteam.util.Strings;
+import in.dragonbra.javasteam.util.ThreadPerTaskExecutor;
+import in.dragonbra.javasteam.util.log.LogManager;
+import in.dragonbra.javasteam.util.log.Logger;
+
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps a {@link SteamClient} connected and logged on. Once enabled, the manager reconnects after every disconnect that
+ * was not initiated by the user, waiting a jittered exponential backoff between attempts, logs back on with the
+ * supplied details and replays the session state (persona state and games played) that was sent before the drop.
+ * <p>
+ * If the server hands out a login key that gets accepted through {@link SteamUser#acceptNewLoginKey}, or a sentry
+ * file hash through {@link SteamUser#sendMachineAuthResponse}, the manager updates the stored {@link LogOnDetails}
+ * with them so later logons don't need a password or a Steam Guard code. One time codes (auth code, two factor code)
+ * are cleared from the stored details after the first successful logon.
+ * <p>
+ * Optionally the manager keeps a warm standby connection to a second CM server, which is promoted when the primary
+ * connection drops, so failing over skips the TCP and encryption handshake.
+ * <p>
+ * The manager does not post its own callbacks, the usual {@link in.dragonbra.javasteam.steam.steamclient.callbacks.ConnectedCallback},
+ * {@link in.dragonbra.javasteam.steam.steamclient.callbacks.DisconnectedCallback} and
+ * {@link in.dragonbra.javasteam.steam.handlers.steamuser.callback.LoggedOnCallback} are still posted for every attempt.
+ * Consumers should not log on again themselves when a connection was made by the manager, see {@link #isReconnecting()}.
+ */
+public class ReconnectManager {
+
+    private static final Logger logger = LogManager.getLogger(ReconnectManager.class);
+
+    private static final long DEFAULT_BASE_DELAY = 1000L;
+
+    private static final long DEFAULT_MAX_DELAY = 5 * 60 * 1000L;
+
+    private static final long STANDBY_RETRY_DELAY = 30 * 1000L;
+
+    private final SteamClient client;
+
+    private final Map<EMsg, IClientMsg> sessionState = new LinkedHashMap<>();
+
+    private ExponentialBackoff backoff = new ExponentialBackoff(DEFAULT_BASE_DELAY, DEFAULT_MAX_DELAY);
+
+    private boolean enabled;
+
+    private boolean useStandbyConnection;
+
+    private LogOnDetails logOnDetails;
+
+    private AnonymousLogOnDetails anonymousLogOnDetails;
+
+    private boolean reconnecting;
+
+    private boolean loggedOn;
+
+    private boolean forcedDisconnect;
+
+    private Integer pendingLoginKeyID;
+
+    private String pendingLoginKey;
+
+    private ScheduledExecutorService scheduler;
+
+    // whether the scheduler was created by the manager, a configured one is shared and must not be shut down
+    private boolean ownScheduler;
+
+    // runs the connects, which block for up to the connection timeout and must not hold up a shared scheduler
+    private Executor connectExecutor;
+
+    private final Set<ScheduledFuture<?>> pendingTasks = new HashSet<>();
+
+    public ReconnectManager(SteamClient client) {
+        if (client == null) {
+            throw new IllegalArgumentException("client is null");
+        }
+
+        this.client = client;
+    }
+
+    /**
+     * Enables automatic reconnection for a user account. The details are kept by the manager and updated with new
+     * login keys and sentry hashes as they come in.
+     *
+     * @param details The details to log on with after reconnecting.
+     */
+    public synchronized void enable(LogOnDetails details) {
+        if (details == null) {
+            throw new IllegalArgumentException("details is null");
+        }
+
+        this.logOnDetails = details;
+        this.anonymousLogOnDetails = null;
+        enableCore();
+    }
+
+    /**
+     * Enables automatic reconnection for an anonymous logon.
+     *
+     * @param details The details to log on with after reconnecting.
+     */
+    public synchronized void enableAnonymous(AnonymousLogOnDetails details) {
+        if (details == null) {
+            throw new IllegalArgumentException("details is null");
+        }
+
+        this.logOnDetails = null;
+        this.anonymousLogOnDetails = details;
+        enableCore();
+    }
+
+    private void enableCore() {
+        if (scheduler == null) {
+            SteamConfiguration configuration = client.getConfiguration();
+            ThreadFactory threadFactory = configuration != null ? configuration.getThreadFactory() : null;
+
+            if (threadFactory == null) {
+                threadFactory = new NamedThreadFactory("SteamClient reconnect", true);
+            }
+
+            if (configuration != null && configuration.getScheduler() != null) {
+                scheduler = configuration.getScheduler();
+                ownScheduler = false;
+            } else {
+                scheduler = Executors.newSingleThreadScheduledExecutor(threadFactory);
+                ownScheduler = true;
+            }
+
+            if (configuration != null && configuration.getIOExecutor() != null) {
+                connectExecutor = configuration.getIOExecutor();
+            } else {
+                connectExecutor = new ThreadPerTaskExecutor(threadFactory);
+            }
+        }
+
+        enabled = true;
+    }
+
+    /**
+     * Disables automatic reconnection, cancels pending attempts and closes the standby connection.
+     */
+    public void disable() {
+        synchronized (this) {
+            enabled = false;
+            reconnecting = false;
+            loggedOn = false;
+            sessionState.clear();
+
+            for (ScheduledFuture<?> task : pendingTasks) {
+                task.cancel(false);
+            }
+            pendingTasks.clear();
+
+            if (scheduler != null) {
+                if (ownScheduler) {
+                    scheduler.shutdown();
+                }
+                scheduler = null;
+                connectExecutor = null;
+            }
+        }
+
+        client.closeStandbyConnection();
+    }
+
+    public synchronized boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * @return <b>true</b> if the current connection attempt was started by the manager, which will also log on.
+     */
+    public synchronized boolean isReconnecting() {
+        return reconnecting;
+    }
+
+    public synchronized boolean isUseStandbyConnection() {
+        return useStandbyConnection;
+    }
+
+    /**
+     * Sets whether the manager keeps an idle connection to a second CM server to fail over to.
+     *
+     * @param useStandbyConnection whether to keep a standby connection.
+     */
+    public void setUseStandbyConnection(boolean useStandbyConnection) {
+        boolean prepare;
+
+        synchronized (this) {
+            this.useStandbyConnection = useStandbyConnection;
+            prepare = useStandbyConnection && enabled && loggedOn;
+        }
+
+        if (prepare) {
+            schedule(new Runnable() {
+                @Override
+                public void run() {
+                    client.prepareStandbyConnection();
+                }
+            }, 0);
+        } else if (!useStandbyConnection) {
+            client.closeStandbyConnection();
+        }
+    }
+
+    public synchronized ExponentialBackoff getBackoff() {
+        return backoff;
+    }
+
+    public synchronized void setBackoff(ExponentialBackoff backoff) {
+        if (backoff == null) {
+            throw new IllegalArgumentException("backoff is null");
+        }
+
+        this.backoff = backoff;
+    }
+
+    /**
+     * Called by the client when a connection has been established. This should not be called directly.
+     */
+    public void onConnected() {
+        synchronized (this) {
+            if (!enabled || !reconnecting) {
+                return;
+            }
+        }
+
+        SteamUser steamUser = client.getHandler(SteamUser.class);
+        if (steamUser == null) {
+            logger.debug("SteamUser handler is not registered, cannot log on after reconnecting");
+            return;
+        }
+
+        LogOnDetails details;
+        AnonymousLogOnDetails anonymousDetails;
+
+        synchronized (this) {
+            details = logOnDetails;
+            anonymousDetails = anonymousLogOnDetails;
+        }
+
+        try {
+            if (details != null) {
+                steamUser.logOn(details);
+            } else if (anonymousDetails != null) {
+                steamUser.logOnAnonymous(anonymousDetails);
+            }
+        } catch (IllegalArgumentException e) {
+            logger.debug("Stored logon details are no longer usable, disabling reconnects", e);
+            disable();
+        }
+    }
+
+    /**
+     * Called by the client when the connection was closed. This should not be called directly.
+     *
+     * @param userInitiated whether the disconnect was initialized by the client
+     */
+    public void onDisconnected(boolean userInitiated) {
+        synchronized (this) {
+            loggedOn = false;
+
+            if (!enabled) {
+                return;
+            }
+
+            if (userInitiated && !forcedDisconnect) {
+                reconnecting = false;
+                sessionState.clear();
+            } else {
+                forcedDisconnect = false;
+                reconnecting = true;
+            }
+        }
+
+        if (!isReconnecting()) {
+            client.closeStandbyConnection();
+            return;
+        }
+
+        if (client.promoteStandbyConnection()) {
+            return;
+        }
+
+        long delay = getBackoff().nextDelay();
+        logger.debug("Reconnecting in " + delay + "ms");
+
+        schedule(new Runnable() {
+            @Override
+            public void run() {
+                if (isReconnecting() && !client.isConnected()) {
+                    client.connect();
+                }
+            }
+        }, delay);
+    }
+
+    /**
+     * Called by the client when the standby connection was dropped. This should not be called directly.
+     */
+    public void onStandbyConnectionLost() {
+        synchronized (this) {
+            if (!enabled || !useStandbyConnection || !loggedOn) {
+                return;
+            }
+        }
+
+        schedule(new Runnable() {
+            @Override
+            public void run() {
+                synchronized (ReconnectManager.this) {
+                    if (!loggedOn || !useStandbyConnection) {
+                        return;
+                    }
+                }
+
+                client.prepareStandbyConnection();
+            }
+        }, STANDBY_RETRY_DELAY);
+    }
+
+    /**
+     * Called by the client for every message received from the server. This should not be called directly.
+     *
+     * @param packetMsg The packet message that contains the data.
+     */
+    public void onMessageReceived(IPacketMsg packetMsg) {
+        if (!isEnabled() || !packetMsg.isProto()) {
+            return;
+        }
+
+        switch (packetMsg.getMsgType()) {
+            case ClientLogOnResponse:
+                handleLogOnResponse(packetMsg);
+                break;
+            case ClientLoggedOff:
+                handleLoggedOff(packetMsg);
+                break;
+            case ClientNewLoginKey:
+                handleNewLoginKey(packetMsg);
+                break;
+        }
+    }
+
+    /**
+     * Called by the client for every message sent to the server. This should not be called directly.
+     *
+     * @param msg The client message that was sent.
+     */
+    public void onMessageSent(IClientMsg msg) {
+        if (!isEnabled() || !(msg instanceof ClientMsgProtobuf)) {
+            return;
+        }
+
+        Object body = ((ClientMsgProtobuf<?>) msg).getBody();
+
+        switch (msg.getMsgType()) {
+            case ClientChangeStatus:
+                // persona name changes are stored server side, only the state needs to be restored
+                if (((CMsgClientChangeStatus.Builder) body).hasPersonaState()) {
+                    captureState(msg);
+                }
+                break;
+            case ClientGamesPlayed:
+            case ClientGamesPlayedNoDataBlob:
+            case ClientGamesPlayedWithDataBlob:
+                synchronized (this) {
+                    sessionState.remove(EMsg.ClientGamesPlayed);
+                    sessionState.remove(EMsg.ClientGamesPlayedNoDataBlob);
+                    sessionState.remove(EMsg.ClientGamesPlayedWithDataBlob);
+                }
+                captureState(msg);
+                break;
+            case ClientNewLoginKeyAccepted:
+                handleNewLoginKeyAccepted((CMsgClientNewLoginKeyAccepted.Builder) body);
+                break;
+            case ClientUpdateMachineAuthResponse:
+                handleMachineAuthResponse((CMsgClientUpdateMachineAuthResponse.Builder) body);
+                break;
+        }
+    }
+
+    private synchronized void captureState(IClientMsg msg) {
+        sessionState.put(msg.getMsgType(), msg);
+    }
+
+    private void handleLogOnResponse(IPacketMsg packetMsg) {
+        ClientMsgProtobuf<CMsgClientLogonResponse.Builder> logonResp = new ClientMsgProtobuf<>(CMsgClientLogonResponse.class, packetMsg);
+        EResult result = EResult.from(logonResp.getBody().getEresult());
+
+        switch (result) {
+            case OK:
+                onLoggedOn();
+                break;
+            case TryAnotherCM:
+            case ServiceUnavailable:
+            case Busy:
+            case Timeout:
+            case RateLimitExceeded:
+                logger.debug("Logon failed with " + result + ", trying again later");
+                forceReconnect();
+                break;
+            case InvalidPassword:
+                if (clearLoginKey()) {
+                    logger.debug("Login key was rejected, trying again with the password");
+                    forceReconnect();
+                    break;
+                }
+                // fall through
+            default:
+                synchronized (this) {
+                    if (!reconnecting) {
+                        // the consumer's own logon failed, that's theirs to handle
+                        return;
+                    }
+                }
+
+                logger.debug("Logon failed with " + result + " after reconnecting, disabling reconnects");
+                disable();
+                break;
+        }
+    }
+
+    private void onLoggedOn() {
+        Map<EMsg, IClientMsg> replay;
+        boolean prepareStandby;
+
+        synchronized (this) {
+            boolean wasReconnecting = reconnecting;
+
+            reconnecting = false;
+            loggedOn = true;
+            backoff.reset();
+
+            if (logOnDetails != null) {
+                logOnDetails.setAuthCode("");
+                logOnDetails.setTwoFactorCode("");
+            }
+
+            replay = wasReconnecting ? new LinkedHashMap<>(sessionState) : null;
+            prepareStandby = useStandbyConnection;
+        }
+
+        if (replay != null) {
+            for (Iterator<IClientMsg> it = replay.values().iterator(); it.hasNext(); ) {
+                IClientMsg msg = it.next();
+                logger.debug("Restoring session state " + msg.getMsgType());
+                client.send(msg);
+            }
+        }
+
+        if (prepareStandby) {
+            schedule(new Runnable() {
+                @Override
+                public void run() {
+                    client.prepareStandbyConnection();
+                }
+            }, 0);
+        }
+    }
+
+    private void handleLoggedOff(IPacketMsg packetMsg) {
+        ClientMsgProtobuf<CMsgClientLoggedOff.Builder> logoffMsg = new ClientMsgProtobuf<>(CMsgClientLoggedOff.class, packetMsg);
+        EResult result = EResult.from(logoffMsg.getBody().getEresult());
+
+        if (result == EResult.TryAnotherCM || result == EResult.ServiceUnavailable) {
+            forceReconnect();
+        } else {
+            // logged in elsewhere, account disabled and so on, don't fight over the session
+            logger.debug("Logged off with " + result + ", disabling reconnects");
+            disable();
+        }
+    }
+
+    private void handleNewLoginKey(IPacketMsg packetMsg) {
+        ClientMsgProtobuf<CMsgClientNewLoginKey.Builder> loginKey = new ClientMsgProtobuf<>(CMsgClientNewLoginKey.class, packetMsg);
+
+        synchronized (this) {
+            pendingLoginKeyID = loginKey.getBody().getUniqueId();
+            pendingLoginKey = loginKey.getBody().getLoginKey();
+        }
+    }
+
+    private synchronized void handleNewLoginKeyAccepted(CMsgClientNewLoginKeyAccepted.Builder body) {
+        if (logOnDetails == null || pendingLoginKeyID == null || pendingLoginKeyID != body.getUniqueId()) {
+            return;
+        }
+
+        logOnDetails.setLoginKey(pendingLoginKey);
+        logOnDetails.setShouldRememberPassword(true);
+
+        pendingLoginKeyID = null;
+        pendingLoginKey = null;
+    }
+
+    private synchronized void handleMachineAuthResponse(CMsgClientUpdateMachineAuthResponse.Builder body) {
+        if (logOnDetails == null || !body.hasShaFile()) {
+            return;
+        }
+
+        logOnDetails.setSentryFileHash(body.getShaFile().toByteArray());
+    }
+
+    private synchronized boolean clearLoginKey() {
+        if (logOnDetails == null || Strings.isNullOrEmpty(logOnDetails.getLoginKey())) {
+            return false;
+        }
+
+        logOnDetails.setLoginKey("");
+        return !Strings.isNullOrEmpty(logOnDetails.getPassword());
+    }
+
+    private void forceReconnect() {
+        synchronized (this) {
+            forcedDisconnect = true;
+        }
+
+        client.disconnect();
+    }
+
+    // the scheduler only waits out the delay, the task itself connects and runs on the connect executor
+    private synchronized void schedule(final Runnable runnable, long delay) {
+        if (scheduler == null) {
+            return;
+        }
+
+        Iterator<ScheduledFuture<?>> iterator = pendingTasks.iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next().isDone()) {
+                iterator.remove();
+            }
+        }
+
+        final Executor executor = connectExecutor;
+
+        pendingTasks.add(scheduler.schedule(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    executor.execute(new Runnable() {
+                        @Override
+                        public void run() {
+                            try {
+                                runnable.run();
+                            } catch (Exception e) {
+                                logger.debug("Reconnect task threw an exception", e);
+                            }
+                        }
+                    });
+                } catch (RejectedExecutionException e) {
+                    logger.debug("Couldn't start the reconnect task", e);
+                }
+            }
+        }, delay, TimeUnit.MILLISECONDS));
+    }
+}
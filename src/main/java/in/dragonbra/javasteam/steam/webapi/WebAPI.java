@@ -10,6 +10,7 @@ import java.io.InputStream;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Executor;
 
 /**
  * Represents a single interface that exists within the Web API.
@@ -26,7 +27,24 @@ public class WebAPI {
 
     private final String webAPIKey;
 
+    private final Executor callbackExecutor;
+
     public WebAPI(OkHttpClient httpClient, String baseAddress, String _interface, String webAPIKey) {
+        this(httpClient, baseAddress, _interface, webAPIKey, null);
+    }
+
+    /**
+     * Initializes a new instance of the {@link WebAPI} class.
+     *
+     * @param httpClient       the HTTP client to send the requests with.
+     * @param baseAddress      the base address of the Web API.
+     * @param _interface       the name of the interface.
+     * @param webAPIKey        the Web API key, may be null.
+     * @param callbackExecutor the executor asynchronous requests and their callbacks run on, may be null to use the
+     *                         dispatcher of the HTTP client.
+     */
+    public WebAPI(OkHttpClient httpClient, String baseAddress, String _interface, String webAPIKey,
+                  Executor callbackExecutor) {
         this.baseAddress = HttpUrl.parse(baseAddress);
 
         if (this.baseAddress == null) {
@@ -36,6 +54,7 @@ public class WebAPI {
         this._interface = _interface;
         this.webAPIKey = webAPIKey;
         client = httpClient;
+        this.callbackExecutor = callbackExecutor;
     }
 
     /**
@@ -161,7 +180,25 @@ public class WebAPI {
      */
     public void call(String httpMethod, String function, int version, Map<String, String> parameters,
                      final Consumer<KeyValue> callback, final Consumer<WebAPIRequestException> error) throws IOException {
-        Request request = buildRequest(httpMethod, function, version, parameters);
+        final Request request = buildRequest(httpMethod, function, version, parameters);
+
+        if (callbackExecutor != null) {
+            callbackExecutor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    Response response;
+                    try {
+                        response = client.newCall(request).execute();
+                    } catch (IOException e) {
+                        throw new IllegalStateException("request unsuccessful", e);
+                    }
+
+                    handleResponse(response, callback, error);
+                }
+            });
+            return;
+        }
+
         client.newCall(request).enqueue(new Callback() {
             @Override
             public void onFailure(Call call, IOException e) {
@@ -170,15 +207,19 @@ public class WebAPI {
 
             @Override
             public void onResponse(Call call, Response response) {
-                if (!response.isSuccessful()) {
-                    error.accept(new WebAPIRequestException(response));
-                } else {
-                    callback.accept(parseResponse(response));
-                }
+                handleResponse(response, callback, error);
             }
         });
     }
 
+    private void handleResponse(Response response, Consumer<KeyValue> callback, Consumer<WebAPIRequestException> error) {
+        if (!response.isSuccessful()) {
+            error.accept(new WebAPIRequestException(response));
+        } else {
+            callback.accept(parseResponse(response));
+        }
+    }
+
     /**
      * Manually calls the specified Web API function with the provided details. This method is asynchronous.
      *
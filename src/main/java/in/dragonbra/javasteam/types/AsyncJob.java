@@ -0,0 +1,118 @@
+package in.dragonbra.javasteam.types;
+
+import in.dragonbra.javasteam.steam.steamclient.callbackmgr.CallbackMsg;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A job that waits for the callbacks answering a request with a specific {@link JobID}.
+ * <p>
+ * Waiting threads are parked on a latch rather than a monitor, so the blocking calls are cheap for large numbers of
+ * threads. A job times out when no response and no heartbeat arrived for the timeout given at construction.
+ */
+public abstract class AsyncJob {
+
+    private final JobID jobID;
+
+    private final long timeout;
+
+    private volatile long deadline;
+
+    private volatile boolean failed;
+
+    private volatile boolean dueToRemoteFailure;
+
+    private final CountDownLatch done = new CountDownLatch(1);
+
+    /**
+     * Initializes a new instance of the {@link AsyncJob} class.
+     *
+     * @param jobID   the job ID of the request.
+     * @param timeout the time in milliseconds the job waits for a response or a heartbeat.
+     */
+    protected AsyncJob(JobID jobID, long timeout) {
+        if (jobID == null) {
+            throw new IllegalArgumentException("jobID is null");
+        }
+
+        if (timeout <= 0) {
+            throw new IllegalArgumentException("timeout must be positive");
+        }
+
+        this.jobID = jobID;
+        this.timeout = timeout;
+        this.deadline = System.currentTimeMillis() + timeout;
+    }
+
+    public JobID getJobID() {
+        return jobID;
+    }
+
+    public long getTimeout() {
+        return timeout;
+    }
+
+    /**
+     * Hands a callback with the job ID of this job to the job. This is called by the client.
+     *
+     * @param callback the callback.
+     * @return <b>true</b> if the job is complete.
+     */
+    public abstract boolean addResult(CallbackMsg callback);
+
+    /**
+     * Extends the timeout of the job, Steam sends heartbeats for jobs that take long.
+     */
+    public void heartbeat() {
+        deadline = System.currentTimeMillis() + timeout;
+    }
+
+    /**
+     * Marks the job as failed and releases the waiting threads.
+     *
+     * @param dueToRemoteFailure whether Steam reported the job as failed.
+     */
+    public void setFailed(boolean dueToRemoteFailure) {
+        this.dueToRemoteFailure = dueToRemoteFailure;
+        this.failed = true;
+        done.countDown();
+    }
+
+    public boolean isFailed() {
+        return failed;
+    }
+
+    public boolean isDueToRemoteFailure() {
+        return dueToRemoteFailure;
+    }
+
+    /**
+     * Releases the waiting threads, called by subclasses once all results are in.
+     */
+    protected void complete() {
+        done.countDown();
+    }
+
+    /**
+     * Waits until the job completed, failed or timed out.
+     *
+     * @return <b>true</b> if the job completed or failed; <b>false</b> if it timed out.
+     * @throws InterruptedException if the waiting thread was interrupted.
+     */
+    protected boolean waitForCompletion() throws InterruptedException {
+        while (true) {
+            long remaining = deadline - System.currentTimeMillis();
+
+            if (remaining <= 0) {
+                return done.getCount() == 0;
+            }
+
+            if (done.await(remaining, TimeUnit.MILLISECONDS)) {
+                return true;
+            }
+
+            // a heartbeat may have moved the deadline while we were waiting
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package in.dragonbra.javasteam.types;
+
+/**
+ * Thrown when an {@link AsyncJob} fails, either because Steam reported the job as failed or because the client got
+ * disconnected before the response arrived.
+ */
+public class AsyncJobFailedException extends Exception {
+
+    private final boolean dueToRemoteFailure;
+
+    public AsyncJobFailedException(JobID jobID, boolean dueToRemoteFailure) {
+        super(dueToRemoteFailure ? "Job " + jobID + " failed on the remote end" : "Job " + jobID + " was cancelled");
+        this.dueToRemoteFailure = dueToRemoteFailure;
+    }
+
+    /**
+     * @return <b>true</b> if Steam reported the job as failed; <b>false</b> if the job was cancelled locally, for
+     * example because the client got disconnected.
+     */
+    public boolean isDueToRemoteFailure() {
+        return dueToRemoteFailure;
+    }
+}
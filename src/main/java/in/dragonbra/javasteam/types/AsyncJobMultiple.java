@@ -0,0 +1,125 @@
+package in.dragonbra.javasteam.types;
+
+import in.dragonbra.javasteam.steam.steamclient.callbackmgr.CallbackMsg;
+import in.dragonbra.javasteam.util.compat.Predicate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A job that collects callbacks of the expected type until one of them satisfies the finish condition, for requests
+ * that are answered in several parts like PICS product info requests.
+ *
+ * @param <T> the type of the response callbacks.
+ */
+public class AsyncJobMultiple<T extends CallbackMsg> extends AsyncJob {
+
+    private final Class<T> responseType;
+
+    private final Predicate<T> finishCondition;
+
+    private final List<T> results = new ArrayList<>();
+
+    /**
+     * Initializes a new instance of the {@link AsyncJobMultiple} class.
+     *
+     * @param jobID           the job ID of the request.
+     * @param responseType    the type of the response callbacks.
+     * @param finishCondition returns <b>true</b> for the last callback of the response.
+     * @param timeout         the time in milliseconds the job waits for a response or a heartbeat.
+     */
+    public AsyncJobMultiple(JobID jobID, Class<T> responseType, Predicate<T> finishCondition, long timeout) {
+        super(jobID, timeout);
+
+        if (responseType == null) {
+            throw new IllegalArgumentException("responseType is null");
+        }
+
+        if (finishCondition == null) {
+            throw new IllegalArgumentException("finishCondition is null");
+        }
+
+        this.responseType = responseType;
+        this.finishCondition = finishCondition;
+    }
+
+    @Override
+    public boolean addResult(CallbackMsg callback) {
+        if (!responseType.isInstance(callback)) {
+            return false;
+        }
+
+        T result = responseType.cast(callback);
+
+        synchronized (results) {
+            results.add(result);
+        }
+
+        // any part proves the job is still alive
+        heartbeat();
+
+        if (finishCondition.test(result)) {
+            complete();
+            return true;
+        }
+
+        return false;
+    }
+
+    /**
+     * Blocks until the last part of the response arrived, the job failed or it timed out. In the latter two cases the
+     * parts received so far are returned.
+     *
+     * @return the received callbacks.
+     * @throws InterruptedException if the waiting thread was interrupted.
+     */
+    public ResultSet<T> await() throws InterruptedException {
+        boolean finished = waitForCompletion();
+
+        List<T> received;
+        synchronized (results) {
+            received = new ArrayList<>(results);
+        }
+
+        return new ResultSet<>(finished && !isFailed(), isFailed(), received);
+    }
+
+    /**
+     * The callbacks received by an {@link AsyncJobMultiple}.
+     *
+     * @param <T> the type of the callbacks.
+     */
+    public static class ResultSet<T> {
+
+        private final boolean complete;
+
+        private final boolean failed;
+
+        private final List<T> results;
+
+        public ResultSet(boolean complete, boolean failed, List<T> results) {
+            this.complete = complete;
+            this.failed = failed;
+            this.results = Collections.unmodifiableList(results);
+        }
+
+        /**
+         * @return <b>true</b> if all parts of the response arrived.
+         */
+        public boolean isComplete() {
+            return complete;
+        }
+
+        /**
+         * @return <b>true</b> if the job failed.
+         */
+        public boolean isFailed() {
+            return failed;
+        }
+
+        public List<T> getResults() {
+            return results;
+        }
+    }
+}
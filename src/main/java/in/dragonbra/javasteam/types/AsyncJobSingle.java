@@ -0,0 +1,65 @@
+package in.dragonbra.javasteam.types;
+
+import in.dragonbra.javasteam.steam.steamclient.callbackmgr.CallbackMsg;
+
+import java.util.concurrent.TimeoutException;
+
+/**
+ * A job that completes with the first callback of the expected type.
+ *
+ * @param <T> the type of the response callback.
+ */
+public class AsyncJobSingle<T extends CallbackMsg> extends AsyncJob {
+
+    private final Class<T> responseType;
+
+    private volatile T result;
+
+    /**
+     * Initializes a new instance of the {@link AsyncJobSingle} class.
+     *
+     * @param jobID        the job ID of the request.
+     * @param responseType the type of the response callback.
+     * @param timeout      the time in milliseconds the job waits for a response or a heartbeat.
+     */
+    public AsyncJobSingle(JobID jobID, Class<T> responseType, long timeout) {
+        super(jobID, timeout);
+
+        if (responseType == null) {
+            throw new IllegalArgumentException("responseType is null");
+        }
+
+        this.responseType = responseType;
+    }
+
+    @Override
+    public boolean addResult(CallbackMsg callback) {
+        if (!responseType.isInstance(callback)) {
+            return false;
+        }
+
+        result = responseType.cast(callback);
+        complete();
+        return true;
+    }
+
+    /**
+     * Blocks until the response arrived.
+     *
+     * @return the response callback.
+     * @throws InterruptedException    if the waiting thread was interrupted.
+     * @throws TimeoutException        if no response arrived in time.
+     * @throws AsyncJobFailedException if the job failed.
+     */
+    public T await() throws InterruptedException, TimeoutException, AsyncJobFailedException {
+        if (!waitForCompletion()) {
+            throw new TimeoutException("Job " + getJobID() + " timed out");
+        }
+
+        if (result == null && isFailed()) {
+            throw new AsyncJobFailedException(getJobID(), isDueToRemoteFailure());
+        }
+
+        return result;
+    }
+}
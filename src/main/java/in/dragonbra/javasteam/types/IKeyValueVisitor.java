@@ -0,0 +1,35 @@
+package in.dragonbra.javasteam.types;
+
+/**
+ * Receives the contents of a {@link KeyValue} document while it is parsed, without the document being built as a
+ * tree. Every method returns whether parsing should go on, so a visitor that has what it needs can stop early.
+ * <p>
+ * A document is reported as a sequence of roots: a text document has one or more objects at the top level, a binary
+ * document may also have values there.
+ */
+public interface IKeyValueVisitor {
+
+    /**
+     * Called when an object starts. Its children follow, up to the matching {@link #endObject()}.
+     *
+     * @param name the name of the object.
+     * @return <b>true</b> to continue parsing; <b>false</b> to stop.
+     */
+    boolean startObject(String name);
+
+    /**
+     * Called for a key that holds a value.
+     *
+     * @param name  the name of the key.
+     * @param value the value, numbers in binary documents are given as their string form.
+     * @return <b>true</b> to continue parsing; <b>false</b> to stop.
+     */
+    boolean value(String name, String value);
+
+    /**
+     * Called when the object that was started last ends.
+     *
+     * @return <b>true</b> to continue parsing; <b>false</b> to stop.
+     */
+    boolean endObject();
+}
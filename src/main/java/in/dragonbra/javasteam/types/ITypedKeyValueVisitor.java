@@ -0,0 +1,27 @@
+package in.dragonbra.javasteam.types;
+
+/**
+ * A {@link IKeyValueVisitor} that takes the numbers of binary {@link KeyValue KeyValues} as they are, so that they
+ * don't have to be turned into strings while parsing.
+ */
+interface ITypedKeyValueVisitor extends IKeyValueVisitor {
+
+    /**
+     * Called for a key that holds an integer.
+     *
+     * @param name  the name of the key.
+     * @param type  the type the number was stored with.
+     * @param value the number.
+     * @return <b>true</b> to continue parsing; <b>false</b> to stop.
+     */
+    boolean integerValue(String name, KeyValue.Type type, long value);
+
+    /**
+     * Called for a key that holds a float.
+     *
+     * @param name  the name of the key.
+     * @param value the number.
+     * @return <b>true</b> to continue parsing; <b>false</b> to stop.
+     */
+    boolean floatValue(String name, float value);
+}
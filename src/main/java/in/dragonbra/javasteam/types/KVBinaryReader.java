@@ -0,0 +1,211 @@
+package in.dragonbra.javasteam.types;
+
+import in.dragonbra.javasteam.util.log.LogManager;
+import in.dragonbra.javasteam.util.log.Logger;
+import in.dragonbra.javasteam.util.stream.BinaryReader;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.Charset;
+
+/**
+ * Reads binary {@link KeyValue KeyValues} and reports their contents to a {@link IKeyValueVisitor}. Nothing is read
+ * past the end marker of the document.
+ * <p>
+ * The data comes from a stream or from a buffer. A buffer is read in place: strings are decoded straight out of it
+ * and numbers are handed to a {@link ITypedKeyValueVisitor} without being turned into strings.
+ */
+class KVBinaryReader {
+
+    private static final Logger logger = LogManager.getLogger(KVBinaryReader.class);
+
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    private final BinaryReader br;
+
+    private final ByteBuffer source;
+
+    // little endian view of the source
+    private final ByteBuffer buffer;
+
+    // holds the bytes of a string when the buffer has no accessible array
+    private byte[] scratch;
+
+    private boolean failed;
+
+    KVBinaryReader(InputStream is) {
+        br = new BinaryReader(is);
+        source = null;
+        buffer = null;
+    }
+
+    KVBinaryReader(ByteBuffer buffer) {
+        this.br = null;
+        this.source = buffer;
+        this.buffer = buffer.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * Parses the document and reports it to the visitor.
+     *
+     * @param visitor the visitor.
+     * @return <b>true</b> if the document was read or the visitor stopped early; <b>false</b> if it is not supported.
+     * @throws IOException if the stream fails or ends early.
+     */
+    boolean accept(IKeyValueVisitor visitor) throws IOException {
+        failed = false;
+
+        try {
+            readEntries(visitor, visitor instanceof ITypedKeyValueVisitor ? (ITypedKeyValueVisitor) visitor : null);
+        } finally {
+            if (source != null) {
+                source.position(buffer.position());
+            }
+        }
+
+        return !failed;
+    }
+
+    // reads entries up to the end marker, returns false when parsing stops, because of the visitor or a failure
+    private boolean readEntries(IKeyValueVisitor visitor, ITypedKeyValueVisitor typed) throws IOException {
+        while (true) {
+            KeyValue.Type type = KeyValue.Type.from(readByte());
+
+            if (type == KeyValue.Type.END) {
+                return true;
+            }
+
+            if (type == null) {
+                failed = true;
+                return false;
+            }
+
+            String name = readString();
+            boolean proceed;
+
+            switch (type) {
+                case NONE:
+                    proceed = visitor.startObject(name) && readEntries(visitor, typed) && visitor.endObject();
+                    break;
+                case STRING:
+                    proceed = visitor.value(name, readString());
+                    break;
+                case WIDESTRING:
+                    logger.debug("Encountered WideString type when parsing binary KeyValue, which is unsupported. Returning false.");
+                    failed = true;
+                    return false;
+                case INT32:
+                case COLOR:
+                case POINTER:
+                    int intValue = readInt();
+                    proceed = typed != null ? typed.integerValue(name, type, intValue) : visitor.value(name, String.valueOf(intValue));
+                    break;
+                case UINT64:
+                case INT64:
+                    long longValue = readLong();
+                    proceed = typed != null ? typed.integerValue(name, type, longValue) : visitor.value(name, String.valueOf(longValue));
+                    break;
+                case FLOAT32:
+                    float floatValue = readFloat();
+                    proceed = typed != null ? typed.floatValue(name, floatValue) : visitor.value(name, String.valueOf(floatValue));
+                    break;
+                default:
+                    failed = true;
+                    return false;
+            }
+
+            if (!proceed) {
+                return false;
+            }
+        }
+    }
+
+    private byte readByte() throws IOException {
+        if (br != null) {
+            return br.readByte();
+        }
+
+        require(1);
+        return buffer.get();
+    }
+
+    private int readInt() throws IOException {
+        if (br != null) {
+            return br.readInt();
+        }
+
+        require(4);
+        return buffer.getInt();
+    }
+
+    private long readLong() throws IOException {
+        if (br != null) {
+            return br.readLong();
+        }
+
+        require(8);
+        return buffer.getLong();
+    }
+
+    private float readFloat() throws IOException {
+        if (br != null) {
+            return br.readFloat();
+        }
+
+        require(4);
+        return buffer.getFloat();
+    }
+
+    private String readString() throws IOException {
+        if (br != null) {
+            return br.readNullTermString(UTF8);
+        }
+
+        int start = buffer.position();
+        int limit = buffer.limit();
+        int end = start;
+
+        if (buffer.hasArray()) {
+            byte[] array = buffer.array();
+            int offset = buffer.arrayOffset();
+
+            while (end < limit && array[offset + end] != 0) {
+                end++;
+            }
+
+            if (end == limit) {
+                throw new EOFException();
+            }
+
+            buffer.position(end + 1);
+            return new String(array, offset + start, end - start, UTF8);
+        }
+
+        while (end < limit && buffer.get(end) != 0) {
+            end++;
+        }
+
+        if (end == limit) {
+            throw new EOFException();
+        }
+
+        int length = end - start;
+
+        if (scratch == null || scratch.length < length) {
+            scratch = new byte[Math.max(length, 64)];
+        }
+
+        buffer.get(scratch, 0, length);
+        buffer.get();
+        return new String(scratch, 0, length, UTF8);
+    }
+
+    private void require(int length) throws EOFException {
+        if (buffer.remaining() < length) {
+            throw new EOFException();
+        }
+    }
+}
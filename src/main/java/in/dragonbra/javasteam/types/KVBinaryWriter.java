@@ -0,0 +1,64 @@
+package in.dragonbra.javasteam.types;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Writes binary {@link KeyValue KeyValues} to a stream. The output is collected in a buffer and names and values are
+ * encoded to UTF-8 straight into it. Every value is written as a string.
+ * <p>
+ * Besides {@link KeyValue#saveToStream(OutputStream, boolean)}, the writer can be fed directly, or be given to a
+ * parser as its {@link IKeyValueVisitor}, so documents can be written without building a tree. As a visitor it stops
+ * the parser when writing fails, and {@link #finish()} throws the failure.
+ */
+public class KVBinaryWriter extends KVWriter {
+
+    /**
+     * Initializes a new instance of the {@link KVBinaryWriter} class.
+     *
+     * @param os the stream to write to.
+     */
+    public KVBinaryWriter(OutputStream os) {
+        super(os);
+    }
+
+    @Override
+    public void writeStartObject(String name) throws IOException {
+        writeByte(KeyValue.Type.NONE.code());
+        writeString(name);
+    }
+
+    @Override
+    public void writeValue(String name, String value) throws IOException {
+        writeByte(KeyValue.Type.STRING.code());
+        writeString(name);
+        writeString(value == null ? "" : value);
+    }
+
+    @Override
+    public void writeEndObject() throws IOException {
+        writeByte(KeyValue.Type.END.code());
+    }
+
+    /**
+     * Writes the end marker of the document and flushes the buffered output.
+     *
+     * @throws IOException if writing fails, or failed while the writer was used as a visitor.
+     */
+    @Override
+    public void finish() throws IOException {
+        if (isWritable()) {
+            writeByte(KeyValue.Type.END.code());
+        }
+
+        super.finish();
+    }
+
+    private void writeString(String s) throws IOException {
+        for (int i = 0; i < s.length(); i++) {
+            i = writeChar(s, i, s.charAt(i));
+        }
+
+        writeByte(0);
+    }
+}
@@ -5,19 +5,40 @@ import in.dragonbra.javasteam.util.Strings;
 
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.PushbackInputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CodingErrorAction;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Map;
 import java.util.TreeMap;
 
 /**
+ * Tokenizer for text {@link KeyValue KeyValues}. The input is decoded as UTF-8 up front and the tokens are cut out of
+ * the decoded characters, character classes are looked up in a table.
+ *
  * @author lngtr
  * @since 2018-02-26
  */
-public class KVTextReader extends PushbackInputStream {
+public class KVTextReader {
 
     public static final Map<Character, Character> ESCAPED_MAPPING;
 
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    private static final char BOM = '\uFEFF';
+
+    // character classes of the ASCII range, everything above is a plain token character
+    private static final byte WHITESPACE = 1;
+
+    private static final byte TOKEN_END = 2;
+
+    private static final byte[] CLASSES = new byte[128];
+
+    // the replacement of an escaped ASCII character, 0 when the character stands for itself
+    private static final char[] ESCAPES = new char[128];
+
     static {
         Map<Character, Character> escapedMapping = new TreeMap<>();
 
@@ -27,89 +48,175 @@ public class KVTextReader extends PushbackInputStream {
         escapedMapping.put('\\', '\\');
 
         ESCAPED_MAPPING = Collections.unmodifiableMap(escapedMapping);
+
+        for (Map.Entry<Character, Character> entry : ESCAPED_MAPPING.entrySet()) {
+            ESCAPES[entry.getKey()] = entry.getValue();
+        }
+
+        for (char c = 0; c < CLASSES.length; c++) {
+            if (Character.isWhitespace(c)) {
+                CLASSES[c] = WHITESPACE;
+            }
+        }
+
+        CLASSES['"'] = TOKEN_END;
+        CLASSES['{'] = TOKEN_END;
+        CLASSES['}'] = TOKEN_END;
     }
 
-    KVTextReader(KeyValue kv, InputStream is) throws IOException {
-        super(is);
-        Passable<Boolean> wasQuoted = new Passable<>(false);
-        Passable<Boolean> wasConditional = new Passable<>(false);
+    private final char[] buf;
+
+    private final int limit;
 
-        KeyValue currentKey = kv;
+    private int pos;
 
+    private final Passable<Boolean> wasQuoted = new Passable<>(false);
+
+    private final Passable<Boolean> wasConditional = new Passable<>(false);
+
+    KVTextReader(InputStream is) throws IOException {
+        this(decode(is));
+    }
+
+    KVTextReader(CharBuffer chars) {
+        this(chars.array(), chars.arrayOffset() + chars.position(), chars.arrayOffset() + chars.limit());
+    }
+
+    KVTextReader(char[] buf, int offset, int limit) {
+        this.buf = buf;
+        this.pos = offset;
+        this.limit = limit;
+
+        if (pos < limit && buf[pos] == BOM) {
+            pos++;
+        }
+    }
+
+    /**
+     * Parses the document and reports it to the visitor.
+     *
+     * @param visitor the visitor.
+     * @return <b>true</b> if the whole document was read; <b>false</b> if the visitor stopped early.
+     * @throws IOException if a token is malformed.
+     */
+    boolean accept(IKeyValueVisitor visitor) throws IOException {
         do {
-            String s = readToken(wasQuoted, wasConditional);
+            String name = readToken(wasQuoted, wasConditional);
 
-            if (Strings.isNullOrEmpty(s)) {
+            if (Strings.isNullOrEmpty(name)) {
                 break;
             }
 
-            if (currentKey == null) {
-                currentKey = new KeyValue(s);
-            } else {
-                currentKey.setName(s);
-            }
-
-            s = readToken(wasQuoted, wasConditional);
+            String s = readToken(wasQuoted, wasConditional);
 
             if (wasConditional.getValue()) {
                 // Now get the '{'
                 s = readToken(wasQuoted, wasConditional);
             }
 
-            if (s.startsWith("{") && !wasQuoted.getValue()) {
-                // header is valid so load the file
-                currentKey.recursiveLoadFromBuffer(this);
-            } else {
+            if (s == null || !s.startsWith("{") || wasQuoted.getValue()) {
                 throw new IllegalStateException("LoadFromBuffer: missing {");
             }
 
-            currentKey = null;
-        } while (!endOfStream());
+            // header is valid so load the file
+            if (!visitor.startObject(name) || !readObject(visitor)) {
+                return false;
+            }
+        } while (pos < limit);
+
+        return true;
     }
 
-    private void eatWhiteSpace() throws IOException {
-        while (!endOfStream()) {
-            if (!Character.isWhitespace((char) peek())) {
+    private boolean readObject(IKeyValueVisitor visitor) throws IOException {
+        while (true) {
+            // get the key name
+            String name = readToken(wasQuoted, wasConditional);
+
+            if (Strings.isNullOrEmpty(name)) {
+                throw new IllegalStateException("RecursiveLoadFromBuffer: got EOF or empty keyname");
+            }
+
+            if (name.startsWith("}") && !wasQuoted.getValue()) {
                 break;
             }
 
-            read();
+            String value = readToken(wasQuoted, wasConditional);
+
+            if (value == null) {
+                throw new IllegalStateException("RecursiveLoadFromBuffer:  got NULL key");
+            }
+
+            if (value.startsWith("}") && !wasQuoted.getValue()) {
+                throw new IllegalStateException("RecursiveLoadFromBuffer:  got } in key");
+            }
+
+            if (value.startsWith("{") && !wasQuoted.getValue()) {
+                if (!visitor.startObject(name) || !readObject(visitor)) {
+                    return false;
+                }
+            } else {
+                if (wasConditional.getValue()) {
+                    throw new IllegalStateException("RecursiveLoadFromBuffer:  got conditional between key and value");
+                }
+
+                if (!visitor.value(name, value)) {
+                    return false;
+                }
+            }
         }
+
+        return visitor.endObject();
     }
 
-    private boolean eatCPPComment() throws IOException {
-        if (!endOfStream()) {
-            char next = (char) peek();
+    private static CharBuffer decode(InputStream is) throws IOException {
+        byte[] data = new byte[Math.max(is.available(), 4096)];
+        int length = 0;
 
-            if (next == '/') {
-                readLine();
-                return true;
-                /*
-                 *  As came up in parsing the Dota 2 units.txt file, the reference (Valve) implementation
-                 *  of the KV format considers a single forward slash to be sufficient to comment out the
-                 *  entirety of a line. While they still _tend_ to use two, it's not required, and likely
-                 *  is just done out of habit.
-                 */
-            }
+        // MemoryStream reports the end of the stream as 0 rather than -1
+        int read;
+        while ((read = is.read(data, length, data.length - length)) > 0) {
+            length += read;
 
-            return false;
+            if (length == data.length) {
+                data = Arrays.copyOf(data, data.length * 2);
+            }
         }
-        return false;
+
+        return UTF8.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE)
+                .decode(ByteBuffer.wrap(data, 0, length));
     }
 
-    private void readLine() throws IOException {
-        char c;
-        do {
-            c = (char) read();
-        } while (c != '\n' && !endOfStream());
+    private static boolean isWhitespace(char c) {
+        return c < 128 && CLASSES[c] == WHITESPACE;
     }
 
-    private byte peek() throws IOException {
-        int p = read();
-        if (p >= 0) {
-            unread(p);
+    private static boolean endsToken(char c) {
+        return c < 128 && CLASSES[c] != 0;
+    }
+
+    private void eatWhiteSpace() {
+        while (pos < limit && isWhitespace(buf[pos])) {
+            pos++;
         }
-        return (byte) p;
+    }
+
+    private boolean eatCPPComment() {
+        if (pos < limit && buf[pos] == '/') {
+            /*
+             *  As came up in parsing the Dota 2 units.txt file, the reference (Valve) implementation
+             *  of the KV format considers a single forward slash to be sufficient to comment out the
+             *  entirety of a line. While they still _tend_ to use two, it's not required, and likely
+             *  is just done out of habit.
+             */
+            while (pos < limit && buf[pos++] != '\n') {
+                // skip the rest of the line
+            }
+            return true;
+        }
+
+        return false;
     }
 
     public String readToken(Passable<Boolean> wasQuoted, Passable<Boolean> wasConditional) throws IOException {
@@ -119,7 +226,7 @@ public class KVTextReader extends PushbackInputStream {
         while (true) {
             eatWhiteSpace();
 
-            if (endOfStream()) {
+            if (pos >= limit) {
                 return null;
             }
 
@@ -128,61 +235,37 @@ public class KVTextReader extends PushbackInputStream {
             }
         }
 
-        if (endOfStream()) {
+        if (pos >= limit) {
             return null;
         }
 
-        char next = (char) peek();
+        char next = buf[pos];
         if (next == '"') {
             wasQuoted.setValue(true);
 
             // "
-            read();
-
-            StringBuilder sb = new StringBuilder();
+            pos++;
 
-            while (!endOfStream()) {
-                if (peek() == '\\') {
-                    read();
-
-                    char escapedChar = (char) read();
-
-                    Character replacedChar = ESCAPED_MAPPING.get(escapedChar);
-                    if (replacedChar == null) {
-                        replacedChar = escapedChar;
-                    }
-
-                    sb.append(replacedChar);
-
-                    continue;
-                }
-
-                if (peek() == '"') {
-                    break;
-                }
-
-                sb.append((char) read());
-            }
-
-            // "
-            read();
+            return readQuoted();
+        }
 
-            return sb.toString();
+        if (next == '{') {
+            pos++;
+            return "{";
         }
 
-        if (next == '{' || next == '}') {
-            read();
-            return String.valueOf(next);
+        if (next == '}') {
+            pos++;
+            return "}";
         }
 
         boolean bConditionalStart = false;
-        int count = 0;
-        StringBuilder ret = new StringBuilder();
+        int start = pos;
 
-        while (!endOfStream()) {
-            next = (char) peek();
+        while (pos < limit) {
+            next = buf[pos];
 
-            if (next == '"' || next == '{' || next == '}') {
+            if (endsToken(next)) {
                 break;
             }
 
@@ -194,26 +277,57 @@ public class KVTextReader extends PushbackInputStream {
                 wasConditional.setValue(true);
             }
 
-            if (Character.isWhitespace(next)) {
-                break;
+            pos++;
+        }
+
+        return new String(buf, start, pos - start);
+    }
+
+    private String readQuoted() {
+        int start = pos;
+
+        // most strings have no escapes and can be cut out of the buffer as they are
+        while (pos < limit) {
+            char c = buf[pos];
+
+            if (c == '"') {
+                String s = new String(buf, start, pos - start);
+                pos++;
+                return s;
             }
 
-            if (count < 1023) {
-                ret.append(next);
-            } else {
-                throw new IOException("ReadToken overflow");
+            if (c == '\\') {
+                break;
             }
 
-            read();
+            pos++;
         }
-        return ret.toString();
-    }
 
-    private boolean endOfStream() {
-        try {
-            return peek() == -1;
-        } catch (IOException e) {
-            return true;
+        StringBuilder sb = new StringBuilder(pos - start + 16);
+        sb.append(buf, start, pos - start);
+
+        while (pos < limit) {
+            char c = buf[pos++];
+
+            if (c == '"') {
+                break;
+            }
+
+            if (c == '\\') {
+                if (pos >= limit) {
+                    break;
+                }
+
+                char escapedChar = buf[pos++];
+                char replacedChar = escapedChar < 128 ? ESCAPES[escapedChar] : 0;
+
+                sb.append(replacedChar != 0 ? replacedChar : escapedChar);
+                continue;
+            }
+
+            sb.append(c);
         }
+
+        return sb.toString();
     }
 }
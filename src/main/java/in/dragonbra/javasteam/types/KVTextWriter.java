@@ -0,0 +1,105 @@
+package in.dragonbra.javasteam.types;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Writes text {@link KeyValue KeyValues} to a stream. The output is collected in a buffer and encoded to UTF-8 as it
+ * goes, and values are escaped in a single pass.
+ * <p>
+ * Besides {@link KeyValue#saveToStream(OutputStream, boolean)}, the writer can be fed directly, or be given to a
+ * parser as its {@link IKeyValueVisitor}, so documents can be written without building a tree. As a visitor it stops
+ * the parser when writing fails, and {@link #finish()} throws the failure.
+ */
+public class KVTextWriter extends KVWriter {
+
+    private int depth;
+
+    /**
+     * Initializes a new instance of the {@link KVTextWriter} class.
+     *
+     * @param os the stream to write to.
+     */
+    public KVTextWriter(OutputStream os) {
+        super(os);
+    }
+
+    @Override
+    public void writeStartObject(String name) throws IOException {
+        writeIndents(depth);
+        writeQuoted(name, false);
+        writeByte('\n');
+        writeIndents(depth);
+        writeByte('{');
+        writeByte('\n');
+
+        depth++;
+    }
+
+    @Override
+    public void writeValue(String name, String value) throws IOException {
+        writeIndents(depth);
+        writeQuoted(name, false);
+        writeByte('\t');
+        writeByte('\t');
+        writeQuoted(value == null ? "" : value, true);
+        writeByte('\n');
+    }
+
+    @Override
+    public void writeEndObject() throws IOException {
+        if (depth == 0) {
+            throw new IllegalStateException("no object to end");
+        }
+
+        depth--;
+
+        writeIndents(depth);
+        writeByte('}');
+        writeByte('\n');
+    }
+
+    private void writeIndents(int count) throws IOException {
+        for (int i = 0; i < count; i++) {
+            writeByte('\t');
+        }
+    }
+
+    private void writeQuoted(String s, boolean escape) throws IOException {
+        writeByte('"');
+
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+
+            if (escape) {
+                char escaped = escapeOf(c);
+
+                if (escaped != 0) {
+                    writeByte('\\');
+                    writeByte(escaped);
+                    continue;
+                }
+            }
+
+            i = writeChar(s, i, c);
+        }
+
+        writeByte('"');
+    }
+
+    // the character that follows the backslash when the given character is escaped, or 0
+    private static char escapeOf(char c) {
+        switch (c) {
+            case '\\':
+                return '\\';
+            case '\n':
+                return 'n';
+            case '\r':
+                return 'r';
+            case '\t':
+                return 't';
+            default:
+                return 0;
+        }
+    }
+}
@@ -0,0 +1,190 @@
+package in.dragonbra.javasteam.types;
+
+import in.dragonbra.javasteam.util.BufferPool;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Base of the buffered {@link KeyValue} writers. Output is collected in a buffer from the {@link BufferPool} and only
+ * handed to the stream when the buffer is full, on {@link #flush()} and on {@link #finish()}. The stream itself is
+ * never closed.
+ */
+public abstract class KVWriter implements IKeyValueVisitor {
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private final OutputStream os;
+
+    private byte[] buffer;
+
+    private int count;
+
+    private IOException failure;
+
+    KVWriter(OutputStream os) {
+        if (os == null) {
+            throw new IllegalArgumentException("output stream is null");
+        }
+
+        this.os = os;
+        this.buffer = BufferPool.getDefault().acquire(BUFFER_SIZE);
+    }
+
+    /**
+     * Writes the start of an object, its children follow up to the matching {@link #writeEndObject()}.
+     *
+     * @param name the name of the object.
+     * @throws IOException if writing to the stream fails.
+     */
+    public abstract void writeStartObject(String name) throws IOException;
+
+    /**
+     * Writes a key with a value.
+     *
+     * @param name  the name of the key.
+     * @param value the value, null is written as an empty string.
+     * @throws IOException if writing to the stream fails.
+     */
+    public abstract void writeValue(String name, String value) throws IOException;
+
+    /**
+     * Writes the end of the object that was started last.
+     *
+     * @throws IOException if writing to the stream fails.
+     */
+    public abstract void writeEndObject() throws IOException;
+
+    /**
+     * Hands the buffered output to the stream and flushes it.
+     *
+     * @throws IOException if writing to the stream fails.
+     */
+    public void flush() throws IOException {
+        flushBuffer();
+        os.flush();
+    }
+
+    /**
+     * Flushes the buffered output and returns the buffer to the pool. The writer can't be used afterwards.
+     *
+     * @throws IOException if writing fails, or failed while the writer was used as a visitor.
+     */
+    public void finish() throws IOException {
+        if (buffer == null) {
+            return;
+        }
+
+        try {
+            if (failure != null) {
+                throw failure;
+            }
+
+            flush();
+        } finally {
+            BufferPool.getDefault().release(buffer);
+            buffer = null;
+        }
+    }
+
+    // whether more output can be written, which is not the case once finished or failed
+    boolean isWritable() {
+        return buffer != null && failure == null;
+    }
+
+    @Override
+    public boolean startObject(String name) {
+        try {
+            if (failure == null) {
+                writeStartObject(name);
+            }
+        } catch (IOException e) {
+            failure = e;
+        }
+
+        return failure == null;
+    }
+
+    @Override
+    public boolean value(String name, String value) {
+        try {
+            if (failure == null) {
+                writeValue(name, value);
+            }
+        } catch (IOException e) {
+            failure = e;
+        }
+
+        return failure == null;
+    }
+
+    @Override
+    public boolean endObject() {
+        try {
+            if (failure == null) {
+                writeEndObject();
+            }
+        } catch (IOException e) {
+            failure = e;
+        }
+
+        return failure == null;
+    }
+
+    void writeByte(int b) throws IOException {
+        if (buffer == null) {
+            throw new IllegalStateException("writer is finished");
+        }
+
+        if (count == buffer.length) {
+            flushBuffer();
+        }
+
+        buffer[count++] = (byte) b;
+    }
+
+    /**
+     * Encodes the character at the given index of the string to UTF-8, unpaired surrogates become a question mark like
+     * in {@link String#getBytes(java.nio.charset.Charset)}.
+     *
+     * @return the index of the last character that was consumed, surrogate pairs take two.
+     */
+    int writeChar(String s, int i, char c) throws IOException {
+        if (c < 0x80) {
+            writeByte(c);
+            return i;
+        }
+
+        if (c < 0x800) {
+            writeByte(0xC0 | (c >> 6));
+            writeByte(0x80 | (c & 0x3F));
+            return i;
+        }
+
+        if (Character.isHighSurrogate(c) && i + 1 < s.length() && Character.isLowSurrogate(s.charAt(i + 1))) {
+            int codePoint = Character.toCodePoint(c, s.charAt(i + 1));
+            writeByte(0xF0 | (codePoint >> 18));
+            writeByte(0x80 | ((codePoint >> 12) & 0x3F));
+            writeByte(0x80 | ((codePoint >> 6) & 0x3F));
+            writeByte(0x80 | (codePoint & 0x3F));
+            return i + 1;
+        }
+
+        if (Character.isSurrogate(c)) {
+            writeByte('?');
+            return i;
+        }
+
+        writeByte(0xE0 | (c >> 12));
+        writeByte(0x80 | ((c >> 6) & 0x3F));
+        writeByte(0x80 | (c & 0x3F));
+        return i;
+    }
+
+    private void flushBuffer() throws IOException {
+        if (count > 0) {
+            os.write(buffer, 0, count);
+            count = 0;
+        }
+    }
+}
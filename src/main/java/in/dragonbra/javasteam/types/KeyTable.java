@@ -0,0 +1,55 @@
+package in.dragonbra.javasteam.types;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A table of shared strings for the names and short values of frozen {@link KeyValue KeyValues}. The same few keys
+ * repeat across every app and package, so frozen trees point to one instance of each instead of their own copies.
+ * The table stops taking new strings once it is full, later strings are then simply not shared.
+ */
+final class KeyTable {
+
+    private static final KeyTable DEFAULT = new KeyTable(1 << 16, 32);
+
+    private final ConcurrentHashMap<String, String> table = new ConcurrentHashMap<>();
+
+    private final int maxEntries;
+
+    private final int maxValueLength;
+
+    KeyTable(int maxEntries, int maxValueLength) {
+        this.maxEntries = maxEntries;
+        this.maxValueLength = maxValueLength;
+    }
+
+    static KeyTable getDefault() {
+        return DEFAULT;
+    }
+
+    String intern(String s) {
+        if (s == null) {
+            return null;
+        }
+
+        String shared = table.get(s);
+
+        if (shared != null) {
+            return shared;
+        }
+
+        if (table.size() >= maxEntries) {
+            return s;
+        }
+
+        shared = table.putIfAbsent(s, s);
+        return shared == null ? s : shared;
+    }
+
+    String internValue(String s) {
+        if (s == null || s.length() > maxValueLength) {
+            return s;
+        }
+
+        return intern(s);
+    }
+}
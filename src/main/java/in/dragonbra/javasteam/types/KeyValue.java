@@ -1,17 +1,11 @@
 package in.dragonbra.javasteam.types;
 
-import in.dragonbra.javasteam.util.Passable;
-import in.dragonbra.javasteam.util.Strings;
-import in.dragonbra.javasteam.util.log.LogManager;
-import in.dragonbra.javasteam.util.log.Logger;
-import in.dragonbra.javasteam.util.stream.BinaryReader;
-
 import java.io.*;
 import java.lang.reflect.Field;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
-import java.nio.charset.Charset;
+import java.nio.ByteBuffer;
 import java.util.*;
 
 /**
@@ -19,18 +13,36 @@ import java.util.*;
  */
 public class KeyValue {
 
-    private static final Logger logger = LogManager.getLogger(KeyValue.class);
-
     /**
      * Represents an invalid {@link KeyValue} given when a searched for child does not exist.
      */
     public static final KeyValue INVALID = new KeyValue();
 
+    /**
+     * Nodes with at least this many children get a hash index for {@link #get(String)} and {@link #set(String, KeyValue)}.
+     */
+    static final int INDEX_THRESHOLD = 16;
+
     private String name;
 
     private String value;
 
-    private List<KeyValue> children = new ArrayList<>();
+    // the type of a number read from a binary KeyValue, null for strings; the string form is only created when asked for
+    private Type valueType;
+
+    // the number itself, floats are kept as their bits
+    private long numericValue;
+
+    // null until the first child is added, most nodes are leaves and don't need a list
+    private ChildList children;
+
+    private boolean frozen;
+
+    // built on the first lookup once the node has enough children, rebuilt when it goes stale
+    private volatile ChildIndex index;
+
+    // the node whose index holds this node, which drops that index when this node is renamed
+    private volatile KeyValue indexParent;
 
     /**
      * Initializes a new instance of the {@link KeyValue} class.
@@ -71,6 +83,17 @@ public class KeyValue {
             throw new IllegalArgumentException("key is null");
         }
 
+        ChildIndex index = getIndex();
+
+        if (index != null) {
+            KeyValue c = index.map.get(foldCase(key));
+            return c == null ? INVALID : c;
+        }
+
+        if (children == null) {
+            return INVALID;
+        }
+
         for (KeyValue c : children) {
             if (key.equalsIgnoreCase(c.name)) {
                 return c;
@@ -91,15 +114,108 @@ public class KeyValue {
             throw new IllegalArgumentException("key is null");
         }
 
-        Iterator<KeyValue> iter = children.iterator();
-        while (iter.hasNext()) {
-            if (key.equalsIgnoreCase(iter.next().name)) {
-                iter.remove();
+        ChildList children = mutableChildren();
+
+        ChildIndex index = getIndex();
+        String folded = index != null ? foldCase(key) : null;
+
+        if (index == null || index.map.containsKey(folded)) {
+            Iterator<KeyValue> iter = children.iterator();
+            while (iter.hasNext()) {
+                if (key.equalsIgnoreCase(iter.next().name)) {
+                    iter.remove();
+                }
             }
+
+            // the index is stale now and will be rebuilt on the next lookup
+            index = null;
+        } else if (value.isInIndex()) {
+            // the value is indexed under another name, here or by another node, rebuild rather than patch
+            index = null;
         }
 
         value.setName(key);
         children.add(value);
+
+        if (index != null) {
+            // only the new child was added since the index was checked, update it in place
+            value.indexParent = this;
+            index.map.put(folded, value);
+            index.modCount = children.modCount();
+        }
+    }
+
+    private boolean isInIndex() {
+        KeyValue parent = indexParent;
+        return parent != null && parent.index != null;
+    }
+
+    private ChildIndex getIndex() {
+        if (children == null || children.size() < INDEX_THRESHOLD) {
+            return null;
+        }
+
+        ChildIndex current = index;
+
+        if (current == null || !current.isCurrent(this)) {
+            current = buildIndex();
+            index = current;
+        }
+
+        return current;
+    }
+
+    private ChildIndex buildIndex() {
+        int modCount = children.modCount();
+
+        HashMap<String, KeyValue> map = new HashMap<>(children.size() * 2);
+        List<KeyValue> shared = null;
+
+        for (KeyValue c : children) {
+            if (c.name == null) {
+                continue;
+            }
+
+            if (c.indexParent != this && c.isInIndex()) {
+                // the child is in the index of another node, which is the one it tells about renames
+                if (shared == null) {
+                    shared = new ArrayList<>();
+                }
+                shared.add(c);
+            } else {
+                c.indexParent = this;
+            }
+
+            String folded = foldCase(c.name);
+
+            // the first child wins, like the linear lookup
+            if (!map.containsKey(folded)) {
+                map.put(folded, c);
+            }
+        }
+
+        return new ChildIndex(map, modCount, shared);
+    }
+
+    /**
+     * Folds the case of a key so that two keys are equal exactly when {@link String#equalsIgnoreCase(String)} says so.
+     */
+    private static String foldCase(String key) {
+        char[] chars = null;
+
+        for (int i = 0; i < key.length(); i++) {
+            char c = key.charAt(i);
+            char folded = Character.toLowerCase(Character.toUpperCase(c));
+
+            if (folded != c) {
+                if (chars == null) {
+                    chars = key.toCharArray();
+                }
+                chars[i] = folded;
+            }
+        }
+
+        return chars == null ? key : new String(chars);
     }
 
     /**
@@ -108,9 +224,25 @@ public class KeyValue {
      * @return The value of this instance as a string.
      */
     public String asString() {
+        if (value == null && valueType != null) {
+            value = valueType == Type.FLOAT32
+                    ? String.valueOf(Float.intBitsToFloat((int) numericValue))
+                    : String.valueOf(numericValue);
+        }
+
         return value;
     }
 
+    void setNumericValue(Type type, long value) {
+        this.value = null;
+        this.valueType = type;
+        this.numericValue = value;
+    }
+
+    private boolean isIntegral() {
+        return valueType != null && valueType != Type.FLOAT32;
+    }
+
     /**
      * Attempts to convert and return the value of this instance as a byte.
      * If the conversion is invalid, the default value is returned.
@@ -119,6 +251,10 @@ public class KeyValue {
      * @return The value of this instance as an unsigned byte.
      */
     public byte asByte(byte defaultValue) {
+        if (valueType != null) {
+            return isIntegral() && numericValue == (byte) numericValue ? (byte) numericValue : defaultValue;
+        }
+
         try {
             return Byte.parseByte(value);
         } catch (NullPointerException | NumberFormatException nfe) {
@@ -144,6 +280,10 @@ public class KeyValue {
      * @return The value of this instance as an unsigned byte.
      */
     public short asShort(short defaultValue) {
+        if (valueType != null) {
+            return isIntegral() && numericValue == (short) numericValue ? (short) numericValue : defaultValue;
+        }
+
         try {
             return Short.parseShort(value);
         } catch (NullPointerException | NumberFormatException nfe) {
@@ -169,6 +309,10 @@ public class KeyValue {
      * @return The value of this instance as an unsigned byte.
      */
     public int asInteger(int defaultValue) {
+        if (valueType != null) {
+            return isIntegral() && numericValue == (int) numericValue ? (int) numericValue : defaultValue;
+        }
+
         try {
             return Integer.parseInt(value);
         } catch (NullPointerException | NumberFormatException nfe) {
@@ -194,6 +338,10 @@ public class KeyValue {
      * @return The value of this instance as an unsigned byte.
      */
     public long asLong(long defaultValue) {
+        if (valueType != null) {
+            return isIntegral() ? numericValue : defaultValue;
+        }
+
         try {
             return Long.parseLong(value);
         } catch (NullPointerException | NumberFormatException nfe) {
@@ -219,6 +367,10 @@ public class KeyValue {
      * @return The value of this instance as an unsigned byte.
      */
     public float asFloat(float defaultValue) {
+        if (valueType != null) {
+            return isIntegral() ? (float) numericValue : Float.intBitsToFloat((int) numericValue);
+        }
+
         try {
             return Float.parseFloat(value);
         } catch (NullPointerException | NumberFormatException nfe) {
@@ -244,6 +396,11 @@ public class KeyValue {
      * @return The value of this instance as an unsigned byte.
      */
     public boolean asBoolean(boolean defaultValue) {
+        if (valueType != null) {
+            // the string form of anything but an int is neither an int nor "true"
+            return isIntegral() && numericValue == (int) numericValue && numericValue != 0;
+        }
+
         try {
             return Integer.parseInt(value) != 0;
         } catch (NullPointerException | NumberFormatException e) {
@@ -288,6 +445,8 @@ public class KeyValue {
      * @return The value of this instance as an unsigned byte.
      */
     public <T extends Enum<T>> EnumSet<T> asEnum(Class<T> enumClass, EnumSet<T> defaultValue) {
+        String value = asString();
+
         // this is ugly af, but it comes with handling bit flags as enumsets
         try {
             // see if its a number first
@@ -332,29 +491,123 @@ public class KeyValue {
     }
 
     public void setName(String name) {
+        checkNotFrozen();
+
         this.name = name;
+
+        KeyValue parent = indexParent;
+
+        if (parent != null) {
+            // the index of the parent maps the old name
+            parent.index = null;
+        }
     }
 
     public String getValue() {
-        return value;
+        return asString();
     }
 
     public void setValue(String value) {
+        checkNotFrozen();
+
         this.value = value;
+        this.valueType = null;
     }
 
+    /**
+     * Gets the children of this instance. The list can be changed, unless this instance is frozen.
+     *
+     * @return the children.
+     */
     public List<KeyValue> getChildren() {
+        if (frozen) {
+            return children == null ? Collections.<KeyValue>emptyList() : Collections.<KeyValue>unmodifiableList(children);
+        }
+
+        return mutableChildren();
+    }
+
+    private ChildList mutableChildren() {
+        checkNotFrozen();
+
+        if (children == null) {
+            children = new ChildList();
+        }
+
         return children;
     }
 
+    /**
+     * Makes this instance and all of its children read-only, and compacts them for keeping them around for a long
+     * time: child lists are trimmed, nodes without children drop their lists, and names and short values are replaced
+     * by instances shared between all frozen trees. Afterwards every attempt to change the tree throws an
+     * {@link UnsupportedOperationException}.
+     *
+     * @return this instance.
+     */
+    public KeyValue freeze() {
+        KeyTable table = KeyTable.getDefault();
+
+        // no recursion, appinfo trees can be deep
+        Deque<KeyValue> pending = new ArrayDeque<>();
+        pending.push(this);
+
+        while (!pending.isEmpty()) {
+            KeyValue kv = pending.pop();
+
+            if (kv.frozen) {
+                continue;
+            }
+
+            kv.frozen = true;
+
+            // the interned strings are equal to the old ones, so indexes stay valid
+            kv.name = table.intern(kv.name);
+            kv.value = table.internValue(kv.value);
+
+            if (kv.children == null) {
+                continue;
+            }
+
+            if (kv.children.isEmpty()) {
+                kv.children = null;
+                kv.index = null;
+                continue;
+            }
+
+            kv.children.trimToSize();
+
+            for (KeyValue child : kv.children) {
+                pending.push(child);
+            }
+        }
+
+        return this;
+    }
+
+    /**
+     * @return <b>true</b> if this instance was frozen with {@link #freeze()}.
+     */
+    public boolean isFrozen() {
+        return frozen;
+    }
+
+    private void checkNotFrozen() {
+        if (frozen) {
+            throw new UnsupportedOperationException("KeyValue is frozen");
+        }
+    }
+
     public boolean readAsText(InputStream is) throws IOException {
         if (is == null) {
             throw new IllegalArgumentException("input stream is null");
         }
 
-        children = new ArrayList<>();
+        checkNotFrozen();
+
+        children = null;
 
-        new KVTextReader(this, is);
+        new KVTextReader(is).accept(new KeyValueTreeBuilder(this));
 
         return true;
     }
@@ -372,46 +625,69 @@ public class KeyValue {
         }
     }
 
-    void recursiveLoadFromBuffer(KVTextReader kvr) throws IOException {
-        Passable<Boolean> wasQuoted = new Passable<>(false);
-        Passable<Boolean> wasConditional = new Passable<>(false);
-
-        while (true) {
-            // get the key name
-            String name = kvr.readToken(wasQuoted, wasConditional);
-
-            if (Strings.isNullOrEmpty(name)) {
-                throw new IllegalStateException("RecursiveLoadFromBuffer: got EOF or empty keyname");
-            }
+    /**
+     * Parses the given input as a text {@link KeyValue} and reports its contents to the visitor, without building a
+     * tree.
+     *
+     * @param is      The input {@link InputStream} to read from.
+     * @param visitor The visitor to report to.
+     * @return <b>true</b> if the whole input was read; <b>false</b> if the visitor stopped early.
+     * @throws IOException exception while reading from the stream
+     */
+    public static boolean visitText(InputStream is, IKeyValueVisitor visitor) throws IOException {
+        if (is == null) {
+            throw new IllegalArgumentException("input stream is null");
+        }
 
-            if (name.startsWith("}") && !wasQuoted.getValue()) {
-                break;
-            }
+        if (visitor == null) {
+            throw new IllegalArgumentException("visitor is null");
+        }
 
-            KeyValue dat = new KeyValue(name);
-            dat.children = new ArrayList<>();
-            children.add(dat);
+        return new KVTextReader(is).accept(visitor);
+    }
 
-            String value = kvr.readToken(wasQuoted, wasConditional);
+    /**
+     * Parses the given input as a binary {@link KeyValue} and reports its contents to the visitor, without building a
+     * tree.
+     *
+     * @param is      The input {@link InputStream} to read from.
+     * @param visitor The visitor to report to.
+     * @return <b>true</b> if the input was read or the visitor stopped early; <b>false</b> if the input is not a
+     * supported binary {@link KeyValue}.
+     * @throws IOException exception while reading from the stream
+     */
+    public static boolean visitBinary(InputStream is, IKeyValueVisitor visitor) throws IOException {
+        if (is == null) {
+            throw new IllegalArgumentException("input stream is null");
+        }
 
-            if (value == null) {
-                throw new IllegalStateException("RecursiveLoadFromBuffer:  got NULL key");
-            }
+        if (visitor == null) {
+            throw new IllegalArgumentException("visitor is null");
+        }
 
-            if (value.startsWith("}") && !wasQuoted.getValue()) {
-                throw new IllegalStateException("RecursiveLoadFromBuffer:  got } in key");
-            }
+        return new KVBinaryReader(is).accept(visitor);
+    }
 
-            if (value.startsWith("{") && !wasQuoted.getValue()) {
-                dat.recursiveLoadFromBuffer(kvr);
-            } else {
-                if (wasConditional.getValue()) {
-                    throw new IllegalStateException("RecursiveLoadFromBuffer:  got conditional between key and value");
-                }
+    /**
+     * Parses the given buffer as a binary {@link KeyValue} and reports its contents to the visitor, without building a
+     * tree. The buffer is read like in {@link #tryReadAsBinary(ByteBuffer)}.
+     *
+     * @param buffer  The input {@link ByteBuffer} to read from.
+     * @param visitor The visitor to report to.
+     * @return <b>true</b> if the input was read or the visitor stopped early; <b>false</b> if the input is not a
+     * supported binary {@link KeyValue}.
+     * @throws IOException if the buffer ends before the {@link KeyValue} does
+     */
+    public static boolean visitBinary(ByteBuffer buffer, IKeyValueVisitor visitor) throws IOException {
+        if (buffer == null) {
+            throw new IllegalArgumentException("buffer is null");
+        }
 
-                dat.setValue(value);
-            }
+        if (visitor == null) {
+            throw new IllegalArgumentException("visitor is null");
         }
+
+        return new KVBinaryReader(buffer).accept(visitor);
     }
 
     /**
@@ -471,14 +747,13 @@ public class KeyValue {
             throw new IllegalArgumentException("input is null");
         }
 
-        byte[] bytes = input.getBytes(Charset.forName("UTF-8"));
+        // the text is already decoded, so it is tokenized as it is
+        char[] chars = input.toCharArray();
 
-        try (ByteArrayInputStream bais = new ByteArrayInputStream(bytes)) {
+        try {
             KeyValue kv = new KeyValue();
 
-            if (!kv.readAsText(bais)) {
-                return null;
-            }
+            new KVTextReader(chars, 0, chars.length).accept(new KeyValueTreeBuilder(kv));
 
             return kv;
         } catch (IOException e) {
@@ -499,176 +774,167 @@ public class KeyValue {
         }
     }
 
+    /**
+     * Saves this instance to a stream. The output is buffered, and the stream is flushed but not closed.
+     *
+     * @param os     The stream to save to.
+     * @param binary If set to <b>true</b>, saves this instance as binary.
+     * @throws IOException exception while writing to the stream
+     */
     public void saveToStream(OutputStream os, boolean binary) throws IOException {
         if (os == null) {
             throw new IllegalArgumentException("output stream is null");
         }
 
         if (binary) {
-            recursiveSaveBinaryToStream(os);
+            KVBinaryWriter writer = new KVBinaryWriter(os);
+            recursiveSaveBinaryToStream(writer);
+            writer.finish();
         } else {
-            recursiveSaveTextToFile(os);
+            KVTextWriter writer = new KVTextWriter(os);
+            recursiveSaveTextToStream(writer);
+            writer.finish();
         }
     }
 
-    private void recursiveSaveBinaryToStream(OutputStream os) throws IOException {
-        recursiveSaveBinaryToStreamCore(os);
-        os.write(Type.END.code());
-    }
-
-    private void recursiveSaveBinaryToStreamCore(OutputStream os) throws IOException {
+    private void recursiveSaveBinaryToStream(KVWriter writer) throws IOException {
         // Only supported types ATM:
         // 1. KeyValue with children (no value itself)
         // 2. String KeyValue
-        if (!children.isEmpty()) {
-            os.write(Type.NONE.code());
-            os.write(name.getBytes(Charset.forName("UTF-8")));
-            os.write(0);
+        if (children != null && !children.isEmpty()) {
+            writer.writeStartObject(name);
             for (KeyValue child : children) {
-                child.recursiveSaveBinaryToStreamCore(os);
+                child.recursiveSaveBinaryToStream(writer);
             }
-            os.write(Type.END.code());
+            writer.writeEndObject();
         } else {
-            os.write(Type.STRING.code());
-            os.write(name.getBytes(Charset.forName("UTF-8")));
-            os.write(0);
-            if (value == null) {
-                os.write("".getBytes(Charset.forName("UTF-8")));
-            } else {
-                os.write(value.getBytes(Charset.forName("UTF-8")));
-            }
-            os.write(0);
+            writer.writeValue(name, asString());
         }
     }
 
-    private void recursiveSaveTextToFile(OutputStream os) throws IOException {
-        recursiveSaveTextToFile(os, 0);
-    }
+    private void recursiveSaveTextToStream(KVWriter writer) throws IOException {
+        writer.writeStartObject(name);
 
-    private void recursiveSaveTextToFile(OutputStream os, int indentLevel) throws IOException {
-        // write header
-        writeIndents(os, indentLevel);
-        writeString(os, name, true);
-        writeString(os, "\n");
-        writeIndents(os, indentLevel);
-        writeString(os, "{\n");
+        if (children != null) {
+            for (KeyValue child : children) {
+                String childValue = child.asString();
 
-        // loop through all our keys writing them to disk
-        for (KeyValue child : children) {
-            if (child.getValue() == null) {
-                child.recursiveSaveTextToFile(os, indentLevel + 1);
-            } else {
-                writeIndents(os, indentLevel + 1);
-                writeString(os, child.getName(), true);
-                writeString(os, "\t\t");
-                writeString(os, escapeText(child.asString()), true);
-                writeString(os, "\n");
+                if (childValue == null) {
+                    child.recursiveSaveTextToStream(writer);
+                } else {
+                    writer.writeValue(child.name, childValue);
+                }
             }
         }
 
-        writeIndents(os, indentLevel);
-        writeString(os, "}\n");
+        writer.writeEndObject();
     }
 
-    private static String escapeText(String value) {
-        for (Map.Entry<Character, Character> entry : KVTextReader.ESCAPED_MAPPING.entrySet()) {
-            String textToReplace = String.valueOf(entry.getValue());
-            String escapedReplacement = "\\" + entry.getKey();
-            value = value.replace(textToReplace, escapedReplacement);
+    /**
+     * Populate this instance from the given {@link InputStream} as a binary {@link KeyValue}.
+     *
+     * @param is The input {@link InputStream} to read from.
+     * @return <b>true</b> if the read was successful; otherwise, <b>false</b>.
+     * @throws IOException exception while reading from the stream
+     */
+    public boolean tryReadAsBinary(InputStream is) throws IOException {
+        if (is == null) {
+            throw new IllegalArgumentException("input stream is null");
         }
 
-        return value;
-    }
+        checkNotFrozen();
 
-    private void writeIndents(OutputStream os, int indentLevel) throws IOException {
-        writeString(os, new String(new char[indentLevel]).replace('\0', '\t'));
-    }
+        children = null;
 
-    private static void writeString(OutputStream os, String str) throws IOException {
-        writeString(os, str, false);
+        return new KVBinaryReader(is).accept(new KeyValueTreeBuilder(this));
     }
 
-    private static void writeString(OutputStream os, String str, boolean quote) throws IOException {
-        str = str.replaceAll("\"", "\\\"");
-        if (quote) {
-            str = "\"" + str + "\"";
+    /**
+     * Populate this instance from the given {@link ByteBuffer} as a binary {@link KeyValue}. The data is read from the
+     * position of the buffer in little endian order, whatever the order of the buffer is, and the position is moved
+     * past the data that was read.
+     *
+     * @param buffer The input {@link ByteBuffer} to read from.
+     * @return <b>true</b> if the read was successful; otherwise, <b>false</b>.
+     * @throws IOException if the buffer ends before the {@link KeyValue} does
+     */
+    public boolean tryReadAsBinary(ByteBuffer buffer) throws IOException {
+        if (buffer == null) {
+            throw new IllegalArgumentException("buffer is null");
         }
-        byte[] bytes = str.getBytes(Charset.forName("UTF-8"));
-        os.write(bytes);
+
+        checkNotFrozen();
+
+        children = null;
+
+        return new KVBinaryReader(buffer).accept(new KeyValueTreeBuilder(this));
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s = %s", name, asString());
     }
 
     /**
-     * Populate this instance from the given {@link InputStream} as a binary {@link KeyValue}.
-     *
-     * @param is The input {@link InputStream} to read from.
-     * @return <b>true</b> if the read was successful; otherwise, <b>false</b>.
-     * @throws IOException exception while reading from the stream
+     * The list of children, which exposes its modification count so that an index can tell when it is stale.
      */
-    public boolean tryReadAsBinary(InputStream is) throws IOException {
-        if (is == null) {
-            throw new IllegalArgumentException("input stream is null");
+    private static final class ChildList extends ArrayList<KeyValue> {
+
+        int modCount() {
+            return modCount;
         }
 
-        return tryReadAsBinaryCore(is, this, null);
+        @Override
+        public KeyValue set(int index, KeyValue element) {
+            // replacing an element is not a structural change for ArrayList, but it is one for the index
+            modCount++;
+            return super.set(index, element);
+        }
     }
 
-    private static boolean tryReadAsBinaryCore(InputStream is, KeyValue current, KeyValue parent) throws IOException {
-        current.children = new ArrayList<>();
+    private static final class ChildIndex {
+
+        final HashMap<String, KeyValue> map;
 
-        BinaryReader br = new BinaryReader(is);
+        int modCount;
 
-        while (true) {
-            Type type = Type.from(br.readByte());
+        // children that drop the index of another node when renamed, their names are checked on every lookup
+        final KeyValue[] shared;
 
-            if (type == Type.END) {
-                break;
+        final String[] sharedNames;
+
+        ChildIndex(HashMap<String, KeyValue> map, int modCount, List<KeyValue> shared) {
+            this.map = map;
+            this.modCount = modCount;
+
+            if (shared == null) {
+                this.shared = null;
+                this.sharedNames = null;
+            } else {
+                this.shared = shared.toArray(new KeyValue[shared.size()]);
+                this.sharedNames = new String[this.shared.length];
+
+                for (int i = 0; i < this.shared.length; i++) {
+                    sharedNames[i] = this.shared[i].name;
+                }
             }
+        }
 
-            current.setName(br.readNullTermString(Charset.forName("UTF-8")));
-            switch (type) {
-                case NONE:
-                    KeyValue child = new KeyValue();
-                    boolean didReadChild = tryReadAsBinaryCore(is, child, current);
-                    if (!didReadChild) {
+        boolean isCurrent(KeyValue owner) {
+            if (owner.children == null || modCount != owner.children.modCount()) {
+                return false;
+            }
+
+            if (shared != null) {
+                for (int i = 0; i < shared.length; i++) {
+                    if (!sharedNames[i].equals(shared[i].name)) {
                         return false;
                     }
-                    break;
-                case STRING:
-                    current.setValue(br.readNullTermString(Charset.forName("UTF-8")));
-                    break;
-                case WIDESTRING:
-                    logger.debug("Encountered WideString type when parsing binary KeyValue, which is unsupported. Returning false.");
-                    return false;
-                case INT32:
-                case COLOR:
-                case POINTER:
-                    current.setValue(String.valueOf(br.readInt()));
-                    break;
-                case UINT64:
-                    current.setValue(String.valueOf(br.readLong()));
-                    break;
-                case FLOAT32:
-                    current.setValue(String.valueOf(br.readFloat()));
-                    break;
-                case INT64:
-                    current.setValue(String.valueOf(br.readLong()));
-                    break;
-                default:
-                    return false;
+                }
             }
 
-            if (parent != null) {
-                parent.getChildren().add(current);
-            }
-            current = new KeyValue();
+            return true;
         }
-
-        return true;
-    }
-
-    @Override
-    public String toString() {
-        return String.format("%s = %s", name, value);
     }
 
     public enum Type {
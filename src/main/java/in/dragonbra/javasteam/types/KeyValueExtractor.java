@@ -0,0 +1,181 @@
+package in.dragonbra.javasteam.types;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Picks the given paths out of a {@link KeyValue} document while it is parsed, and stops the parser once all of them
+ * were found. Only the requested parts are built, so this is much cheaper than loading the whole document when only a
+ * handful of fields are needed.
+ * <p>
+ * Paths are relative to the root of the document, with the keys separated by slashes, for example
+ * {@code "depots/branches/public/buildid"}. Keys are compared ignoring case, and when a path occurs more than once the
+ * first occurrence wins, just like {@link KeyValue#get(String)}. Only the first root of the document is looked at.
+ * <pre>
+ * KeyValueExtractor extractor = new KeyValueExtractor("common/name", "depots");
+ * KeyValue.visitText(stream, extractor);
+ * String name = extractor.get("common/name").asString();
+ * </pre>
+ */
+public class KeyValueExtractor implements IKeyValueVisitor {
+
+    private final String[] paths;
+
+    private final String[][] segments;
+
+    private final KeyValue[] results;
+
+    private int remaining;
+
+    private boolean inRoot;
+
+    // names of the objects between the root and the current position
+    private final List<String> stack = new ArrayList<>();
+
+    private final List<Capture> captures = new ArrayList<>();
+
+    /**
+     * Initializes a new instance of the {@link KeyValueExtractor} class.
+     *
+     * @param paths the paths to extract.
+     */
+    public KeyValueExtractor(String... paths) {
+        if (paths == null) {
+            throw new IllegalArgumentException("paths is null");
+        }
+
+        this.paths = paths.clone();
+        this.segments = new String[paths.length][];
+        this.results = new KeyValue[paths.length];
+        this.remaining = paths.length;
+
+        for (int i = 0; i < paths.length; i++) {
+            if (paths[i] == null) {
+                throw new IllegalArgumentException("path is null");
+            }
+
+            segments[i] = paths[i].split("/");
+        }
+    }
+
+    /**
+     * Gets the extracted value or object at the given path.
+     *
+     * @param path one of the paths given to the constructor.
+     * @return the extracted {@link KeyValue}, or {@link KeyValue#INVALID} if it was not found.
+     */
+    public KeyValue get(String path) {
+        for (int i = 0; i < paths.length; i++) {
+            if (paths[i].equals(path)) {
+                return results[i] == null ? KeyValue.INVALID : results[i];
+            }
+        }
+
+        return KeyValue.INVALID;
+    }
+
+    /**
+     * @return <b>true</b> if every path was found.
+     */
+    public boolean isComplete() {
+        return remaining == 0;
+    }
+
+    @Override
+    public boolean startObject(String name) {
+        if (!inRoot) {
+            inRoot = true;
+            return remaining > 0;
+        }
+
+        for (Capture capture : captures) {
+            capture.builder.startObject(name);
+            capture.depth++;
+        }
+
+        for (int i = 0; i < segments.length; i++) {
+            if (matches(i, name)) {
+                KeyValue kv = new KeyValue();
+                results[i] = kv;
+
+                Capture capture = new Capture(new KeyValueTreeBuilder(kv));
+                capture.builder.startObject(name);
+                captures.add(capture);
+            }
+        }
+
+        stack.add(name);
+        return true;
+    }
+
+    @Override
+    public boolean value(String name, String value) {
+        if (!inRoot) {
+            // a binary document that is a single value, there is nothing below it
+            return false;
+        }
+
+        for (Capture capture : captures) {
+            capture.builder.value(name, value);
+        }
+
+        for (int i = 0; i < segments.length; i++) {
+            if (matches(i, name)) {
+                results[i] = new KeyValue(name, value);
+                remaining--;
+            }
+        }
+
+        return remaining > 0;
+    }
+
+    @Override
+    public boolean endObject() {
+        for (int i = captures.size() - 1; i >= 0; i--) {
+            Capture capture = captures.get(i);
+            capture.builder.endObject();
+
+            if (capture.depth-- == 0) {
+                captures.remove(i);
+                remaining--;
+            }
+        }
+
+        if (stack.isEmpty()) {
+            // the end of the first root
+            return false;
+        }
+
+        stack.remove(stack.size() - 1);
+        return remaining > 0;
+    }
+
+    // whether the key with the given name at the current position completes the path with the given index
+    private boolean matches(int index, String name) {
+        String[] path = segments[index];
+
+        if (results[index] != null || path.length != stack.size() + 1) {
+            return false;
+        }
+
+        for (int i = 0; i < stack.size(); i++) {
+            if (!path[i].equalsIgnoreCase(stack.get(i))) {
+                return false;
+            }
+        }
+
+        return path[path.length - 1].equalsIgnoreCase(name);
+    }
+
+    private static final class Capture {
+
+        final KeyValueTreeBuilder builder;
+
+        // depth of the parser below the captured object
+        int depth;
+
+        Capture(KeyValueTreeBuilder builder) {
+            this.builder = builder;
+        }
+    }
+}
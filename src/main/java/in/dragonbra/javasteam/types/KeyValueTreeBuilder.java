@@ -0,0 +1,115 @@
+package in.dragonbra.javasteam.types;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Builds a {@link KeyValue} tree from the events of a parser. The first root of the document is loaded into the given
+ * {@link KeyValue}, any further roots are ignored.
+ */
+class KeyValueTreeBuilder implements ITypedKeyValueVisitor {
+
+    private final KeyValue root;
+
+    private final Deque<KeyValue> stack = new ArrayDeque<>();
+
+    private boolean rootSeen;
+
+    // depth inside a root that is ignored
+    private int skipDepth;
+
+    KeyValueTreeBuilder(KeyValue root) {
+        if (root == null) {
+            throw new IllegalArgumentException("root is null");
+        }
+
+        this.root = root;
+    }
+
+    @Override
+    public boolean startObject(String name) {
+        if (skipDepth > 0 || (stack.isEmpty() && rootSeen)) {
+            skipDepth++;
+            return true;
+        }
+
+        KeyValue kv;
+
+        if (stack.isEmpty()) {
+            kv = root;
+            kv.setName(name);
+            rootSeen = true;
+        } else {
+            kv = new KeyValue(name);
+            stack.peek().getChildren().add(kv);
+        }
+
+        stack.push(kv);
+        return true;
+    }
+
+    @Override
+    public boolean value(String name, String value) {
+        KeyValue kv = addLeaf(name);
+
+        if (kv != null) {
+            kv.setValue(value);
+        }
+
+        return true;
+    }
+
+    @Override
+    public boolean integerValue(String name, KeyValue.Type type, long value) {
+        KeyValue kv = addLeaf(name);
+
+        if (kv != null) {
+            kv.setNumericValue(type, value);
+        }
+
+        return true;
+    }
+
+    @Override
+    public boolean floatValue(String name, float value) {
+        KeyValue kv = addLeaf(name);
+
+        if (kv != null) {
+            kv.setNumericValue(KeyValue.Type.FLOAT32, Float.floatToIntBits(value));
+        }
+
+        return true;
+    }
+
+    // the node a value goes into, or null if it is ignored
+    private KeyValue addLeaf(String name) {
+        if (skipDepth > 0) {
+            return null;
+        }
+
+        if (stack.isEmpty()) {
+            if (rootSeen) {
+                return null;
+            }
+
+            root.setName(name);
+            rootSeen = true;
+            return root;
+        }
+
+        KeyValue kv = new KeyValue(name);
+        stack.peek().getChildren().add(kv);
+        return kv;
+    }
+
+    @Override
+    public boolean endObject() {
+        if (skipDepth > 0) {
+            skipDepth--;
+        } else {
+            stack.pop();
+        }
+
+        return true;
+    }
+}
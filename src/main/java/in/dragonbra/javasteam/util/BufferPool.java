@@ -0,0 +1,226 @@
+package in.dragonbra.javasteam.util;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A pool of reusable buffers in power of two size classes, so short lived buffers on the send and receive path don't
+ * have to be allocated for every message.
+ * <p>
+ * Ownership is explicit: whoever acquires a buffer owns it until it is handed back with {@code release}, and must not
+ * touch it afterwards. Buffers that are never released are simply collected by the garbage collector. Requests above
+ * the largest size class are allocated and dropped without pooling.
+ */
+public class BufferPool {
+
+    private static final BufferPool DEFAULT = new BufferPool(256, 1024 * 1024, 32);
+
+    private final int minSize;
+
+    private final int maxSize;
+
+    private final int maxPerClass;
+
+    private final ArrayDeque<byte[]>[] heap;
+
+    private final ArrayDeque<ByteBuffer>[] direct;
+
+    private final AtomicLong allocations = new AtomicLong();
+
+    /**
+     * Initializes a new instance of the {@link BufferPool} class.
+     *
+     * @param minSize     the smallest size class, rounded up to a power of two.
+     * @param maxSize     the largest size class, rounded up to a power of two.
+     * @param maxPerClass the number of idle buffers kept per size class.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public BufferPool(int minSize, int maxSize, int maxPerClass) {
+        if (minSize < 1) {
+            throw new IllegalArgumentException("minSize must be positive");
+        }
+
+        if (maxSize < minSize) {
+            throw new IllegalArgumentException("maxSize must not be smaller than minSize");
+        }
+
+        if (maxPerClass < 0) {
+            throw new IllegalArgumentException("maxPerClass is negative");
+        }
+
+        this.minSize = roundUp(minSize);
+        this.maxSize = roundUp(maxSize);
+        this.maxPerClass = maxPerClass;
+
+        int classes = Integer.numberOfTrailingZeros(this.maxSize) - Integer.numberOfTrailingZeros(this.minSize) + 1;
+
+        heap = new ArrayDeque[classes];
+        direct = new ArrayDeque[classes];
+
+        for (int i = 0; i < classes; i++) {
+            heap[i] = new ArrayDeque<>();
+            direct[i] = new ArrayDeque<>();
+        }
+    }
+
+    /**
+     * @return the pool shared by the library.
+     */
+    public static BufferPool getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * Takes a heap buffer of at least the given size from the pool.
+     *
+     * @param size the minimum size of the buffer.
+     * @return a buffer that is at least as large as requested, its contents are undefined.
+     */
+    public byte[] acquire(int size) {
+        int index = indexOf(size);
+
+        if (index < 0) {
+            allocations.incrementAndGet();
+            return new byte[size];
+        }
+
+        ArrayDeque<byte[]> queue = heap[index];
+
+        synchronized (queue) {
+            byte[] buffer = queue.pollFirst();
+            if (buffer != null) {
+                return buffer;
+            }
+        }
+
+        allocations.incrementAndGet();
+        return new byte[minSize << index];
+    }
+
+    /**
+     * Hands a heap buffer back to the pool.
+     *
+     * @param buffer the buffer, may be null.
+     */
+    public void release(byte[] buffer) {
+        if (buffer == null) {
+            return;
+        }
+
+        int index = classOf(buffer.length);
+
+        if (index < 0) {
+            return;
+        }
+
+        ArrayDeque<byte[]> queue = heap[index];
+
+        synchronized (queue) {
+            if (queue.size() < maxPerClass) {
+                queue.addFirst(buffer);
+            }
+        }
+    }
+
+    /**
+     * Takes a direct buffer of at least the given size from the pool. The buffer is cleared and its limit set to the
+     * requested size.
+     *
+     * @param size the minimum size of the buffer.
+     * @return a direct buffer with room for the requested size.
+     */
+    public ByteBuffer acquireDirect(int size) {
+        int index = indexOf(size);
+
+        ByteBuffer buffer = null;
+
+        if (index >= 0) {
+            ArrayDeque<ByteBuffer> queue = direct[index];
+
+            synchronized (queue) {
+                buffer = queue.pollFirst();
+            }
+        }
+
+        if (buffer == null) {
+            allocations.incrementAndGet();
+            buffer = ByteBuffer.allocateDirect(index < 0 ? size : minSize << index);
+        }
+
+        buffer.clear();
+        buffer.limit(size);
+        return buffer;
+    }
+
+    /**
+     * Hands a direct buffer back to the pool.
+     *
+     * @param buffer the buffer, may be null.
+     */
+    public void releaseDirect(ByteBuffer buffer) {
+        if (buffer == null || !buffer.isDirect()) {
+            return;
+        }
+
+        int index = classOf(buffer.capacity());
+
+        if (index < 0) {
+            return;
+        }
+
+        ArrayDeque<ByteBuffer> queue = direct[index];
+
+        synchronized (queue) {
+            if (queue.size() < maxPerClass) {
+                queue.addFirst(buffer);
+            }
+        }
+    }
+
+    /**
+     * @return the number of buffers the pool had to allocate because no idle buffer was available.
+     */
+    public long getAllocations() {
+        return allocations.get();
+    }
+
+    public int getMinSize() {
+        return minSize;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    // the size class a request of the given size is served from, or -1 if it is too large to pool
+    private int indexOf(int size) {
+        if (size < 0) {
+            throw new IllegalArgumentException("size is negative");
+        }
+
+        if (size > maxSize) {
+            return -1;
+        }
+
+        int rounded = Math.max(minSize, roundUp(size));
+        return Integer.numberOfTrailingZeros(rounded) - Integer.numberOfTrailingZeros(minSize);
+    }
+
+    // the size class of a released buffer, or -1 if its size is not one of ours
+    private int classOf(int capacity) {
+        if (capacity < minSize || capacity > maxSize || Integer.bitCount(capacity) != 1) {
+            return -1;
+        }
+
+        return Integer.numberOfTrailingZeros(capacity) - Integer.numberOfTrailingZeros(minSize);
+    }
+
+    private static int roundUp(int size) {
+        if (size <= 1) {
+            return 1;
+        }
+
+        return Integer.highestOneBit(size - 1) << 1;
+    }
+}
@@ -0,0 +1,112 @@
+package in.dragonbra.javasteam.util;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Caches host name lookups for a fixed time, so frequent reconnects to the same host names don't hit the resolver
+ * every time.
+ */
+public class DnsCache {
+
+    private final long ttl;
+
+    private final Map<String, Entry> entries = new HashMap<>();
+
+    /**
+     * Initializes a new instance of the {@link DnsCache} class.
+     *
+     * @param ttl how long a lookup is cached in milliseconds.
+     */
+    public DnsCache(long ttl) {
+        if (ttl < 0L) {
+            throw new IllegalArgumentException("ttl must not be negative");
+        }
+
+        this.ttl = ttl;
+    }
+
+    /**
+     * Resolves a host name, using the cached addresses if they have not expired yet.
+     *
+     * @param host the host name.
+     * @return the addresses of the host.
+     * @throws UnknownHostException if the host could not be resolved.
+     */
+    public InetAddress[] resolve(String host) throws UnknownHostException {
+        if (host == null) {
+            throw new IllegalArgumentException("host is null");
+        }
+
+        String key = host.toLowerCase(Locale.ROOT);
+        long now = System.currentTimeMillis();
+
+        synchronized (entries) {
+            Entry entry = entries.get(key);
+            if (entry != null && entry.expires > now) {
+                return entry.addresses.clone();
+            }
+        }
+
+        // resolve outside the lock so a slow lookup doesn't block other hosts
+        InetAddress[] addresses = lookup(host);
+
+        synchronized (entries) {
+            entries.put(key, new Entry(addresses, now + ttl));
+        }
+
+        return addresses.clone();
+    }
+
+    /**
+     * Removes the cached addresses of a host, for example after none of them could be reached.
+     *
+     * @param host the host name.
+     */
+    public void invalidate(String host) {
+        if (host == null) {
+            return;
+        }
+
+        synchronized (entries) {
+            entries.remove(host.toLowerCase(Locale.ROOT));
+        }
+    }
+
+    /**
+     * Removes all cached addresses.
+     */
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    public long getTtl() {
+        return ttl;
+    }
+
+    /**
+     * Looks up the addresses of a host.
+     *
+     * @param host the host name.
+     * @return the addresses of the host.
+     * @throws UnknownHostException if the host could not be resolved.
+     */
+    protected InetAddress[] lookup(String host) throws UnknownHostException {
+        return InetAddress.getAllByName(host);
+    }
+
+    private static class Entry {
+        private final InetAddress[] addresses;
+        private final long expires;
+
+        Entry(InetAddress[] addresses, long expires) {
+            this.addresses = addresses;
+            this.expires = expires;
+        }
+    }
+}
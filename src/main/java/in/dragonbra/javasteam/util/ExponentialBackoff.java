@@ -0,0 +1,99 @@
+package in.dragonbra.javasteam.util;
+
+import java.util.Random;
+
+/**
+ * Computes jittered exponential backoff delays. Each call to {@link #nextDelay()} doubles (by the configured multiplier)
+ * the upper bound of the delay up to the configured maximum, and then picks a random delay between half of that bound
+ * and the bound itself, so many clients failing at the same time don't retry in lockstep.
+ */
+public class ExponentialBackoff {
+
+    private final long baseDelay;
+
+    private final long maxDelay;
+
+    private final double multiplier;
+
+    private final Random random;
+
+    private int attempts;
+
+    /**
+     * Initializes a new instance of the {@link ExponentialBackoff} class with a multiplier of 2.
+     *
+     * @param baseDelay the upper bound of the first delay in milliseconds.
+     * @param maxDelay  the maximum delay in milliseconds.
+     */
+    public ExponentialBackoff(long baseDelay, long maxDelay) {
+        this(baseDelay, maxDelay, 2.0, new Random());
+    }
+
+    /**
+     * Initializes a new instance of the {@link ExponentialBackoff} class.
+     *
+     * @param baseDelay  the upper bound of the first delay in milliseconds.
+     * @param maxDelay   the maximum delay in milliseconds.
+     * @param multiplier the factor the upper bound grows by on every attempt.
+     * @param random     the source of jitter.
+     */
+    public ExponentialBackoff(long baseDelay, long maxDelay, double multiplier, Random random) {
+        if (baseDelay <= 0) {
+            throw new IllegalArgumentException("baseDelay must be positive");
+        }
+
+        if (maxDelay < baseDelay) {
+            throw new IllegalArgumentException("maxDelay must not be smaller than baseDelay");
+        }
+
+        if (multiplier < 1.0) {
+            throw new IllegalArgumentException("multiplier must be at least 1");
+        }
+
+        if (random == null) {
+            throw new IllegalArgumentException("random is null");
+        }
+
+        this.baseDelay = baseDelay;
+        this.maxDelay = maxDelay;
+        this.multiplier = multiplier;
+        this.random = random;
+    }
+
+    /**
+     * Gets the delay to wait before the next attempt and advances the attempt counter.
+     *
+     * @return the delay in milliseconds.
+     */
+    public synchronized long nextDelay() {
+        double bound = baseDelay * Math.pow(multiplier, attempts);
+        long cap = bound >= maxDelay ? maxDelay : (long) bound;
+
+        attempts++;
+
+        long half = cap / 2;
+        return half + (long) (random.nextDouble() * (cap - half + 1));
+    }
+
+    /**
+     * Resets the attempt counter, the next delay will be based on the base delay again.
+     */
+    public synchronized void reset() {
+        attempts = 0;
+    }
+
+    /**
+     * @return the number of delays handed out since the last reset.
+     */
+    public synchronized int getAttempts() {
+        return attempts;
+    }
+
+    public long getBaseDelay() {
+        return baseDelay;
+    }
+
+    public long getMaxDelay() {
+        return maxDelay;
+    }
+}
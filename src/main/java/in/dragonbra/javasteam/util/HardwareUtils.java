@@ -12,7 +12,7 @@ import java.util.Scanner;
 public class HardwareUtils {
     // Everything taken from here
     // https://stackoverflow.com/questions/1986732/how-to-get-a-unique-computer-identifier-in-java-like-disk-id-or-motherboard-id
-    private static String SERIAL_NUMBER;
+    private static volatile String SERIAL_NUMBER;
 
     public static byte[] getMachineID() {
         // the aug 25th 2015 CM update made well-formed machine MessageObjects required for logon
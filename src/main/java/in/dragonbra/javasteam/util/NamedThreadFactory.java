@@ -0,0 +1,36 @@
+package in.dragonbra.javasteam.util;
+
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Thread factory that gives all its threads the same name. This is what the library uses when no
+ * {@link ThreadFactory} is configured.
+ */
+public class NamedThreadFactory implements ThreadFactory {
+
+    private final String name;
+
+    private final boolean daemon;
+
+    /**
+     * Initializes a new instance of the {@link NamedThreadFactory} class.
+     *
+     * @param name   the name of the threads.
+     * @param daemon whether the threads are daemon threads.
+     */
+    public NamedThreadFactory(String name, boolean daemon) {
+        if (name == null) {
+            throw new IllegalArgumentException("name is null");
+        }
+
+        this.name = name;
+        this.daemon = daemon;
+    }
+
+    @Override
+    public Thread newThread(Runnable r) {
+        Thread thread = new Thread(r, name);
+        thread.setDaemon(daemon);
+        return thread;
+    }
+}
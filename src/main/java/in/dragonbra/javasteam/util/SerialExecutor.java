@@ -0,0 +1,233 @@
+package in.dragonbra.javasteam.util;
+
+import in.dragonbra.javasteam.util.log.LogManager;
+import in.dragonbra.javasteam.util.log.Logger;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Runs tasks one at a time and in submission order on another {@link Executor}. Many serial executors can share one
+ * thread pool while each keeps its own ordering.
+ * <p>
+ * Tasks can be given a priority with {@link #execute(Runnable, int)}: the next task to run is always taken from the
+ * highest priority that has tasks waiting, tasks of the same priority run in submission order.
+ * <p>
+ * The queue is bounded: once {@link #getCapacity()} tasks are waiting, {@link #execute(Runnable)} blocks until the
+ * executor caught up, which pushes back on whoever produces the tasks, like the thread reading from a connection.
+ * Tasks submitted from a task of any serial executor never block: that thread belongs to a pool, and waiting there
+ * could hold up the very tasks it waits for when the executors share the pool. Such hand-offs may go over capacity.
+ */
+public class SerialExecutor implements Executor {
+
+    private static final Logger logger = LogManager.getLogger(SerialExecutor.class);
+
+    /**
+     * Number of tasks run before the executor gives its thread back to the pool, so busy serial executors sharing a pool
+     * take turns.
+     */
+    private static final int MAX_TASKS_PER_RUN = 64;
+
+    // set while the current thread runs the tasks of a serial executor
+    private static final ThreadLocal<Boolean> DRAINING = new ThreadLocal<>();
+
+    private final Executor delegate;
+
+    private final int capacity;
+
+    private final ArrayDeque<Runnable>[] tasks;
+
+    private int size;
+
+    private final Object lock = new Object();
+
+    private boolean scheduled;
+
+    private final Runnable drain = new Runnable() {
+        @Override
+        public void run() {
+            runTasks();
+        }
+    };
+
+    /**
+     * Initializes a new instance of the {@link SerialExecutor} class.
+     *
+     * @param delegate the executor the tasks run on.
+     * @param capacity the number of tasks that may wait before {@link #execute(Runnable)} blocks.
+     */
+    public SerialExecutor(Executor delegate, int capacity) {
+        this(delegate, capacity, 1);
+    }
+
+    /**
+     * Initializes a new instance of the {@link SerialExecutor} class.
+     *
+     * @param delegate   the executor the tasks run on.
+     * @param capacity   the number of tasks that may wait before {@link #execute(Runnable, int)} blocks.
+     * @param priorities the number of priorities, priority 0 is the highest.
+     */
+    @SuppressWarnings("unchecked")
+    public SerialExecutor(Executor delegate, int capacity, int priorities) {
+        if (delegate == null) {
+            throw new IllegalArgumentException("delegate is null");
+        }
+
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be at least 1");
+        }
+
+        if (priorities < 1) {
+            throw new IllegalArgumentException("priorities must be at least 1");
+        }
+
+        this.delegate = delegate;
+        this.capacity = capacity;
+        this.tasks = new ArrayDeque[priorities];
+
+        for (int i = 0; i < priorities; i++) {
+            tasks[i] = new ArrayDeque<>();
+        }
+    }
+
+    /**
+     * Runs the task with the highest priority.
+     *
+     * @param task the task.
+     */
+    @Override
+    public void execute(Runnable task) {
+        execute(task, 0);
+    }
+
+    /**
+     * Runs the task after the waiting tasks of the same or a higher priority, waits while the queue is full.
+     *
+     * @param task     the task.
+     * @param priority the priority of the task, 0 is the highest.
+     */
+    public void execute(Runnable task, int priority) {
+        add(task, priority);
+    }
+
+    private void add(Runnable task, int priority) {
+        if (task == null) {
+            throw new IllegalArgumentException("task is null");
+        }
+
+        if (priority < 0 || priority >= tasks.length) {
+            throw new IllegalArgumentException("priority out of range");
+        }
+
+        boolean schedule;
+
+        synchronized (lock) {
+            while (size >= capacity && DRAINING.get() == null) {
+                try {
+                    lock.wait();
+                } catch (InterruptedException e) {
+                    // don't lose the task, go over capacity instead
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+
+            tasks[priority].addLast(task);
+            size++;
+
+            schedule = !scheduled;
+            scheduled = true;
+        }
+
+        if (schedule) {
+            schedule();
+        }
+    }
+
+    private void runTasks() {
+        // a delegate that runs tasks in place may nest drains
+        boolean nested = DRAINING.get() != null;
+        DRAINING.set(Boolean.TRUE);
+
+        try {
+            for (int i = 0; i < MAX_TASKS_PER_RUN; i++) {
+                Runnable task;
+
+                synchronized (lock) {
+                    task = poll();
+
+                    if (task == null) {
+                        return;
+                    }
+
+                    lock.notifyAll();
+                }
+
+                try {
+                    task.run();
+                } catch (RuntimeException e) {
+                    logger.debug("Task threw an exception", e);
+                }
+            }
+        } finally {
+            // also reached when a task threw an error, the executor must not stay marked as running
+            if (!nested) {
+                DRAINING.remove();
+            }
+
+            boolean more;
+
+            synchronized (lock) {
+                more = size > 0;
+                scheduled = more;
+            }
+
+            if (more) {
+                // more work is waiting, queue up behind the other users of the delegate
+                try {
+                    schedule();
+                } catch (RejectedExecutionException e) {
+                    logger.debug("Delegate rejected the executor, waiting tasks run once another task is added", e);
+                }
+            }
+        }
+    }
+
+    private void schedule() {
+        try {
+            delegate.execute(drain);
+        } catch (RuntimeException e) {
+            // nothing is running, let the next task try again
+            synchronized (lock) {
+                scheduled = false;
+            }
+            throw e;
+        }
+    }
+
+    private Runnable poll() {
+        for (ArrayDeque<Runnable> queue : tasks) {
+            Runnable task = queue.pollFirst();
+            if (task != null) {
+                size--;
+                return task;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * @return the number of tasks waiting to run.
+     */
+    public int size() {
+        synchronized (lock) {
+            return size;
+        }
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+}
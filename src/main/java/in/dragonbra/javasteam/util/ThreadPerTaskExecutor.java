@@ -0,0 +1,35 @@
+package in.dragonbra.javasteam.util;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Executor that starts a new thread for every task. Long running loops, like the receive loop of a connection, are
+ * run this way when no I/O executor is configured.
+ */
+public class ThreadPerTaskExecutor implements Executor {
+
+    private final ThreadFactory threadFactory;
+
+    /**
+     * Initializes a new instance of the {@link ThreadPerTaskExecutor} class.
+     *
+     * @param threadFactory the factory of the threads.
+     */
+    public ThreadPerTaskExecutor(ThreadFactory threadFactory) {
+        if (threadFactory == null) {
+            throw new IllegalArgumentException("threadFactory is null");
+        }
+
+        this.threadFactory = threadFactory;
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        if (command == null) {
+            throw new IllegalArgumentException("command is null");
+        }
+
+        threadFactory.newThread(command).start();
+    }
+}
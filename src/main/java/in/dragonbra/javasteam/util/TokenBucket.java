@@ -0,0 +1,136 @@
+package in.dragonbra.javasteam.util;
+
+/**
+ * A thread safe token bucket. Tokens are added continuously at the configured rate up to the capacity of the bucket,
+ * every permit taken out of the bucket consumes one token.
+ */
+public class TokenBucket {
+
+    private static final long NANOS_PER_SECOND = 1000000000L;
+
+    private final double capacity;
+
+    private double rate;
+
+    private double tokens;
+
+    private long lastRefill;
+
+    /**
+     * Initializes a new instance of the {@link TokenBucket} class. The bucket starts full.
+     *
+     * @param rate     the number of tokens added per second.
+     * @param capacity the maximum number of tokens the bucket holds, this is the largest burst allowed.
+     */
+    public TokenBucket(double rate, int capacity) {
+        if (rate <= 0) {
+            throw new IllegalArgumentException("rate must be positive");
+        }
+
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be at least 1");
+        }
+
+        this.rate = rate;
+        this.capacity = capacity;
+        this.tokens = capacity;
+        this.lastRefill = System.nanoTime();
+    }
+
+    private void refill() {
+        long now = System.nanoTime();
+        tokens = Math.min(capacity, tokens + (now - lastRefill) * rate / NANOS_PER_SECOND);
+        lastRefill = now;
+    }
+
+    /**
+     * Takes a token out of the bucket if one is available.
+     *
+     * @return <b>true</b> if a token was taken; otherwise, <b>false</b>.
+     */
+    public synchronized boolean tryAcquire() {
+        refill();
+
+        if (tokens >= 1.0) {
+            tokens -= 1.0;
+            return true;
+        }
+
+        return false;
+    }
+
+    /**
+     * Takes a token out of the bucket, blocking until one is available.
+     *
+     * @throws InterruptedException if the calling thread is interrupted while waiting.
+     */
+    public void acquire() throws InterruptedException {
+        while (true) {
+            long waitNanos;
+
+            synchronized (this) {
+                refill();
+
+                if (tokens >= 1.0) {
+                    tokens -= 1.0;
+                    return;
+                }
+
+                waitNanos = (long) Math.ceil((1.0 - tokens) * NANOS_PER_SECOND / rate);
+            }
+
+            Thread.sleep(waitNanos / 1000000L, (int) (waitNanos % 1000000L));
+        }
+    }
+
+    /**
+     * Gets the time until the next token becomes available.
+     *
+     * @return the time in milliseconds, 0 if a token is available right now.
+     */
+    public synchronized long getWaitTime() {
+        refill();
+
+        if (tokens >= 1.0) {
+            return 0L;
+        }
+
+        return (long) Math.ceil((1.0 - tokens) * 1000.0 / rate);
+    }
+
+    /**
+     * Removes all tokens from the bucket, so the next permit is only handed out after the bucket refilled.
+     */
+    public synchronized void drain() {
+        refill();
+        tokens = Math.min(tokens, 0.0);
+    }
+
+    /**
+     * @return the number of tokens added per second.
+     */
+    public synchronized double getRate() {
+        return rate;
+    }
+
+    /**
+     * Changes the refill rate, tokens collected so far are kept.
+     *
+     * @param rate the number of tokens added per second.
+     */
+    public synchronized void setRate(double rate) {
+        if (rate <= 0) {
+            throw new IllegalArgumentException("rate must be positive");
+        }
+
+        refill();
+        this.rate = rate;
+    }
+
+    /**
+     * @return the maximum number of tokens the bucket holds.
+     */
+    public int getCapacity() {
+        return (int) capacity;
+    }
+}
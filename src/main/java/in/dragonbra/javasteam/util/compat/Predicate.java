@@ -0,0 +1,5 @@
+package in.dragonbra.javasteam.util.compat;
+
+public interface Predicate<T> {
+    boolean test(T t);
+}
@@ -5,15 +5,10 @@ import in.dragonbra.javasteam.util.Passable;
 import in.dragonbra.javasteam.util.Utils;
 import in.dragonbra.javasteam.util.log.LogManager;
 import in.dragonbra.javasteam.util.log.Logger;
-import in.dragonbra.javasteam.util.stream.BinaryWriter;
-import in.dragonbra.javasteam.util.stream.MemoryStream;
-import in.dragonbra.javasteam.util.stream.SeekOrigin;
 
 import javax.crypto.*;
 import javax.crypto.spec.IvParameterSpec;
 import javax.crypto.spec.SecretKeySpec;
-import java.io.ByteArrayOutputStream;
-import java.io.IOException;
 import java.security.*;
 import java.util.Arrays;
 import java.util.zip.CRC32;
@@ -26,23 +21,119 @@ public class CryptoHelper {
 
     private static final Logger logger = LogManager.getLogger(CryptoHelper.class);
 
-    public static final String SEC_PROV;
+    /**
+     * The name BouncyCastle (SpongyCastle on Android) is registered under. Reading it does not register the provider.
+     *
+     * @deprecated use {@link #getProvider()}, which registers the provider on first use and returns null when the JDK
+     * providers are used.
+     */
+    @Deprecated
+    public static final String SEC_PROV = providerName();
+
+    // SecureRandom is thread safe, and seeding a new one for every block is expensive
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private static final Object providerLock = new Object();
+
+    private static volatile boolean providerInitialized;
+
+    private static volatile boolean useJdkProviders;
+
+    private static String secProv;
+
+    /**
+     * Makes the crypto helpers use the providers that come with the JDK instead of registering BouncyCastle (or
+     * SpongyCastle on Android). This has to be called before the first cryptographic operation.
+     *
+     * @param value whether to use only the JDK providers.
+     */
+    public static void setUseJdkProviders(boolean value) {
+        synchronized (providerLock) {
+            if (providerInitialized && value != useJdkProviders) {
+                logger.debug("Security provider is already initialized, the change only applies to new ciphers");
+                providerInitialized = false;
+            }
+
+            useJdkProviders = value;
+        }
+    }
+
+    /**
+     * @return whether the crypto helpers use only the JDK providers.
+     */
+    public static boolean isUseJdkProviders() {
+        return useJdkProviders;
+    }
+
+    /**
+     * Gets the name of the security provider the ciphers are taken from. The provider is looked up and registered on
+     * the first call, not when this class is loaded. If BouncyCastle is not available, the JDK providers are used.
+     *
+     * @return the provider name, or null if the JDK providers are used.
+     */
+    public static String getProvider() {
+        if (!providerInitialized) {
+            synchronized (providerLock) {
+                if (!providerInitialized) {
+                    secProv = useJdkProviders ? null : registerProvider();
+                    providerInitialized = true;
+                }
+            }
+        }
+
+        return secProv;
+    }
+
+    private static String providerName() {
+        return Utils.getOSType() == EOSType.AndroidUnknown ? "SC" : "BC";
+    }
+
+    @SuppressWarnings("unchecked")
+    private static String registerProvider() {
+        String name = providerName();
+        boolean android = "SC".equals(name);
+
+        if (Security.getProvider(name) != null) {
+            return name;
+        }
 
-    static {
         try {
-            if (Utils.getOSType() == EOSType.AndroidUnknown) {
+            if (android) {
                 Class<? extends Provider> provider =
                         (Class<? extends Provider>) Class.forName("org.spongycastle.jce.provider.BouncyCastleProvider");
                 Security.insertProviderAt(provider.newInstance(), 1);
-                SEC_PROV = "SC";
             } else {
                 Class<? extends Provider> provider =
                         (Class<? extends Provider>) Class.forName("org.bouncycastle.jce.provider.BouncyCastleProvider");
                 Security.addProvider(provider.newInstance());
-                SEC_PROV = "BC";
             }
+            return name;
         } catch (Exception e) {
-            throw new SecurityException("Couldn't create security provider", e);
+            logger.debug("Couldn't create security provider, falling back to the JDK providers", e);
+            return null;
+        }
+    }
+
+    /**
+     * Gets a cipher from the configured provider. The transformations are given in their BouncyCastle form and
+     * translated to their JDK equivalent when the JDK providers are used.
+     */
+    static Cipher getCipher(String transformation) throws NoSuchAlgorithmException, NoSuchPaddingException,
+            NoSuchProviderException {
+        String provider = getProvider();
+
+        if (provider != null) {
+            return Cipher.getInstance(transformation, provider);
+        }
+
+        switch (transformation) {
+            case "AES/CBC/PKCS7Padding":
+                // PKCS5 padding is PKCS7 padding for 16 byte blocks
+                return Cipher.getInstance("AES/CBC/PKCS5Padding");
+            case "RSA/None/OAEPWithSHA1AndMGF1Padding":
+                return Cipher.getInstance("RSA/ECB/OAEPWithSHA-1AndMGF1Padding");
+            default:
+                return Cipher.getInstance(transformation);
         }
     }
 
@@ -53,12 +144,30 @@ public class CryptoHelper {
      * @return the generated block
      */
     public static byte[] generateRandomBlock(int size) {
-        SecureRandom random = new SecureRandom();
         byte[] b = new byte[size];
-        random.nextBytes(b);
+        RANDOM.nextBytes(b);
         return b;
     }
 
+    /**
+     * Performs an SHA-1 hash of an input byte array
+     *
+     * @param input array to hash
+     * @return the hashed result
+     */
+    public static byte[] shaHash(byte[] input) {
+        if (input == null) {
+            throw new IllegalArgumentException("input is null");
+        }
+
+        try {
+            return MessageDigest.getInstance("SHA-1").digest(input);
+        } catch (NoSuchAlgorithmException e) {
+            // every JRE has to support SHA-1
+            throw new IllegalStateException(e);
+        }
+    }
+
     /**
      * Performs CRC32 on an input byte array using the CrcStandard.Crc32Bit parameters
      *
@@ -72,16 +181,15 @@ public class CryptoHelper {
 
         CRC32 crc = new CRC32();
         crc.update(input);
-        final long hash = crc.getValue();
-        MemoryStream ms = new MemoryStream(4);
-        BinaryWriter bw = new BinaryWriter(ms.asOutputStream());
-
-        try {
-            bw.writeInt((int) hash);
-        } catch (IOException e) {
-            logger.debug(e);
-        }
-        return ms.toByteArray();
+        final int hash = (int) crc.getValue();
+
+        // little endian, like the rest of the protocol
+        return new byte[]{
+                (byte) hash,
+                (byte) (hash >>> 8),
+                (byte) (hash >>> 16),
+                (byte) (hash >>> 24)
+        };
     }
 
     /**
@@ -120,25 +228,17 @@ public class CryptoHelper {
                 logger.debug("SymmetricDecrypt used with non 32 byte key!");
             }
 
-            Cipher cipher = Cipher.getInstance("AES/ECB/NoPadding", SEC_PROV);
-
-            // first 16 bytes of input is the ECB encrypted IV
-            iv.setValue(new byte[16]);
-            final byte[] cryptedIv = Arrays.copyOfRange(input, 0, 16);
-
-            // the rest is ciphertext
-            byte[] cipherText = new byte[input.length - cryptedIv.length];
-            cipherText = Arrays.copyOfRange(input, cryptedIv.length, cryptedIv.length + cipherText.length);
+            Cipher cipher = getCipher("AES/ECB/NoPadding");
 
-            // decrypt the IV using ECB
+            // first 16 bytes of input is the ECB encrypted IV, decrypt it using ECB
             cipher.init(Cipher.DECRYPT_MODE, new SecretKeySpec(key, "AES"));
-            iv.setValue(cipher.doFinal(cryptedIv));
+            iv.setValue(cipher.doFinal(input, 0, 16));
 
-            cipher = Cipher.getInstance("AES/CBC/PKCS7Padding", SEC_PROV);
+            cipher = getCipher("AES/CBC/PKCS7Padding");
 
-            // decrypt the remaining ciphertext in cbc with the decrypted IV
+            // the rest is ciphertext, decrypt it in cbc with the decrypted IV straight from the input
             cipher.init(Cipher.DECRYPT_MODE, new SecretKeySpec(key, "AES"), new IvParameterSpec(iv.getValue()));
-            return cipher.doFinal(cipherText);
+            return cipher.doFinal(input, 16, input.length - 16);
         } catch (final InvalidKeyException | InvalidAlgorithmParameterException | NoSuchAlgorithmException |
                 NoSuchPaddingException | BadPaddingException | IllegalBlockSizeException | NoSuchProviderException e) {
             throw new CryptoException("failed to symmetric decrypt", e);
@@ -173,26 +273,29 @@ public class CryptoHelper {
                 logger.debug("SymmetricEncrypt used with non 32 byte key!");
             }
 
-            // encrypt iv using ECB and provided key
-            Cipher cipher = Cipher.getInstance("AES/ECB/NoPadding", SEC_PROV);
-            cipher.init(Cipher.ENCRYPT_MODE, new SecretKeySpec(key, "AES"));
+            Cipher ecb = getCipher("AES/ECB/NoPadding");
+            ecb.init(Cipher.ENCRYPT_MODE, new SecretKeySpec(key, "AES"));
 
-            final byte[] cryptedIv = cipher.doFinal(iv);
+            Cipher cbc = getCipher("AES/CBC/PKCS7Padding");
+            cbc.init(Cipher.ENCRYPT_MODE, new SecretKeySpec(key, "AES"), new IvParameterSpec(iv));
 
-            // encrypt input plaintext with CBC using the generated (plaintext) IV and the provided key
-            cipher = Cipher.getInstance("AES/CBC/PKCS7Padding", SEC_PROV);
-            cipher.init(Cipher.ENCRYPT_MODE, new SecretKeySpec(key, "AES"), new IvParameterSpec(iv));
+            // final output is 16 byte ecb crypted IV + cbc crypted plaintext, both are encrypted straight into it
+            final byte[] output = new byte[iv.length + cbc.getOutputSize(input.length)];
+
+            // encrypt iv using ECB and provided key
+            int cryptedIvLength = ecb.doFinal(iv, 0, iv.length, output, 0);
 
-            final byte[] cipherText = cipher.doFinal(input);
+            // encrypt input plaintext with CBC using the generated (plaintext) IV and the provided key
+            int cipherTextLength = cbc.doFinal(input, 0, input.length, output, cryptedIvLength);
 
-            // final output is 16 byte ecb crypted IV + cbc crypted plaintext
-            final byte[] output = new byte[cryptedIv.length + cipherText.length];
-            System.arraycopy(cryptedIv, 0, output, 0, cryptedIv.length);
-            System.arraycopy(cipherText, 0, output, cryptedIv.length, cipherText.length);
+            if (cryptedIvLength + cipherTextLength != output.length) {
+                return Arrays.copyOf(output, cryptedIvLength + cipherTextLength);
+            }
 
             return output;
         } catch (final InvalidKeyException | InvalidAlgorithmParameterException | NoSuchAlgorithmException |
-                IllegalBlockSizeException | NoSuchPaddingException | NoSuchProviderException | BadPaddingException e) {
+                IllegalBlockSizeException | NoSuchPaddingException | NoSuchProviderException | BadPaddingException |
+                ShortBufferException e) {
             throw new CryptoException("failed to symmetric encrypt", e);
         }
     }
@@ -245,15 +348,12 @@ public class CryptoHelper {
         // validate HMAC
         byte[] hmacBytes;
 
-        MemoryStream ms = new MemoryStream();
-        ms.write(iv.getValue(), iv.getValue().length - 3, 3);
-        ms.write(plaintextData, 0, plaintextData.length);
-        ms.seek(0, SeekOrigin.BEGIN);
-
         try {
             Mac mac = Mac.getInstance("HmacSHA1");
             mac.init(new SecretKeySpec(hmacSecret, "HmacSHA1"));
-            hmacBytes = mac.doFinal(ms.toByteArray());
+            mac.update(iv.getValue(), iv.getValue().length - 3, 3);
+            mac.update(plaintextData);
+            hmacBytes = mac.doFinal();
 
             for (int i = 0; i < iv.getValue().length - 3; i++) {
                 if (hmacBytes[i] != iv.getValue()[i]) {
@@ -295,14 +395,12 @@ public class CryptoHelper {
         byte[] random = generateRandomBlock(3);
         System.arraycopy(random, 0, iv, iv.length - random.length, random.length);
 
-        ByteArrayOutputStream baos = new ByteArrayOutputStream();
-        baos.write(random, 0, random.length);
-        baos.write(input, 0, input.length);
-
         try {
             Mac mac = Mac.getInstance("HmacSHA1");
             mac.init(new SecretKeySpec(hmacSecret, "HmacSHA1"));
-            byte[] hash = mac.doFinal(baos.toByteArray());
+            mac.update(random);
+            mac.update(input);
+            byte[] hash = mac.doFinal();
 
             System.arraycopy(hash, 0, iv, 0, iv.length - random.length);
 
@@ -1,5 +1,7 @@
 package in.dragonbra.javasteam.util.crypto;
 
+import in.dragonbra.javasteam.enums.EUniverse;
+import in.dragonbra.javasteam.util.KeyDictionary;
 import in.dragonbra.javasteam.util.log.LogManager;
 import in.dragonbra.javasteam.util.log.Logger;
 
@@ -12,11 +14,14 @@ import java.security.InvalidKeyException;
 import java.security.KeyFactory;
 import java.security.NoSuchAlgorithmException;
 import java.security.NoSuchProviderException;
+import java.security.PublicKey;
 import java.security.interfaces.RSAPublicKey;
 import java.security.spec.InvalidKeySpecException;
 import java.security.spec.RSAPublicKeySpec;
 import java.util.ArrayList;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Handles encrypting and decrypting using the RSA public key encryption algorithm.
@@ -25,8 +30,15 @@ public class RSACrypto {
 
     private static final Logger logger = LogManager.getLogger(RSACrypto.class);
 
+    private static final Map<EUniverse, RSACrypto> UNIVERSE_INSTANCES = new EnumMap<>(EUniverse.class);
+
     private Cipher cipher;
 
+    /**
+     * Initializes a new instance of the {@link RSACrypto} class from a DER encoded public key.
+     *
+     * @param key the public key.
+     */
     public RSACrypto(byte[] key) {
         if (key == null) {
             throw new IllegalArgumentException("key is null");
@@ -45,6 +57,52 @@ public class RSACrypto {
         }
     }
 
+    /**
+     * Initializes a new instance of the {@link RSACrypto} class from an already parsed public key.
+     *
+     * @param key the public key.
+     */
+    public RSACrypto(PublicKey key) {
+        if (key == null) {
+            throw new IllegalArgumentException("key is null");
+        }
+
+        init(key);
+    }
+
+    /**
+     * Gets the shared instance for the public key of a universe. The key is parsed and the cipher set up only once per
+     * universe, which keeps the channel encryption handshake cheap when many connections are made.
+     *
+     * @param universe the universe.
+     * @return the instance for the universe, or null if there is no public key for it or the cipher could not be set up.
+     */
+    public static RSACrypto getInstance(EUniverse universe) {
+        synchronized (UNIVERSE_INSTANCES) {
+            RSACrypto rsa = UNIVERSE_INSTANCES.get(universe);
+
+            if (rsa == null) {
+                byte[] publicKey = KeyDictionary.getPublicKey(universe);
+
+                if (publicKey == null) {
+                    return null;
+                }
+
+                rsa = new RSACrypto(publicKey);
+
+                if (rsa.cipher == null) {
+                    // not cached, the next handshake tries again
+                    logger.debug("Failed to set up the RSA cipher for universe " + universe);
+                    return null;
+                }
+
+                UNIVERSE_INSTANCES.put(universe, rsa);
+            }
+
+            return rsa;
+        }
+    }
+
     private void init(BigInteger mod, BigInteger exp) {
         try {
             final RSAPublicKeySpec publicKeySpec = new RSAPublicKeySpec(mod, exp);
@@ -52,15 +110,35 @@ public class RSACrypto {
             final KeyFactory factory = KeyFactory.getInstance("RSA");
             RSAPublicKey rsaKey = (RSAPublicKey) factory.generatePublic(publicKeySpec);
 
-            cipher = Cipher.getInstance("RSA/None/OAEPWithSHA1AndMGF1Padding", CryptoHelper.SEC_PROV);
-            cipher.init(Cipher.ENCRYPT_MODE, rsaKey);
-        } catch (final NoSuchAlgorithmException | NoSuchPaddingException | InvalidKeyException | InvalidKeySpecException
+            init(rsaKey);
+        } catch (final NoSuchAlgorithmException | InvalidKeySpecException e) {
+            logger.debug(e);
+        }
+    }
+
+    private void init(PublicKey key) {
+        try {
+            // only kept once it is initialized, a null cipher marks an unusable instance
+            Cipher rsaCipher = CryptoHelper.getCipher("RSA/None/OAEPWithSHA1AndMGF1Padding");
+            rsaCipher.init(Cipher.ENCRYPT_MODE, key);
+            cipher = rsaCipher;
+        } catch (final NoSuchAlgorithmException | NoSuchPaddingException | InvalidKeyException
                 | NoSuchProviderException e) {
             logger.debug(e);
         }
     }
 
-    public byte[] encrypt(byte[] input) {
+    /**
+     * Encrypts the input. Instances are shared, so calls are serialized on the cipher.
+     *
+     * @param input the data to encrypt.
+     * @return the encrypted data, or null if encryption failed.
+     */
+    public synchronized byte[] encrypt(byte[] input) {
+        if (cipher == null) {
+            return null;
+        }
+
         try {
             return cipher.doFinal(input);
         } catch (final IllegalBlockSizeException | BadPaddingException e) {
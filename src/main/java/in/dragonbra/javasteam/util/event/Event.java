@@ -1,27 +1,69 @@
 package in.dragonbra.javasteam.util.event;
 
-import java.util.HashSet;
+import java.util.Arrays;
 
+/**
+ * An event that handlers can subscribe to. The handlers are kept in an array that is replaced whenever a handler is
+ * added or removed, so raising the event does not lock and handlers may add or remove handlers, on any thread, while
+ * the event is being raised. A handler removed during dispatch may still receive that one event. Adding or removing a
+ * {@code null} handler does nothing.
+ *
+ * @param <T> the type of the event arguments.
+ */
 public class Event<T extends EventArgs> {
-    protected final HashSet<EventHandler<T>> handlers = new HashSet<>();
+
+    private final Object lock = new Object();
+
+    private volatile EventHandler<T>[] handlers = newArray(0);
 
     public void addEventHandler(EventHandler<T> handler) {
-        synchronized (handlers) {
-            handlers.add(handler);
+        if (handler == null) {
+            return;
+        }
+
+        synchronized (lock) {
+            EventHandler<T>[] current = handlers;
+
+            for (EventHandler<T> existing : current) {
+                if (existing.equals(handler)) {
+                    return;
+                }
+            }
+
+            EventHandler<T>[] copy = Arrays.copyOf(current, current.length + 1);
+            copy[current.length] = handler;
+            handlers = copy;
         }
     }
 
     public void removeEventHandler(EventHandler<T> handler) {
-        synchronized (handlers) {
-            handlers.remove(handler);
+        if (handler == null) {
+            return;
+        }
+
+        synchronized (lock) {
+            EventHandler<T>[] current = handlers;
+
+            for (int i = 0; i < current.length; i++) {
+                if (current[i].equals(handler)) {
+                    EventHandler<T>[] copy = newArray(current.length - 1);
+                    System.arraycopy(current, 0, copy, 0, i);
+                    System.arraycopy(current, i + 1, copy, i, current.length - i - 1);
+                    handlers = copy;
+                    return;
+                }
+            }
         }
     }
 
     public void handleEvent(Object sender, T e) {
-        synchronized (handlers) {
-            for (final EventHandler<T> handler : handlers) {
-                handler.handleEvent(sender, e);
-            }
+        for (final EventHandler<T> handler : handlers) {
+            handler.handleEvent(sender, e);
         }
     }
-}
\ No newline at end of file
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static <T extends EventArgs> EventHandler<T>[] newArray(int length) {
+        return (EventHandler<T>[]) new EventHandler[length];
+    }
+}
@@ -1,7 +1,10 @@
 package in.dragonbra.javasteam.util.event;
 
-import java.util.Timer;
-import java.util.TimerTask;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
 
 /**
  * @author lngtr
@@ -13,34 +16,69 @@ public class ScheduledFunction {
 
     private Runnable func;
 
-    private Timer timer;
+    private final ScheduledExecutorService scheduler;
+
+    private final ThreadFactory threadFactory;
+
+    // the scheduler this function created for itself, when none was given
+    private ScheduledExecutorService ownScheduler;
+
+    private ScheduledFuture<?> future;
 
     private boolean bStarted = false;
 
     public ScheduledFunction(Runnable func, long delay) {
+        this(func, delay, null, null);
+    }
+
+    /**
+     * Initializes a new instance of the {@link ScheduledFunction} class.
+     *
+     * @param func          the function to run.
+     * @param delay         the delay between two runs in milliseconds.
+     * @param scheduler     the scheduler to run the function on, may be null to create one when started.
+     * @param threadFactory the factory of the thread of the created scheduler, may be null.
+     */
+    public ScheduledFunction(Runnable func, long delay, ScheduledExecutorService scheduler, ThreadFactory threadFactory) {
         this.delay = delay;
         this.func = func;
+        this.scheduler = scheduler;
+        this.threadFactory = threadFactory;
     }
 
-    public void start() {
+    public synchronized void start() {
         if (!bStarted) {
-            timer = new Timer();
-            timer.scheduleAtFixedRate(new TimerTask() {
+            ScheduledExecutorService executor = scheduler;
+
+            if (executor == null) {
+                ownScheduler = threadFactory != null
+                        ? Executors.newSingleThreadScheduledExecutor(threadFactory)
+                        : Executors.newSingleThreadScheduledExecutor();
+                executor = ownScheduler;
+            }
+
+            future = executor.scheduleAtFixedRate(new Runnable() {
                 @Override
                 public void run() {
                     if (func != null) {
                         func.run();
                     }
                 }
-            }, 0, delay);
+            }, 0, delay, TimeUnit.MILLISECONDS);
             bStarted = true;
         }
     }
 
-    public void stop() {
+    public synchronized void stop() {
         if (bStarted) {
-            timer.cancel();
-            timer = null;
+            future.cancel(false);
+            future = null;
+
+            if (ownScheduler != null) {
+                ownScheduler.shutdown();
+                ownScheduler = null;
+            }
+
             bStarted = false;
         }
     }
@@ -58,4 +58,10 @@ public class BinaryWriter extends FilterOutputStream {
     public void writeChar(char v) throws IOException {
         out.write((int) v);
     }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        // FilterOutputStream would write these one byte at a time
+        out.write(b, off, len);
+    }
 }
@@ -1,6 +1,7 @@
 package in.dragonbra.javasteam.util.stream;
 
 import java.io.Closeable;
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.util.Arrays;
@@ -366,6 +367,16 @@ public class MemoryStream extends InputStream implements Closeable {
         return ret;
     }
 
+    /**
+     * Writes the contents of this stream to another stream without copying them first.
+     *
+     * @param out the stream to write to.
+     * @throws IOException if the other stream fails.
+     */
+    public void writeTo(OutputStream out) throws IOException {
+        out.write(buffer, 0, length);
+    }
+
     /**
      * Get an OutputStream that will write to this MemoryStream, at the current position.
      *
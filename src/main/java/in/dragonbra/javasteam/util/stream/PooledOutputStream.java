@@ -0,0 +1,128 @@
+package in.dragonbra.javasteam.util.stream;
+
+import in.dragonbra.javasteam.util.BufferPool;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * An output stream that collects its data in buffers taken from a {@link BufferPool}, like a
+ * {@link java.io.ByteArrayOutputStream} that does not leave a trail of discarded arrays behind when it grows. The
+ * buffer is handed back to the pool on {@link #close()}.
+ */
+public class PooledOutputStream extends OutputStream {
+
+    private final BufferPool pool;
+
+    private byte[] buffer;
+
+    private int count;
+
+    /**
+     * Initializes a new instance of the {@link PooledOutputStream} class using the default pool.
+     *
+     * @param initialSize the expected number of bytes.
+     */
+    public PooledOutputStream(int initialSize) {
+        this(BufferPool.getDefault(), initialSize);
+    }
+
+    /**
+     * Initializes a new instance of the {@link PooledOutputStream} class.
+     *
+     * @param pool        the pool buffers are taken from.
+     * @param initialSize the expected number of bytes.
+     */
+    public PooledOutputStream(BufferPool pool, int initialSize) {
+        if (pool == null) {
+            throw new IllegalArgumentException("pool is null");
+        }
+
+        this.pool = pool;
+        this.buffer = pool.acquire(initialSize);
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (buffer == null) {
+            throw new IllegalStateException("stream is closed");
+        }
+
+        if (capacity <= buffer.length) {
+            return;
+        }
+
+        byte[] newBuffer = pool.acquire(Math.max(capacity, buffer.length * 2));
+        System.arraycopy(buffer, 0, newBuffer, 0, count);
+        pool.release(buffer);
+        buffer = newBuffer;
+    }
+
+    @Override
+    public void write(int b) {
+        ensureCapacity(count + 1);
+        buffer[count++] = (byte) b;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) {
+        if (off < 0 || len < 0 || off + len > b.length) {
+            throw new IndexOutOfBoundsException();
+        }
+
+        ensureCapacity(count + len);
+        System.arraycopy(b, off, buffer, count, len);
+        count += len;
+    }
+
+    /**
+     * Writes the collected data to another stream.
+     *
+     * @param out the stream to write to.
+     * @throws IOException if the other stream fails.
+     */
+    public void writeTo(OutputStream out) throws IOException {
+        out.write(buffer, 0, count);
+    }
+
+    /**
+     * @return a copy of the collected data.
+     */
+    public byte[] toByteArray() {
+        byte[] data = new byte[count];
+        System.arraycopy(buffer, 0, data, 0, count);
+        return data;
+    }
+
+    /**
+     * The buffer the data is collected in. Only the first {@link #size()} bytes are valid, and the buffer belongs to
+     * the stream: it must not be used after the stream is closed.
+     *
+     * @return the underlying buffer.
+     */
+    public byte[] getBuffer() {
+        return buffer;
+    }
+
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Discards the collected data, keeping the buffer.
+     */
+    public void reset() {
+        count = 0;
+    }
+
+    /**
+     * Hands the buffer back to the pool.
+     */
+    @Override
+    public void close() {
+        if (buffer != null) {
+            pool.release(buffer);
+            buffer = null;
+            count = 0;
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package in.dragonbra.javasteam.networking.steam3;
+
+import in.dragonbra.javasteam.TestBase;
+import in.dragonbra.javasteam.enums.EMsg;
+import org.junit.Test;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class OutboundQueueTest extends TestBase {
+
+    @Test
+    public void drainsControlLaneFirst() {
+        RecordingConnection connection = new RecordingConnection();
+        OutboundQueue queue = new OutboundQueue(connection, 16, null);
+
+        queue.offer(EMsg.ClientPICSProductInfoRequest, new byte[]{3});
+        queue.offer(EMsg.ClientChatMsg, new byte[]{2});
+        queue.offer(EMsg.ClientHeartBeat, new byte[]{1});
+
+        queue.start();
+        assertTrue(queue.flush(5000));
+        queue.close();
+
+        assertEquals(3, connection.packets.size());
+        assertEquals(1, connection.packets.get(0)[0]);
+        assertEquals(2, connection.packets.get(1)[0]);
+        assertEquals(3, connection.packets.get(2)[0]);
+
+        // everything that was ready went out in a single gathering write
+        assertEquals(1, connection.writes);
+    }
+
+    @Test
+    public void rejectsWhenFullButAlwaysTakesControlMessages() {
+        OutboundQueue queue = new OutboundQueue(new RecordingConnection(), 2, null);
+
+        assertTrue(queue.offer(EMsg.ClientChatMsg, new byte[1]));
+        assertTrue(queue.offer(EMsg.ClientChatMsg, new byte[1]));
+        assertFalse(queue.offer(EMsg.ClientChatMsg, new byte[1]));
+        assertTrue(queue.offer(EMsg.ClientHeartBeat, new byte[1]));
+
+        assertEquals(2, queue.size());
+
+        queue.close();
+        assertFalse(queue.offer(EMsg.ClientHeartBeat, new byte[1]));
+        assertFalse(queue.put(EMsg.ClientChatMsg, new byte[1]));
+    }
+
+    @Test
+    public void rateLimitHoldsMessagesBack() throws InterruptedException {
+        Map<EMsg, RateLimit> rateLimits = new EnumMap<>(EMsg.class);
+        rateLimits.put(EMsg.ClientChatMsg, new RateLimit(0.01, 2));
+
+        RecordingConnection connection = new RecordingConnection();
+        OutboundQueue queue = new OutboundQueue(connection, 16, rateLimits);
+
+        for (int i = 0; i < 4; i++) {
+            queue.offer(EMsg.ClientChatMsg, new byte[]{(byte) i});
+        }
+        queue.offer(EMsg.ClientFriendMsg, new byte[]{9});
+
+        queue.start();
+        assertFalse(queue.flush(300));
+        queue.close();
+
+        synchronized (connection) {
+            assertEquals(3, connection.packets.size());
+        }
+    }
+
+    private static class RecordingConnection extends Connection {
+        private final List<byte[]> packets = new ArrayList<>();
+        private int writes;
+
+        @Override
+        public void connect(InetSocketAddress endPoint, int timeout) {
+        }
+
+        @Override
+        public void disconnect() {
+        }
+
+        @Override
+        public void send(byte[] data) {
+            send(Collections.singletonList(data));
+        }
+
+        @Override
+        public synchronized void send(List<byte[]> data) {
+            packets.addAll(data);
+            writes++;
+        }
+
+        @Override
+        public InetAddress getLocalIP() {
+            return InetAddress.getLoopbackAddress();
+        }
+
+        @Override
+        public InetSocketAddress getCurrentEndPoint() {
+            return null;
+        }
+
+        @Override
+        public ProtocolTypes getProtocolTypes() {
+            return ProtocolTypes.TCP;
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package in.dragonbra.javasteam.networking.steam3;
+
+import in.dragonbra.javasteam.TestBase;
+import in.dragonbra.javasteam.util.event.EventHandler;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+
+public class WebSocketConnectionTest extends TestBase {
+
+    @Test
+    public void failedConnectKeepsEndPoint() throws IOException, InterruptedException {
+        InetSocketAddress endPoint;
+
+        // a port that was just free, so the connection is refused
+        try (ServerSocket server = new ServerSocket(0, 50, InetAddress.getLoopbackAddress())) {
+            endPoint = new InetSocketAddress(InetAddress.getLoopbackAddress(), server.getLocalPort());
+        }
+
+        final WebSocketConnection connection = new WebSocketConnection();
+        final AtomicReference<InetSocketAddress> disconnectedFrom = new AtomicReference<>();
+        final CountDownLatch disconnected = new CountDownLatch(1);
+
+        connection.getDisconnected().addEventHandler(new EventHandler<DisconnectedEventArgs>() {
+            @Override
+            public void handleEvent(Object sender, DisconnectedEventArgs e) {
+                disconnectedFrom.set(connection.getCurrentEndPoint());
+                disconnected.countDown();
+            }
+        });
+
+        connection.connect(endPoint, 1000);
+
+        assertTrue(disconnected.await(5, TimeUnit.SECONDS));
+        assertEquals(endPoint, disconnectedFrom.get());
+        assertNull(connection.getLocalIP());
+    }
+
+    @Test
+    public void rejectedReadLoopDisconnects() {
+        InetSocketAddress endPoint = InetSocketAddress.createUnresolved("localhost", 443);
+
+        final WebSocketConnection connection = new WebSocketConnection(new Executor() {
+            @Override
+            public void execute(Runnable command) {
+                throw new RejectedExecutionException();
+            }
+        });
+        final AtomicReference<DisconnectedEventArgs> disconnected = new AtomicReference<>();
+
+        connection.getDisconnected().addEventHandler(new EventHandler<DisconnectedEventArgs>() {
+            @Override
+            public void handleEvent(Object sender, DisconnectedEventArgs e) {
+                disconnected.set(e);
+            }
+        });
+
+        connection.connect(endPoint, 1000);
+
+        assertNotNull(disconnected.get());
+        assertFalse(disconnected.get().isUserInitiated());
+        assertEquals(endPoint, connection.getCurrentEndPoint());
+    }
+}
@@ -1,17 +1,37 @@
 package in.dragonbra.javasteam.steam;
 
+import com.google.protobuf.ByteString;
 import in.dragonbra.javasteam.TestBase;
 import in.dragonbra.javasteam.base.*;
 import in.dragonbra.javasteam.enums.EMsg;
+import in.dragonbra.javasteam.enums.EResult;
 import in.dragonbra.javasteam.enums.EServerType;
 import in.dragonbra.javasteam.generated.MsgHdr;
 import in.dragonbra.javasteam.generated.MsgHdrProtoBuf;
+import in.dragonbra.javasteam.networking.steam3.MessageBatching;
+import in.dragonbra.javasteam.networking.steam3.MultiMessageBatcher;
+import in.dragonbra.javasteam.networking.steam3.ReceivePipeline;
+import in.dragonbra.javasteam.protobufs.steamclient.SteammessagesBase.CMsgMulti;
 import in.dragonbra.javasteam.protobufs.steamclient.SteammessagesClientserver.CMsgClientServerList;
+import in.dragonbra.javasteam.protobufs.steamclient.SteammessagesClientserverLogin.CMsgClientLogonResponse;
+import in.dragonbra.javasteam.steam.discovery.ServerRecord;
+import in.dragonbra.javasteam.steam.steamclient.configuration.ISteamConfigurationBuilder;
+import in.dragonbra.javasteam.steam.steamclient.configuration.SteamConfiguration;
+import in.dragonbra.javasteam.util.compat.Consumer;
 import in.dragonbra.javasteam.util.stream.BinaryWriter;
 import org.junit.Test;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPOutputStream;
 
 import static org.junit.Assert.*;
 
@@ -108,6 +128,156 @@ public class CMClientTest extends TestBase {
         assertEquals(1, client.getServers(EServerType.CM).size());
     }
 
+    @Test
+    public void outgoingMultiRoundTrips() {
+        for (int threshold : new int[]{0, Integer.MAX_VALUE}) {
+            DummyClient client = new DummyClient();
+            MultiMessageBatcher batcher = new MultiMessageBatcher(client, new MessageBatching(0L, 64 * 1024, threshold));
+
+            List<byte[]> messages = new ArrayList<>();
+            for (int i = 0; i < 3; i++) {
+                messages.add(createServerListMsg(1234 + i).serialize());
+            }
+
+            List<byte[]> packets = batcher.pack(messages);
+            assertEquals(1, packets.size());
+
+            IPacketMsg packetMsg = CMClient.getPacketMsg(packets.get(0));
+            assertEquals(EMsg.Multi, packetMsg.getMsgType());
+
+            client.handlePacket(packets.get(0));
+            assertEquals(3, client.getServers(EServerType.CM).size());
+        }
+    }
+
+    @Test
+    public void outgoingMultiRespectsMaxBatchSize() {
+        DummyClient client = new DummyClient();
+
+        List<byte[]> messages = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            messages.add(createServerListMsg(1234 + i).serialize());
+        }
+
+        int maxBatchBytes = 2 * (4 + messages.get(0).length);
+        MultiMessageBatcher batcher = new MultiMessageBatcher(client, new MessageBatching(0L, maxBatchBytes, Integer.MAX_VALUE));
+
+        List<byte[]> packets = batcher.pack(messages);
+        assertEquals(2, packets.size());
+
+        for (byte[] packet : packets) {
+            client.handlePacket(packet);
+        }
+        assertEquals(4, client.getServers(EServerType.CM).size());
+    }
+
+    @Test
+    public void multiWithHugeAnnouncedSizeIsDropped() throws IOException {
+        byte[] serverList = createServerListMsg(1234).serialize();
+
+        ByteArrayOutputStream payload = new ByteArrayOutputStream();
+        try (BinaryWriter writer = new BinaryWriter(new GZIPOutputStream(payload))) {
+            writer.writeInt(serverList.length);
+            writer.write(serverList);
+        }
+
+        ClientMsgProtobuf<CMsgMulti.Builder> multi = new ClientMsgProtobuf<>(CMsgMulti.class, EMsg.Multi);
+        multi.getBody().setSizeUnzipped(Integer.MAX_VALUE);
+        multi.getBody().setMessageBody(ByteString.copyFrom(payload.toByteArray()));
+
+        DummyClient client = new DummyClient();
+        client.handleClientMsg(multi);
+
+        assertEquals(0, client.getServers(EServerType.CM).size());
+    }
+
+    @Test
+    public void pipelineOnOneThreadHandlesMoreThanCapacity() throws InterruptedException {
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+
+        try {
+            DummyClient client = new DummyClient(SteamConfiguration.create(new Consumer<ISteamConfigurationBuilder>() {
+                @Override
+                public void accept(ISteamConfigurationBuilder builder) {
+                    builder.withReceivePipeline(new ReceivePipeline(executor, 4));
+                }
+            }));
+            MultiMessageBatcher batcher = new MultiMessageBatcher(client, new MessageBatching(0L, 64 * 1024, Integer.MAX_VALUE));
+
+            List<byte[]> messages = new ArrayList<>();
+            for (int i = 0; i < 40; i++) {
+                messages.add(createServerListMsg(1234 + i).serialize());
+            }
+
+            // more multis than the decode stage holds, each unpacking into more messages than the dispatch stage holds
+            for (int i = 0; i < 10; i++) {
+                client.receivePacket(batcher.pack(messages).get(0));
+            }
+
+            long deadline = System.currentTimeMillis() + 5000L;
+            while (client.getServers(EServerType.CM).size() < 40 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+
+            assertEquals(40, client.getServers(EServerType.CM).size());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void reconnectWhileLoggedOnEndsTheSession() throws IOException, InterruptedException {
+        final AtomicInteger disconnects = new AtomicInteger();
+
+        DummyClient client = new DummyClient() {
+            @Override
+            protected void onClientDisconnected(boolean userInitiated) {
+                super.onClientDisconnected(userInitiated);
+                disconnects.incrementAndGet();
+            }
+        };
+
+        try (ServerSocket server = new ServerSocket(0, 50, InetAddress.getLoopbackAddress())) {
+            ServerRecord record = ServerRecord.createSocketServer(
+                    new InetSocketAddress(InetAddress.getLoopbackAddress(), server.getLocalPort()));
+
+            client.connect(record);
+
+            ClientMsgProtobuf<CMsgClientLogonResponse.Builder> response = new ClientMsgProtobuf<>(CMsgClientLogonResponse.class, EMsg.ClientLogOnResponse);
+            response.getBody().setEresult(EResult.OK.code());
+            response.getBody().setOutOfGameHeartbeatSeconds(9);
+            response.getProtoHeader().setClientSessionid(1234);
+            response.getProtoHeader().setSteamid(76561197960265728L);
+            client.handleClientMsg(response);
+
+            assertEquals(Integer.valueOf(1234), client.getSessionID());
+
+            client.connect(record);
+
+            assertNull(client.getSessionID());
+            assertNull(client.getSteamID());
+            assertFalse(client.isConnected());
+            assertEquals(1, disconnects.get());
+
+            // the disconnect of the replaced connection arrives late and must not end the new session
+            Thread.sleep(300L);
+            assertEquals(1, disconnects.get());
+
+            client.disconnect();
+        }
+    }
+
+    private static ClientMsgProtobuf<CMsgClientServerList.Builder> createServerListMsg(int port) {
+        ClientMsgProtobuf<CMsgClientServerList.Builder> msg = new ClientMsgProtobuf<CMsgClientServerList.Builder>(CMsgClientServerList.class, EMsg.ClientServerList);
+        CMsgClientServerList.Server server = CMsgClientServerList.Server.newBuilder()
+                .setServerIp(0x7F000001)
+                .setServerType(EServerType.CM.code())
+                .setServerPort(port)
+                .build();
+        msg.getBody().addServers(server);
+        return msg;
+    }
+
     private static byte[] serialize(ISteamSerializableHeader hdr) throws IOException {
         ByteArrayOutputStream baos = new ByteArrayOutputStream();
         hdr.serialize(baos);
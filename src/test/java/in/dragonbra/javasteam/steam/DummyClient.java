@@ -12,6 +12,10 @@ public class DummyClient extends CMClient {
         super(SteamConfiguration.createDefault());
     }
 
+    public DummyClient(SteamConfiguration configuration) {
+        super(configuration);
+    }
+
     public void dummyDisconnect() {
         disconnect();
         onClientDisconnected(true);
@@ -20,4 +24,12 @@ public class DummyClient extends CMClient {
     public void handleClientMsg(IClientMsg clientMsg) {
         onClientMsgReceived(getPacketMsg(clientMsg.serialize()));
     }
+
+    public void handlePacket(byte[] data) {
+        onClientMsgReceived(getPacketMsg(data));
+    }
+
+    public void receivePacket(byte[] data) {
+        onNetMsgReceived(data);
+    }
 }
@@ -0,0 +1,193 @@
+package in.dragonbra.javasteam.steam.handlers.steamapps;
+
+import in.dragonbra.javasteam.TestBase;
+import in.dragonbra.javasteam.TestPackets;
+import in.dragonbra.javasteam.base.ClientMsgProtobuf;
+import in.dragonbra.javasteam.enums.EMsg;
+import in.dragonbra.javasteam.protobufs.steamclient.SteammessagesClientserver.CMsgClientPICSAccessTokenResponse;
+import in.dragonbra.javasteam.protobufs.steamclient.SteammessagesClientserver.CMsgClientPICSChangesSinceResponse;
+import in.dragonbra.javasteam.protobufs.steamclient.SteammessagesClientserver.CMsgClientPICSProductInfoResponse;
+import in.dragonbra.javasteam.steam.CMClient;
+import in.dragonbra.javasteam.steam.handlers.steamapps.callback.PICSChangesCallback;
+import in.dragonbra.javasteam.steam.handlers.steamapps.callback.PICSProductInfoCallback;
+import in.dragonbra.javasteam.steam.handlers.steamapps.callback.PICSTokensCallback;
+import in.dragonbra.javasteam.steam.steamclient.callbackmgr.CallbackMsg;
+import in.dragonbra.javasteam.types.AsyncJobMultiple;
+import in.dragonbra.javasteam.types.JobID;
+import in.dragonbra.javasteam.util.compat.Predicate;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.ArgumentMatchers;
+
+import java.io.File;
+import java.io.FileOutputStream;
+
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class PICSStoreTest extends TestBase {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void storesAndReloads() throws Exception {
+        File file = folder.newFile();
+        PICSProductInfoCallback callback = productInfo();
+
+        try (PICSStore store = new PICSStore(file)) {
+            store.putAll(callback);
+            store.setLastChangeNumber(5);
+        }
+
+        try (PICSStore store = new PICSStore(file)) {
+            assertEquals(5, store.getLastChangeNumber());
+            assertEquals(callback.getApps().keySet(), store.getAppIds());
+            assertEquals(callback.getPackages().keySet(), store.getPackageIds());
+
+            PICSProductInfo app = store.getApp(440);
+            assertEquals(callback.getApps().get(440).getChangeNumber(), app.getChangeNumber());
+            assertArrayEquals(callback.getApps().get(440).getShaHash(), app.getShaHash());
+            assertEquals("440", app.getKeyValues().get("appid").asString());
+
+            PICSProductInfo pkg = store.getPackage(0);
+            assertEquals(callback.getPackages().get(0).getKeyValues().getName(), pkg.getKeyValues().getName());
+
+            assertNull(store.getApp(1));
+        }
+    }
+
+    @Test
+    public void dropsIncompleteRecords() throws Exception {
+        File file = folder.newFile();
+
+        try (PICSStore store = new PICSStore(file)) {
+            store.putAll(productInfo());
+        }
+
+        long length = file.length();
+
+        // a record that was cut off half way
+        try (FileOutputStream fos = new FileOutputStream(file, true)) {
+            fos.write(new byte[]{0, 0, 1, 0, 1, 2, 3});
+        }
+
+        try (PICSStore store = new PICSStore(file)) {
+            assertEquals(length, file.length());
+            assertEquals("440", store.getApp(440).getKeyValues().get("appid").asString());
+
+            store.setLastChangeNumber(7);
+        }
+
+        try (PICSStore store = new PICSStore(file)) {
+            assertEquals(7, store.getLastChangeNumber());
+        }
+    }
+
+    @Test
+    public void compactKeepsLatestRecords() throws Exception {
+        File file = folder.newFile();
+
+        try (PICSStore store = new PICSStore(file)) {
+            for (int i = 0; i < 4; i++) {
+                store.putAll(productInfo());
+                store.setLastChangeNumber(i);
+            }
+
+            long length = file.length();
+            store.compact();
+
+            assertTrue(file.length() < length / 2);
+            assertEquals(3, store.getLastChangeNumber());
+            assertEquals("440", store.getApp(440).getKeyValues().get("appid").asString());
+        }
+
+        try (PICSStore store = new PICSStore(file)) {
+            assertEquals(3, store.getLastChangeNumber());
+            assertEquals("440", store.getApp(440).getKeyValues().get("appid").asString());
+        }
+    }
+
+    @Test
+    public void syncRequestsChangedApps() throws Exception {
+        PICSProductInfoCallback callback = productInfo();
+        int changeNumber = callback.getApps().get(440).getChangeNumber();
+
+        SteamApps steamApps = steamApps(changeNumber, callback);
+
+        try (PICSStore store = new PICSStore(folder.newFile())) {
+            assertTrue(store.sync(steamApps, 1000L));
+            assertEquals(changeNumber, store.getLastChangeNumber());
+            assertTrue(store.getAppIds().contains(440));
+        }
+    }
+
+    @Test
+    public void syncKeepsChangeNumberWhenTokenIsMissing() throws Exception {
+        PICSProductInfoCallback callback = productInfo();
+        int changeNumber = callback.getApps().get(440).getChangeNumber();
+
+        PICSProductInfoCallback missingToken = new PICSProductInfoCallback(JobID.INVALID,
+                CMsgClientPICSProductInfoResponse.newBuilder()
+                        .addApps(CMsgClientPICSProductInfoResponse.AppInfo.newBuilder()
+                                .setAppid(440)
+                                .setChangeNumber(changeNumber + 1)
+                                .setMissingToken(true)));
+
+        try (PICSStore store = new PICSStore(folder.newFile())) {
+            assertTrue(store.sync(steamApps(changeNumber, callback), 1000L));
+
+            assertFalse(store.sync(steamApps(changeNumber + 1, missingToken), 1000L));
+            assertEquals(changeNumber, store.getLastChangeNumber());
+            assertEquals(changeNumber, store.getApp(440).getChangeNumber());
+        }
+    }
+
+    // a handler that reports app 440 as changed at the given change number and answers with the given product info
+    private static SteamApps steamApps(int changeNumber, PICSProductInfoCallback callback) throws Exception {
+        CMsgClientPICSChangesSinceResponse.Builder changes = CMsgClientPICSChangesSinceResponse.newBuilder()
+                .setSinceChangeNumber(0)
+                .setCurrentChangeNumber(changeNumber)
+                .addAppChanges(CMsgClientPICSChangesSinceResponse.AppChange.newBuilder()
+                        .setAppid(440)
+                        .setChangeNumber(changeNumber));
+
+        SteamApps steamApps = mock(SteamApps.class);
+        when(steamApps.picsGetChangesSinceBlocking(anyInt(), anyBoolean(), anyBoolean(), anyLong()))
+                .thenReturn(new PICSChangesCallback(JobID.INVALID, changes));
+        when(steamApps.picsSendAccessTokens(ArgumentMatchers.<Iterable<Integer>>any(),
+                ArgumentMatchers.<Iterable<Integer>>any(), anyLong()))
+                .thenReturn(completedJob(PICSTokensCallback.class,
+                        new PICSTokensCallback(JobID.INVALID, CMsgClientPICSAccessTokenResponse.newBuilder()
+                                .addAppDeniedTokens(440))));
+        when(steamApps.picsSendProductInfo(ArgumentMatchers.<Iterable<PICSRequest>>any(),
+                ArgumentMatchers.<Iterable<PICSRequest>>any(), anyLong()))
+                .thenReturn(completedJob(PICSProductInfoCallback.class, callback));
+
+        return steamApps;
+    }
+
+    private static <T extends CallbackMsg> AsyncJobMultiple<T> completedJob(Class<T> type, T callback) {
+        AsyncJobMultiple<T> job = new AsyncJobMultiple<>(new JobID(1L), type, new Predicate<T>() {
+            @Override
+            public boolean test(T callback) {
+                return true;
+            }
+        }, 1000L);
+        job.addResult(callback);
+        return job;
+    }
+
+    private static PICSProductInfoCallback productInfo() {
+        ClientMsgProtobuf<CMsgClientPICSProductInfoResponse.Builder> response = new ClientMsgProtobuf<>(
+                CMsgClientPICSProductInfoResponse.class,
+                CMClient.getPacketMsg(TestPackets.getPacket(EMsg.ClientPICSProductInfoResponse, true)));
+
+        return new PICSProductInfoCallback(JobID.INVALID, response.getBody());
+    }
+}
@@ -1,11 +1,13 @@
 package in.dragonbra.javasteam.steam.handlers.steamapps;
 
 import in.dragonbra.javasteam.base.ClientMsgProtobuf;
+import in.dragonbra.javasteam.base.IClientMsg;
 import in.dragonbra.javasteam.base.IPacketMsg;
 import in.dragonbra.javasteam.enums.EMsg;
 import in.dragonbra.javasteam.enums.EResult;
 import in.dragonbra.javasteam.protobufs.steamclient.SteammessagesClientserver.CMsgClientGetAppOwnershipTicket;
 import in.dragonbra.javasteam.protobufs.steamclient.SteammessagesClientserver.CMsgClientPICSAccessTokenRequest;
+import in.dragonbra.javasteam.protobufs.steamclient.SteammessagesClientserver.CMsgClientPICSAccessTokenResponse;
 import in.dragonbra.javasteam.protobufs.steamclient.SteammessagesClientserver.CMsgClientPICSChangesSinceRequest;
 import in.dragonbra.javasteam.protobufs.steamclient.SteammessagesClientserver.CMsgClientPICSProductInfoRequest;
 import in.dragonbra.javasteam.protobufs.steamclient.SteammessagesClientserver2.CMsgClientCheckAppBetaPassword;
@@ -14,15 +16,34 @@ import in.dragonbra.javasteam.protobufs.steamclient.SteammessagesClientserver2.C
 import in.dragonbra.javasteam.protobufs.steamclient.SteammessagesClientserver2.CMsgClientRequestFreeLicense;
 import in.dragonbra.javasteam.steam.handlers.HandlerTestBase;
 import in.dragonbra.javasteam.steam.handlers.steamapps.callback.*;
+import in.dragonbra.javasteam.steam.steamclient.callbackmgr.CallbackMsg;
+import in.dragonbra.javasteam.steam.steamclient.configuration.ISteamConfigurationBuilder;
+import in.dragonbra.javasteam.steam.steamclient.configuration.SteamConfiguration;
+import in.dragonbra.javasteam.types.AsyncJobMultiple;
 import in.dragonbra.javasteam.types.JobID;
+import in.dragonbra.javasteam.types.KeyValue;
+import in.dragonbra.javasteam.util.compat.Consumer;
+import in.dragonbra.javasteam.util.compat.Predicate;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.ArgumentMatchers;
 import org.mockito.junit.MockitoJUnitRunner;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
 import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 /**
  * @author lngtr
@@ -240,6 +261,63 @@ public class SteamAppsTest extends HandlerTestBase<SteamApps> {
         assertEquals(0, callback.getAppTokens().size());
     }
 
+    @Test
+    public void picsTokensCallbackSeparatesAppsAndPackages() {
+        CMsgClientPICSAccessTokenResponse.Builder response = CMsgClientPICSAccessTokenResponse.newBuilder()
+                .addAppAccessTokens(CMsgClientPICSAccessTokenResponse.AppToken.newBuilder()
+                        .setAppid(440)
+                        .setAccessToken(1234L))
+                .addPackageAccessTokens(CMsgClientPICSAccessTokenResponse.PackageToken.newBuilder()
+                        .setPackageid(420)
+                        .setAccessToken(5678L));
+
+        PICSTokensCallback callback = new PICSTokensCallback(JobID.INVALID, response);
+
+        assertEquals(Collections.singletonMap(440, 1234L), callback.getAppTokens());
+        assertEquals(Collections.singletonMap(420, 5678L), callback.getPackageTokens());
+    }
+
+    @Test
+    public void picsGetProductInfoBulk() throws InterruptedException {
+        PICSTokensCallback tokens = new PICSTokensCallback(JobID.INVALID, CMsgClientPICSAccessTokenResponse.newBuilder()
+                .addAppAccessTokens(CMsgClientPICSAccessTokenResponse.AppToken.newBuilder()
+                        .setAppid(440)
+                        .setAccessToken(1234L)));
+        AsyncJobMultiple<PICSTokensCallback> tokensJob = completedJob(PICSTokensCallback.class, tokens);
+
+        handler.handleMsg(getPacket(EMsg.ClientPICSProductInfoResponse, true));
+        PICSProductInfoCallback productInfo = verifyCallback();
+        AsyncJobMultiple<PICSProductInfoCallback> productInfoJob = completedJob(PICSProductInfoCallback.class, productInfo);
+
+        when(steamClient.sendMultiple(any(IClientMsg.class), eq(PICSTokensCallback.class),
+                ArgumentMatchers.<Predicate<PICSTokensCallback>>any(), anyLong())).thenReturn(tokensJob);
+        when(steamClient.sendMultiple(any(IClientMsg.class), eq(PICSProductInfoCallback.class),
+                ArgumentMatchers.<Predicate<PICSProductInfoCallback>>any(), anyLong())).thenReturn(productInfoJob);
+
+        final List<PICSProductInfoCallback> received = new ArrayList<>();
+        PICSBulkFetcher.Result result = handler.picsGetProductInfoBulk(Collections.singletonList(440),
+                Collections.<Integer>emptyList(), new Consumer<PICSProductInfoCallback>() {
+                    @Override
+                    public void accept(PICSProductInfoCallback callback) {
+                        received.add(callback);
+                    }
+                });
+
+        assertTrue(result.isComplete());
+        assertTrue(result.getUnknownApps().isEmpty());
+        assertEquals(Collections.singletonList(productInfo), received);
+
+        ArgumentCaptor<IClientMsg> request = ArgumentCaptor.forClass(IClientMsg.class);
+        verify(steamClient).sendMultiple(request.capture(), eq(PICSProductInfoCallback.class),
+                ArgumentMatchers.<Predicate<PICSProductInfoCallback>>any(), anyLong());
+
+        //noinspection unchecked
+        ClientMsgProtobuf<CMsgClientPICSProductInfoRequest.Builder> productInfoRequest =
+                (ClientMsgProtobuf<CMsgClientPICSProductInfoRequest.Builder>) request.getValue();
+        assertEquals(440, productInfoRequest.getBody().getApps(0).getAppid());
+        assertEquals(1234L, productInfoRequest.getBody().getApps(0).getAccessToken());
+    }
+
     @Test
     public void handlePICSChangesSinceResponse() {
         IPacketMsg msg = getPacket(EMsg.ClientPICSChangesSinceResponse, true);
@@ -270,6 +348,53 @@ public class SteamAppsTest extends HandlerTestBase<SteamApps> {
         assertNotNull(callback.getPackages().get(0).getKeyValues());
     }
 
+    @Test
+    public void picsProductInfoParsesOnce() {
+        IPacketMsg msg = getPacket(EMsg.ClientPICSProductInfoResponse, true);
+
+        handler.handleMsg(msg);
+
+        PICSProductInfoCallback callback = verifyCallback();
+
+        PICSProductInfo app = callback.getApps().get(440);
+        KeyValue appKeyValues = app.getKeyValues();
+
+        assertSame(appKeyValues, app.getKeyValues());
+        assertEquals("440", appKeyValues.get("appid").asString());
+
+        PICSProductInfo pkg = callback.getPackages().get(0);
+        assertSame(pkg.getKeyValues(), pkg.getKeyValues());
+        assertEquals(String.valueOf(pkg.getId()), pkg.getKeyValues().getName());
+    }
+
+    @Test
+    public void picsProductInfoParsedOnExecutor() {
+        final AtomicInteger tasks = new AtomicInteger();
+        final Executor executor = new Executor() {
+            @Override
+            public void execute(Runnable command) {
+                tasks.incrementAndGet();
+                command.run();
+            }
+        };
+
+        when(steamClient.getConfiguration()).thenReturn(SteamConfiguration.create(new Consumer<ISteamConfigurationBuilder>() {
+            @Override
+            public void accept(ISteamConfigurationBuilder builder) {
+                builder.withPICSParseExecutor(executor);
+            }
+        }));
+
+        IPacketMsg msg = getPacket(EMsg.ClientPICSProductInfoResponse, true);
+
+        handler.handleMsg(msg);
+
+        PICSProductInfoCallback callback = verifyCallback();
+
+        assertTrue(tasks.get() > 0);
+        assertEquals("440", callback.getApps().get(440).getKeyValues().get("appid").asString());
+    }
+
     @Test
     public void handleGuestPassList() {
         IPacketMsg msg = getPacket(EMsg.ClientUpdateGuestPassesList, true);
@@ -309,4 +434,15 @@ public class SteamAppsTest extends HandlerTestBase<SteamApps> {
         assertEquals(1, callback.getBetaPasswords().size());
         assertArrayEquals(new byte[] {(byte) 0xAA, (byte) 0xAA}, callback.getBetaPasswords().get("testname"));
     }
-}
\ No newline at end of file
+
+    private static <T extends CallbackMsg> AsyncJobMultiple<T> completedJob(Class<T> type, T callback) {
+        AsyncJobMultiple<T> job = new AsyncJobMultiple<>(new JobID(1L), type, new Predicate<T>() {
+            @Override
+            public boolean test(T callback) {
+                return true;
+            }
+        }, 1000L);
+        job.addResult(callback);
+        return job;
+    }
+}
@@ -0,0 +1,138 @@
+package in.dragonbra.javasteam.steam.steamclient;
+
+import in.dragonbra.javasteam.TestBase;
+import in.dragonbra.javasteam.steam.steamclient.callbackmgr.CallbackMsg;
+import in.dragonbra.javasteam.types.AsyncJobFailedException;
+import in.dragonbra.javasteam.types.AsyncJobMultiple;
+import in.dragonbra.javasteam.types.AsyncJobSingle;
+import in.dragonbra.javasteam.types.JobID;
+import in.dragonbra.javasteam.util.compat.Predicate;
+import org.junit.Test;
+
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.Assert.*;
+
+public class AsyncJobManagerTest extends TestBase {
+
+    private final AsyncJobManager manager = new AsyncJobManager();
+
+    @Test
+    public void singleJobCompletes() throws Exception {
+        JobID jobID = new JobID(123L);
+        AsyncJobSingle<ResponseCallback> job = new AsyncJobSingle<>(jobID, ResponseCallback.class, 5000L);
+        manager.startJob(job);
+
+        ResponseCallback response = new ResponseCallback(new JobID(123L), true);
+        manager.tryCompleteJob(response.getJobID(), response);
+
+        assertSame(response, job.await());
+        assertEquals(0, manager.getPendingJobs());
+    }
+
+    @Test
+    public void otherCallbackTypesAreIgnored() {
+        JobID jobID = new JobID(123L);
+        manager.startJob(new AsyncJobSingle<>(jobID, ResponseCallback.class, 5000L));
+
+        manager.tryCompleteJob(jobID, new CallbackMsg());
+
+        assertEquals(1, manager.getPendingJobs());
+    }
+
+    @Test(expected = TimeoutException.class)
+    public void singleJobTimesOut() throws Exception {
+        AsyncJobSingle<ResponseCallback> job = new AsyncJobSingle<>(new JobID(123L), ResponseCallback.class, 10L);
+        manager.startJob(job);
+
+        job.await();
+    }
+
+    @Test
+    public void failedJobThrows() throws Exception {
+        JobID jobID = new JobID(123L);
+        AsyncJobSingle<ResponseCallback> job = new AsyncJobSingle<>(jobID, ResponseCallback.class, 5000L);
+        manager.startJob(job);
+
+        manager.failJob(new JobID(123L));
+
+        try {
+            job.await();
+            fail();
+        } catch (AsyncJobFailedException e) {
+            assertTrue(e.isDueToRemoteFailure());
+        }
+    }
+
+    @Test
+    public void disconnectFailsAllJobs() throws Exception {
+        AsyncJobSingle<ResponseCallback> job = new AsyncJobSingle<>(new JobID(1L), ResponseCallback.class, 5000L);
+        manager.startJob(job);
+        manager.startJob(new AsyncJobSingle<>(new JobID(2L), ResponseCallback.class, 5000L));
+
+        manager.setJobsFailed(false);
+
+        assertEquals(0, manager.getPendingJobs());
+
+        try {
+            job.await();
+            fail();
+        } catch (AsyncJobFailedException e) {
+            assertFalse(e.isDueToRemoteFailure());
+        }
+    }
+
+    @Test
+    public void multipleJobCollectsUntilFinished() throws Exception {
+        JobID jobID = new JobID(123L);
+        AsyncJobMultiple<ResponseCallback> job = new AsyncJobMultiple<>(jobID, ResponseCallback.class,
+                new Predicate<ResponseCallback>() {
+                    @Override
+                    public boolean test(ResponseCallback callback) {
+                        return callback.last;
+                    }
+                }, 5000L);
+        manager.startJob(job);
+
+        manager.tryCompleteJob(jobID, new ResponseCallback(jobID, false));
+        assertEquals(1, manager.getPendingJobs());
+
+        manager.tryCompleteJob(jobID, new ResponseCallback(jobID, true));
+        assertEquals(0, manager.getPendingJobs());
+
+        AsyncJobMultiple.ResultSet<ResponseCallback> results = job.await();
+
+        assertTrue(results.isComplete());
+        assertFalse(results.isFailed());
+        assertEquals(2, results.getResults().size());
+    }
+
+    @Test
+    public void multipleJobReturnsPartialResultsOnTimeout() throws Exception {
+        JobID jobID = new JobID(123L);
+        AsyncJobMultiple<ResponseCallback> job = new AsyncJobMultiple<>(jobID, ResponseCallback.class,
+                new Predicate<ResponseCallback>() {
+                    @Override
+                    public boolean test(ResponseCallback callback) {
+                        return callback.last;
+                    }
+                }, 50L);
+        manager.startJob(job);
+
+        manager.tryCompleteJob(jobID, new ResponseCallback(jobID, false));
+
+        AsyncJobMultiple.ResultSet<ResponseCallback> results = job.await();
+
+        assertFalse(results.isComplete());
+        assertEquals(1, results.getResults().size());
+    }
+
+    private static class ResponseCallback extends CallbackMsg {
+        private final boolean last;
+
+        ResponseCallback(JobID jobID, boolean last) {
+            setJobID(jobID);
+            this.last = last;
+        }
+    }
+}
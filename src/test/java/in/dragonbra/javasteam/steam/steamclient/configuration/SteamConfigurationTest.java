@@ -1,35 +1,63 @@
 package in.dragonbra.javasteam.steam.steamclient.configuration;
 
 import in.dragonbra.javasteam.enums.EClientPersonaStateFlag;
+import in.dragonbra.javasteam.enums.EMsg;
 import in.dragonbra.javasteam.enums.EUniverse;
+import in.dragonbra.javasteam.networking.steam3.MessageBatching;
 import in.dragonbra.javasteam.networking.steam3.ProtocolTypes;
+import in.dragonbra.javasteam.networking.steam3.RateLimit;
+import in.dragonbra.javasteam.networking.steam3.ReceivePipeline;
 import in.dragonbra.javasteam.steam.discovery.IServerListProvider;
 import in.dragonbra.javasteam.steam.discovery.NullServerListProvider;
 import in.dragonbra.javasteam.steam.discovery.ServerRecord;
+import in.dragonbra.javasteam.steam.steamclient.machineid.LocalMachineIDProvider;
+import in.dragonbra.javasteam.steam.steamclient.machineid.SyntheticMachineIDProvider;
 import in.dragonbra.javasteam.util.compat.Consumer;
 import okhttp3.OkHttpClient;
 import org.junit.Test;
 
 import java.util.EnumSet;
 import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
 
 import static org.junit.Assert.*;
 
 public class SteamConfigurationTest {
 
+    private static final Executor CALLBACK_EXECUTOR = Executors.newSingleThreadExecutor();
+
+    private static final Executor IO_EXECUTOR = Executors.newCachedThreadPool();
+
+    private static final ScheduledExecutorService SCHEDULER = Executors.newSingleThreadScheduledExecutor();
+
+    private static final ThreadFactory THREAD_FACTORY = Executors.defaultThreadFactory();
+
     private final SteamConfiguration defaultConfig = SteamConfiguration.createDefault();
 
     private final SteamConfiguration modifiedConfig = SteamConfiguration.create(new Consumer<ISteamConfigurationBuilder>() {
         @Override
         public void accept(ISteamConfigurationBuilder builder) {
             builder.withDirectoryFetch(false)
+                    .withCallbackExecutor(CALLBACK_EXECUTOR)
                     .withCellID(123)
                     .withConnectionTimeout(60000L)
                     .withDefaultPersonaStateFlags(EClientPersonaStateFlag.SourceID)
                     .withHttpClient(new OkHttpClient.Builder().connectTimeout(1, TimeUnit.MINUTES).build())
+                    .withIOExecutor(IO_EXECUTOR)
+                    .withMachineIDProvider(new SyntheticMachineIDProvider("secret"))
+                    .withMessageBatching(new MessageBatching(5L, 16 * 1024, 1024))
+                    .withOutboundQueueCapacity(16)
+                    .withOutboundRateLimit(EMsg.ClientChatMsg, new RateLimit(2.0, 4))
+                    .withPICSParseExecutor(IO_EXECUTOR)
                     .withProtocolTypes(EnumSet.of(ProtocolTypes.WEB_SOCKET, ProtocolTypes.UDP))
+                    .withReceivePipeline(new ReceivePipeline(Executors.newSingleThreadExecutor(), 32))
+                    .withScheduler(SCHEDULER)
                     .withServerListProvider(new CustomServerListProvider())
+                    .withThreadFactory(THREAD_FACTORY)
                     .withUniverse(EUniverse.Internal)
                     .withWebAPIBaseAddress("http://foo.bar.com/api/")
                     .withWebAPIKey("T0PS3kR1t");
@@ -68,6 +96,37 @@ public class SteamConfigurationTest {
         assertNotNull(defaultConfig.getHttpClient());
     }
 
+    @Test
+    public void defaultOutboundQueue() {
+        assertEquals(1024, defaultConfig.getOutboundQueueCapacity());
+        assertTrue(defaultConfig.getOutboundRateLimits().isEmpty());
+        assertNull(defaultConfig.getMessageBatching());
+    }
+
+    @Test
+    public void reusedBuilderKeepsBuiltRateLimits() {
+        SteamConfigurationBuilder builder = new SteamConfigurationBuilder();
+        builder.withOutboundRateLimit(EMsg.ClientChatMsg, new RateLimit(2.0, 4));
+
+        SteamConfiguration config = builder.build();
+
+        builder.withOutboundRateLimit(EMsg.ClientChatMsg, null);
+        builder.withOutboundRateLimit(EMsg.ClientChangeStatus, new RateLimit(1.0, 1));
+
+        assertEquals(1, config.getOutboundRateLimits().size());
+        assertEquals(2.0, config.getOutboundRateLimits().get(EMsg.ClientChatMsg).getMessagesPerSecond(), 0.0);
+    }
+
+    @Test
+    public void localMachineIDProvider() {
+        assertSame(LocalMachineIDProvider.getDefault(), defaultConfig.getMachineIDProvider());
+    }
+
+    @Test
+    public void noReceivePipeline() {
+        assertNull(defaultConfig.getReceivePipeline());
+    }
+
     @Test
     public void serverListProviderIsNothingFancy() {
         assertTrue(defaultConfig.getServerListProvider() instanceof NullServerListProvider);
@@ -98,6 +157,15 @@ public class SteamConfigurationTest {
         assertNull(defaultConfig.getWebAPIKey());
     }
 
+    @Test
+    public void defaultExecutionModel() {
+        assertNull(defaultConfig.getCallbackExecutor());
+        assertNull(defaultConfig.getIOExecutor());
+        assertNull(defaultConfig.getPICSParseExecutor());
+        assertNull(defaultConfig.getScheduler());
+        assertNull(defaultConfig.getThreadFactory());
+    }
+
     @Test
     public void allowDirectoryFetchConfigured() {
         assertFalse(modifiedConfig.isAllowDirectoryFetch());
@@ -127,6 +195,34 @@ public class SteamConfigurationTest {
         assertEquals(60000L, modifiedConfig.getHttpClient().connectTimeoutMillis());
     }
 
+    @Test
+    public void outboundQueueConfigured() {
+        assertEquals(16, modifiedConfig.getOutboundQueueCapacity());
+        assertEquals(1, modifiedConfig.getOutboundRateLimits().size());
+        assertEquals(2.0, modifiedConfig.getOutboundRateLimits().get(EMsg.ClientChatMsg).getMessagesPerSecond(), 0.0);
+        assertEquals(5L, modifiedConfig.getMessageBatching().getLingerMillis());
+    }
+
+    @Test
+    public void executionModelConfigured() {
+        assertSame(CALLBACK_EXECUTOR, modifiedConfig.getCallbackExecutor());
+        assertSame(IO_EXECUTOR, modifiedConfig.getIOExecutor());
+        assertSame(IO_EXECUTOR, modifiedConfig.getPICSParseExecutor());
+        assertSame(SCHEDULER, modifiedConfig.getScheduler());
+        assertSame(THREAD_FACTORY, modifiedConfig.getThreadFactory());
+    }
+
+    @Test
+    public void machineIDProviderConfigured() {
+        assertTrue(modifiedConfig.getMachineIDProvider() instanceof SyntheticMachineIDProvider);
+    }
+
+    @Test
+    public void receivePipelineConfigured() {
+        assertNotNull(modifiedConfig.getReceivePipeline());
+        assertEquals(32, modifiedConfig.getReceivePipeline().getQueueCapacity());
+    }
+
     @Test
     public void serverListProviderConfigured() {
         assertTrue(modifiedConfig.getServerListProvider() instanceof CustomServerListProvider);
@@ -0,0 +1,174 @@
+package in.dragonbra.javasteam.steam.steamclient.logon;
+
+import in.dragonbra.javasteam.TestBase;
+import in.dragonbra.javasteam.enums.EResult;
+import in.dragonbra.javasteam.networking.steam3.ProtocolTypes;
+import in.dragonbra.javasteam.steam.discovery.ServerQuality;
+import in.dragonbra.javasteam.steam.discovery.ServerRecord;
+import in.dragonbra.javasteam.steam.discovery.SmartCMServerList;
+import in.dragonbra.javasteam.steam.steamclient.configuration.ISteamConfigurationBuilder;
+import in.dragonbra.javasteam.steam.steamclient.configuration.SteamConfiguration;
+import in.dragonbra.javasteam.util.compat.Consumer;
+import org.junit.Test;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+
+public class LogonSchedulerTest extends TestBase {
+
+    @Test
+    public void rateHalvesOnRateLimitAndRecoversOnSuccess() {
+        LogonScheduler scheduler = new LogonScheduler(10.0, 5, 1.0, 20.0);
+
+        scheduler.onLogOnResult(EResult.RateLimitExceeded);
+        assertEquals(5.0, scheduler.getRate(), 0.001);
+
+        scheduler.onLogOnResult(EResult.TryAnotherCM);
+        scheduler.onLogOnResult(EResult.ServiceUnavailable);
+        scheduler.onLogOnResult(EResult.RateLimitExceeded);
+        assertEquals(1.0, scheduler.getRate(), 0.001);
+
+        scheduler.onLogOnResult(EResult.OK);
+        assertTrue(scheduler.getRate() > 1.0);
+
+        for (int i = 0; i < 1000; i++) {
+            scheduler.onLogOnResult(EResult.OK);
+        }
+        assertEquals(20.0, scheduler.getRate(), 0.001);
+    }
+
+    @Test
+    public void rejectionsOfEarlierLogonsLowerRateOnce() throws InterruptedException {
+        LogonScheduler scheduler = new LogonScheduler(1000.0, 100, 1.0, 1000.0);
+
+        try {
+            runLogons(scheduler, 50);
+
+            // every logon released at the old rate is rejected, that is one decrease
+            for (int i = 0; i < 50; i++) {
+                scheduler.onLogOnResult(EResult.RateLimitExceeded);
+            }
+            assertEquals(500.0, scheduler.getRate(), 0.001);
+
+            // a logon released after the decrease is rejected as well, the lower rate is still too high
+            runLogons(scheduler, 1);
+            scheduler.onLogOnResult(EResult.TryAnotherCM);
+            assertEquals(250.0, scheduler.getRate(), 0.001);
+        } finally {
+            scheduler.shutdown();
+        }
+    }
+
+    @Test
+    public void shutdownStopsDispatcher() throws InterruptedException {
+        final AtomicReference<Thread> dispatcher = new AtomicReference<>();
+
+        LogonScheduler scheduler = new LogonScheduler(1000.0, 10, 1.0, 1000.0, new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, "LogonScheduler");
+                dispatcher.set(thread);
+                return thread;
+            }
+        });
+
+        runLogons(scheduler, 1);
+        scheduler.shutdown();
+
+        dispatcher.get().join(5000);
+        assertFalse(dispatcher.get().isAlive());
+
+        try {
+            scheduler.enqueue(new Runnable() {
+                @Override
+                public void run() {
+                }
+            });
+            fail();
+        } catch (IllegalStateException expected) {
+        }
+
+        assertEquals(0, scheduler.getQueueSize());
+    }
+
+    @Test
+    public void unrelatedResultsDoNotChangeRate() {
+        LogonScheduler scheduler = new LogonScheduler(10.0, 5);
+
+        scheduler.onLogOnResult(EResult.InvalidPassword);
+        scheduler.onLogOnResult(EResult.AccountLogonDenied);
+
+        assertEquals(10.0, scheduler.getRate(), 0.001);
+    }
+
+    @Test
+    public void runsQueuedLogons() throws InterruptedException {
+        LogonScheduler scheduler = new LogonScheduler(1000.0, 10);
+        final CountDownLatch latch = new CountDownLatch(20);
+
+        for (int i = 0; i < 20; i++) {
+            scheduler.enqueue(new Runnable() {
+                @Override
+                public void run() {
+                    latch.countDown();
+                }
+            });
+        }
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void spreadsConnectionsOverHealthyServers() {
+        SteamConfiguration configuration = SteamConfiguration.create(new Consumer<ISteamConfigurationBuilder>() {
+            @Override
+            public void accept(ISteamConfigurationBuilder b) {
+                b.withDirectoryFetch(false);
+            }
+        });
+        SmartCMServerList serverList = configuration.getServerList();
+
+        List<ServerRecord> records = new ArrayList<>();
+        for (int port = 27017; port < 27021; port++) {
+            records.add(ServerRecord.createSocketServer(new InetSocketAddress(InetAddress.getLoopbackAddress(), port)));
+        }
+        serverList.replaceList(records);
+        serverList.tryMark(records.get(0).getEndpoint(), ProtocolTypes.TCP, ServerQuality.BAD);
+
+        LogonScheduler scheduler = new LogonScheduler(10.0, 5);
+
+        Set<InetSocketAddress> picked = new HashSet<>();
+        for (int i = 0; i < 6; i++) {
+            picked.add(scheduler.nextServer(serverList, EnumSet.of(ProtocolTypes.TCP)).getEndpoint());
+        }
+
+        assertEquals(3, picked.size());
+        assertFalse(picked.contains(records.get(0).getEndpoint()));
+    }
+
+    private static void runLogons(LogonScheduler scheduler, int count) throws InterruptedException {
+        final CountDownLatch latch = new CountDownLatch(count);
+
+        for (int i = 0; i < count; i++) {
+            scheduler.enqueue(new Runnable() {
+                @Override
+                public void run() {
+                    latch.countDown();
+                }
+            });
+        }
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+    }
+}
@@ -0,0 +1,115 @@
+package in.dragonbra.javasteam.steam.steamclient.machineid;
+
+import in.dragonbra.javasteam.TestBase;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class LocalMachineIDProviderTest extends TestBase {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void computesOnce() {
+        FixedSourceProvider provider = new FixedSourceProvider(null, "machine");
+
+        byte[] first = provider.getMachineID("user");
+        byte[] second = provider.getMachineID("other");
+
+        assertEquals(1, provider.reads);
+        assertArrayEquals(first, second);
+        assertTrue(first.length > 0);
+    }
+
+    @Test
+    public void sourcesAreHashed() {
+        byte[] id = new FixedSourceProvider(null, "machine").getMachineID(null);
+
+        assertFalse(new String(id).contains("machine"));
+    }
+
+    @Test
+    public void idIsStored() throws IOException {
+        File file = new File(folder.newFolder(), "machineid");
+
+        byte[] stored = new FixedSourceProvider(file, "machine").getMachineID(null);
+
+        FixedSourceProvider provider = new FixedSourceProvider(file, "changed");
+
+        assertArrayEquals(stored, provider.getMachineID(null));
+        assertEquals(0, provider.reads);
+    }
+
+    @Test
+    public void randomIdWithoutSources() {
+        byte[] id = new FixedSourceProvider(null, null).getMachineID(null);
+
+        assertTrue(id.length > 0);
+    }
+
+    @Test
+    public void prefetchesOnGivenExecutor() {
+        FixedSourceProvider provider = new FixedSourceProvider(null, "machine");
+        final AtomicInteger executed = new AtomicInteger();
+
+        Executor executor = new Executor() {
+            @Override
+            public void execute(Runnable command) {
+                executed.incrementAndGet();
+                command.run();
+            }
+        };
+
+        provider.prefetch(executor);
+        provider.prefetch(executor);
+
+        assertEquals(1, executed.get());
+        assertEquals(1, provider.reads);
+        assertTrue(provider.getMachineID(null).length > 0);
+    }
+
+    @Test
+    public void prefetchRetriesAfterRejection() {
+        FixedSourceProvider provider = new FixedSourceProvider(null, "machine");
+
+        try {
+            provider.prefetch(new Executor() {
+                @Override
+                public void execute(Runnable command) {
+                    throw new RejectedExecutionException();
+                }
+            });
+            fail();
+        } catch (RejectedExecutionException ignored) {
+        }
+
+        assertTrue(provider.getMachineID(null).length > 0);
+        assertEquals(1, provider.reads);
+    }
+
+    private static class FixedSourceProvider extends LocalMachineIDProvider {
+        private final String source;
+
+        private volatile int reads;
+
+        FixedSourceProvider(File file, String source) {
+            super(file);
+            this.source = source;
+        }
+
+        @Override
+        protected String readSources() {
+            reads++;
+            return source;
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package in.dragonbra.javasteam.steam.steamclient.machineid;
+
+import in.dragonbra.javasteam.TestBase;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class SyntheticMachineIDProviderTest extends TestBase {
+
+    @Test
+    public void sameAccountSameID() {
+        assertArrayEquals(
+                new SyntheticMachineIDProvider("secret").getMachineID("User"),
+                new SyntheticMachineIDProvider("secret").getMachineID("user")
+        );
+    }
+
+    @Test
+    public void accountsGetTheirOwnID() {
+        SyntheticMachineIDProvider provider = new SyntheticMachineIDProvider("secret");
+
+        assertFalse(Arrays.equals(provider.getMachineID("first"), provider.getMachineID("second")));
+    }
+
+    @Test
+    public void secretChangesID() {
+        assertFalse(Arrays.equals(
+                new SyntheticMachineIDProvider("secret").getMachineID("user"),
+                new SyntheticMachineIDProvider("other").getMachineID("user")
+        ));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void nullSecret() {
+        new SyntheticMachineIDProvider(null);
+    }
+}
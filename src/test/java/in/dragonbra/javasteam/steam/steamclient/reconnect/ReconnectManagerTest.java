@@ -0,0 +1,245 @@
+package in.dragonbra.javasteam.steam.steamclient.reconnect;
+
+import in.dragonbra.javasteam.TestBase;
+import in.dragonbra.javasteam.base.ClientMsgProtobuf;
+import in.dragonbra.javasteam.base.IPacketMsg;
+import in.dragonbra.javasteam.enums.EMsg;
+import in.dragonbra.javasteam.enums.EResult;
+import in.dragonbra.javasteam.protobufs.steamclient.SteammessagesClientserver.CMsgClientGamesPlayed;
+import in.dragonbra.javasteam.protobufs.steamclient.SteammessagesClientserverFriends.CMsgClientChangeStatus;
+import in.dragonbra.javasteam.protobufs.steamclient.SteammessagesClientserverLogin.CMsgClientLogonResponse;
+import in.dragonbra.javasteam.protobufs.steamclient.SteammessagesClientserverLogin.CMsgClientNewLoginKey;
+import in.dragonbra.javasteam.protobufs.steamclient.SteammessagesClientserverLogin.CMsgClientNewLoginKeyAccepted;
+import in.dragonbra.javasteam.steam.CMClient;
+import in.dragonbra.javasteam.steam.handlers.steamuser.LogOnDetails;
+import in.dragonbra.javasteam.steam.handlers.steamuser.SteamUser;
+import in.dragonbra.javasteam.steam.steamclient.SteamClient;
+import in.dragonbra.javasteam.steam.steamclient.configuration.ISteamConfigurationBuilder;
+import in.dragonbra.javasteam.steam.steamclient.configuration.SteamConfiguration;
+import in.dragonbra.javasteam.util.ExponentialBackoff;
+import in.dragonbra.javasteam.util.compat.Consumer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.InOrder;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+public class ReconnectManagerTest extends TestBase {
+
+    private SteamClient client;
+
+    private SteamUser steamUser;
+
+    private ReconnectManager manager;
+
+    private LogOnDetails details;
+
+    @Before
+    public void setUp() {
+        client = mock(SteamClient.class);
+        steamUser = mock(SteamUser.class);
+
+        when(client.getConfiguration()).thenReturn(SteamConfiguration.createDefault());
+        when(client.getHandler(SteamUser.class)).thenReturn(steamUser);
+
+        manager = new ReconnectManager(client);
+        manager.setBackoff(new ExponentialBackoff(1L, 1L));
+
+        details = new LogOnDetails();
+        details.setUsername("username");
+        details.setPassword("password");
+    }
+
+    @After
+    public void tearDown() {
+        manager.disable();
+    }
+
+    @Test
+    public void reconnectsAfterUnexpectedDisconnect() {
+        manager.enable(details);
+
+        manager.onDisconnected(false);
+
+        assertTrue(manager.isReconnecting());
+        verify(client, timeout(1000)).connect();
+
+        manager.onConnected();
+        verify(steamUser).logOn(details);
+    }
+
+    @Test
+    public void doesNotReconnectAfterUserDisconnect() {
+        manager.enable(details);
+
+        manager.onDisconnected(true);
+
+        assertFalse(manager.isReconnecting());
+        verify(client).closeStandbyConnection();
+        verify(client, after(100).never()).connect();
+
+        manager.onConnected();
+        verify(steamUser, never()).logOn(any(LogOnDetails.class));
+    }
+
+    @Test
+    public void logsOnWithAcceptedLoginKey() {
+        manager.enable(details);
+
+        ClientMsgProtobuf<CMsgClientNewLoginKey.Builder> loginKey = new ClientMsgProtobuf<>(CMsgClientNewLoginKey.class, EMsg.ClientNewLoginKey);
+        loginKey.getBody().setUniqueId(7).setLoginKey("loginkey");
+        manager.onMessageReceived(toPacket(loginKey));
+
+        ClientMsgProtobuf<CMsgClientNewLoginKeyAccepted.Builder> accepted = new ClientMsgProtobuf<>(CMsgClientNewLoginKeyAccepted.class, EMsg.ClientNewLoginKeyAccepted);
+        accepted.getBody().setUniqueId(7);
+        manager.onMessageSent(accepted);
+
+        manager.onDisconnected(false);
+        manager.onConnected();
+
+        verify(steamUser).logOn(details);
+        assertEquals("loginkey", details.getLoginKey());
+        assertTrue(details.isShouldRememberPassword());
+    }
+
+    @Test
+    public void ignoresLoginKeyThatWasNotAccepted() {
+        manager.enable(details);
+
+        ClientMsgProtobuf<CMsgClientNewLoginKey.Builder> loginKey = new ClientMsgProtobuf<>(CMsgClientNewLoginKey.class, EMsg.ClientNewLoginKey);
+        loginKey.getBody().setUniqueId(7).setLoginKey("loginkey");
+        manager.onMessageReceived(toPacket(loginKey));
+
+        ClientMsgProtobuf<CMsgClientNewLoginKeyAccepted.Builder> accepted = new ClientMsgProtobuf<>(CMsgClientNewLoginKeyAccepted.class, EMsg.ClientNewLoginKeyAccepted);
+        accepted.getBody().setUniqueId(8);
+        manager.onMessageSent(accepted);
+
+        assertNotEquals("loginkey", details.getLoginKey());
+    }
+
+    @Test
+    public void replaysSessionStateAfterLogOn() {
+        manager.enable(details);
+
+        ClientMsgProtobuf<CMsgClientChangeStatus.Builder> status = new ClientMsgProtobuf<>(CMsgClientChangeStatus.class, EMsg.ClientChangeStatus);
+        status.getBody().setPersonaState(1);
+        manager.onMessageSent(status);
+
+        ClientMsgProtobuf<CMsgClientGamesPlayed.Builder> oldGames = new ClientMsgProtobuf<>(CMsgClientGamesPlayed.class, EMsg.ClientGamesPlayed);
+        manager.onMessageSent(oldGames);
+
+        ClientMsgProtobuf<CMsgClientGamesPlayed.Builder> games = new ClientMsgProtobuf<>(CMsgClientGamesPlayed.class, EMsg.ClientGamesPlayedWithDataBlob);
+        games.getBody().addGamesPlayed(CMsgClientGamesPlayed.GamePlayed.newBuilder().setGameId(440));
+        manager.onMessageSent(games);
+
+        manager.onDisconnected(false);
+        manager.onConnected();
+        manager.onMessageReceived(toPacket(logOnResponse(EResult.OK)));
+
+        InOrder inOrder = inOrder(client);
+        inOrder.verify(client).send(status);
+        inOrder.verify(client).send(games);
+        verify(client, never()).send(oldGames);
+        assertFalse(manager.isReconnecting());
+    }
+
+    @Test
+    public void doesNotReplaySessionStateAfterOwnLogOn() {
+        manager.enable(details);
+
+        ClientMsgProtobuf<CMsgClientChangeStatus.Builder> status = new ClientMsgProtobuf<>(CMsgClientChangeStatus.class, EMsg.ClientChangeStatus);
+        status.getBody().setPersonaState(1);
+        manager.onMessageSent(status);
+
+        manager.onMessageReceived(toPacket(logOnResponse(EResult.OK)));
+
+        verify(client, never()).send(status);
+    }
+
+    @Test
+    public void promotesStandbyConnection() {
+        when(client.promoteStandbyConnection()).thenReturn(true);
+
+        manager.enable(details);
+        manager.setUseStandbyConnection(true);
+        manager.onMessageReceived(toPacket(logOnResponse(EResult.OK)));
+
+        verify(client, timeout(1000)).prepareStandbyConnection();
+
+        manager.onDisconnected(false);
+
+        verify(client).promoteStandbyConnection();
+        verify(client, after(100).never()).connect();
+    }
+
+    @Test
+    public void connectsWhenStandbyConnectionIsNotReady() {
+        when(client.promoteStandbyConnection()).thenReturn(false);
+
+        manager.enable(details);
+        manager.setUseStandbyConnection(true);
+
+        manager.onDisconnected(false);
+
+        verify(client).promoteStandbyConnection();
+        verify(client, timeout(1000)).connect();
+    }
+
+    @Test
+    public void slowConnectDoesNotHoldUpSharedScheduler() throws Exception {
+        final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+        final CountDownLatch release = new CountDownLatch(1);
+
+        try {
+            when(client.getConfiguration()).thenReturn(SteamConfiguration.create(new Consumer<ISteamConfigurationBuilder>() {
+                @Override
+                public void accept(ISteamConfigurationBuilder builder) {
+                    builder.withScheduler(scheduler);
+                }
+            }));
+            doAnswer(new Answer<Void>() {
+                @Override
+                public Void answer(InvocationOnMock invocation) throws Throwable {
+                    release.await(5, TimeUnit.SECONDS);
+                    return null;
+                }
+            }).when(client).connect();
+
+            manager.enable(details);
+            manager.onDisconnected(false);
+
+            verify(client, timeout(1000)).connect();
+
+            // the connect is still blocked, other tasks on the scheduler run anyway
+            assertTrue(scheduler.submit(new Callable<Boolean>() {
+                @Override
+                public Boolean call() {
+                    return true;
+                }
+            }).get(1, TimeUnit.SECONDS));
+        } finally {
+            release.countDown();
+            scheduler.shutdownNow();
+        }
+    }
+
+    private static ClientMsgProtobuf<CMsgClientLogonResponse.Builder> logOnResponse(EResult result) {
+        ClientMsgProtobuf<CMsgClientLogonResponse.Builder> response = new ClientMsgProtobuf<>(CMsgClientLogonResponse.class, EMsg.ClientLogOnResponse);
+        response.getBody().setEresult(result.code());
+        return response;
+    }
+
+    private static IPacketMsg toPacket(ClientMsgProtobuf<?> msg) {
+        return CMClient.getPacketMsg(msg.serialize());
+    }
+}
@@ -0,0 +1,111 @@
+package in.dragonbra.javasteam.types;
+
+import in.dragonbra.javasteam.TestBase;
+import in.dragonbra.javasteam.util.stream.MemoryStream;
+import org.apache.commons.codec.DecoderException;
+import org.apache.commons.codec.binary.Hex;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+
+import static org.junit.Assert.*;
+
+public class KeyValueExtractorTest extends TestBase {
+
+    private static final String APP_INFO = "" +
+            "\"appinfo\"\n" +
+            "{\n" +
+            "    \"appid\" \"440\"\n" +
+            "    \"common\"\n" +
+            "    {\n" +
+            "        \"name\" \"Team Fortress 2\"\n" +
+            "        \"type\" \"Game\"\n" +
+            "    }\n" +
+            "    \"depots\"\n" +
+            "    {\n" +
+            "        \"441\" { \"name\" \"content\" }\n" +
+            "        \"branches\"\n" +
+            "        {\n" +
+            "            \"public\" { \"buildid\" \"1234\" }\n" +
+            "        }\n" +
+            "    }\n" +
+            "    \"ufs\" { \"quota\" \"100\" }\n" +
+            "    \"extended\" \"this is never reached\n" +
+            "}\n";
+
+    private static InputStream stream(String text) {
+        return new ByteArrayInputStream(text.getBytes(Charset.forName("UTF-8")));
+    }
+
+    @Test
+    public void extractsValuesAndObjects() throws IOException {
+        KeyValueExtractor extractor = new KeyValueExtractor("common/NAME", "depots/branches/public/buildid", "depots/441");
+
+        // the document is cut off at the end, the parser must have stopped before
+        assertFalse(KeyValue.visitText(stream(APP_INFO), extractor));
+        assertTrue(extractor.isComplete());
+
+        assertEquals("Team Fortress 2", extractor.get("common/NAME").asString());
+        assertEquals(1234, extractor.get("depots/branches/public/buildid").asInteger());
+
+        KeyValue depot = extractor.get("depots/441");
+        assertEquals("441", depot.getName());
+        assertEquals("content", depot.get("name").asString());
+    }
+
+    @Test
+    public void missingPathsAreInvalid() throws IOException {
+        KeyValueExtractor extractor = new KeyValueExtractor("common/missing", "appid");
+
+        KeyValue.visitText(stream("\"appinfo\" { \"appid\" \"440\" \"common\" { \"name\" \"x\" } }"), extractor);
+
+        assertFalse(extractor.isComplete());
+        assertEquals("440", extractor.get("appid").asString());
+        assertSame(KeyValue.INVALID, extractor.get("common/missing"));
+        assertSame(KeyValue.INVALID, extractor.get("not requested"));
+    }
+
+    @Test
+    public void extractsFromBinary() throws IOException, DecoderException {
+        String hex = "00546573744f626a65637400016b6579310076616c75653100016b6579320076616c756532000808";
+
+        KeyValueExtractor extractor = new KeyValueExtractor("key2");
+
+        assertTrue(KeyValue.visitBinary(new MemoryStream(Hex.decodeHex(hex)), extractor));
+        assertEquals("value2", extractor.get("key2").asString());
+    }
+
+    @Test
+    public void treeBuilderMatchesVisitorEvents() throws IOException {
+        final StringBuilder events = new StringBuilder();
+
+        KeyValue.visitText(stream("\"root\" { \"a\" \"1\" \"b\" { \"c\" \"2\" } }"), new IKeyValueVisitor() {
+            @Override
+            public boolean startObject(String name) {
+                events.append('{').append(name);
+                return true;
+            }
+
+            @Override
+            public boolean value(String name, String value) {
+                events.append(' ').append(name).append('=').append(value);
+                return true;
+            }
+
+            @Override
+            public boolean endObject() {
+                events.append('}');
+                return true;
+            }
+        });
+
+        assertEquals("{root a=1{b c=2}}", events.toString());
+
+        KeyValue kv = KeyValue.loadFromString("\"root\" { \"a\" \"1\" \"b\" { \"c\" \"2\" } }");
+        assertNotNull(kv);
+        assertEquals("2", kv.get("b").get("c").asString());
+    }
+}
@@ -11,9 +11,12 @@ import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.TemporaryFolder;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.EOFException;
 import java.io.File;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.util.EnumSet;
@@ -82,6 +85,147 @@ public class KeyValueTest extends TestBase {
         assertEquals("subkey", kv.get("subkey").getName());
     }
 
+    @Test
+    public void keyValueIndexMatchesLinearLookup() {
+        KeyValue kv = new KeyValue();
+
+        for (int i = 0; i < KeyValue.INDEX_THRESHOLD * 4; i++) {
+            kv.getChildren().add(new KeyValue("Key" + i, String.valueOf(i)));
+        }
+
+        // duplicates resolve to the first child
+        kv.getChildren().add(new KeyValue("KEY0", "duplicate"));
+
+        assertEquals("0", kv.get("key0").getValue());
+        assertEquals("63", kv.get("KEY63").getValue());
+        assertSame(KeyValue.INVALID, kv.get("key64"));
+
+        kv.getChildren().remove(0);
+
+        assertEquals("duplicate", kv.get("key0").getValue());
+
+        kv.getChildren().set(0, new KeyValue("replaced", "r"));
+
+        assertSame(KeyValue.INVALID, kv.get("key1"));
+        assertEquals("r", kv.get("REPLACED").getValue());
+
+        kv.get("key2").setName("renamed");
+
+        assertSame(KeyValue.INVALID, kv.get("key2"));
+        assertEquals("2", kv.get("Renamed").getValue());
+    }
+
+    @Test
+    public void keyValueIndexFollowsSet() {
+        KeyValue kv = new KeyValue();
+
+        for (int i = 0; i < KeyValue.INDEX_THRESHOLD * 2; i++) {
+            kv.set("key" + i, new KeyValue(null, String.valueOf(i)));
+        }
+
+        kv.getChildren().add(new KeyValue("KEY5", "duplicate"));
+
+        kv.set("new", new KeyValue(null, "new"));
+        assertEquals("new", kv.get("NEW").getValue());
+        assertEquals("new", kv.getChildren().get(kv.getChildren().size() - 1).getValue());
+
+        kv.set("Key5", new KeyValue(null, "replaced"));
+        assertEquals("replaced", kv.get("key5").getValue());
+        assertEquals(KeyValue.INDEX_THRESHOLD * 2 + 1, kv.getChildren().size());
+
+        // moving a child from one indexed node to another
+        KeyValue other = new KeyValue();
+        for (int i = 0; i < KeyValue.INDEX_THRESHOLD; i++) {
+            other.set("other" + i, new KeyValue());
+        }
+
+        KeyValue moved = kv.get("key6");
+        other.set("moved", moved);
+
+        assertSame(moved, other.get("moved"));
+        assertSame(KeyValue.INVALID, kv.get("key6"));
+    }
+
+    @Test
+    public void keyValueIndexFollowsRenameOfSharedChild() {
+        KeyValue first = new KeyValue();
+        KeyValue second = new KeyValue();
+        KeyValue shared = new KeyValue("shared", "value");
+
+        for (int i = 0; i < KeyValue.INDEX_THRESHOLD; i++) {
+            first.getChildren().add(new KeyValue("first" + i));
+            second.getChildren().add(new KeyValue("second" + i));
+        }
+
+        first.getChildren().add(shared);
+        second.getChildren().add(shared);
+
+        assertSame(shared, first.get("shared"));
+        assertSame(shared, second.get("shared"));
+
+        shared.setName("renamed");
+
+        assertSame(KeyValue.INVALID, first.get("shared"));
+        assertSame(KeyValue.INVALID, second.get("shared"));
+        assertSame(shared, first.get("renamed"));
+        assertSame(shared, second.get("renamed"));
+
+        second.get("second3").setName("renamed3");
+
+        assertSame(shared, second.get("RENAMED"));
+        assertEquals("renamed3", second.get("renamed3").getName());
+    }
+
+    @Test
+    public void keyValueFreezeKeepsContentsAndSharesKeys() {
+        String text = "\"root\" { \"common\" { \"oslist\" \"windows\" \"empty\" { } } }";
+
+        KeyValue first = KeyValue.loadFromString(text);
+        KeyValue second = KeyValue.loadFromString(text);
+        assertNotNull(first);
+        assertNotNull(second);
+
+        assertNotSame(first.get("common").get("oslist").getName(), second.get("common").get("oslist").getName());
+
+        assertSame(first, first.freeze());
+        second.freeze();
+
+        assertTrue(first.isFrozen());
+        assertTrue(first.get("common").get("oslist").isFrozen());
+        assertEquals("windows", first.get("common").get("oslist").asString());
+        assertTrue(first.get("common").get("empty").getChildren().isEmpty());
+
+        assertSame(first.get("common").get("oslist").getName(), second.get("common").get("oslist").getName());
+        assertSame(first.get("common").get("oslist").getValue(), second.get("common").get("oslist").getValue());
+    }
+
+    @Test
+    public void keyValueFrozenTreeIsReadOnly() {
+        KeyValue kv = new KeyValue("root");
+        kv.set("key", new KeyValue(null, "value"));
+        kv.freeze();
+
+        try {
+            kv.get("key").setValue("other");
+            fail();
+        } catch (UnsupportedOperationException ignored) {
+        }
+
+        try {
+            kv.set("key2", new KeyValue());
+            fail();
+        } catch (UnsupportedOperationException ignored) {
+        }
+
+        try {
+            kv.getChildren().clear();
+            fail();
+        } catch (UnsupportedOperationException ignored) {
+        }
+
+        assertEquals("value", kv.get("key").getValue());
+    }
+
     @Test
     public void keyValueLoadsFromString() {
         KeyValue kv = KeyValue.loadFromString("" +
@@ -129,6 +273,27 @@ public class KeyValueTest extends TestBase {
         assertEquals("value", kv.get("NAme").getValue());
     }
 
+    @Test
+    public void keyValuesReadsUtf8Text() throws IOException {
+        String text = "\uFEFF\"root\"\n" +
+                "{\n" +
+                "    // a comment\n" +
+                "    \"name\" \"Caf\u00e9 \u65e5\u672c \\\"quoted\\\" \\t\"\n" +
+                "    unquoted \u00fcml\u00e4ut\n" +
+                "}\n";
+
+        KeyValue kv = new KeyValue();
+        assertTrue(kv.readAsText(new ByteArrayInputStream(text.getBytes("UTF-8"))));
+
+        assertEquals("root", kv.getName());
+        assertEquals("Caf\u00e9 \u65e5\u672c \"quoted\" \t", kv.get("name").getValue());
+        assertEquals("\u00fcml\u00e4ut", kv.get("unquoted").getValue());
+
+        KeyValue fromString = KeyValue.loadFromString(text);
+        assertNotNull(fromString);
+        assertEquals(kv.get("name").getValue(), fromString.get("name").getValue());
+    }
+
     @Test
     public void keyValuesHandlesBool() {
         KeyValue kv = KeyValue.loadFromString("" +
@@ -331,6 +496,41 @@ public class KeyValueTest extends TestBase {
         }
     }
 
+    @Test
+    public void keyValuesReadsTypedBinaryFromBuffer() throws IOException, DecoderException {
+        // "root" { "i" int32 -2, "l" uint64 2^32, "f" float32 1.5 }, followed by a byte that is not part of it
+        String hex = "00726f6f7400026900feffffff076c0000000000010000000366000000c03f0808ff";
+        ByteBuffer buffer = ByteBuffer.wrap(Hex.decodeHex(hex));
+
+        KeyValue kv = new KeyValue();
+        assertTrue(kv.tryReadAsBinary(buffer));
+        assertEquals(buffer.limit() - 1, buffer.position());
+
+        assertEquals("root", kv.getName());
+        assertEquals(-2, kv.get("i").asInteger());
+        assertEquals(-2, kv.get("i").asByte());
+        assertTrue(kv.get("i").asBoolean());
+        assertEquals("-2", kv.get("i").asString());
+
+        assertEquals(4294967296L, kv.get("l").asLong());
+        assertEquals(7, kv.get("l").asInteger(7));
+        assertFalse(kv.get("l").asBoolean(true));
+        assertEquals("4294967296", kv.get("l").getValue());
+
+        assertEquals(1.5f, kv.get("f").asFloat(), 0.0f);
+        assertEquals(3, kv.get("f").asInteger(3));
+        assertEquals("1.5", kv.get("f").asString());
+
+        kv.get("f").setValue("12");
+        assertEquals(12, kv.get("f").asInteger());
+    }
+
+    @Test(expected = EOFException.class)
+    public void keyValuesFailsToReadTruncatedBinaryBuffer() throws IOException, DecoderException {
+        ByteBuffer buffer = ByteBuffer.wrap(Hex.decodeHex("00726f6f7400026900feff"));
+        new KeyValue().tryReadAsBinary(buffer);
+    }
+
     @Test
     public void keyValuesReadsBinaryWithMultipleChildren() throws IOException, DecoderException {
         String hex = "00546573744f626a65637400016b6579310076616c75653100016b6579320076616c756532000808";
@@ -390,6 +590,48 @@ public class KeyValueTest extends TestBase {
         assertEquals(expected, text);
     }
 
+    @Test
+    public void keyValuesWritesUtf8AcrossBufferBoundaries() throws IOException {
+        KeyValue kv = new KeyValue("root");
+        StringBuilder expected = new StringBuilder("\"root\"\n{\n");
+
+        for (int i = 0; i < 2000; i++) {
+            // two, three and four byte sequences, an unpaired surrogate and characters that are escaped
+            String value = "Caf\u00e9 \u65e5\u672c \ud83d\ude00 \ud800 \\ \t" + i;
+            kv.getChildren().add(new KeyValue("key" + i, value));
+            expected.append("\t\"key").append(i).append("\"\t\t\"")
+                    .append(value.replace("\\", "\\\\").replace("\t", "\\t")).append("\"\n");
+        }
+
+        expected.append("}\n");
+
+        ByteArrayOutputStream text = new ByteArrayOutputStream();
+        kv.saveToStream(text, false);
+        assertArrayEquals(expected.toString().getBytes("UTF-8"), text.toByteArray());
+
+        ByteArrayOutputStream binary = new ByteArrayOutputStream();
+        kv.saveToStream(binary, true);
+
+        KeyValue read = new KeyValue();
+        assertTrue(read.tryReadAsBinary(new ByteArrayInputStream(binary.toByteArray())));
+        assertEquals(2000, read.getChildren().size());
+        assertEquals(new String(kv.get("key1999").asString().getBytes("UTF-8"), "UTF-8"), read.get("key1999").asString());
+    }
+
+    @Test
+    public void keyValuesStreamsBinaryToText() throws IOException, DecoderException {
+        String hex = "00546573744f626a65637400016b6579310076616c75653100016b6579320076616c756532000808";
+
+        ByteArrayOutputStream text = new ByteArrayOutputStream();
+        KVTextWriter writer = new KVTextWriter(text);
+
+        assertTrue(KeyValue.visitBinary(new MemoryStream(Hex.decodeHex(hex)), writer));
+        writer.finish();
+
+        String expected = "\"TestObject\"\n{\n\t\"key1\"\t\t\"value1\"\n\t\"key2\"\t\t\"value2\"\n}\n";
+        assertEquals(expected, new String(text.toByteArray(), "UTF-8"));
+    }
+
     @Test
     public void keyValuesUnsignedByteConversion() {
         byte expectedValue = 37;
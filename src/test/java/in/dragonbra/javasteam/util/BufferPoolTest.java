@@ -0,0 +1,85 @@
+package in.dragonbra.javasteam.util;
+
+import in.dragonbra.javasteam.TestBase;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.Assert.*;
+
+public class BufferPoolTest extends TestBase {
+
+    @Test
+    public void roundsUpToSizeClass() {
+        BufferPool pool = new BufferPool(256, 4096, 4);
+
+        assertEquals(256, pool.acquire(1).length);
+        assertEquals(256, pool.acquire(256).length);
+        assertEquals(512, pool.acquire(257).length);
+        assertEquals(4096, pool.acquire(4000).length);
+    }
+
+    @Test
+    public void reusesReleasedBuffers() {
+        BufferPool pool = new BufferPool(256, 4096, 4);
+
+        byte[] first = pool.acquire(1000);
+        pool.release(first);
+        byte[] second = pool.acquire(700);
+
+        assertSame(first, second);
+        assertEquals(1, pool.getAllocations());
+    }
+
+    @Test
+    public void oversizedBuffersAreNotPooled() {
+        BufferPool pool = new BufferPool(256, 4096, 4);
+
+        byte[] large = pool.acquire(5000);
+        assertEquals(5000, large.length);
+
+        pool.release(large);
+
+        assertNotSame(large, pool.acquire(5000));
+    }
+
+    @Test
+    public void foreignBuffersAreIgnored() {
+        BufferPool pool = new BufferPool(256, 4096, 4);
+
+        byte[] foreign = new byte[300];
+        pool.release(foreign);
+
+        assertNotSame(foreign, pool.acquire(300));
+    }
+
+    @Test
+    public void keepsAtMostMaxPerClass() {
+        BufferPool pool = new BufferPool(256, 4096, 1);
+
+        byte[] first = pool.acquire(256);
+        byte[] second = pool.acquire(256);
+        pool.release(first);
+        pool.release(second);
+
+        pool.acquire(256);
+        long allocations = pool.getAllocations();
+        pool.acquire(256);
+
+        assertEquals(allocations + 1, pool.getAllocations());
+    }
+
+    @Test
+    public void directBuffers() {
+        BufferPool pool = new BufferPool(256, 4096, 4);
+
+        ByteBuffer buffer = pool.acquireDirect(300);
+        assertTrue(buffer.isDirect());
+        assertEquals(512, buffer.capacity());
+        assertEquals(300, buffer.limit());
+
+        pool.releaseDirect(buffer);
+
+        assertSame(buffer, pool.acquireDirect(400));
+    }
+}
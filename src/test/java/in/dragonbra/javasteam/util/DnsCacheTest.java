@@ -0,0 +1,68 @@
+package in.dragonbra.javasteam.util;
+
+import in.dragonbra.javasteam.TestBase;
+import org.junit.Test;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+
+import static org.junit.Assert.*;
+
+public class DnsCacheTest extends TestBase {
+
+    @Test
+    public void cachesLookups() throws UnknownHostException {
+        CountingDnsCache cache = new CountingDnsCache(60000L);
+
+        InetAddress[] first = cache.resolve("cm.example.com");
+        InetAddress[] second = cache.resolve("CM.example.com");
+
+        assertEquals(1, cache.lookups);
+        assertArrayEquals(first, second);
+    }
+
+    @Test
+    public void expiredEntriesAreResolvedAgain() throws UnknownHostException {
+        CountingDnsCache cache = new CountingDnsCache(0L);
+
+        cache.resolve("cm.example.com");
+        cache.resolve("cm.example.com");
+
+        assertEquals(2, cache.lookups);
+    }
+
+    @Test
+    public void invalidateDropsEntry() throws UnknownHostException {
+        CountingDnsCache cache = new CountingDnsCache(60000L);
+
+        cache.resolve("cm.example.com");
+        cache.invalidate("cm.example.com");
+        cache.resolve("cm.example.com");
+
+        assertEquals(2, cache.lookups);
+    }
+
+    @Test
+    public void returnedArrayIsACopy() throws UnknownHostException {
+        CountingDnsCache cache = new CountingDnsCache(60000L);
+
+        InetAddress[] first = cache.resolve("cm.example.com");
+        first[0] = null;
+
+        assertNotNull(cache.resolve("cm.example.com")[0]);
+    }
+
+    private static class CountingDnsCache extends DnsCache {
+        private int lookups;
+
+        CountingDnsCache(long ttl) {
+            super(ttl);
+        }
+
+        @Override
+        protected InetAddress[] lookup(String host) throws UnknownHostException {
+            lookups++;
+            return new InetAddress[]{InetAddress.getByAddress(host, new byte[]{127, 0, 0, (byte) lookups})};
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package in.dragonbra.javasteam.util;
+
+import in.dragonbra.javasteam.TestBase;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class ExponentialBackoffTest extends TestBase {
+
+    @Test
+    public void delaysGrowAndStayWithinBounds() {
+        ExponentialBackoff backoff = new ExponentialBackoff(1000L, 8000L, 2.0, new Random(42));
+
+        long[] caps = new long[]{1000L, 2000L, 4000L, 8000L, 8000L, 8000L};
+        for (long cap : caps) {
+            long delay = backoff.nextDelay();
+            assertTrue(delay >= cap / 2);
+            assertTrue(delay <= cap);
+        }
+
+        assertEquals(caps.length, backoff.getAttempts());
+    }
+
+    @Test
+    public void resetStartsOver() {
+        ExponentialBackoff backoff = new ExponentialBackoff(1000L, 60000L, 2.0, new Random(42));
+
+        for (int i = 0; i < 10; i++) {
+            backoff.nextDelay();
+        }
+
+        backoff.reset();
+
+        assertEquals(0, backoff.getAttempts());
+        assertTrue(backoff.nextDelay() <= 1000L);
+    }
+
+    @Test
+    public void hugeAttemptCountDoesNotOverflow() {
+        ExponentialBackoff backoff = new ExponentialBackoff(1000L, 60000L, 2.0, new Random(42));
+
+        for (int i = 0; i < 2000; i++) {
+            long delay = backoff.nextDelay();
+            assertTrue(delay >= 0);
+            assertTrue(delay <= 60000L);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void maxDelayBelowBaseDelayThrows() {
+        new ExponentialBackoff(1000L, 500L);
+    }
+}
@@ -0,0 +1,261 @@
+package in.dragonbra.javasteam.util;
+
+import in.dragonbra.javasteam.TestBase;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.*;
+
+public class SerialExecutorTest extends TestBase {
+
+    private final ExecutorService pool = Executors.newFixedThreadPool(4);
+
+    @After
+    public void tearDown() {
+        pool.shutdownNow();
+    }
+
+    @Test
+    public void runsTasksInOrder() throws InterruptedException {
+        SerialExecutor executor = new SerialExecutor(pool, 1000);
+        final List<Integer> results = Collections.synchronizedList(new ArrayList<Integer>());
+        final CountDownLatch done = new CountDownLatch(500);
+
+        for (int i = 0; i < 500; i++) {
+            final int value = i;
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    results.add(value);
+                    done.countDown();
+                }
+            });
+        }
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+
+        for (int i = 0; i < 500; i++) {
+            assertEquals(i, (int) results.get(i));
+        }
+    }
+
+    @Test
+    public void neverRunsTasksConcurrently() throws InterruptedException {
+        SerialExecutor executor = new SerialExecutor(pool, 1000);
+        final AtomicBoolean running = new AtomicBoolean();
+        final AtomicBoolean overlapped = new AtomicBoolean();
+        final CountDownLatch done = new CountDownLatch(200);
+
+        for (int i = 0; i < 200; i++) {
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    if (!running.compareAndSet(false, true)) {
+                        overlapped.set(true);
+                    }
+                    Thread.yield();
+                    running.set(false);
+                    done.countDown();
+                }
+            });
+        }
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertFalse(overlapped.get());
+    }
+
+    @Test
+    public void blocksWhenFull() throws InterruptedException {
+        final SerialExecutor executor = new SerialExecutor(pool, 1);
+        final CountDownLatch release = new CountDownLatch(1);
+
+        // the first task occupies the executor, the second one fills the queue
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+
+        while (executor.size() > 0) {
+            Thread.sleep(1);
+        }
+
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+            }
+        });
+
+        final CountDownLatch submitted = new CountDownLatch(1);
+        Thread producer = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                executor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                    }
+                });
+                submitted.countDown();
+            }
+        });
+        producer.start();
+
+        assertFalse(submitted.await(100, TimeUnit.MILLISECONDS));
+
+        release.countDown();
+
+        assertTrue(submitted.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void higherPriorityRunsFirst() throws InterruptedException {
+        SerialExecutor executor = new SerialExecutor(pool, 100, 2);
+        final CountDownLatch release = new CountDownLatch(1);
+        final List<String> results = Collections.synchronizedList(new ArrayList<String>());
+        final CountDownLatch done = new CountDownLatch(4);
+
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+
+        while (executor.size() > 0) {
+            Thread.sleep(1);
+        }
+
+        executor.execute(new Recorder("bulk1", results, done), 1);
+        executor.execute(new Recorder("bulk2", results, done), 1);
+        executor.execute(new Recorder("control1", results, done), 0);
+        executor.execute(new Recorder("control2", results, done), 0);
+
+        release.countDown();
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(Arrays.asList("control1", "control2", "bulk1", "bulk2"), results);
+    }
+
+    @Test
+    public void taskExceptionDoesNotStopExecutor() throws InterruptedException {
+        SerialExecutor executor = new SerialExecutor(pool, 10);
+        final CountDownLatch done = new CountDownLatch(1);
+
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                throw new IllegalStateException("test");
+            }
+        });
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                done.countDown();
+            }
+        });
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void taskErrorDoesNotStopExecutor() throws InterruptedException {
+        SerialExecutor executor = new SerialExecutor(pool, 10);
+        final CountDownLatch done = new CountDownLatch(2);
+
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                throw new AssertionError("test");
+            }
+        });
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                done.countDown();
+            }
+        });
+
+        while (done.getCount() > 1) {
+            Thread.sleep(1);
+        }
+
+        // the executor picks up tasks added after the error too
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                done.countDown();
+            }
+        });
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void chainedExecutorsShareOneThread() throws InterruptedException {
+        ExecutorService single = Executors.newSingleThreadExecutor();
+
+        try {
+            final SerialExecutor first = new SerialExecutor(single, 2);
+            final SerialExecutor second = new SerialExecutor(single, 2);
+            final CountDownLatch done = new CountDownLatch(100);
+
+            // every task of the first executor hands more tasks to the second one than it holds
+            for (int i = 0; i < 10; i++) {
+                first.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        for (int j = 0; j < 10; j++) {
+                            second.execute(new Runnable() {
+                                @Override
+                                public void run() {
+                                    done.countDown();
+                                }
+                            });
+                        }
+                    }
+                });
+            }
+
+            assertTrue(done.await(5, TimeUnit.SECONDS));
+        } finally {
+            single.shutdownNow();
+        }
+    }
+
+    private static class Recorder implements Runnable {
+        private final String name;
+        private final List<String> results;
+        private final CountDownLatch done;
+
+        Recorder(String name, List<String> results, CountDownLatch done) {
+            this.name = name;
+            this.results = results;
+            this.done = done;
+        }
+
+        @Override
+        public void run() {
+            results.add(name);
+            done.countDown();
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package in.dragonbra.javasteam.util;
+
+import in.dragonbra.javasteam.TestBase;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class TokenBucketTest extends TestBase {
+
+    @Test
+    public void startsFullAndAllowsBurst() {
+        TokenBucket bucket = new TokenBucket(0.1, 5);
+
+        for (int i = 0; i < 5; i++) {
+            assertTrue(bucket.tryAcquire());
+        }
+
+        assertFalse(bucket.tryAcquire());
+        assertTrue(bucket.getWaitTime() > 0);
+    }
+
+    @Test
+    public void drainEmptiesBucket() {
+        TokenBucket bucket = new TokenBucket(0.1, 3);
+
+        bucket.drain();
+
+        assertFalse(bucket.tryAcquire());
+    }
+
+    @Test
+    public void acquireWaitsForRefill() throws InterruptedException {
+        TokenBucket bucket = new TokenBucket(100.0, 1);
+
+        assertTrue(bucket.tryAcquire());
+
+        long start = System.nanoTime();
+        bucket.acquire();
+        long elapsedMillis = (System.nanoTime() - start) / 1000000L;
+
+        assertTrue(elapsedMillis >= 5);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void nonPositiveRateThrows() {
+        new TokenBucket(0, 1);
+    }
+}
@@ -4,6 +4,8 @@ import in.dragonbra.javasteam.TestBase;
 import org.junit.Test;
 
 import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
 
 public class CryptoHelperTest extends TestBase {
 
@@ -79,4 +81,35 @@ public class CryptoHelperTest extends TestBase {
 
         assertArrayEquals(expected, result);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void jdkProvidersMatchSecurityProvider() throws CryptoException {
+        byte[] key = CryptoHelper.generateRandomBlock(32);
+        byte[] data = "jdk provider round trip".getBytes();
+
+        boolean previous = CryptoHelper.isUseJdkProviders();
+        String previousProvider = CryptoHelper.getProvider();
+
+        try {
+            CryptoHelper.setUseJdkProviders(false);
+            byte[] encrypted = CryptoHelper.symmetricEncrypt(data, key);
+
+            CryptoHelper.setUseJdkProviders(true);
+            assertNull(CryptoHelper.getProvider());
+            assertArrayEquals(data, CryptoHelper.symmetricDecrypt(encrypted, key));
+            assertArrayEquals(data, CryptoHelper.symmetricDecrypt(CryptoHelper.symmetricEncrypt(data, key), key));
+        } finally {
+            // the provider choice is global, leave it as the other tests expect it
+            CryptoHelper.setUseJdkProviders(previous);
+        }
+
+        assertEquals(previous, CryptoHelper.isUseJdkProviders());
+        assertEquals(previousProvider, CryptoHelper.getProvider());
+    }
+
+    @Test
+    @SuppressWarnings("deprecation")
+    public void secProvNamesSecurityProvider() {
+        assertEquals("BC", CryptoHelper.SEC_PROV);
+    }
+}
@@ -0,0 +1,39 @@
+package in.dragonbra.javasteam.util.crypto;
+
+import in.dragonbra.javasteam.TestBase;
+import in.dragonbra.javasteam.enums.EUniverse;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class RSACryptoTest extends TestBase {
+
+    @Test
+    public void instancesAreCachedPerUniverse() {
+        RSACrypto publicRsa = RSACrypto.getInstance(EUniverse.Public);
+
+        assertNotNull(publicRsa);
+        assertSame(publicRsa, RSACrypto.getInstance(EUniverse.Public));
+        assertNotSame(publicRsa, RSACrypto.getInstance(EUniverse.Beta));
+    }
+
+    @Test
+    public void noInstanceForInvalidUniverse() {
+        assertNull(RSACrypto.getInstance(EUniverse.Invalid));
+    }
+
+    @Test
+    public void encryptsWithKeySize() {
+        byte[] encrypted = RSACrypto.getInstance(EUniverse.Public).encrypt(CryptoHelper.generateRandomBlock(32));
+
+        assertNotNull(encrypted);
+        assertEquals(128, encrypted.length);
+    }
+
+    @Test
+    public void invalidKeyDoesNotEncrypt() {
+        RSACrypto rsa = new RSACrypto(new byte[]{0x30, 0x03, 0x02, 0x01, 0x00});
+
+        assertNull(rsa.encrypt(CryptoHelper.generateRandomBlock(32)));
+    }
+}
@@ -0,0 +1,107 @@
+package in.dragonbra.javasteam.util.event;
+
+import in.dragonbra.javasteam.TestBase;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class EventTest extends TestBase {
+
+    @Test
+    public void handlersAreCalledOnce() {
+        Event<EventArgs> event = new Event<>();
+        final AtomicInteger calls = new AtomicInteger();
+
+        EventHandler<EventArgs> handler = new EventHandler<EventArgs>() {
+            @Override
+            public void handleEvent(Object sender, EventArgs e) {
+                calls.incrementAndGet();
+            }
+        };
+
+        event.addEventHandler(handler);
+        event.addEventHandler(handler);
+        event.handleEvent(this, EventArgs.EMPTY);
+
+        assertEquals(1, calls.get());
+
+        event.removeEventHandler(handler);
+        event.handleEvent(this, EventArgs.EMPTY);
+
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    public void handlerCanRemoveItselfDuringDispatch() {
+        final Event<EventArgs> event = new Event<>();
+        final AtomicInteger calls = new AtomicInteger();
+
+        event.addEventHandler(new EventHandler<EventArgs>() {
+            @Override
+            public void handleEvent(Object sender, EventArgs e) {
+                calls.incrementAndGet();
+                event.removeEventHandler(this);
+            }
+        });
+
+        event.handleEvent(this, EventArgs.EMPTY);
+        event.handleEvent(this, EventArgs.EMPTY);
+
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    public void dispatchDoesNotBlockOtherThreads() throws InterruptedException {
+        final Event<EventArgs> event = new Event<>();
+        final CountDownLatch entered = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+
+        event.addEventHandler(new EventHandler<EventArgs>() {
+            @Override
+            public void handleEvent(Object sender, EventArgs e) {
+                entered.countDown();
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+
+        Thread dispatcher = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                event.handleEvent(this, EventArgs.EMPTY);
+            }
+        });
+        dispatcher.start();
+
+        assertTrue(entered.await(5, TimeUnit.SECONDS));
+
+        final AtomicBoolean added = new AtomicBoolean();
+        Thread adder = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                event.addEventHandler(new EventHandler<EventArgs>() {
+                    @Override
+                    public void handleEvent(Object sender, EventArgs e) {
+                    }
+                });
+                added.set(true);
+            }
+        });
+        adder.start();
+        adder.join(5000);
+
+        // the handler is still running, adding another one must not have waited for it
+        assertTrue(added.get());
+
+        release.countDown();
+        dispatcher.join(5000);
+    }
+}
@@ -0,0 +1,62 @@
+package in.dragonbra.javasteam.util.event;
+
+import in.dragonbra.javasteam.TestBase;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class ScheduledFunctionTest extends TestBase {
+
+    @Test
+    public void runsOnConfiguredScheduler() throws InterruptedException {
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+        final CountDownLatch latch = new CountDownLatch(2);
+
+        ScheduledFunction func = new ScheduledFunction(new Runnable() {
+            @Override
+            public void run() {
+                latch.countDown();
+            }
+        }, 10L, scheduler, null);
+
+        func.start();
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        func.stop();
+
+        // the scheduler is shared, stopping the function must not shut it down
+        assertFalse(scheduler.isShutdown());
+        scheduler.shutdown();
+    }
+
+    @Test
+    public void usesThreadFactory() throws InterruptedException {
+        final AtomicInteger threads = new AtomicInteger();
+        final CountDownLatch latch = new CountDownLatch(1);
+
+        ScheduledFunction func = new ScheduledFunction(new Runnable() {
+            @Override
+            public void run() {
+                latch.countDown();
+            }
+        }, 10L, null, new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable r) {
+                threads.incrementAndGet();
+                return new Thread(r);
+            }
+        });
+
+        func.start();
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        func.stop();
+
+        assertEquals(1, threads.get());
+    }
+}
@@ -0,0 +1,37 @@
+package in.dragonbra.javasteam.util.stream;
+
+import in.dragonbra.javasteam.TestBase;
+import in.dragonbra.javasteam.util.BufferPool;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class PooledOutputStreamTest extends TestBase {
+
+    @Test
+    public void growsAndKeepsData() {
+        BufferPool pool = new BufferPool(16, 1024, 4);
+        PooledOutputStream out = new PooledOutputStream(pool, 4);
+
+        byte[] expected = new byte[100];
+        for (int i = 0; i < expected.length; i++) {
+            expected[i] = (byte) i;
+            out.write(i);
+        }
+
+        assertEquals(100, out.size());
+        assertArrayEquals(expected, out.toByteArray());
+    }
+
+    @Test
+    public void closeReturnsBufferToPool() {
+        BufferPool pool = new BufferPool(16, 1024, 4);
+        PooledOutputStream out = new PooledOutputStream(pool, 100);
+        byte[] buffer = out.getBuffer();
+
+        out.write(new byte[10], 0, 10);
+        out.close();
+
+        assertSame(buffer, pool.acquire(100));
+    }
+}